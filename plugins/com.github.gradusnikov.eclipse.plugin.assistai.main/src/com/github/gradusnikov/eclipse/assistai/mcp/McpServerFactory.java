@@ -11,6 +11,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -19,8 +24,12 @@ import org.eclipse.e4.core.di.annotations.Creatable;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.FrameworkUtil;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool;
+import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolCategory;
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolParam;
+import com.github.gradusnikov.eclipse.assistai.mcp.metrics.ToolMetrics;
 import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
 import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationRegistry;
 
@@ -31,6 +40,7 @@ import io.modelcontextprotocol.server.McpServer;
 import io.modelcontextprotocol.server.McpServerFeatures;
 import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
 import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
 import io.modelcontextprotocol.server.transport.HttpServletStreamableServerTransportProvider;
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
@@ -44,11 +54,19 @@ public class McpServerFactory
 
     private final OperationRegistry operationRegistry;
 
-    @Inject
+    private final ToolMetrics       toolMetrics;
+
     public McpServerFactory( ILog logger, OperationRegistry operationRegistry )
+    {
+        this( logger, operationRegistry, new ToolMetrics() );
+    }
+
+    @Inject
+    public McpServerFactory( ILog logger, OperationRegistry operationRegistry, ToolMetrics toolMetrics )
     {
         this.logger = logger;
         this.operationRegistry = operationRegistry;
+        this.toolMetrics = toolMetrics;
     }
 
     private McpSchema.Implementation createImplementationInfo( Object serverImplementation )
@@ -82,9 +100,15 @@ public class McpServerFactory
      *            The tool definition
      * @param args
      *            The arguments for the tool call
+     * @param exchange
+     *            The session the call came in on, used to push the progress of a
+     *            long execution tool; may be null
+     * @param progressToken
+     *            The request's progress token, if the client sent one
      * @return The result of the tool call
      */
-    private CallToolResult executeCallTool( ToolExecutor executor, McpSchema.Tool tool, Map<String, Object> args )
+    private CallToolResult executeCallTool( ToolExecutor executor, McpSchema.Tool tool, Map<String, Object> args, McpSyncServerExchange exchange,
+            Object progressToken )
     {
         try
         {
@@ -93,7 +117,7 @@ public class McpServerFactory
             boolean longExecution = annotation.map( com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool::longExecution ).orElse( Boolean.FALSE );
             if ( longExecution )
             {
-                return executeLongTool( executor, tool, args, annotation.get() );
+                return executeLongTool( executor, tool, args, annotation.get(), exchange, progressToken );
             }
             var result = executor.call( tool.name(), args ).get();
             return createCallToolResult( result );
@@ -114,16 +138,41 @@ public class McpServerFactory
      * which is the whole difference from the old behaviour, where a slow tool
      * was abandoned by the client while still running invisibly, and its result
      * was thrown away.
+     * <p>
+     * Meanwhile its progress, output and eventual completion are pushed to the
+     * client, see {@link OperationNotifier}.
      */
     private CallToolResult executeLongTool( ToolExecutor executor, McpSchema.Tool tool, Map<String, Object> args,
-            com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool annotation )
+            com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool annotation, McpSyncServerExchange exchange, Object progressToken )
     {
         Operation operation = operationRegistry.register( tool.name(), describeArguments( args ) );
+        OperationNotifier notifier = OperationNotifier.attach( operation, exchange, progressToken );
         var future = executor.call( tool.name(), args, operation );
         operationRegistry.attachFuture( operation, future );
 
         int inlineWait = resolveInlineWait( args, annotation );
-        return createCallToolResult( operationRegistry.awaitOrHandOff( operation, inlineWait ) );
+        Object result = operationRegistry.awaitOrHandOff( operation, inlineWait );
+        if ( notifier != null )
+        {
+            if ( future.isDone() )
+            {
+                notifier.close();
+            }
+            else
+            {
+                notifier.handedOff();
+            }
+        }
+        return createCallToolResult( result );
+    }
+
+    /**
+     * The progress token a client attaches to a request when it wants progress
+     * notifications for it.
+     */
+    private static Object progressToken( McpSchema.CallToolRequest request )
+    {
+        return request.meta() == null ? null : request.meta().get( "progressToken" );
     }
 
     /**
@@ -243,7 +292,14 @@ public class McpServerFactory
                     if ( toolParamAnnotation != null )
                     {
                         String name = ToolExecutor.toParamName( param );
-                        properties.put( name, Map.of( "type", toolParamAnnotation.type(), "description", toolParamAnnotation.description() ) );
+                        var property = new LinkedHashMap<String, Object>();
+                        property.put( "type", toolParamAnnotation.type() );
+                        property.put( "description", toolParamAnnotation.description() );
+                        if ( !toolParamAnnotation.items().isEmpty() )
+                        {
+                            property.put( "items", Map.of( "type", toolParamAnnotation.items() ) );
+                        }
+                        properties.put( name, property );
                         if ( toolParamAnnotation.required() )
                         {
                             required.add( name );
@@ -255,8 +311,9 @@ public class McpServerFactory
                 schema.put( "properties", properties );
                 schema.put( "required", required );
                 schema.put( "additionalProperties", false );
+                McpSchema.ToolAnnotations hints = McpSchema.ToolAnnotations.builder().readOnlyHint( toolAnnotation.readOnly() ).build();
                 McpSchema.Tool tool = McpSchema.Tool.builder( toolAnnotation.name(), schema ).title( toolAnnotation.name() )
-                        .description( describeTool( toolAnnotation ) ).build();
+                        .description( describeTool( toolAnnotation ) ).annotations( hints ).build();
                 tools.add( tool );
             }
         }
@@ -286,7 +343,18 @@ public class McpServerFactory
      */
     private List<SyncToolSpecification> createOperationToolSpecifications( String prefix )
     {
-        return createToolSpecifications( new OperationTools( operationRegistry ), Collections.emptySet(), prefix );
+        return createToolSpecifications( new ToolExecutor( new OperationTools( operationRegistry ), toolMetrics ), Collections.emptySet(), prefix );
+    }
+
+    /**
+     * Adds the batch tool to any server that declares a read-only tool. The batch
+     * dispatches through the server's own executor, so its entries are recorded
+     * in the tool metrics under their own names.
+     */
+    private List<SyncToolSpecification> createBatchToolSpecifications( ToolExecutor executor, Set<String> excluded, String prefix )
+    {
+        return createToolSpecifications( new ToolExecutor( new BatchTools( executor, operationRegistry, excluded, prefix ), toolMetrics ),
+                Collections.emptySet(), prefix );
     }
 
     static final class OperationTools
@@ -299,13 +367,17 @@ public class McpServerFactory
         }
 
         @Tool( name = "getOperationStatus",
+               category = ToolCategory.CONTROL,
                description = "Reports on a long running operation: its state, elapsed time, progress, "
                    + "result once finished, and optionally process output and/or typed intermediate results "
                    + "(e.g. JUnit 'summary' or 'results' published per test while the run is still going). "
                    + "When waitSeconds is omitted, an auto-increasing backoff is used per operation: "
                    + "2 s, 3 s, 5 s, 10 s, 15 s (capped). Pass an explicit value to override. "
                    + "While the operation is RUNNING, all published intermediate results are always shown. "
-                   + "After it finishes, pass includeResults to retrieve specific types.",
+                   + "After it finishes, pass includeResults to retrieve specific types. "
+                   + "Pass wakeOn='change' to return as soon as progress is reported instead of only on completion. "
+                   + "Clients that show MCP log notifications also get the operation's output and a completion notice pushed, "
+                   + "so there is no need to poll just to find out whether it has finished.",
                type = "object" )
         public String getOperationStatus(
                 @ToolParam( name = "operationId",
@@ -335,7 +407,19 @@ public class McpServerFactory
                                 + "qualifier ('intermediate' if still running, 'final' if finished), "
                                 + "similar to how console output is hinted when outputLimit is not set.",
                             required = false )
-                String includeResults )
+                String includeResults,
+                @ToolParam( name = "wakeOn",
+                            description = "When to end the wait: 'finish' (default) waits for the operation to finish; "
+                                + "'change' also returns as soon as it reports progress or new results, or leaves the queue.",
+                            required = false )
+                String wakeOn,
+                @ToolParam( name = "outputFilter",
+                            description = "Regular expression to search the output with (e.g. 'ERROR|FAIL', 'Tests run:'). "
+                                + "Lists the matching lines with their line numbers, starting at outputOffset, up to outputLimit "
+                                + "(default 100) of them, instead of a page. Searches the complete output of test runs and launches, "
+                                + "even lines that no longer fit in memory.",
+                            required = false )
+                String outputFilter )
         {
             // null/blank waitSeconds → -1 → auto-backoff in the registry
             int wait = ( waitSeconds == null || waitSeconds.isBlank() ) ? -1 : intArg( waitSeconds, 0 );
@@ -344,17 +428,19 @@ public class McpServerFactory
                 intArg( outputOffset, 0 ),
                 intArg( outputLimit, 0 ),
                 wait,
-                ( includeResults == null || includeResults.isBlank() ) ? null : includeResults );
+                ( includeResults == null || includeResults.isBlank() ) ? null : includeResults,
+                "change".equalsIgnoreCase( wakeOn == null ? "" : wakeOn.trim() ),
+                ( outputFilter == null || outputFilter.isBlank() ) ? null : outputFilter );
         }
 
 
-        @Tool( name = "listOperations", description = "Lists long running operations - those still running and the last few that finished - with their operationId, state and elapsed time.", type = "object" )
+        @Tool( name = "listOperations", category = ToolCategory.CONTROL, description = "Lists long running operations - those still running and the last few that finished - with their operationId, state and elapsed time.", type = "object" )
         public String listOperations()
         {
             return operationRegistry.listOperations();
         }
 
-        @Tool( name = "cancelOperation", description = "Stops a running operation - terminating the test JVM, build or search behind it. Use when an operation is stuck or no longer needed.", type = "object" )
+        @Tool( name = "cancelOperation", category = ToolCategory.CONTROL, description = "Stops a running operation - terminating the test JVM, build or search behind it. Use when an operation is stuck or no longer needed.", type = "object" )
         public String cancelOperation( @ToolParam( name = "operationId", description = "The operationId to stop (e.g. 'op-3')." )
         String operationId )
         {
@@ -362,6 +448,286 @@ public class McpServerFactory
         }
     }
 
+    /**
+     * Runs several read-only tool calls of one server in a single round trip.
+     * <p>
+     * Agents tend to gather context with a string of small reads - an outline, a
+     * method, its references, the compile errors - and pay a client round trip and
+     * a model turn for each. Here they are started together on the tool executor
+     * and collected under one deadline. Each entry reports its own result or error
+     * in the order given; one failing entry never fails the batch. Tools not marked
+     * {@link Tool#readOnly()} are refused rather than serialised, so nothing that
+     * changes the workspace ever runs alongside something else.
+     */
+    static final class BatchTools
+    {
+        static final int                MAX_CALLS       = 20;
+
+        static final int                DEFAULT_TIMEOUT = 60;
+
+        static final int                MAX_TIMEOUT     = 300;
+
+        private static final ObjectMapper MAPPER        = new ObjectMapper();
+
+        private final ToolExecutor      executor;
+
+        private final OperationRegistry operationRegistry;
+
+        private final Set<String>       excluded;
+
+        private final String            prefix;
+
+        BatchTools( ToolExecutor executor, OperationRegistry operationRegistry, Set<String> excluded, String prefix )
+        {
+            this.executor = executor;
+            this.operationRegistry = operationRegistry;
+            this.excluded = excluded;
+            this.prefix = prefix == null ? "" : prefix;
+        }
+
+        @Tool( name = "batch",
+               description = "Runs up to " + MAX_CALLS + " read-only tool calls of this server concurrently and returns all their results "
+                   + "in one reply, in the order given. Use it instead of a series of separate calls when you already know which "
+                   + "files, types or searches you need. Each entry succeeds or fails on its own. Only read-only tools can be "
+                   + "batched; tools that edit, build, launch or refactor are refused and must be called directly.",
+               type = "object" )
+        public String batch(
+                @ToolParam( name = "calls",
+                            description = "Array of calls, each an object {\"tool\": \"<tool name>\", \"arguments\": {<the tool's arguments>}}, "
+                                + "e.g. [{\"tool\": \"getClassOutline\", \"arguments\": {\"fullyQualifiedClassName\": \"a.B\"}}].",
+                            type = "array",
+                            items = "object" )
+                Object calls,
+                @ToolParam( name = "timeout",
+                            description = "Seconds to wait for the whole batch (default: " + DEFAULT_TIMEOUT + ", max: " + MAX_TIMEOUT + "). "
+                                + "Entries still running then are reported as such; long running ones hand back an operationId.",
+                            required = false )
+                String timeout )
+        {
+            List<BatchEntry> entries;
+            try
+            {
+                entries = parseCalls( calls );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                return "Error: " + e.getMessage();
+            }
+            if ( entries.isEmpty() )
+            {
+                return "Error: calls is empty.";
+            }
+            if ( entries.size() > MAX_CALLS )
+            {
+                return "Error: a batch takes at most " + MAX_CALLS + " calls, got " + entries.size() + ".";
+            }
+
+            int timeoutSeconds = Math.min( MAX_TIMEOUT, Math.max( 0, intArg( timeout, DEFAULT_TIMEOUT ) ) );
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( timeoutSeconds );
+
+            // Start everything before waiting on anything.
+            entries.forEach( this::start );
+
+            StringBuilder sb = new StringBuilder();
+            for ( int i = 0; i < entries.size(); i++ )
+            {
+                BatchEntry entry = entries.get( i );
+                String result = entry.error != null ? entry.error : collect( entry, deadline, timeoutSeconds );
+                sb.append( "[" ).append( i + 1 ).append( "] " ).append( entry.toolName );
+                if ( entry.future != null )
+                {
+                    sb.append( " (" ).append( TimeUnit.NANOSECONDS.toMillis( entry.elapsed() ) ).append( " ms)" );
+                }
+                sb.append( "\n" ).append( result ).append( "\n\n" );
+            }
+            return sb.toString().stripTrailing();
+        }
+
+        private void start( BatchEntry entry )
+        {
+            if ( entry.error != null )
+            {
+                return;
+            }
+            String name = entry.toolName.startsWith( prefix ) ? entry.toolName.substring( prefix.length() ) : entry.toolName;
+            var annotation = executor.getToolAnnotation( name );
+            if ( annotation.isEmpty() || excluded.contains( name ) || excluded.contains( entry.toolName ) )
+            {
+                entry.error = "Error: unknown tool '" + entry.toolName + "'.";
+                return;
+            }
+            if ( !annotation.get().readOnly() )
+            {
+                entry.error = "Error: " + entry.toolName + " is not read-only and cannot be batched; call it directly.";
+                return;
+            }
+            // Every entry runs as an operation, so one that misses the deadline can be
+            // stopped; only long running ones are listed, to be collected later.
+            entry.longExecution = annotation.get().longExecution();
+            entry.operation = entry.longExecution ? operationRegistry.register( name, "batch" ) : operationRegistry.unlisted( name, "batch" );
+            entry.started = System.nanoTime();
+            CompletableFuture<Object> future;
+            try
+            {
+                future = executor.call( name, entry.arguments, entry.operation );
+            }
+            catch ( RuntimeException e )
+            {
+                // Rejected arguments: end the operation rather than leave it pending.
+                future = CompletableFuture.failedFuture( e );
+                entry.error = "Error: " + ExceptionUtils.getRootCauseMessage( e );
+            }
+            operationRegistry.attachFuture( entry.operation, future );
+            if ( entry.error == null )
+            {
+                entry.future = future;
+                entry.future.whenComplete( ( result, error ) -> entry.finished = System.nanoTime() );
+            }
+        }
+
+        private String collect( BatchEntry entry, long deadline, int timeoutSeconds )
+        {
+            long remaining = Math.max( 0, deadline - System.nanoTime() );
+            if ( entry.longExecution )
+            {
+                int seconds = (int) Math.max( entry.future.isDone() ? 1 : 0, TimeUnit.NANOSECONDS.toSeconds( remaining ) );
+                return textOf( operationRegistry.awaitOrHandOff( entry.operation, seconds ) );
+            }
+            try
+            {
+                return textOf( entry.future.get( remaining, TimeUnit.NANOSECONDS ) );
+            }
+            catch ( TimeoutException e )
+            {
+                // Give back its lane slot and worker rather than leave it running unseen.
+                entry.operation.cancel();
+                return "Error: did not finish within the batch timeout of " + timeoutSeconds
+                        + "s and was cancelled. Call it on its own, or retry with a larger timeout.";
+            }
+            catch ( ExecutionException | CancellationException e )
+            {
+                return "Error: " + ExceptionUtils.getRootCauseMessage( e );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                return "Error: interrupted";
+            }
+        }
+
+        /**
+         * The text of an entry's result. A batch reply is a single text block, so
+         * images and embedded resources are only mentioned; fetch them with a
+         * direct call.
+         */
+        static String textOf( Object result )
+        {
+            return switch ( result )
+            {
+                case null -> "";
+                case CallToolResult callToolResult -> callToolResult.content().stream().map( BatchTools::textOf )
+                        .collect( Collectors.joining( "\n" ) );
+                case McpSchema.TextContent text -> text.text();
+                case McpSchema.Content content -> "[" + content.type() + " content omitted; call the tool directly to get it]";
+                case Collection<?> items -> items.stream().map( BatchTools::textOf ).collect( Collectors.joining( "\n" ) );
+                default -> result.toString();
+            };
+        }
+
+        /**
+         * Accepts the calls as a JSON array, or as a string holding one - not every
+         * client sends structured arguments for array parameters.
+         */
+        static List<BatchEntry> parseCalls( Object calls )
+        {
+            Object parsed = calls;
+            if ( calls instanceof String json )
+            {
+                try
+                {
+                    parsed = MAPPER.readValue( json, List.class );
+                }
+                catch ( JsonProcessingException e )
+                {
+                    throw new IllegalArgumentException( "calls is not a JSON array: " + e.getOriginalMessage() );
+                }
+            }
+            if ( !( parsed instanceof List<?> list ) )
+            {
+                throw new IllegalArgumentException( "calls must be an array of {\"tool\": ..., \"arguments\": {...}} objects." );
+            }
+            List<BatchEntry> entries = new ArrayList<>();
+            for ( Object item : list )
+            {
+                entries.add( parseCall( item ) );
+            }
+            return entries;
+        }
+
+        @SuppressWarnings( "unchecked" )
+        private static BatchEntry parseCall( Object item )
+        {
+            if ( !( item instanceof Map<?, ?> call ) || !( call.get( "tool" ) instanceof String tool ) || tool.isBlank() )
+            {
+                BatchEntry entry = new BatchEntry( String.valueOf( item ), Map.of() );
+                entry.error = "Error: expected {\"tool\": \"<name>\", \"arguments\": {...}}.";
+                return entry;
+            }
+            Object arguments = call.get( "arguments" );
+            if ( arguments instanceof String json && !json.isBlank() )
+            {
+                try
+                {
+                    arguments = MAPPER.readValue( json, Map.class );
+                }
+                catch ( JsonProcessingException e )
+                {
+                    BatchEntry entry = new BatchEntry( tool, Map.of() );
+                    entry.error = "Error: arguments is not a JSON object: " + e.getOriginalMessage();
+                    return entry;
+                }
+            }
+            if ( arguments != null && !( arguments instanceof Map ) && !( arguments instanceof String ) )
+            {
+                BatchEntry entry = new BatchEntry( tool, Map.of() );
+                entry.error = "Error: arguments must be an object.";
+                return entry;
+            }
+            return new BatchEntry( tool.trim(), arguments instanceof Map ? new LinkedHashMap<>( (Map<String, Object>) arguments ) : Map.of() );
+        }
+
+        static final class BatchEntry
+        {
+            final String              toolName;
+
+            final Map<String, Object> arguments;
+
+            String                    error;
+
+            Operation                 operation;
+
+            boolean                   longExecution;
+
+            CompletableFuture<Object> future;
+
+            long                      started;
+
+            volatile long             finished;
+
+            BatchEntry( String toolName, Map<String, Object> arguments )
+            {
+                this.toolName = toolName;
+                this.arguments = arguments;
+            }
+
+            long elapsed()
+            {
+                long end = finished;
+                return ( end > 0 ? end : System.nanoTime() ) - started;
+            }
+        }
+    }
+
     private static int intArg( String value, int fallback )
     {
         if ( value == null || value.isBlank() )
@@ -442,36 +808,63 @@ public class McpServerFactory
     {
         var excluded = Set.copyOf( excludedTools );
         var prefix = ( toolPrefix != null && !toolPrefix.isBlank() ) ? toolPrefix : "";
-        var executor = new ToolExecutor( serverImplementation );
-        var tools = extractAnnotatedTools( executor.getFunctions() );
-        if ( tools.isEmpty() )
+        var executor = new ToolExecutor( serverImplementation, toolMetrics );
+        var toolSpecifications = createToolSpecifications( executor, excluded, prefix );
+        if ( toolSpecifications.isEmpty() )
         {
             logger.warn( "No tools found in " + serverImplementation.getClass() );
         }
-        var toolSpecifications = tools.stream().filter( tool -> !excluded.contains( tool.name() ) ).map( tool -> {
-            var prefixedTool = prefix.isEmpty() ? tool
-                    : McpSchema.Tool.builder( prefix + tool.name(), tool.inputSchema() ).title( prefix + tool.name() ).description( tool.description() )
-                            .outputSchema( tool.outputSchema() ).annotations( tool.annotations() ).meta( tool.meta() ).build();
-            return McpServerFeatures.SyncToolSpecification.builder().tool( prefixedTool )
-                    .callHandler( ( exchange, request ) -> executeCallTool( executor, tool, request.arguments() ) ).build();
-        } ).collect( Collectors.toList() );
 
-        boolean hasLongExecutionTool = Arrays.stream( executor.getFunctions() )
+        var annotations = Arrays.stream( executor.getFunctions() )
                 .map( method -> method.getAnnotation( com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool.class ) ).filter( Objects::nonNull )
-                .anyMatch( com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool::longExecution );
+                .toList();
+        boolean hasLongExecutionTool = annotations.stream().anyMatch( com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool::longExecution );
+        boolean hasReadOnlyTool = annotations.stream().anyMatch( com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool::readOnly );
+        if ( !hasLongExecutionTool && !hasReadOnlyTool )
+        {
+            return toolSpecifications;
+        }
+        var withHelperTools = new ArrayList<>( toolSpecifications );
         if ( hasLongExecutionTool )
         {
-            var withOperationTools = new ArrayList<>( toolSpecifications );
-            createOperationToolSpecifications( prefix ).stream().filter( spec -> !excluded.contains( spec.tool().name() ) ).forEach( withOperationTools::add );
-            return withOperationTools;
+            createOperationToolSpecifications( prefix ).stream().filter( spec -> !excluded.contains( spec.tool().name() ) ).forEach( withHelperTools::add );
+        }
+        if ( hasReadOnlyTool )
+        {
+            createBatchToolSpecifications( executor, excluded, prefix ).stream().filter( spec -> !excluded.contains( spec.tool().name() ) )
+                    .forEach( withHelperTools::add );
         }
-        return toolSpecifications;
+        return withHelperTools;
+    }
+
+    /**
+     * The specifications of an executor's own tools, without the shared operation
+     * and batch tools - which is also how those helper tools are built, so that
+     * they never get helpers of their own.
+     */
+    private List<SyncToolSpecification> createToolSpecifications( ToolExecutor executor, Set<String> excluded, String prefix )
+    {
+        var tools = extractAnnotatedTools( executor.getFunctions() );
+        return tools.stream().filter( tool -> !excluded.contains( tool.name() ) ).map( tool -> {
+            var prefixedTool = prefix.isEmpty() ? tool
+                    : McpSchema.Tool.builder( prefix + tool.name(), tool.inputSchema() ).title( prefix + tool.name() ).description( tool.description() )
+                            .outputSchema( tool.outputSchema() ).annotations( tool.annotations() ).meta( tool.meta() ).build();
+            return McpServerFeatures.SyncToolSpecification.builder().tool( prefixedTool )
+                    .callHandler( ( exchange, request ) -> executeCallTool( executor, tool, request.arguments(), exchange, progressToken( request ) ) )
+                    .build();
+        } ).collect( Collectors.toList() );
     }
 
     public List<String> listToolNames( Object serverImplementation )
+    {
+        return listTools( serverImplementation ).stream().map( McpSchema.Tool::name ).collect( Collectors.toList() );
+    }
+
+    /** The tools of a server as clients see them, without the shared helper tools. */
+    List<McpSchema.Tool> listTools( Object serverImplementation )
     {
         var executor = new ToolExecutor( serverImplementation );
-        return extractAnnotatedTools( executor.getFunctions() ).stream().map( McpSchema.Tool::name ).collect( Collectors.toList() );
+        return extractAnnotatedTools( executor.getFunctions() );
     }
 
     private void requireMcpServerAnnotation( Object serverImplementation )
@@ -0,0 +1,231 @@
+package com.github.gradusnikov.eclipse.assistai.mcp;
+
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationOutputBuffer;
+
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+
+/**
+ * Pushes an operation's progress, output and completion to the client that
+ * started it, so an agent does not have to spend a turn per poll just to learn
+ * that a build is still running.
+ * <p>
+ * While the tool call is still open, progress goes out as MCP progress
+ * notifications against the request's progress token, if the client sent one.
+ * New output lines and, once the call has been handed off, the completion notice
+ * go out as MCP log notifications, which belong to the session rather than the
+ * request and so may outlive it - over the streamable HTTP transport they arrive
+ * on the client's listening stream.
+ * <p>
+ * Changes are coalesced: an operation can produce thousands of output lines a
+ * second, so at most one notification of each kind is sent per
+ * {@value #INTERVAL_MILLIS} ms.
+ */
+final class OperationNotifier implements Consumer<Operation>
+{
+    static final long                               INTERVAL_MILLIS = 1000;
+
+    /** Output lines sent per log notification; the rest follows on the next tick. */
+    static final int                                MAX_LINES       = 50;
+
+    private static final ScheduledExecutorService   FLUSHER         = Executors.newSingleThreadScheduledExecutor( runnable -> {
+        Thread thread = new Thread( runnable, "assistai-mcp-operation-notifier" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    private final Operation                         operation;
+
+    private final McpSyncServerExchange             exchange;
+
+    private final Object                            progressToken;
+
+    private final AtomicBoolean                     scheduled       = new AtomicBoolean();
+
+    private volatile boolean                        requestOpen     = true;
+
+    private volatile boolean                        closed;
+
+    // Only touched on the flusher thread.
+    private int                                     nextLine;
+
+    private int                                     progress;
+
+    private OperationNotifier( Operation operation, McpSyncServerExchange exchange, Object progressToken )
+    {
+        this.operation = operation;
+        this.exchange = exchange;
+        this.progressToken = progressToken;
+    }
+
+    /**
+     * Starts forwarding the operation's changes. Returns {@code null} when there is
+     * no client to notify - a call made from inside the IDE rather than over MCP.
+     */
+    static OperationNotifier attach( Operation operation, McpSyncServerExchange exchange, Object progressToken )
+    {
+        if ( exchange == null )
+        {
+            return null;
+        }
+        OperationNotifier notifier = new OperationNotifier( operation, exchange, progressToken );
+        operation.addChangeListener( notifier );
+        return notifier;
+    }
+
+    /**
+     * The call returned its result inline, which says everything the
+     * notifications would have.
+     */
+    void close()
+    {
+        closed = true;
+        operation.removeChangeListener( this );
+    }
+
+    /**
+     * The call returned an operation id instead of a result. Its progress token
+     * is no longer valid, but output and the completion notice keep coming.
+     */
+    void handedOff()
+    {
+        boolean missedCompletion;
+        synchronized ( this )
+        {
+            requestOpen = false;
+            // A flush that saw the end while the call was still open closed without
+            // the notice, expecting the result to go back inline.
+            missedCompletion = closed && operation.isTerminal();
+        }
+        if ( missedCompletion )
+        {
+            FLUSHER.execute( () -> {
+                try
+                {
+                    sendCompletion();
+                }
+                catch ( RuntimeException e )
+                {
+                    // The client or its session is gone.
+                }
+            } );
+            return;
+        }
+        // Pick up anything that changed while the call was returning.
+        accept( operation );
+    }
+
+    @Override
+    public void accept( Operation changed )
+    {
+        if ( !closed && scheduled.compareAndSet( false, true ) )
+        {
+            FLUSHER.schedule( this::flush, INTERVAL_MILLIS, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    private void flush()
+    {
+        scheduled.set( false );
+        if ( closed )
+        {
+            return;
+        }
+        try
+        {
+            boolean more = sendOutput();
+            if ( requestOpen && progressToken != null )
+            {
+                sendProgress();
+            }
+            if ( operation.isTerminal() && !more )
+            {
+                boolean handedOff = closeAtEnd();
+                operation.removeChangeListener( this );
+                if ( handedOff )
+                {
+                    sendCompletion();
+                }
+            }
+            else if ( more )
+            {
+                accept( operation );
+            }
+        }
+        catch ( RuntimeException e )
+        {
+            // The client or its session is gone; the operation carries on regardless.
+            close();
+        }
+    }
+
+    /**
+     * Closes once the operation has ended. Decided together with
+     * {@link #handedOff()}, so exactly one of them sends the completion notice.
+     *
+     * @return true if the call has been handed off and the notice is due
+     */
+    private synchronized boolean closeAtEnd()
+    {
+        closed = true;
+        return !requestOpen;
+    }
+
+    /** @return true if there are more lines than fit in one notification */
+    private boolean sendOutput()
+    {
+        int wanted = nextLine;
+        OperationOutputBuffer.Page page = operation.output().page( wanted, MAX_LINES );
+        nextLine = page.nextOffset();
+        if ( page.lines().isEmpty() )
+        {
+            return false;
+        }
+        StringBuilder sb = new StringBuilder();
+        if ( page.firstIndex() > wanted )
+        {
+            // Evicted from the buffer before we got to them.
+            sb.append( "... " ).append( page.firstIndex() - wanted ).append( " lines skipped\n" );
+        }
+        page.lines().forEach( line -> sb.append( line ).append( "\n" ) );
+        log( McpSchema.LoggingLevel.INFO, sb.toString().stripTrailing() );
+        return page.nextOffset() < page.totalLines();
+    }
+
+    private void sendProgress()
+    {
+        String message = operation.getQueueStatus();
+        if ( message == null )
+        {
+            message = operation.getProgress();
+        }
+        if ( message == null )
+        {
+            message = String.format( Locale.ROOT, "running for %.0fs, %d output lines", operation.elapsedSeconds(), operation.output().totalLines() );
+        }
+        // Progress must increase with every notification; there is no meaningful total.
+        exchange.progressNotification( new McpSchema.ProgressNotification( progressToken, ++progress, null, message ) );
+    }
+
+    private void sendCompletion()
+    {
+        String id = operation.getId();
+        String text = String.format( Locale.ROOT, "%s (%s) %s after %.1fs. Collect it with getOperationStatus(operationId=\"%s\").", id,
+                operation.getToolName(), operation.getState(), operation.elapsedSeconds(), id );
+        log( McpSchema.LoggingLevel.NOTICE, text );
+    }
+
+    private void log( McpSchema.LoggingLevel level, String text )
+    {
+        exchange.loggingNotification(
+                McpSchema.LoggingMessageNotification.builder().level( level ).logger( operation.getId() + " " + operation.getToolName() ).data( text ).build() );
+    }
+}
@@ -12,38 +12,63 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Collection;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
 import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationContext;
 import java.util.function.Predicate;
 
+import org.eclipse.core.runtime.OperationCanceledException;
+
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool;
+import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolCategory;
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolParam;
+import com.github.gradusnikov.eclipse.assistai.mcp.metrics.ToolMetrics;
+import com.github.gradusnikov.eclipse.assistai.mcp.metrics.ToolStats;
+
+import io.modelcontextprotocol.spec.McpSchema;
 
 public class ToolExecutor
 {
+    Object functions;
+
+    private final ToolMetrics metrics;
+
     /**
      * Tool bodies run here rather than on {@link java.util.concurrent.ForkJoinPool}'s
      * common pool, which they used to occupy: a long execution tool parks its worker
      * for as long as the underlying build, search or test run takes, and the common
      * pool is shared with the rest of the JVM.
-     * <p>
-     * The pool grows on demand on purpose. A bounded one would let a handful of slow
-     * tools fill every slot and queue up the very calls needed to poll or cancel them.
      */
-    private static final ExecutorService TOOL_EXECUTOR = Executors.newCachedThreadPool( new ToolThreadFactory() );
-
-    Object functions;
+    private final ToolScheduler scheduler;
     
     public ToolExecutor( Object functions )
+    {
+        this( functions, new ToolMetrics() );
+    }
+
+    /**
+     * @param metrics where to record each call's latency, queue wait, result size
+     *                and outcome; shared by every server so the numbers can be
+     *                compared across tools
+     */
+    public ToolExecutor( Object functions, ToolMetrics metrics )
+    {
+        this( functions, metrics, ToolScheduler.getDefault() );
+    }
+
+    /**
+     * @param scheduler runs the tool bodies in their {@link ToolCategory} lanes;
+     *                  shared by every server so the lane limits hold across them
+     */
+    public ToolExecutor( Object functions, ToolMetrics metrics, ToolScheduler scheduler )
     {
         this.functions = functions;
+        this.metrics = Objects.requireNonNull( metrics );
+        this.scheduler = Objects.requireNonNull( scheduler );
     }
     
     /**
@@ -80,8 +105,9 @@ public class ToolExecutor
         Map<String, Object> safeArgs = Optional.ofNullable( args ).orElseGet( Map::of );
         validateArguments( name, method, safeArgs );
         Object[] argValues = mapArguments( method, safeArgs );
+        ToolStats stats = metrics.stats( name );
         Supplier<Object> body = () -> invokeMethod( method, argValues );
-        Supplier<Object> task = operation == null ? body : () -> {
+        Supplier<Object> work = operation == null ? body : () -> {
             // The worker has to be reachable for cancellation to interrupt it.
             operation.attachWorkerThread( Thread.currentThread() );
             try
@@ -95,8 +121,82 @@ public class ToolExecutor
                 Thread.interrupted();
             }
         };
-        CompletableFuture<Object> future = CompletableFuture.supplyAsync( task, TOOL_EXECUTOR );
-        return future;
+        long submitted = System.nanoTime();
+        Supplier<Object> task = () -> {
+            long started = System.nanoTime();
+            metrics.started( stats, started - submitted );
+            ToolStats.Outcome outcome = ToolStats.Outcome.ERROR;
+            long chars = 0;
+            try
+            {
+                Object result = work.get();
+                chars = resultChars( result );
+                outcome = isErrorText( result ) ? ToolStats.Outcome.ERROR : ToolStats.Outcome.SUCCESS;
+                return result;
+            }
+            catch ( RuntimeException | Error e )
+            {
+                outcome = isCancellation( e, operation ) ? ToolStats.Outcome.CANCELLED : ToolStats.Outcome.ERROR;
+                throw e;
+            }
+            finally
+            {
+                metrics.finished( stats, System.nanoTime() - started, chars, outcome );
+            }
+        };
+        ToolCategory category = Optional.ofNullable( method.getAnnotation( Tool.class ) ).map( Tool::category ).orElse( ToolCategory.GENERAL );
+        return scheduler.submit( category, task, operation );
+    }
+
+    /**
+     * Size of a tool result in characters, for the result size metrics. Only text
+     * is counted; images and other binary content are not what fills a context window
+     * with tokens.
+     */
+    static long resultChars( Object result )
+    {
+        return switch ( result )
+        {
+            case null -> 0;
+            case CharSequence text -> text.length();
+            case McpSchema.TextContent content -> content.text() == null ? 0 : content.text().length();
+            case McpSchema.CallToolResult callToolResult -> resultChars( callToolResult.content() );
+            case Collection<?> items -> {
+                long total = 0;
+                for ( Object item : items )
+                {
+                    total += resultChars( item );
+                }
+                yield total;
+            }
+            default -> 0;
+        };
+    }
+
+    /**
+     * Most services report failure by returning an "Error: ..." message rather than
+     * throwing, so such a reply counts as an error too.
+     */
+    private static boolean isErrorText( Object result )
+    {
+        return result instanceof String text && text.startsWith( "Error:" );
+    }
+
+    private static boolean isCancellation( Throwable error, Operation operation )
+    {
+        if ( operation != null && operation.isCancelRequested() )
+        {
+            return true;
+        }
+        for ( Throwable cause = error; cause != null; cause = cause.getCause() )
+        {
+            if ( cause instanceof InterruptedException || cause instanceof CancellationException
+                    || cause instanceof OperationCanceledException )
+            {
+                return true;
+            }
+        }
+        return false;
     }
     /**
      * Validates a tool call against its annotated Java method before any tool code
@@ -241,20 +341,6 @@ public class ToolExecutor
                 .map( method -> method.getAnnotation( com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool.class ) );
     }
 
-    /** Names the tool threads, so a stuck tool is identifiable in a thread dump. */
-    private static final class ToolThreadFactory implements ThreadFactory
-    {
-        private final AtomicLong counter = new AtomicLong();
-
-        @Override
-        public Thread newThread( Runnable runnable )
-        {
-            Thread thread = new Thread( runnable, "assistai-mcp-tool-" + counter.incrementAndGet() );
-            thread.setDaemon( true );
-            return thread;
-        }
-    }
-
     /**
      * Retrieves the name of the function based on the provided Method object.
      *
@@ -0,0 +1,295 @@
+package com.github.gradusnikov.eclipse.assistai.mcp;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolCategory;
+import com.github.gradusnikov.eclipse.assistai.mcp.metrics.LatencyHistogram;
+import com.github.gradusnikov.eclipse.assistai.mcp.metrics.ToolMetrics;
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
+
+/**
+ * Runs tool bodies, rationing the heavy ones per {@link ToolCategory}.
+ * <p>
+ * Tool threads come from a pool that grows on demand, as before: a bounded pool
+ * would let a handful of slow tools fill every slot and queue up the very calls
+ * needed to poll or cancel them. What is bounded instead is how many builds, test
+ * runs and workspace-wide searches may run at the same time. Calls beyond a lane's
+ * limit wait in that lane's queue, in arrival order, without holding a thread;
+ * each finishing call hands its slot to the next one. Control calls run on
+ * threads of their own and are never queued at all.
+ * <p>
+ * Limits default to one build, two test runs and half the processors' worth of
+ * searches, and can be changed with the system properties
+ * {@code assistai.mcp.lane.build}, {@code assistai.mcp.lane.test} and
+ * {@code assistai.mcp.lane.search}; zero or less means unlimited.
+ */
+public class ToolScheduler
+{
+    static final String                  LIMIT_PROPERTY_PREFIX = "assistai.mcp.lane.";
+
+    private static final ToolScheduler   DEFAULT               = new ToolScheduler( defaultLimits() );
+
+    private final ExecutorService        workers               = Executors.newCachedThreadPool( new ToolThreadFactory( "assistai-mcp-tool-" ) );
+
+    private final ExecutorService        control               = Executors.newCachedThreadPool( new ToolThreadFactory( "assistai-mcp-control-" ) );
+
+    private final Map<ToolCategory, Lane> lanes                = new EnumMap<>( ToolCategory.class );
+
+    /**
+     * @param limits concurrent calls allowed per lane; lanes that are missing, or
+     *               have a limit of zero or less, are unlimited
+     */
+    public ToolScheduler( Map<ToolCategory, Integer> limits )
+    {
+        for ( ToolCategory category : ToolCategory.values() )
+        {
+            int limit = category == ToolCategory.CONTROL ? 0 : limits.getOrDefault( category, 0 );
+            lanes.put( category, new Lane( category, limit ) );
+        }
+    }
+
+    /** The scheduler shared by every MCP server, so the limits hold across all of them. */
+    public static ToolScheduler getDefault()
+    {
+        return DEFAULT;
+    }
+
+    static Map<ToolCategory, Integer> defaultLimits()
+    {
+        int processors = Runtime.getRuntime().availableProcessors();
+        Map<ToolCategory, Integer> limits = new EnumMap<>( ToolCategory.class );
+        limits.put( ToolCategory.BUILD, limitProperty( ToolCategory.BUILD, 1 ) );
+        limits.put( ToolCategory.TEST, limitProperty( ToolCategory.TEST, 2 ) );
+        limits.put( ToolCategory.SEARCH, limitProperty( ToolCategory.SEARCH, Math.max( 2, processors / 2 ) ) );
+        return limits;
+    }
+
+    private static int limitProperty( ToolCategory category, int fallback )
+    {
+        return Integer.getInteger( LIMIT_PROPERTY_PREFIX + category.name().toLowerCase( Locale.ROOT ), fallback );
+    }
+
+    /**
+     * Schedules a tool body in its lane.
+     *
+     * @param operation the operation the call runs as, or {@code null}; while the
+     *                  call waits for a slot, the operation reports its place in
+     *                  the queue
+     * @return completes with the body's result; cancelling it while the call is
+     *         still queued means the body never runs
+     */
+    public CompletableFuture<Object> submit( ToolCategory category, Supplier<Object> body, Operation operation )
+    {
+        Lane lane = lanes.get( category == null ? ToolCategory.GENERAL : category );
+        Pending pending = new Pending( body, new CompletableFuture<>(), operation, System.nanoTime() );
+        lane.submit( pending );
+        return pending.future;
+    }
+
+    public int limit( ToolCategory category )
+    {
+        return lanes.get( category ).limit;
+    }
+
+    public int running( ToolCategory category )
+    {
+        return lanes.get( category ).running();
+    }
+
+    public int queued( ToolCategory category )
+    {
+        return lanes.get( category ).queued();
+    }
+
+    /** Calls that found their lane full and had to wait, since startup. */
+    public long queuedTotal( ToolCategory category )
+    {
+        return lanes.get( category ).queuedTotal.get();
+    }
+
+    /** Time calls spent waiting for a slot, including the ones that did not wait at all. */
+    public LatencyHistogram queueWait( ToolCategory category )
+    {
+        return lanes.get( category ).waits;
+    }
+
+    /** One line per lane: limit, slots in use, queue depth and wait percentiles. */
+    public String formatLanes()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append( String.format( Locale.ROOT, "%-8s %5s %5s %6s %8s %8s %8s%n", "lane", "limit", "run", "queued", "waited", "wait95", "waitMax" ) );
+        for ( Lane lane : lanes.values() )
+        {
+            sb.append( String.format( Locale.ROOT, "%-8s %5s %5d %6d %8d %8s %8s%n", lane.name(), lane.limit > 0 ? String.valueOf( lane.limit ) : "-",
+                    lane.running(), lane.queued(), lane.queuedTotal.get(), ToolMetrics.micros( lane.waits.percentileMicros( 95 ) ),
+                    ToolMetrics.micros( lane.waits.maxMicros() ) ) );
+        }
+        return sb.toString();
+    }
+
+    private record Pending( Supplier<Object> body, CompletableFuture<Object> future, Operation operation, long submittedNanos )
+    {
+    }
+
+    /**
+     * The slots and the queue of one category. The queue is only touched under the
+     * lane's monitor; the bodies run outside it.
+     */
+    private final class Lane
+    {
+        private final ToolCategory        category;
+
+        private final int                 limit;
+
+        private final ArrayDeque<Pending> queue       = new ArrayDeque<>();
+
+        private final LatencyHistogram    waits       = new LatencyHistogram();
+
+        private final AtomicLong          queuedTotal = new AtomicLong();
+
+        private int                       running;
+
+        Lane( ToolCategory category, int limit )
+        {
+            this.category = category;
+            this.limit = limit;
+        }
+
+        String name()
+        {
+            return category.name().toLowerCase( Locale.ROOT );
+        }
+
+        synchronized int running()
+        {
+            return running;
+        }
+
+        synchronized int queued()
+        {
+            return queue.size();
+        }
+
+        void submit( Pending pending )
+        {
+            synchronized ( this )
+            {
+                if ( limit > 0 && running >= limit )
+                {
+                    queue.addLast( pending );
+                    queuedTotal.incrementAndGet();
+                    if ( pending.operation() != null )
+                    {
+                        pending.operation().setQueueStatus( () -> describePosition( pending ) );
+                    }
+                    // A call cancelled while it waits gives up its place straight away.
+                    pending.future().whenComplete( ( value, error ) -> dequeue( pending ) );
+                    return;
+                }
+                running++;
+            }
+            dispatch( pending );
+        }
+
+        private synchronized void dequeue( Pending pending )
+        {
+            queue.remove( pending );
+        }
+
+        private void dispatch( Pending pending )
+        {
+            waits.record( System.nanoTime() - pending.submittedNanos() );
+            if ( pending.operation() != null )
+            {
+                pending.operation().setQueueStatus( null );
+            }
+            ExecutorService executor = category == ToolCategory.CONTROL ? control : workers;
+            executor.execute( () -> run( pending ) );
+        }
+
+        private void run( Pending pending )
+        {
+            try
+            {
+                if ( !pending.future().isDone() )
+                {
+                    pending.future().complete( pending.body().get() );
+                }
+            }
+            catch ( Throwable e )
+            {
+                pending.future().completeExceptionally( e );
+            }
+            finally
+            {
+                release();
+            }
+        }
+
+        private void release()
+        {
+            Pending next;
+            synchronized ( this )
+            {
+                next = queue.pollFirst();
+                while ( next != null && next.future().isDone() )
+                {
+                    next = queue.pollFirst();
+                }
+                if ( next == null )
+                {
+                    running--;
+                }
+            }
+            if ( next != null )
+            {
+                dispatch( next );
+            }
+        }
+
+        private synchronized String describePosition( Pending pending )
+        {
+            int position = 1;
+            for ( Pending queued : queue )
+            {
+                if ( queued == pending )
+                {
+                    return "waiting for a " + name() + " slot: " + position + " of " + queue.size() + " in the queue, " + running + " of " + limit
+                            + " running";
+                }
+                position++;
+            }
+            return null;
+        }
+    }
+
+    /** Names the tool threads, so a stuck tool is identifiable in a thread dump. */
+    private static final class ToolThreadFactory implements ThreadFactory
+    {
+        private final String     prefix;
+
+        private final AtomicLong counter = new AtomicLong();
+
+        ToolThreadFactory( String prefix )
+        {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, prefix + counter.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+}
@@ -46,4 +46,20 @@ public @interface Tool
      * minutes - so that its value is not misread as an inline wait.
      */
     public String inlineWaitParam() default "timeout";
+
+    /**
+     * Marks a tool that only reads - the workspace, the repository, the web - and
+     * changes nothing, so that it is safe to run concurrently with other calls.
+     * Only such tools may be part of a batch call; anything that edits, builds,
+     * launches or refactors stays out and keeps running one call at a time.
+     * Clients see it as the tool's {@code readOnlyHint}.
+     */
+    public boolean readOnly() default false;
+
+    /**
+     * The scheduling lane the tool runs in. Builds, test runs and workspace-wide
+     * searches share a limited number of slots per lane and queue for them in
+     * arrival order; see {@link ToolCategory}.
+     */
+    public ToolCategory category() default ToolCategory.GENERAL;
 }
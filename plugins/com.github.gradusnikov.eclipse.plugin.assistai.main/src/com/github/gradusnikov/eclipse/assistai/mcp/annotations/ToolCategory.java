@@ -0,0 +1,28 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.annotations;
+
+/**
+ * The scheduling lane a tool runs in. Heavy work - builds, test runs,
+ * workspace-wide searches - is rationed per lane so a few agents cannot start
+ * a dozen Maven builds at once; everything else runs as soon as it is called.
+ */
+public enum ToolCategory
+{
+    /** Ordinary tools: run immediately, no limit. */
+    GENERAL,
+
+    /**
+     * Calls that observe or stop other work - polling and cancelling operations.
+     * They run on threads of their own so they are never queued behind the very
+     * work they are meant to control.
+     */
+    CONTROL,
+
+    /** Maven builds, project updates, target platform resolution. */
+    BUILD,
+
+    /** JUnit and JUnit plug-in test runs. */
+    TEST,
+
+    /** Workspace-wide JDT and text searches, call and type hierarchies. */
+    SEARCH
+}
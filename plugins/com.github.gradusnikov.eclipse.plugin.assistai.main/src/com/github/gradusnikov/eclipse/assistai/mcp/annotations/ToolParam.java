@@ -15,4 +15,11 @@ public @interface ToolParam
     public boolean required() default true;
     public String type() default "string";
 
+    /**
+     * JSON schema type of the elements of an {@code "array"} parameter, published
+     * as the parameter's {@code items}. Some clients refuse an array schema
+     * without one.
+     */
+    public String items() default "";
+
 }
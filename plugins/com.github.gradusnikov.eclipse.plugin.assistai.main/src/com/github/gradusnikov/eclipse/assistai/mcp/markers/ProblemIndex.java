@@ -0,0 +1,287 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.markers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Problem markers kept sorted by severity, project, file and line, with a version
+ * number that moves on every change.
+ * <p>
+ * Problems are held in one sorted set per severity for the whole workspace and one
+ * per severity for each project, so the first N problems of a query are read off
+ * the sets in order without sorting or even looking at the rest. Every change is
+ * also logged against its version, so a client that remembers the version of its
+ * last listing can ask for just the problems that appeared or went away since. The
+ * log keeps the last {@value #MAX_LOG} changes; older versions get a full listing.
+ * <p>
+ * Thread safe.
+ */
+public final class ProblemIndex
+{
+    /** Severities, most severe first, as in {@code IMarker.SEVERITY_*}. */
+    public static final int   SEVERITY_ERROR   = 2;
+
+    public static final int   SEVERITY_WARNING = 1;
+
+    public static final int   SEVERITY_INFO    = 0;
+
+    /** Matches every severity, including problems without one. */
+    public static final int   ANY_SEVERITY     = -1;
+
+    /** Changes remembered for {@link #changesSince}. */
+    public static final int   MAX_LOG          = 50_000;
+
+    /** Bucket order: error, warning, info, then problems without a severity. */
+    private static final int  BUCKETS          = 4;
+
+    private static final Comparator<Problem> ORDER = Comparator.comparing( Problem::path )
+            .thenComparingInt( Problem::line )
+            .thenComparingLong( Problem::markerId );
+
+    /**
+     * A snapshot of a problem marker's attributes.
+     *
+     * @param line      1-based, or -1 if the marker has none
+     * @param severity  one of the {@code SEVERITY_*} values, or -1 if the marker has none
+     * @param problemId the compiler's problem id for Java problems, otherwise {@code null}
+     */
+    public record Problem( long markerId, String project, String path, int severity, int line, String message, String markerType,
+            String problemId )
+    {
+    }
+
+    /** The first problems of a query, and how many there are in all. */
+    public record Top( List<Problem> problems, int total, long version )
+    {
+    }
+
+    /**
+     * Problems that appeared or went away between two versions. A problem whose
+     * attributes changed is listed as resolved in its old form and added in its new.
+     *
+     * @param complete false if {@code from} is older than the change log reaches
+     *                 back; the lists are then empty and the client should list
+     *                 everything again
+     */
+    public record Changes( List<Problem> added, List<Problem> resolved, long from, long to, boolean complete )
+    {
+    }
+
+    private record Change( long version, long markerId, Problem previous )
+    {
+    }
+
+    private final Map<Long, Problem>                  byId      = new HashMap<>();
+
+    private final List<NavigableSet<Problem>>         all       = newBuckets();
+
+    private final Map<String, List<NavigableSet<Problem>>> byProject = new HashMap<>();
+
+    private final Deque<Change>                       log       = new ArrayDeque<>();
+
+    private long                                      version;
+
+    /** Changes at or before this version have been dropped from the log. */
+    private long                                      logFloor;
+
+    public synchronized long version()
+    {
+        return version;
+    }
+
+    public synchronized int size()
+    {
+        return byId.size();
+    }
+
+    public synchronized Problem get( long markerId )
+    {
+        return byId.get( markerId );
+    }
+
+    /** Adds a problem, or replaces the one with the same marker id if it differs. */
+    public synchronized void put( Problem problem )
+    {
+        Problem previous = byId.get( problem.markerId() );
+        if ( problem.equals( previous ) )
+        {
+            return;
+        }
+        if ( previous != null )
+        {
+            unlink( previous );
+        }
+        byId.put( problem.markerId(), problem );
+        all.get( bucket( problem.severity() ) ).add( problem );
+        byProject.computeIfAbsent( problem.project(), p -> newBuckets() ).get( bucket( problem.severity() ) ).add( problem );
+        record( problem.markerId(), previous );
+    }
+
+    public synchronized void remove( long markerId )
+    {
+        Problem previous = byId.remove( markerId );
+        if ( previous != null )
+        {
+            unlink( previous );
+            record( markerId, previous );
+        }
+    }
+
+    /** Removes every problem of a project, e.g. one that was closed or deleted. */
+    public synchronized void removeProject( String project )
+    {
+        List<NavigableSet<Problem>> buckets = byProject.get( project );
+        if ( buckets == null )
+        {
+            return;
+        }
+        List<Problem> problems = new ArrayList<>();
+        buckets.forEach( problems::addAll );
+        for ( Problem problem : problems )
+        {
+            remove( problem.markerId() );
+        }
+    }
+
+    /**
+     * The first {@code limit} problems, errors first, then by file and line.
+     *
+     * @param project  a project name, or {@code null} for the whole workspace
+     * @param severity a {@code SEVERITY_*} value, or {@link #ANY_SEVERITY}
+     */
+    public synchronized Top top( String project, int severity, int limit )
+    {
+        List<NavigableSet<Problem>> buckets = project == null ? all : byProject.get( project );
+        if ( buckets == null )
+        {
+            return new Top( List.of(), 0, version );
+        }
+        List<Problem> problems = new ArrayList<>( Math.min( limit, 1024 ) );
+        int total = 0;
+        for ( int b = 0; b < BUCKETS; b++ )
+        {
+            if ( !matches( b, severity ) )
+            {
+                continue;
+            }
+            NavigableSet<Problem> bucket = buckets.get( b );
+            total += bucket.size();
+            for ( Iterator<Problem> it = bucket.iterator(); it.hasNext() && problems.size() < limit; )
+            {
+                problems.add( it.next() );
+            }
+        }
+        return new Top( problems, total, version );
+    }
+
+    /**
+     * What changed after version {@code since}, limited like {@link #top}. A
+     * problem that came and went in between is not mentioned.
+     */
+    public synchronized Changes changesSince( long since, String project, int severity )
+    {
+        if ( since < logFloor || since > version )
+        {
+            return new Changes( List.of(), List.of(), since, version, false );
+        }
+        // The state of each touched marker as of 'since' is the previous value of its first change after it.
+        Map<Long, Problem> before = new LinkedHashMap<>();
+        for ( Iterator<Change> it = log.descendingIterator(); it.hasNext(); )
+        {
+            Change change = it.next();
+            if ( change.version() <= since )
+            {
+                break;
+            }
+            before.put( change.markerId(), change.previous() );
+        }
+        List<Problem> added = new ArrayList<>();
+        List<Problem> resolved = new ArrayList<>();
+        for ( Map.Entry<Long, Problem> entry : before.entrySet() )
+        {
+            Problem old = entry.getValue();
+            Problem now = byId.get( entry.getKey() );
+            if ( old != null && old.equals( now ) )
+            {
+                continue;
+            }
+            if ( old != null && isSelected( old, project, severity ) )
+            {
+                resolved.add( old );
+            }
+            if ( now != null && isSelected( now, project, severity ) )
+            {
+                added.add( now );
+            }
+        }
+        Comparator<Problem> order = Comparator.comparingInt( ( Problem p ) -> bucket( p.severity() ) ).thenComparing( ORDER );
+        added.sort( order );
+        resolved.sort( order );
+        return new Changes( added, resolved, since, version, true );
+    }
+
+    private void unlink( Problem problem )
+    {
+        all.get( bucket( problem.severity() ) ).remove( problem );
+        List<NavigableSet<Problem>> buckets = byProject.get( problem.project() );
+        if ( buckets != null )
+        {
+            buckets.get( bucket( problem.severity() ) ).remove( problem );
+            if ( buckets.stream().allMatch( NavigableSet::isEmpty ) )
+            {
+                byProject.remove( problem.project() );
+            }
+        }
+    }
+
+    private void record( long markerId, Problem previous )
+    {
+        version++;
+        // Iterated newest first when collecting changes, so the oldest previous value per marker wins.
+        log.addLast( new Change( version, markerId, previous ) );
+        while ( log.size() > MAX_LOG )
+        {
+            logFloor = log.removeFirst().version();
+        }
+    }
+
+    private static boolean isSelected( Problem problem, String project, int severity )
+    {
+        return ( project == null || project.equals( problem.project() ) ) && matches( bucket( problem.severity() ), severity );
+    }
+
+    private static boolean matches( int bucket, int severity )
+    {
+        return severity == ANY_SEVERITY || bucket == bucket( severity );
+    }
+
+    private static int bucket( int severity )
+    {
+        return switch ( severity )
+        {
+            case SEVERITY_ERROR -> 0;
+            case SEVERITY_WARNING -> 1;
+            case SEVERITY_INFO -> 2;
+            default -> 3;
+        };
+    }
+
+    private static List<NavigableSet<Problem>> newBuckets()
+    {
+        List<NavigableSet<Problem>> buckets = new ArrayList<>( BUCKETS );
+        for ( int b = 0; b < BUCKETS; b++ )
+        {
+            buckets.add( new TreeSet<>( ORDER ) );
+        }
+        return buckets;
+    }
+}
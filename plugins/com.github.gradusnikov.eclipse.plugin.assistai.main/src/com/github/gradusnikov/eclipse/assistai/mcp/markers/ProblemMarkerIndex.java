@@ -0,0 +1,180 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.markers;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.jdt.core.IJavaModelMarker;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * A {@link ProblemIndex} of the workspace's problem markers, kept current from
+ * the marker deltas of resource change events.
+ * <p>
+ * The workspace is read once, on the first query; after that a query costs no
+ * marker lookups at all. Markers of a project that is closed or deleted are
+ * dropped, and a reopened project is read again.
+ */
+@Creatable
+@Singleton
+public class ProblemMarkerIndex implements IResourceChangeListener
+{
+    @Inject
+    ILog                        logger;
+
+    private final ProblemIndex  index               = new ProblemIndex();
+
+    private volatile boolean    loaded;
+
+    /** Markers removed while the initial read was running; it must not bring them back. */
+    private final Set<Long>     removedWhileLoading = new HashSet<>();
+
+    @PostConstruct
+    public void init()
+    {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener( this, IResourceChangeEvent.POST_CHANGE );
+    }
+
+    @PreDestroy
+    public void dispose()
+    {
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener( this );
+    }
+
+    /**
+     * The index, read from the workspace first if this is the first call.
+     */
+    public ProblemIndex getIndex()
+    {
+        if ( !loaded )
+        {
+            load();
+        }
+        return index;
+    }
+
+    private synchronized void load()
+    {
+        if ( loaded )
+        {
+            return;
+        }
+        try
+        {
+            // Deltas keep arriving while this runs; the listener is already registered.
+            IMarker[] markers = ResourcesPlugin.getWorkspace().getRoot().findMarkers( IMarker.PROBLEM, true, IResource.DEPTH_INFINITE );
+            synchronized ( removedWhileLoading )
+            {
+                for ( IMarker marker : markers )
+                {
+                    if ( !removedWhileLoading.contains( marker.getId() ) && index.get( marker.getId() ) == null )
+                    {
+                        putMarker( marker );
+                    }
+                }
+                removedWhileLoading.clear();
+                loaded = true;
+            }
+        }
+        catch ( CoreException e )
+        {
+            throw new RuntimeException( "Error reading problem markers: " + e.getMessage(), e );
+        }
+    }
+
+    @Override
+    public void resourceChanged( IResourceChangeEvent event )
+    {
+        for ( IMarkerDelta delta : event.findMarkerDeltas( IMarker.PROBLEM, true ) )
+        {
+            if ( delta.getKind() == IResourceDelta.REMOVED )
+            {
+                index.remove( delta.getId() );
+                synchronized ( removedWhileLoading )
+                {
+                    if ( !loaded )
+                    {
+                        removedWhileLoading.add( delta.getId() );
+                    }
+                }
+            }
+            else
+            {
+                putMarker( delta.getMarker() );
+            }
+        }
+        IResourceDelta delta = event.getDelta();
+        if ( delta != null )
+        {
+            for ( IResourceDelta child : delta.getAffectedChildren() )
+            {
+                if ( child.getResource() instanceof IProject project )
+                {
+                    projectChanged( project, child );
+                }
+            }
+        }
+    }
+
+    private void projectChanged( IProject project, IResourceDelta delta )
+    {
+        boolean openChanged = ( delta.getFlags() & IResourceDelta.OPEN ) != 0;
+        if ( delta.getKind() == IResourceDelta.REMOVED || ( openChanged && !project.isOpen() ) )
+        {
+            index.removeProject( project.getName() );
+        }
+        else if ( openChanged && loaded )
+        {
+            try
+            {
+                for ( IMarker marker : project.findMarkers( IMarker.PROBLEM, true, IResource.DEPTH_INFINITE ) )
+                {
+                    putMarker( marker );
+                }
+            }
+            catch ( CoreException e )
+            {
+                logger.error( "Error reading problem markers of " + project.getName(), e );
+            }
+        }
+    }
+
+    private void putMarker( IMarker marker )
+    {
+        try
+        {
+            if ( marker.exists() )
+            {
+                index.put( toProblem( marker ) );
+            }
+        }
+        catch ( CoreException e )
+        {
+            // Deleted between the delta and this read; its REMOVED delta follows.
+        }
+    }
+
+    static ProblemIndex.Problem toProblem( IMarker marker ) throws CoreException
+    {
+        IResource resource = marker.getResource();
+        String type = marker.getType();
+        Object problemId = IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER.equals( type ) ? marker.getAttribute( IJavaModelMarker.ID ) : null;
+        return new ProblemIndex.Problem( marker.getId(), resource.getProject() == null ? "" : resource.getProject().getName(),
+                resource.getFullPath().toString(), marker.getAttribute( IMarker.SEVERITY, -1 ), marker.getAttribute( IMarker.LINE_NUMBER, -1 ),
+                marker.getAttribute( IMarker.MESSAGE, null ), type, problemId == null ? null : problemId.toString() );
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size, log-linear latency histogram in the spirit of HdrHistogram.
+ * <p>
+ * Values are recorded in microseconds. Every power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, which bounds the error of any reported
+ * percentile to about 6% while covering a microsecond to several days in a few
+ * hundred slots. All storage is allocated up front, so {@link #record(long)} never
+ * allocates and never takes a lock - it is called on every tool invocation.
+ */
+public final class LatencyHistogram
+{
+    private static final int  SUB_BUCKET_BITS = 4;
+
+    static final int          SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+
+    /** Values at or above 2^MAX_EXPONENT microseconds (about 12 days) land in the last bucket. */
+    private static final int  MAX_EXPONENT    = 40;
+
+    private static final int  BUCKETS         = ( MAX_EXPONENT - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts      = new AtomicLongArray( BUCKETS );
+
+    private final AtomicLong  count           = new AtomicLong();
+
+    private final AtomicLong  sum             = new AtomicLong();
+
+    private final AtomicLong  max             = new AtomicLong();
+
+    /**
+     * Records one value.
+     *
+     * @param nanos elapsed time in nanoseconds; negative values are recorded as zero
+     */
+    public void record( long nanos )
+    {
+        long micros = Math.max( 0, nanos / 1_000 );
+        counts.incrementAndGet( indexOf( micros ) );
+        count.incrementAndGet();
+        sum.addAndGet( micros );
+        max.accumulateAndGet( micros, Math::max );
+    }
+
+    public long count()
+    {
+        return count.get();
+    }
+
+    /** Sum of all recorded values, in microseconds. */
+    public long totalMicros()
+    {
+        return sum.get();
+    }
+
+    public long maxMicros()
+    {
+        return max.get();
+    }
+
+    public double meanMicros()
+    {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * The value below which the given fraction of recordings fall, reported as the
+     * upper edge of the bucket holding it and never above the recorded maximum.
+     *
+     * @param percentile between 0 and 100
+     */
+    public long percentileMicros( double percentile )
+    {
+        long total = count.get();
+        if ( total == 0 )
+        {
+            return 0;
+        }
+        long rank = (long) Math.ceil( total * Math.min( 100.0, Math.max( 0.0, percentile ) ) / 100.0 );
+        rank = Math.max( 1, rank );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += counts.get( i );
+            if ( seen >= rank )
+            {
+                return Math.min( upperBoundOf( i ), max.get() );
+            }
+        }
+        return max.get();
+    }
+
+    public void reset()
+    {
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            counts.set( i, 0 );
+        }
+        count.set( 0 );
+        sum.set( 0 );
+        max.set( 0 );
+    }
+
+    static int indexOf( long micros )
+    {
+        if ( micros < SUB_BUCKETS )
+        {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros( micros );
+        if ( exponent >= MAX_EXPONENT )
+        {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) ( ( micros >>> shift ) & ( SUB_BUCKETS - 1 ) );
+        return ( shift + 1 ) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBoundOf( int index )
+    {
+        if ( index < SUB_BUCKETS )
+        {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        int sub = index % SUB_BUCKETS;
+        return (long) ( SUB_BUCKETS + sub ) << shift;
+    }
+
+    static long upperBoundOf( int index )
+    {
+        if ( index < SUB_BUCKETS )
+        {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return lowerBoundOf( index ) + ( 1L << shift ) - 1;
+    }
+}
@@ -0,0 +1,367 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.e4.core.di.annotations.Creatable;
+
+import com.github.gradusnikov.eclipse.assistai.Activator;
+import com.github.gradusnikov.eclipse.assistai.mcp.ToolScheduler;
+import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolCategory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+
+/**
+ * Per-tool call counts, latency and queue wait histograms, result sizes, and error
+ * and cancellation counts for every tool the MCP servers dispatch.
+ * <p>
+ * Recording happens on the tool threads for every call, so it is kept to a map
+ * lookup and a few atomic updates - see {@link ToolStats} and
+ * {@link LatencyHistogram}. Reading is what formats and allocates, and happens only
+ * when someone asks: the getToolMetrics tool, the {@link ToolMetricsMBean} under
+ * {@value #OBJECT_NAME}, and a snapshot file rewritten every
+ * {@value #SNAPSHOT_INTERVAL_MINUTES} minutes in the plug-in's state location so
+ * the numbers survive an IDE that had to be killed.
+ */
+@Creatable
+@Singleton
+public class ToolMetrics implements ToolMetricsMBean
+{
+    static final String                             OBJECT_NAME               = "com.github.gradusnikov.eclipse.assistai:type=ToolMetrics";
+
+    static final String                             SNAPSHOT_FILE             = "tool-metrics.txt";
+
+    static final int                                SNAPSHOT_INTERVAL_MINUTES = 5;
+
+    private final ConcurrentMap<String, ToolStats>  stats                     = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService       snapshotScheduler;
+
+    private volatile ObjectName                     registeredName;
+
+    private volatile long                           lastSnapshotCalls         = -1;
+
+    private final ToolScheduler                     scheduler                 = ToolScheduler.getDefault();
+
+    /**
+     * The counters for a tool, created on first use. The fast path is a single
+     * {@code get}; the mapping function only runs the first time a tool is seen.
+     */
+    public ToolStats stats( String toolName )
+    {
+        ToolStats existing = stats.get( toolName );
+        return existing != null ? existing : stats.computeIfAbsent( toolName, ToolStats::new );
+    }
+
+    /**
+     * Marks the moment a tool body starts running on its worker thread.
+     *
+     * @param queueWaitNanos how long the call sat in the executor's queue after it
+     *                       was submitted
+     */
+    public void started( ToolStats toolStats, long queueWaitNanos )
+    {
+        toolStats.started( queueWaitNanos );
+    }
+
+    public void finished( ToolStats toolStats, long elapsedNanos, long resultChars, ToolStats.Outcome outcome )
+    {
+        toolStats.finished( elapsedNanos, resultChars, outcome );
+    }
+
+    public List<ToolStats> snapshot()
+    {
+        return new ArrayList<>( stats.values() );
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        registerMBean();
+        scheduleSnapshots();
+    }
+
+    @PreDestroy
+    public void dispose()
+    {
+        ScheduledExecutorService scheduler = snapshotScheduler;
+        if ( scheduler != null )
+        {
+            scheduler.shutdownNow();
+            snapshotScheduler = null;
+        }
+        writeSnapshot();
+        unregisterMBean();
+    }
+
+    /**
+     * Formats the metrics as a table, slowest tools by total wall clock time first,
+     * since those are the ones worth looking at.
+     *
+     * @param toolFilter only tools whose name contains this text (case-insensitive),
+     *                   or {@code null}/blank for all of them
+     */
+    public String formatReport( String toolFilter )
+    {
+        String filter = toolFilter == null ? "" : toolFilter.trim().toLowerCase( Locale.ROOT );
+        List<ToolStats> rows = snapshot().stream()
+                .filter( s -> s.calls() > 0 || s.inFlight() > 0 )
+                .filter( s -> filter.isEmpty() || s.toolName().toLowerCase( Locale.ROOT ).contains( filter ) )
+                .sorted( Comparator.comparingLong( ( ToolStats s ) -> s.latency().totalMicros() ).reversed() )
+                .toList();
+        if ( rows.isEmpty() )
+        {
+            return filter.isEmpty() ? "No tool calls recorded yet." : "No tool calls recorded for tools matching '" + toolFilter + "'.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append( String.format( Locale.ROOT, "%-32s %6s %4s %4s %4s %8s %8s %8s %8s %9s %8s %9s %9s%n", "tool", "calls", "run", "err", "cncl",
+                "p50", "p95", "p99", "max", "total", "queue95", "avgChars", "~tokens" ) );
+        for ( ToolStats s : rows )
+        {
+            LatencyHistogram latency = s.latency();
+            long completed = s.calls() - s.inFlight();
+            long successes = completed - s.errors() - s.cancellations();
+            long avgChars = successes > 0 ? s.resultChars() / successes : 0;
+            sb.append( String.format( Locale.ROOT, "%-32s %6d %4d %4d %4d %8s %8s %8s %8s %9s %8s %9d %9d%n", s.toolName(), s.calls(), s.inFlight(),
+                    s.errors(), s.cancellations(), micros( latency.percentileMicros( 50 ) ), micros( latency.percentileMicros( 95 ) ),
+                    micros( latency.percentileMicros( 99 ) ), micros( latency.maxMicros() ), micros( latency.totalMicros() ),
+                    micros( s.queueWait().percentileMicros( 95 ) ), avgChars, s.estimatedResultTokens() ) );
+        }
+        sb.append( "\nLatency is measured on the tool thread; queue95 is the 95th percentile wait before a tool thread picked the call up, " )
+                .append( "including any wait for a slot in the tool's lane. " )
+                .append( "~tokens is the total result size estimated at " ).append( ToolStats.CHARS_PER_TOKEN ).append( " characters per token.\n\n" );
+        sb.append( "Lanes (builds, test runs and searches share a limited number of slots):\n" ).append( scheduler.formatLanes() );
+        return sb.toString();
+    }
+
+    @Override
+    public String[] getToolNames()
+    {
+        return stats.keySet().stream().sorted().toArray( String[]::new );
+    }
+
+    @Override
+    public long getTotalCalls()
+    {
+        return stats.values().stream().mapToLong( ToolStats::calls ).sum();
+    }
+
+    @Override
+    public long getTotalErrors()
+    {
+        return stats.values().stream().mapToLong( ToolStats::errors ).sum();
+    }
+
+    @Override
+    public long getTotalCancellations()
+    {
+        return stats.values().stream().mapToLong( ToolStats::cancellations ).sum();
+    }
+
+    @Override
+    public long getInFlight()
+    {
+        return stats.values().stream().mapToLong( ToolStats::inFlight ).sum();
+    }
+
+    @Override
+    public String getReport()
+    {
+        return formatReport( null );
+    }
+
+    @Override
+    public long getCallCount( String toolName )
+    {
+        ToolStats s = stats.get( toolName );
+        return s == null ? 0 : s.calls();
+    }
+
+    @Override
+    public long getLatencyPercentileMicros( String toolName, double percentile )
+    {
+        ToolStats s = stats.get( toolName );
+        return s == null ? 0 : s.latency().percentileMicros( percentile );
+    }
+
+    @Override
+    public long getQueueWaitPercentileMicros( String toolName, double percentile )
+    {
+        ToolStats s = stats.get( toolName );
+        return s == null ? 0 : s.queueWait().percentileMicros( percentile );
+    }
+
+    @Override
+    public long getResultChars( String toolName )
+    {
+        ToolStats s = stats.get( toolName );
+        return s == null ? 0 : s.resultChars();
+    }
+
+    @Override
+    public int getQueueDepth( String lane )
+    {
+        return category( lane ) == null ? 0 : scheduler.queued( category( lane ) );
+    }
+
+    @Override
+    public int getLaneRunning( String lane )
+    {
+        return category( lane ) == null ? 0 : scheduler.running( category( lane ) );
+    }
+
+    @Override
+    public long getLaneWaitPercentileMicros( String lane, double percentile )
+    {
+        return category( lane ) == null ? 0 : scheduler.queueWait( category( lane ) ).percentileMicros( percentile );
+    }
+
+    private static ToolCategory category( String lane )
+    {
+        try
+        {
+            return lane == null ? null : ToolCategory.valueOf( lane.trim().toUpperCase( Locale.ROOT ) );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            return null;
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        stats.values().forEach( ToolStats::reset );
+    }
+
+    private void registerMBean()
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName( OBJECT_NAME );
+            if ( server.isRegistered( name ) )
+            {
+                // Left behind by an earlier instance - a reloaded bundle, say.
+                server.unregisterMBean( name );
+            }
+            server.registerMBean( this, name );
+            registeredName = name;
+        }
+        catch ( Exception | LinkageError e )
+        {
+            // JMX is a convenience; the tool and the snapshot file still work without it.
+            registeredName = null;
+        }
+    }
+
+    private void unregisterMBean()
+    {
+        ObjectName name = registeredName;
+        if ( name == null )
+        {
+            return;
+        }
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean( name );
+        }
+        catch ( Exception e )
+        {
+            // already gone
+        }
+        registeredName = null;
+    }
+
+    private void scheduleSnapshots()
+    {
+        if ( snapshotFile() == null )
+        {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            Thread thread = new Thread( runnable, "assistai-mcp-tool-metrics" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        scheduler.scheduleWithFixedDelay( this::writeSnapshot, SNAPSHOT_INTERVAL_MINUTES, SNAPSHOT_INTERVAL_MINUTES, TimeUnit.MINUTES );
+        snapshotScheduler = scheduler;
+    }
+
+    /**
+     * Rewrites the snapshot file, unless nothing was called since the last write.
+     * The file is replaced atomically so a reader never sees half a table.
+     */
+    void writeSnapshot()
+    {
+        Path file = snapshotFile();
+        long calls = getTotalCalls();
+        if ( file == null || calls == lastSnapshotCalls )
+        {
+            return;
+        }
+        try
+        {
+            Path temp = file.resolveSibling( SNAPSHOT_FILE + ".tmp" );
+            String content = "Tool metrics snapshot " + Instant.now() + "\n\n" + formatReport( null ) + "\n";
+            Files.writeString( temp, content, StandardCharsets.UTF_8 );
+            Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+            lastSnapshotCalls = calls;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            // Best effort; try again on the next tick.
+        }
+    }
+
+    private static Path snapshotFile()
+    {
+        Activator activator = Activator.getDefault();
+        if ( activator == null )
+        {
+            return null;
+        }
+        try
+        {
+            return activator.getStateLocation().append( SNAPSHOT_FILE ).toFile().toPath();
+        }
+        catch ( IllegalStateException e )
+        {
+            return null;
+        }
+    }
+
+    /** Formats a duration in microseconds with a unit that keeps it short. */
+    public static String micros( long micros )
+    {
+        if ( micros < 1_000 )
+        {
+            return micros + "us";
+        }
+        if ( micros < 1_000_000 )
+        {
+            return String.format( Locale.ROOT, "%.1fms", micros / 1_000.0 );
+        }
+        return String.format( Locale.ROOT, "%.2fs", micros / 1_000_000.0 );
+    }
+}
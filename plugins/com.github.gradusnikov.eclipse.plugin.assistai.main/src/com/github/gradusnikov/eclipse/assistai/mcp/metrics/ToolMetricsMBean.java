@@ -0,0 +1,38 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.metrics;
+
+/**
+ * JMX view of {@link ToolMetrics}, for looking at a running IDE with JConsole or
+ * VisualVM without going through an MCP client.
+ */
+public interface ToolMetricsMBean
+{
+    String[] getToolNames();
+
+    long getTotalCalls();
+
+    long getTotalErrors();
+
+    long getTotalCancellations();
+
+    long getInFlight();
+
+    /** The same table the getToolMetrics tool returns, for every tool. */
+    String getReport();
+
+    long getCallCount( String toolName );
+
+    long getLatencyPercentileMicros( String toolName, double percentile );
+
+    long getQueueWaitPercentileMicros( String toolName, double percentile );
+
+    long getResultChars( String toolName );
+
+    /** Calls waiting for a slot in a lane - build, test, search, general or control. */
+    int getQueueDepth( String lane );
+
+    int getLaneRunning( String lane );
+
+    long getLaneWaitPercentileMicros( String lane, double percentile );
+
+    void reset();
+}
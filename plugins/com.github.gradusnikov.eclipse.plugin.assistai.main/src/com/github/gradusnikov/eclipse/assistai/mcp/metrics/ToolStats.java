@@ -0,0 +1,132 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for a single tool. Created once per tool name and then only updated, so
+ * recording a call touches a handful of atomics and nothing else.
+ */
+public final class ToolStats
+{
+    /**
+     * Rough characters-per-token ratio for English text and source code. Good enough
+     * to tell a 200 token reply from a 20,000 token one, which is all the estimate is
+     * for.
+     */
+    static final int               CHARS_PER_TOKEN = 4;
+
+    private final String           toolName;
+
+    private final LatencyHistogram latency         = new LatencyHistogram();
+
+    private final LatencyHistogram queueWait       = new LatencyHistogram();
+
+    private final AtomicLong       calls           = new AtomicLong();
+
+    private final AtomicLong       inFlight        = new AtomicLong();
+
+    private final AtomicLong       errors          = new AtomicLong();
+
+    private final AtomicLong       cancellations   = new AtomicLong();
+
+    private final AtomicLong       resultChars     = new AtomicLong();
+
+    private final AtomicLong       maxResultChars  = new AtomicLong();
+
+    ToolStats( String toolName )
+    {
+        this.toolName = toolName;
+    }
+
+    public String toolName()
+    {
+        return toolName;
+    }
+
+    void started( long queueWaitNanos )
+    {
+        calls.incrementAndGet();
+        inFlight.incrementAndGet();
+        queueWait.record( queueWaitNanos );
+    }
+
+    void finished( long elapsedNanos, long chars, Outcome outcome )
+    {
+        inFlight.decrementAndGet();
+        latency.record( elapsedNanos );
+        switch ( outcome )
+        {
+            case ERROR -> errors.incrementAndGet();
+            case CANCELLED -> cancellations.incrementAndGet();
+            case SUCCESS -> {
+                resultChars.addAndGet( chars );
+                maxResultChars.accumulateAndGet( chars, Math::max );
+            }
+        }
+    }
+
+    public LatencyHistogram latency()
+    {
+        return latency;
+    }
+
+    public LatencyHistogram queueWait()
+    {
+        return queueWait;
+    }
+
+    public long calls()
+    {
+        return calls.get();
+    }
+
+    public long inFlight()
+    {
+        return inFlight.get();
+    }
+
+    public long errors()
+    {
+        return errors.get();
+    }
+
+    public long cancellations()
+    {
+        return cancellations.get();
+    }
+
+    public long resultChars()
+    {
+        return resultChars.get();
+    }
+
+    public long maxResultChars()
+    {
+        return maxResultChars.get();
+    }
+
+    public long estimatedResultTokens()
+    {
+        return resultChars.get() / CHARS_PER_TOKEN;
+    }
+
+    void reset()
+    {
+        latency.reset();
+        queueWait.reset();
+        calls.set( 0 );
+        errors.set( 0 );
+        cancellations.set( 0 );
+        resultChars.set( 0 );
+        maxResultChars.set( 0 );
+        // inFlight is deliberately kept: those calls are still running.
+    }
+
+    /** How a tool call ended. */
+    public enum Outcome
+    {
+        SUCCESS,
+        ERROR,
+        CANCELLED
+    }
+}
@@ -7,7 +7,10 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -40,6 +43,13 @@ public class Operation
 
     private final List<Runnable> completionHooks = new CopyOnWriteArrayList<>();
 
+    private final List<Consumer<Operation>> changeListeners = new CopyOnWriteArrayList<>();
+
+    /** Guards {@link #milestones}; waited on by long polls. */
+    private final Object milestoneLock = new Object();
+
+    private long milestones;
+
     private final IProgressMonitor monitor = new OperationMonitor();
 
     private volatile CompletableFuture<Object> future;
@@ -50,6 +60,8 @@ public class Operation
 
     private volatile String consoleHint;
 
+    private volatile Supplier<String> queueStatus;
+
     /**
      * Typed incremental results produced while the operation is running.
      * <p>
@@ -87,6 +99,7 @@ public class Operation
         this.id = id;
         this.toolName = toolName;
         this.label = label;
+        output.setLineListener( () -> changed( false ) );
     }
 
     public String getId()
@@ -140,6 +153,7 @@ public class Operation
     public void setProgress( String progress )
     {
         this.progress = progress;
+        changed( true );
     }
 
     /** Name of an Eclipse console carrying this operation's output, if any. */
@@ -153,6 +167,27 @@ public class Operation
         this.consoleHint = consoleHint;
     }
 
+    /**
+     * Where the operation stands while it waits for a slot in its tool's lane, e.g.
+     * "waiting for a build slot: 2 of 3 in the queue, 1 of 1 running", or
+     * {@code null} once it is running.
+     */
+    public String getQueueStatus()
+    {
+        Supplier<String> status = queueStatus;
+        return status == null ? null : status.get();
+    }
+
+    /**
+     * Set by the scheduler while the operation is queued; evaluated on demand
+     * because the position changes as the calls ahead of it finish.
+     */
+    public void setQueueStatus( Supplier<String> queueStatus )
+    {
+        this.queueStatus = queueStatus;
+        changed( true );
+    }
+
     /**
      * Returns an unmodifiable snapshot of all typed intermediate results published
      * so far, keyed by result type (e.g. {@code "summary"}, {@code "results"}).
@@ -202,6 +237,85 @@ public class Operation
                 intermediateResults.put( type, value );
             }
         }
+        changed( true );
+    }
+
+    /**
+     * Registers a listener told about every change: new output lines, progress,
+     * intermediate results, leaving the queue, and completion. It is called on
+     * whichever thread made the change - often a stream reader - so it must only
+     * take note and do any real work elsewhere.
+     */
+    public void addChangeListener( Consumer<Operation> listener )
+    {
+        changeListeners.add( listener );
+    }
+
+    public void removeChangeListener( Consumer<Operation> listener )
+    {
+        changeListeners.remove( listener );
+    }
+
+    /**
+     * Counts the changes worth waking a long poll for - progress, intermediate
+     * results, the queue, completion - but not individual output lines, which
+     * arrive far too often for that.
+     */
+    public long milestoneCount()
+    {
+        synchronized ( milestoneLock )
+        {
+            return milestones;
+        }
+    }
+
+    /**
+     * Blocks until the milestone count moves past {@code seen}, the operation
+     * finishes, or the timeout runs out.
+     *
+     * @return true if something changed
+     */
+    public boolean awaitMilestone( long seen, long timeoutMillis ) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeoutMillis );
+        synchronized ( milestoneLock )
+        {
+            while ( milestones == seen && !isTerminal() )
+            {
+                long remaining = TimeUnit.NANOSECONDS.toMillis( deadline - System.nanoTime() );
+                if ( remaining <= 0 )
+                {
+                    return false;
+                }
+                milestoneLock.wait( remaining );
+            }
+            return true;
+        }
+    }
+
+    private void changed( boolean milestone )
+    {
+        if ( milestone )
+        {
+            synchronized ( milestoneLock )
+            {
+                milestones++;
+                milestoneLock.notifyAll();
+            }
+        }
+        for ( Consumer<Operation> listener : changeListeners )
+        {
+            try
+            {
+                listener.accept( this );
+            }
+            catch ( RuntimeException e )
+            {
+                // A broken listener - a client that went away - must not break the
+                // work it was listening to. Not recorded in the output on purpose:
+                // that would call the listeners again.
+            }
+        }
     }
 
     /**
@@ -340,6 +454,7 @@ public class Operation
             state = OperationState.COMPLETED;
         }
         completionHooks.forEach( this::runQuietly );
+        changed( true );
     }
 
     /**
@@ -362,7 +477,7 @@ public class Operation
     {
         if ( name != null && !name.isBlank() )
         {
-            progress = name;
+            setProgress( name );
         }
     }
 
@@ -1,9 +1,18 @@
 package com.github.gradusnikov.eclipse.assistai.mcp.operations;
 
-import java.util.ArrayDeque;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Line oriented, bounded buffer holding the output produced by an
@@ -15,6 +24,18 @@ import java.util.List;
  * can therefore keep asking for the next offset without ever silently re-reading
  * or skipping a line.
  * <p>
+ * The lines live in a ring indexed by absolute line number, so a page costs only
+ * the lines it returns however deep into the output it starts. Incoming chunks are
+ * scanned for newlines once, as they arrive; a partial line is never rescanned.
+ * <p>
+ * Build and test output easily outgrows the in-memory limits and then loses its
+ * beginning - often the part that explains the failure. With
+ * {@link #enableSpill()} every line is also written to a temporary file, and
+ * lines evicted from memory are read back from there, up to
+ * {@value #MAX_SPILL_BYTES} bytes of output. Past that the file keeps what it
+ * already holds and later lines live in memory only; {@link #spillTruncatedAt()}
+ * tells where the file stopped.
+ * <p>
  * Thread safe: producers are stream reader threads, consumers are MCP tool
  * threads.
  */
@@ -29,18 +50,37 @@ public class OperationOutputBuffer
     /** A single line longer than this is truncated rather than allowed to blow the budget. */
     public static final int MAX_LINE_CHARS = 2000;
 
+    /** Output written to the spill file before it stops growing. */
+    static final long MAX_SPILL_BYTES = 256L * 1024 * 1024;
+
     private static final String TRUNCATED = " ...[truncated]";
 
-    private final Deque<String> lines = new ArrayDeque<>();
+    /** Spilled lines read back per positional read while searching. */
+    private static final int GREP_CHUNK_LINES = 256;
+
+    /** Spilled lines per recorded byte offset; a read scans forward from the nearest one. */
+    private static final int SPILL_INDEX_STRIDE = 256;
+
+    /**
+     * Line {@code i} lives at {@code ring[i % ring.length]} while it is retained. One
+     * spare slot, because a new line is stored before the oldest is evicted.
+     */
+    private final String[] ring = new String[MAX_LINES + 1];
 
-    private final StringBuilder pendingOut = new StringBuilder();
+    private final PendingLine pendingOut = new PendingLine();
 
-    private final StringBuilder pendingErr = new StringBuilder();
+    private final PendingLine pendingErr = new PendingLine();
+
+    private int totalLines;
 
     private int droppedLines;
 
     private int chars;
 
+    private Spill spill;
+
+    private volatile Runnable lineListener;
+
     /**
      * A page of output.
      *
@@ -48,12 +88,30 @@ public class OperationOutputBuffer
      * @param firstIndex   absolute index of the first returned line
      * @param nextOffset   absolute index to ask for to continue paging
      * @param totalLines   total lines produced so far, including dropped ones
-     * @param droppedLines lines already evicted from the front of the buffer
+     * @param droppedLines lines no longer available at the front of the output
      */
     public record Page( List<String> lines, int firstIndex, int nextOffset, int totalLines, int droppedLines )
     {
     }
 
+    /** A line matched by {@link #grep}, with its absolute index. */
+    public record Match( int index, String line )
+    {
+    }
+
+    /**
+     * The result of a {@link #grep}.
+     *
+     * @param matches      matching lines, in order
+     * @param nextOffset   absolute index to continue searching from, if the search
+     *                     stopped at the match limit
+     * @param scannedLines lines examined
+     * @param complete     true if every available line from the offset on was searched
+     */
+    public record GrepResult( List<Match> matches, int nextOffset, int scannedLines, boolean complete )
+    {
+    }
+
     /**
      * Appends a chunk of stream output. Chunks arrive at arbitrary boundaries, so
      * an incomplete trailing line is held back until its newline shows up.
@@ -64,15 +122,22 @@ public class OperationOutputBuffer
         {
             return;
         }
-        StringBuilder pending = error ? pendingErr : pendingOut;
-        pending.append( text );
-
+        PendingLine pending = error ? pendingErr : pendingOut;
+        boolean added = false;
+        int start = 0;
         int newline;
-        while ( ( newline = indexOfNewline( pending ) ) >= 0 )
+        // Only the new chunk is scanned; what is already pending has no newline in it.
+        while ( ( newline = text.indexOf( '\n', start ) ) >= 0 )
         {
-            String line = pending.substring( 0, newline );
-            pending.delete( 0, newline + 1 );
-            addLine( line, error );
+            pending.append( text, start, newline );
+            addLine( pending.take(), error );
+            added = true;
+            start = newline + 1;
+        }
+        pending.append( text, start, text.length() );
+        if ( added )
+        {
+            linesAdded();
         }
     }
 
@@ -82,73 +147,230 @@ public class OperationOutputBuffer
      */
     public synchronized void flush()
     {
-        if ( pendingOut.length() > 0 )
+        boolean added = false;
+        if ( !pendingOut.isEmpty() )
+        {
+            addLine( pendingOut.take(), false );
+            added = true;
+        }
+        if ( !pendingErr.isEmpty() )
         {
-            addLine( pendingOut.toString(), false );
-            pendingOut.setLength( 0 );
+            addLine( pendingErr.take(), true );
+            added = true;
         }
-        if ( pendingErr.length() > 0 )
+        spillFlush();
+        if ( added )
         {
-            addLine( pendingErr.toString(), true );
-            pendingErr.setLength( 0 );
+            linesAdded();
         }
     }
 
+    /**
+     * Keeps the complete output in a temporary file from now on, so lines evicted
+     * from memory can still be paged and searched. Lines already dropped stay lost,
+     * so enable this before the output starts. Does nothing if it is already on, or
+     * if no temporary file can be created.
+     */
+    public synchronized void enableSpill()
+    {
+        if ( spill != null )
+        {
+            return;
+        }
+        try
+        {
+            spill = new Spill( droppedLines );
+            for ( int i = droppedLines; i < totalLines; i++ )
+            {
+                spill.write( ring[slot( i )] );
+            }
+        }
+        catch ( IOException e )
+        {
+            discardSpill();
+        }
+    }
+
+    /** True while the output is being kept on disk. */
+    public synchronized boolean isSpilling()
+    {
+        return spill != null;
+    }
+
+    /**
+     * Absolute index of the first line that no longer fit in the spill file, or -1
+     * while the file holds everything written since {@link #enableSpill()}. Lines
+     * from this index on are available only while they are still in memory, so once
+     * {@code droppedLines} passes it there is a gap in the output.
+     */
+    public synchronized int spillTruncatedAt()
+    {
+        return spill != null && spill.full ? spill.end() : -1;
+    }
+
     /**
      * Returns a page of lines.
      *
      * @param offset absolute index of the first line wanted. A negative value counts
      *               back from the end, so -200 asks for the last 200 lines. An offset
      *               pointing at already dropped lines is clamped to the oldest line
-     *               still held.
+     *               still available.
      * @param limit  maximum number of lines to return; a value below 1 yields an empty
      *               page that still reports the totals.
      */
     public synchronized Page page( int offset, int limit )
     {
-        int total = droppedLines + lines.size();
+        int total = totalLines;
+        int first = firstAvailable();
         if ( limit < 1 )
         {
-            return new Page( List.of(), total, total, total, droppedLines );
+            return new Page( List.of(), total, total, total, first );
         }
 
         int from = offset < 0 ? Math.max( 0, total + offset ) : offset;
-        from = Math.max( from, droppedLines );
+        from = Math.max( from, first );
+        int spilledEnd = spilledEnd();
+        if ( from >= spilledEnd )
+        {
+            // Lines between the end of a full spill file and memory are gone.
+            from = Math.max( from, droppedLines );
+        }
         from = Math.min( from, total );
+        int to = (int) Math.min( (long) from + limit, total );
+
+        List<String> page = new ArrayList<>( to - from );
+        int index = from;
+        if ( index < droppedLines )
+        {
+            // Evicted from memory, but still on disk. A page never spans the gap
+            // after a full spill file, so its lines stay consecutive.
+            int spilledTo = Math.min( to, spilledEnd );
+            if ( spilledEnd < droppedLines )
+            {
+                to = spilledTo;
+            }
+            if ( !readSpilled( index, spilledTo, page ) )
+            {
+                // The spill file broke under us; carry on from what memory holds.
+                page.clear();
+                from = Math.min( droppedLines, total );
+                to = (int) Math.min( (long) from + limit, total );
+            }
+            index = Math.max( spilledTo, from );
+        }
+        for ( ; index < to; index++ )
+        {
+            page.add( ring[slot( index )] );
+        }
+        return new Page( page, from, from + page.size(), total, firstAvailable() );
+    }
 
-        int skip = from - droppedLines;
-        List<String> page = new ArrayList<>( Math.min( limit, lines.size() ) );
-        int index = 0;
-        for ( String line : lines )
+    /**
+     * Searches the output for lines matching a pattern, so a caller can find the
+     * error in a 50,000 line build log without paging through all of it. With the
+     * spill enabled this covers everything written since; otherwise only the lines
+     * still in memory.
+     *
+     * @param offset     absolute index to start at; clamped like {@link #page}
+     * @param maxMatches stop after this many matches
+     */
+    public synchronized GrepResult grep( Pattern pattern, int offset, int maxMatches )
+    {
+        int total = totalLines;
+        int from = offset < 0 ? Math.max( 0, total + offset ) : offset;
+        from = Math.min( Math.max( from, firstAvailable() ), total );
+        List<Match> matches = new ArrayList<>();
+        int scanned = 0;
+        int index = from;
+        int spilledEnd = spilledEnd();
+        if ( index < spilledEnd && spill != null )
+        {
+            int end = spill.grep( pattern, index, spilledEnd, maxMatches, matches );
+            if ( end < 0 )
+            {
+                discardSpill();
+                end = droppedLines;
+            }
+            else
+            {
+                scanned += end - index;
+            }
+            index = end;
+            if ( matches.size() >= maxMatches )
+            {
+                return new GrepResult( matches, index, scanned, false );
+            }
+        }
+        index = Math.max( index, droppedLines );
+        for ( ; index < total && matches.size() < maxMatches; index++ )
         {
-            if ( index >= skip && page.size() < limit )
+            String line = ring[slot( index )];
+            scanned++;
+            if ( pattern.matcher( line ).find() )
             {
-                page.add( line );
+                matches.add( new Match( index, line ) );
             }
-            index++;
         }
-        return new Page( page, from, from + page.size(), total, droppedLines );
+        return new GrepResult( matches, index, scanned, index >= total );
     }
 
     /** Total lines produced so far, including any that have been dropped. */
     public synchronized int totalLines()
     {
-        return droppedLines + lines.size();
+        return totalLines;
     }
 
     /** True when nothing has ever been written. */
     public synchronized boolean isEmpty()
     {
-        return totalLines() == 0 && pendingOut.length() == 0 && pendingErr.length() == 0;
+        return totalLines == 0 && pendingOut.isEmpty() && pendingErr.isEmpty();
     }
 
+    /** Drops every line held, in memory and on disk, deleting the spill file. */
     public synchronized void clear()
     {
-        lines.clear();
-        pendingOut.setLength( 0 );
-        pendingErr.setLength( 0 );
+        Arrays.fill( ring, null );
+        pendingOut.take();
+        pendingErr.take();
         chars = 0;
-        // droppedLines is deliberately kept: absolute indices must never rewind.
+        // Absolute indices must never rewind: everything written so far counts as dropped.
+        droppedLines = totalLines;
+        discardSpill();
+    }
+
+    /**
+     * Registers a callback run whenever complete lines have been added, once per
+     * appended chunk rather than once per line. It runs while the buffer is locked,
+     * so it must only signal and never read the buffer itself.
+     */
+    void setLineListener( Runnable listener )
+    {
+        this.lineListener = listener;
+    }
+
+    private void linesAdded()
+    {
+        Runnable listener = lineListener;
+        if ( listener != null )
+        {
+            listener.run();
+        }
+    }
+
+    private int firstAvailable()
+    {
+        return spill != null ? Math.min( spill.firstIndex, droppedLines ) : droppedLines;
+    }
+
+    /** End of the evicted lines that can still be read back from the spill file. */
+    private int spilledEnd()
+    {
+        return spill != null ? Math.min( spill.end(), droppedLines ) : droppedLines;
+    }
+
+    private int slot( int index )
+    {
+        return index % ring.length;
     }
 
     private void addLine( String rawLine, boolean error )
@@ -158,43 +380,294 @@ public class OperationOutputBuffer
         {
             line = line.substring( 0, line.length() - 1 );
         }
-        if ( line.length() > MAX_LINE_CHARS )
-        {
-            line = line.substring( 0, MAX_LINE_CHARS ) + TRUNCATED;
-        }
         if ( error )
         {
             line = "[err] " + line;
         }
-        lines.addLast( line );
+        ring[slot( totalLines )] = line;
+        totalLines++;
         chars += line.length() + 1;
+        if ( spill != null )
+        {
+            try
+            {
+                spill.write( line );
+            }
+            catch ( IOException e )
+            {
+                discardSpill();
+            }
+        }
         evict();
     }
 
     private void evict()
     {
-        while ( lines.size() > MAX_LINES || chars > MAX_CHARS )
+        while ( totalLines - droppedLines > MAX_LINES || ( chars > MAX_CHARS && totalLines - droppedLines > 1 ) )
         {
-            String dropped = lines.pollFirst();
-            if ( dropped == null )
+            int slot = slot( droppedLines );
+            chars -= ring[slot].length() + 1;
+            ring[slot] = null;
+            droppedLines++;
+        }
+    }
+
+    private boolean readSpilled( int from, int to, List<String> into )
+    {
+        if ( spill == null )
+        {
+            return false;
+        }
+        try
+        {
+            spill.read( from, to, into );
+            return true;
+        }
+        catch ( IOException e )
+        {
+            discardSpill();
+            return false;
+        }
+    }
+
+    private void spillFlush()
+    {
+        if ( spill != null )
+        {
+            try
             {
-                chars = 0;
-                return;
+                spill.flush();
+            }
+            catch ( IOException e )
+            {
+                discardSpill();
             }
-            chars -= dropped.length() + 1;
-            droppedLines++;
         }
     }
 
-    private static int indexOfNewline( StringBuilder builder )
+    private void discardSpill()
     {
-        for ( int i = 0; i < builder.length(); i++ )
+        if ( spill != null )
         {
-            if ( builder.charAt( i ) == '\n' )
+            spill.close();
+            spill = null;
+        }
+    }
+
+    /**
+     * The line being assembled for one stream - kept per stream so interleaved
+     * stdout and stderr chunks do not splice each other's lines. It stops growing
+     * at {@link #MAX_LINE_CHARS}, so a stream that never sends a newline cannot eat
+     * the heap.
+     */
+    private static final class PendingLine
+    {
+        private final StringBuilder text = new StringBuilder();
+
+        private boolean truncated;
+
+        void append( String chunk, int start, int end )
+        {
+            int room = MAX_LINE_CHARS - text.length();
+            if ( end - start > room )
+            {
+                text.append( chunk, start, start + Math.max( 0, room ) );
+                truncated = true;
+            }
+            else
+            {
+                text.append( chunk, start, end );
+            }
+        }
+
+        boolean isEmpty()
+        {
+            return text.length() == 0 && !truncated;
+        }
+
+        String take()
+        {
+            String line = truncated ? text + TRUNCATED : text.toString();
+            text.setLength( 0 );
+            truncated = false;
+            return line;
+        }
+    }
+
+    /**
+     * The complete output on disk, one UTF-8 line per line. The byte offset of
+     * every {@value #SPILL_INDEX_STRIDE}th line is kept in memory, so any range of
+     * lines is still a single positional read, at the cost of skipping up to a
+     * stride of lines before it - while 256 MB of short lines index in a few MB.
+     * The file is deleted by {@link #close()}, when the output is cleared.
+     */
+    private static final class Spill
+    {
+        final int                  firstIndex;
+
+        private final Path         file;
+
+        private final OutputStream out;
+
+        private final FileChannel  channel;
+
+        /** Byte offset of line {@code firstIndex + i * SPILL_INDEX_STRIDE} at {@code offsets[i]}. */
+        private long[]             offsets = new long[64];
+
+        private int                count;
+
+        private long               size;
+
+        private boolean            dirty;
+
+        /** Set once the file reached {@link #MAX_SPILL_BYTES}; nothing is written after. */
+        boolean                    full;
+
+        Spill( int firstIndex ) throws IOException
+        {
+            this.firstIndex = firstIndex;
+            this.file = Files.createTempFile( "assistai-operation-", ".log" );
+            this.out = new BufferedOutputStream( Files.newOutputStream( file, StandardOpenOption.WRITE ), 64 * 1024 );
+            this.channel = FileChannel.open( file, StandardOpenOption.READ );
+        }
+
+        /** Absolute index one past the last line in the file. */
+        int end()
+        {
+            return firstIndex + count;
+        }
+
+        /** Appends a line, unless the file is full; it then keeps what it has. */
+        void write( String line ) throws IOException
+        {
+            if ( full )
+            {
+                return;
+            }
+            byte[] bytes = ( line + "\n" ).getBytes( StandardCharsets.UTF_8 );
+            if ( size + bytes.length > MAX_SPILL_BYTES )
+            {
+                full = true;
+                return;
+            }
+            if ( count % SPILL_INDEX_STRIDE == 0 )
+            {
+                int checkpoint = count / SPILL_INDEX_STRIDE;
+                if ( checkpoint == offsets.length )
+                {
+                    offsets = Arrays.copyOf( offsets, checkpoint * 2 );
+                }
+                offsets[checkpoint] = size;
+            }
+            count++;
+            out.write( bytes );
+            size += bytes.length;
+            dirty = true;
+        }
+
+        void flush() throws IOException
+        {
+            if ( dirty )
+            {
+                out.flush();
+                dirty = false;
+            }
+        }
+
+        /** Reads lines {@code [from, to)} by absolute index. */
+        void read( int from, int to, List<String> into ) throws IOException
+        {
+            if ( from >= to )
+            {
+                return;
+            }
+            flush();
+            int first = ( from - firstIndex ) / SPILL_INDEX_STRIDE;
+            int last = ( to - 1 - firstIndex ) / SPILL_INDEX_STRIDE + 1;
+            long start = offsets[first];
+            long end = last * SPILL_INDEX_STRIDE < count ? offsets[last] : size;
+            ByteBuffer buffer = ByteBuffer.allocate( (int) ( end - start ) );
+            while ( buffer.hasRemaining() )
+            {
+                if ( channel.read( buffer, start + buffer.position() ) < 0 )
+                {
+                    throw new IOException( "spill file truncated" );
+                }
+            }
+            String text = new String( buffer.array(), StandardCharsets.UTF_8 );
+            int lineStart = 0;
+            for ( int i = firstIndex + first * SPILL_INDEX_STRIDE; i < from; i++ )
+            {
+                lineStart = text.indexOf( '\n', lineStart ) + 1;
+            }
+            for ( int i = from; i < to; i++ )
+            {
+                int newline = text.indexOf( '\n', lineStart );
+                into.add( text.substring( lineStart, newline ) );
+                lineStart = newline + 1;
+            }
+        }
+
+        /**
+         * Runs lines {@code [from, to)} through the pattern, reading them back in
+         * chunks. Lines are split on newlines only, as
+         * written; a carriage return inside a line stays part of it.
+         *
+         * @return the index to continue from, or -1 if the file could not be read
+         */
+        int grep( Pattern pattern, int from, int to, int maxMatches, List<Match> matches )
+        {
+            try
+            {
+                List<String> chunk = new ArrayList<>( GREP_CHUNK_LINES );
+                int index = from;
+                while ( index < to && matches.size() < maxMatches )
+                {
+                    chunk.clear();
+                    read( index, Math.min( to, index + GREP_CHUNK_LINES ), chunk );
+                    for ( int i = 0; i < chunk.size() && matches.size() < maxMatches; i++, index++ )
+                    {
+                        String line = chunk.get( i );
+                        if ( pattern.matcher( line ).find() )
+                        {
+                            matches.add( new Match( index, line ) );
+                        }
+                    }
+                }
+                return index;
+            }
+            catch ( IOException e )
+            {
+                return -1;
+            }
+        }
+
+        void close()
+        {
+            try
+            {
+                out.close();
+            }
+            catch ( IOException e )
+            {
+                // deleting it anyway
+            }
+            try
+            {
+                channel.close();
+            }
+            catch ( IOException e )
+            {
+                // deleting it anyway
+            }
+            try
+            {
+                Files.deleteIfExists( file );
+            }
+            catch ( IOException e )
             {
-                return i;
+                // nothing more to do; it is a temporary file
             }
         }
-        return -1;
     }
 }
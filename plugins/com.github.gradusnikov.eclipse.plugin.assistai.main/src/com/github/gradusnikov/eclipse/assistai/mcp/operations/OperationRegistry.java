@@ -13,9 +13,12 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.e4.core.di.annotations.Creatable;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Singleton;
 
 /**
@@ -37,6 +40,9 @@ public class OperationRegistry
      */
     static final int                     MAX_RETAINED = 10;
 
+    /** Matching lines listed when an output filter is given without a limit. */
+    static final int                     DEFAULT_FILTER_MATCHES = 100;
+
     private final AtomicLong             sequence     = new AtomicLong();
 
     private final Map<String, Operation> operations   = new LinkedHashMap<>();
@@ -55,6 +61,16 @@ public class OperationRegistry
         return operation;
     }
 
+    /**
+     * Creates an operation that is neither listed nor retained, for a call its
+     * caller waits for itself but may have to cancel - cancelling an operation is
+     * what interrupts the worker.
+     */
+    public Operation unlisted( String toolName, String label )
+    {
+        return new Operation( "call-" + sequence.incrementAndGet(), toolName, label );
+    }
+
     public void attachFuture( Operation operation, CompletableFuture<Object> future )
     {
         operation.setFuture( future );
@@ -131,6 +147,11 @@ public class OperationRegistry
             sb.append( "    target: " ).append( operation.getLabel() );
         }
         sb.append( "\n" );
+        String queueStatus = operation.getQueueStatus();
+        if ( queueStatus != null )
+        {
+            sb.append( "queued: " ).append( queueStatus ).append( "\n" );
+        }
         if ( operation.getProgress() != null )
         {
             sb.append( "progress: " ).append( operation.getProgress() ).append( "\n" );
@@ -165,6 +186,26 @@ public class OperationRegistry
      */
     public String getOperationStatus( String operationId, int outputOffset, int outputLimit,
                                        int waitSeconds, String includeResults )
+    {
+        return getOperationStatus( operationId, outputOffset, outputLimit, waitSeconds, includeResults, false );
+    }
+
+    public String getOperationStatus( String operationId, int outputOffset, int outputLimit,
+                                       int waitSeconds, String includeResults, boolean wakeOnChange )
+    {
+        return getOperationStatus( operationId, outputOffset, outputLimit, waitSeconds, includeResults, wakeOnChange, null );
+    }
+
+    /**
+     * @param wakeOnChange end the wait as soon as the operation reports progress,
+     *                     publishes results, leaves the queue or finishes, rather
+     *                     than only when it finishes
+     * @param outputFilter a regular expression; when given, the output section lists
+     *                     the matching lines from {@code outputOffset} on instead of a
+     *                     page, up to {@code outputLimit} of them
+     */
+    public String getOperationStatus( String operationId, int outputOffset, int outputLimit,
+                                       int waitSeconds, String includeResults, boolean wakeOnChange, String outputFilter )
     {
         Optional<Operation> found = find( operationId );
         if ( found.isEmpty() )
@@ -178,7 +219,18 @@ public class OperationRegistry
                 ? operation.nextAutoPollWaitSeconds()
                 : Math.max( 0, waitSeconds );
 
-        if ( effectiveWait > 0 && !operation.isTerminal() && operation.getFuture() != null )
+        if ( effectiveWait > 0 && !operation.isTerminal() && wakeOnChange )
+        {
+            try
+            {
+                operation.awaitMilestone( operation.milestoneCount(), TimeUnit.SECONDS.toMillis( effectiveWait ) );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        else if ( effectiveWait > 0 && !operation.isTerminal() && operation.getFuture() != null )
         {
             try
             {
@@ -197,7 +249,7 @@ public class OperationRegistry
                 Thread.currentThread().interrupt();
             }
         }
-        return formatStatus( operation, outputOffset, outputLimit, includeResults );
+        return formatStatus( operation, outputOffset, outputLimit, includeResults, outputFilter );
     }
 
     public String formatStatus( Operation operation, int outputOffset, int outputLimit )
@@ -211,6 +263,16 @@ public class OperationRegistry
      */
     public String formatStatus( Operation operation, int outputOffset, int outputLimit,
                                  String includeResults )
+    {
+        return formatStatus( operation, outputOffset, outputLimit, includeResults, null );
+    }
+
+    /**
+     * @param outputFilter a regular expression to search the output with, or
+     *                     {@code null}/blank for a plain page
+     */
+    public String formatStatus( Operation operation, int outputOffset, int outputLimit,
+                                 String includeResults, String outputFilter )
     {
         StringBuilder sb = new StringBuilder();
         sb.append( "Operation " ).append( operation.getId() ).append( " [" ).append( operation.getToolName() ).append( "]" );
@@ -221,6 +283,11 @@ public class OperationRegistry
         sb.append( "\n" );
         sb.append( "State: " ).append( operation.getState() );
         sb.append( "    Elapsed: " ).append( seconds( operation.elapsedSeconds() ) ).append( "\n" );
+        String queueStatus = operation.isTerminal() ? null : operation.getQueueStatus();
+        if ( queueStatus != null )
+        {
+            sb.append( "Queued: " ).append( queueStatus ).append( "\n" );
+        }
         if ( !operation.isTerminal() && operation.getProgress() != null )
         {
             sb.append( "Progress: " ).append( operation.getProgress() ).append( "\n" );
@@ -254,7 +321,14 @@ public class OperationRegistry
             }
         }
 
-        appendOutput( sb, operation, outputOffset, outputLimit );
+        if ( outputFilter != null && !outputFilter.isBlank() )
+        {
+            appendMatchingOutput( sb, operation, outputFilter, outputOffset, outputLimit );
+        }
+        else
+        {
+            appendOutput( sb, operation, outputOffset, outputLimit );
+        }
         return sb.toString();
     }
 
@@ -292,6 +366,52 @@ public class OperationRegistry
     }
 
 
+    /**
+     * Lists the output lines matching a pattern, with their indices so the caller
+     * can page around a hit with outputOffset.
+     */
+    private void appendMatchingOutput( StringBuilder sb, Operation operation, String outputFilter, int outputOffset, int outputLimit )
+    {
+        Pattern pattern;
+        try
+        {
+            pattern = Pattern.compile( outputFilter );
+        }
+        catch ( PatternSyntaxException e )
+        {
+            sb.append( "\nOutput: outputFilter is not a valid regular expression: " ).append( e.getDescription() ).append( "\n" );
+            return;
+        }
+        int limit = outputLimit > 0 ? outputLimit : DEFAULT_FILTER_MATCHES;
+        OperationOutputBuffer.GrepResult result = operation.output().grep( pattern, outputOffset, limit );
+        OperationOutputBuffer.Page totals = operation.output().page( 0, 0 );
+        sb.append( "\nOutput matching /" ).append( outputFilter ).append( "/: " ).append( result.matches().size() ).append( " lines in " )
+                .append( result.scannedLines() ).append( " searched of " ).append( totals.totalLines() );
+        if ( totals.droppedLines() > 0 )
+        {
+            sb.append( "; " ).append( totals.droppedLines() ).append( " earlier lines dropped" );
+        }
+        appendSpillGap( sb, operation );
+        sb.append( ":\n" );
+        for ( OperationOutputBuffer.Match match : result.matches() )
+        {
+            sb.append( match.index() ).append( ": " ).append( match.line() ).append( "\n" );
+        }
+        if ( !result.complete() )
+        {
+            sb.append( "nextOffset: " ).append( result.nextOffset() ).append( "\n" );
+        }
+    }
+
+    private void appendSpillGap( StringBuilder sb, Operation operation )
+    {
+        int truncatedAt = operation.output().spillTruncatedAt();
+        if ( truncatedAt >= 0 )
+        {
+            sb.append( "; output from line " ).append( truncatedAt ).append( " on exceeded the spill file limit and is kept in memory only" );
+        }
+    }
+
     private void appendOutput( StringBuilder sb, Operation operation, int outputOffset, int outputLimit )
     {
         if ( outputLimit < 1 )
@@ -321,6 +441,7 @@ public class OperationRegistry
         {
             sb.append( "; " ).append( page.droppedLines() ).append( " earlier lines dropped" );
         }
+        appendSpillGap( sb, operation );
         sb.append( ":\n" );
         for ( String line : page.lines() )
         {
@@ -343,7 +464,8 @@ public class OperationRegistry
         sb.append( "Operations (" ).append( all.size() ).append( "):\n" );
         for ( Operation operation : all )
         {
-            sb.append( "  " ).append( operation.getId() ).append( "  " ).append( operation.getState() ).append( "  " )
+            String state = operation.getState() == OperationState.RUNNING && operation.getQueueStatus() != null ? "QUEUED" : operation.getState().toString();
+            sb.append( "  " ).append( operation.getId() ).append( "  " ).append( state ).append( "  " )
                     .append( seconds( operation.elapsedSeconds() ) ).append( "  " ).append( operation.getToolName() );
             if ( operation.getLabel() != null && !operation.getLabel().isBlank() )
             {
@@ -371,6 +493,14 @@ public class OperationRegistry
                 + "\") to confirm it stopped.";
     }
 
+    /** Releases the output of every operation, deleting any spill files. */
+    @PreDestroy
+    public synchronized void dispose()
+    {
+        operations.values().forEach( operation -> operation.output().clear() );
+        operations.clear();
+    }
+
     /**
      * Discards the oldest finished operations. Running ones are never evicted -
      * a caller must always be able to find the work it started, however long it
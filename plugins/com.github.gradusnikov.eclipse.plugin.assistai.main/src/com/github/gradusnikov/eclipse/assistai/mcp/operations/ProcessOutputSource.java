@@ -38,6 +38,8 @@ public final class ProcessOutputSource
             return;
         }
 
+        // Test and build logs are where the interesting part scrolls out of memory first.
+        operation.output().enableSpill();
         Set<IProcess> attached = ConcurrentHashMap.newKeySet();
         attachExisting( operation, launch, attached );
 
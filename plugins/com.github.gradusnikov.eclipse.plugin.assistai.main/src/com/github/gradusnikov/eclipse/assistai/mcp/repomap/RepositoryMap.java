@@ -0,0 +1,410 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.repomap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.search.JavaSourceScanner;
+
+/**
+ * The types of one project, ranked by how central they are in the project's
+ * reference graph, and rendered as a compact map of declarations and member
+ * signatures that fits a token budget.
+ * <p>
+ * The graph is kept per compilation unit: {@link #put} replaces what one file
+ * declares and references, so an edit costs one file, not the project. Edges are
+ * resolved the way the compiler would for the common cases - same package, single
+ * type imports, on-demand imports and member types of imported types - from the
+ * simple type names a file mentions, and supertypes weigh more than plain
+ * mentions. Names that resolve to nothing in the project (JDK and library types)
+ * are left out. Ranks are a PageRank over that graph, computed on the first query
+ * after a change and then reused.
+ * <p>
+ * Thread safe.
+ */
+public final class RepositoryMap
+{
+    /** Weight of a supertype edge; a plain mention weighs 1. */
+    public static final int      SUPERTYPE_WEIGHT   = 3;
+
+    /** Rough characters per token, for the budget. */
+    static final int             CHARS_PER_TOKEN    = 4;
+
+    /** Members listed per type before the rest are only counted. */
+    static final int             MAX_MEMBERS        = 12;
+
+    private static final double  DAMPING            = 0.85;
+
+    private static final int     ITERATIONS         = 30;
+
+    private static final double  EPSILON            = 1e-9;
+
+    /**
+     * A type as the map shows it.
+     *
+     * @param name        the fully qualified name, with {@code .} before member types
+     * @param declaration modifiers, kind, name, type parameters and supertypes
+     * @param members     member signatures, most useful first
+     */
+    public record TypeEntry( String name, String declaration, List<String> members )
+    {
+    }
+
+    /**
+     * What a compilation unit declares and mentions.
+     *
+     * @param imports    single type imports as written, on-demand ones ending in {@code .*}
+     * @param references simple type names mentioned, with their weight: 1, or
+     *                   {@link #SUPERTYPE_WEIGHT} for supertypes
+     */
+    public record Unit( String path, String packageName, List<String> imports, List<TypeEntry> types, Map<String, Integer> references )
+    {
+    }
+
+    /**
+     * A type and its place in the ranking.
+     *
+     * @param usedBy the number of other files that reference it
+     */
+    public record Ranked( TypeEntry type, String path, double score, int usedBy )
+    {
+    }
+
+    private final Map<String, Unit> units = new HashMap<>();
+
+    private List<Ranked>            ranking;
+
+    private long                    version;
+
+    public synchronized void put( Unit unit )
+    {
+        units.put( unit.path(), unit );
+        changed();
+    }
+
+    public synchronized void remove( String path )
+    {
+        if ( units.remove( path ) != null )
+        {
+            changed();
+        }
+    }
+
+    public synchronized void clear()
+    {
+        units.clear();
+        changed();
+    }
+
+    /** Bumped by every change. */
+    public synchronized long version()
+    {
+        return version;
+    }
+
+    public synchronized int unitCount()
+    {
+        return units.size();
+    }
+
+    public synchronized int typeCount()
+    {
+        return units.values().stream().mapToInt( unit -> unit.types().size() ).sum();
+    }
+
+    /**
+     * All types, most central first.
+     */
+    public synchronized List<Ranked> rank()
+    {
+        if ( ranking == null )
+        {
+            ranking = computeRanking();
+        }
+        return ranking;
+    }
+
+    /**
+     * Renders the highest ranked types that fit into roughly {@code maxTokens}
+     * tokens. Each type gets its declaration and as many of its members as fit,
+     * up to {@value #MAX_MEMBERS}; the first type is always shown.
+     */
+    public String render( String title, int maxTokens )
+    {
+        List<Ranked> ranked = rank();
+        int budget = Math.max( 0, maxTokens ) * CHARS_PER_TOKEN;
+        StringBuilder out = new StringBuilder();
+        out.append( "# Repository map: " ).append( title ).append( "\n\n" );
+        int shown = 0;
+        for ( Ranked entry : ranked )
+        {
+            String head = entry.type().name() + ( entry.usedBy() > 0 ? "  (used by " + entry.usedBy() + " files)" : "" ) + "\n  "
+                    + entry.type().declaration() + "\n";
+            if ( shown > 0 && out.length() + head.length() > budget )
+            {
+                break;
+            }
+            out.append( head );
+            List<String> members = entry.type().members();
+            int listed = 0;
+            for ( String member : members )
+            {
+                String line = "    " + member + "\n";
+                if ( listed >= MAX_MEMBERS || out.length() + line.length() > budget )
+                {
+                    break;
+                }
+                out.append( line );
+                listed++;
+            }
+            if ( listed < members.size() )
+            {
+                out.append( "    ... " ).append( members.size() - listed ).append( " more\n" );
+            }
+            shown++;
+        }
+        if ( shown < ranked.size() )
+        {
+            out.append( "\n" ).append( ranked.size() - shown ).append( " of " ).append( ranked.size() )
+                    .append( " types not shown; raise maxTokens to see more, or use getClassOutline on a type.\n" );
+        }
+        else if ( ranked.isEmpty() )
+        {
+            out.append( "No Java types found.\n" );
+        }
+        return out.toString();
+    }
+
+    private void changed()
+    {
+        version++;
+        ranking = null;
+    }
+
+    private List<Ranked> computeRanking()
+    {
+        // Number the types, and index them by simple name for resolving mentions.
+        List<TypeEntry> types = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        List<String> packages = new ArrayList<>();
+        Map<String, List<Integer>> bySimpleName = new HashMap<>();
+        Map<String, int[]> declaredIn = new LinkedHashMap<>();
+        for ( Unit unit : units.values() )
+        {
+            int[] ids = new int[unit.types().size()];
+            for ( int i = 0; i < ids.length; i++ )
+            {
+                TypeEntry type = unit.types().get( i );
+                ids[i] = types.size();
+                types.add( type );
+                paths.add( unit.path() );
+                packages.add( unit.packageName() );
+                bySimpleName.computeIfAbsent( simpleName( type.name() ), k -> new ArrayList<>( 1 ) ).add( ids[i] );
+            }
+            declaredIn.put( unit.path(), ids );
+        }
+        int n = types.size();
+        if ( n == 0 )
+        {
+            return List.of();
+        }
+
+        // Resolve each unit's mentions to weighted edges from its types.
+        List<int[]> sources = new ArrayList<>();
+        List<int[]> targets = new ArrayList<>();
+        List<double[]> weights = new ArrayList<>();
+        Set<Integer>[] users = newSets( n );
+        for ( Unit unit : units.values() )
+        {
+            int[] own = declaredIn.get( unit.path() );
+            Set<Integer> ownSet = new HashSet<>();
+            Arrays.stream( own ).forEach( ownSet::add );
+            Map<Integer, Integer> edges = new LinkedHashMap<>();
+            for ( Map.Entry<String, Integer> reference : unit.references().entrySet() )
+            {
+                Integer target = resolve( reference.getKey(), unit, bySimpleName, types, packages );
+                if ( target != null && !ownSet.contains( target ) )
+                {
+                    edges.merge( target, reference.getValue(), Integer::sum );
+                }
+            }
+            if ( own.length == 0 || edges.isEmpty() )
+            {
+                continue;
+            }
+            int[] to = new int[edges.size()];
+            double[] w = new double[edges.size()];
+            double total = edges.values().stream().mapToInt( Integer::intValue ).sum();
+            int e = 0;
+            for ( Map.Entry<Integer, Integer> edge : edges.entrySet() )
+            {
+                to[e] = edge.getKey();
+                w[e] = edge.getValue() / total;
+                users[edge.getKey()].add( sources.size() );
+                e++;
+            }
+            sources.add( own );
+            targets.add( to );
+            weights.add( w );
+        }
+
+        double[] score = pageRank( n, sources, targets, weights );
+
+        List<Ranked> ranked = new ArrayList<>( n );
+        for ( int i = 0; i < n; i++ )
+        {
+            ranked.add( new Ranked( types.get( i ), paths.get( i ), score[i], users[i].size() ) );
+        }
+        ranked.sort( Comparator.comparingDouble( Ranked::score ).reversed().thenComparing( r -> r.type().name() ) );
+        return List.copyOf( ranked );
+    }
+
+    /**
+     * PageRank where the types of one unit pool their rank and hand it on along
+     * the unit's edges; rank of units without edges is spread evenly.
+     */
+    private static double[] pageRank( int n, List<int[]> sources, List<int[]> targets, List<double[]> weights )
+    {
+        double[] rank = new double[n];
+        Arrays.fill( rank, 1.0 / n );
+        boolean[] hasEdges = new boolean[n];
+        for ( int[] own : sources )
+        {
+            for ( int id : own )
+            {
+                hasEdges[id] = true;
+            }
+        }
+        for ( int iteration = 0; iteration < ITERATIONS; iteration++ )
+        {
+            double[] next = new double[n];
+            double dangling = 0;
+            for ( int i = 0; i < n; i++ )
+            {
+                if ( !hasEdges[i] )
+                {
+                    dangling += rank[i];
+                }
+            }
+            for ( int u = 0; u < sources.size(); u++ )
+            {
+                double pooled = 0;
+                for ( int id : sources.get( u ) )
+                {
+                    pooled += rank[id];
+                }
+                int[] to = targets.get( u );
+                double[] w = weights.get( u );
+                for ( int e = 0; e < to.length; e++ )
+                {
+                    next[to[e]] += pooled * w[e];
+                }
+            }
+            double base = ( 1 - DAMPING ) / n + DAMPING * dangling / n;
+            double delta = 0;
+            for ( int i = 0; i < n; i++ )
+            {
+                next[i] = base + DAMPING * next[i];
+                delta += Math.abs( next[i] - rank[i] );
+            }
+            rank = next;
+            if ( delta < EPSILON )
+            {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * The project type a simple name in a unit refers to, or {@code null} if it is
+     * not one of the project's types or is ambiguous.
+     */
+    private static Integer resolve( String simpleName, Unit unit, Map<String, List<Integer>> bySimpleName, List<TypeEntry> types,
+            List<String> packages )
+    {
+        List<Integer> candidates = bySimpleName.get( simpleName );
+        if ( candidates == null )
+        {
+            return null;
+        }
+        Integer samePackage = null;
+        for ( Integer candidate : candidates )
+        {
+            String name = types.get( candidate ).name();
+            for ( String imported : unit.imports() )
+            {
+                // A single type import of the type itself or of the type it is a member of.
+                if ( imported.equals( name ) || ( !imported.endsWith( ".*" ) && name.startsWith( imported + "." ) ) )
+                {
+                    return candidate;
+                }
+            }
+            if ( samePackage == null && packages.get( candidate ).equals( unit.packageName() ) )
+            {
+                samePackage = candidate;
+            }
+        }
+        if ( samePackage != null )
+        {
+            return samePackage;
+        }
+        for ( Integer candidate : candidates )
+        {
+            String name = types.get( candidate ).name();
+            for ( String imported : unit.imports() )
+            {
+                if ( imported.endsWith( ".*" ) && name.startsWith( imported.substring( 0, imported.length() - 1 ) )
+                        && name.indexOf( '.', imported.length() - 1 ) < 0 )
+                {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    static String simpleName( String qualifiedName )
+    {
+        return qualifiedName.substring( qualifiedName.lastIndexOf( '.' ) + 1 );
+    }
+
+    /**
+     * The capitalised identifiers in Java source outside comments, string and
+     * character literals - the candidates for type references. Good enough for
+     * ranking; it does not have to be exact.
+     */
+    public static Set<String> typeMentions( CharSequence source )
+    {
+        Set<String> mentions = new HashSet<>();
+        JavaSourceScanner.scan( source, new JavaSourceScanner.Visitor()
+        {
+            @Override
+            public void identifier( CharSequence text, int start, int end )
+            {
+                if ( Character.isUpperCase( text.charAt( start ) ) )
+                {
+                    mentions.add( text.subSequence( start, end ).toString() );
+                }
+            }
+        } );
+        return mentions;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static Set<Integer>[] newSets( int n )
+    {
+        Set<Integer>[] sets = new Set[n];
+        for ( int i = 0; i < n; i++ )
+        {
+            sets[i] = new HashSet<>();
+        }
+        return sets;
+    }
+}
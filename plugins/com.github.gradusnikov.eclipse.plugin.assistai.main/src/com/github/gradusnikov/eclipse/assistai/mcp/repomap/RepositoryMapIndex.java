@@ -0,0 +1,486 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.repomap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IImportDeclaration;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeParameter;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+
+import com.github.gradusnikov.eclipse.assistai.services.AiIgnoreService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * A {@link RepositoryMap} per Java project, built from the Java model in the
+ * background and kept current from Java element deltas.
+ * <p>
+ * A background job builds the map of every open Java project once; after that an
+ * element delta for a compilation unit queues just that unit, and the job (or the
+ * next query, whichever comes first) re-reads it. Classpath changes, opened
+ * projects and removed packages rebuild the project. A query for a project whose
+ * map is not built yet builds it on the spot, so the first query may take a while
+ * and every later one is answered from memory.
+ * <p>
+ * Only source in the project's own source folders is read, and files excluded by
+ * {@link AiIgnoreService} are left out.
+ */
+@Creatable
+@Singleton
+public class RepositoryMapIndex
+{
+    private static final long              UPDATE_DELAY_MS = 500;
+
+    @Inject
+    ILog                                   logger;
+
+    @Inject
+    AiIgnoreService                        aiIgnoreService;
+
+    private final Map<String, ProjectMap>  projects        = new ConcurrentHashMap<>();
+
+    private final IElementChangedListener  listener        = this::elementChanged;
+
+    private final Job                      job             = new Job( "Building repository map" )
+                                                           {
+                                                               @Override
+                                                               protected IStatus run( IProgressMonitor monitor )
+                                                               {
+                                                                   return update( monitor );
+                                                               }
+                                                           };
+
+    /** A project's map and the compilation units queued for it. */
+    private static final class ProjectMap
+    {
+        final RepositoryMap map     = new RepositoryMap();
+
+        /** Workspace paths of units to re-read. */
+        final Set<String>   pending = ConcurrentHashMap.newKeySet();
+
+        volatile boolean    built;
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        job.setSystem( true );
+        job.setPriority( Job.DECORATE );
+        JavaCore.addElementChangedListener( listener, ElementChangedEvent.POST_CHANGE );
+        for ( IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects() )
+        {
+            if ( isJavaProject( project ) )
+            {
+                projects.put( project.getName(), new ProjectMap() );
+            }
+        }
+        job.schedule();
+    }
+
+    @PreDestroy
+    public void dispose()
+    {
+        JavaCore.removeElementChangedListener( listener );
+        job.cancel();
+        try
+        {
+            job.join( 5_000, null );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The current map of a Java project, built or brought up to date first if
+     * needed.
+     *
+     * @return the map, or {@code null} if there is no open Java project of that name
+     */
+    public RepositoryMap getMap( String projectName )
+    {
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject( projectName );
+        if ( !isJavaProject( project ) )
+        {
+            return null;
+        }
+        ProjectMap projectMap = projects.computeIfAbsent( projectName, name -> new ProjectMap() );
+        refresh( JavaCore.create( project ), projectMap, new NullProgressMonitor() );
+        return projectMap.map;
+    }
+
+    /**
+     * Renders the map of a project within a token budget.
+     */
+    public String render( String projectName, int maxTokens )
+    {
+        RepositoryMap map = getMap( projectName );
+        if ( map == null )
+        {
+            return "Error: '" + projectName + "' is not an open Java project.";
+        }
+        return map.render( projectName + " (" + map.typeCount() + " types in " + map.unitCount() + " files, most referenced first)",
+                maxTokens );
+    }
+
+    private IStatus update( IProgressMonitor monitor )
+    {
+        for ( Map.Entry<String, ProjectMap> entry : projects.entrySet() )
+        {
+            if ( monitor.isCanceled() )
+            {
+                return Status.CANCEL_STATUS;
+            }
+            IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject( entry.getKey() );
+            if ( !isJavaProject( project ) )
+            {
+                projects.remove( entry.getKey() );
+                continue;
+            }
+            try
+            {
+                refresh( JavaCore.create( project ), entry.getValue(), monitor );
+            }
+            catch ( OperationCanceledException e )
+            {
+                return Status.CANCEL_STATUS;
+            }
+            catch ( RuntimeException e )
+            {
+                logger.error( "Error building the repository map of " + entry.getKey(), e );
+            }
+        }
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Builds the map if it has not been built, otherwise re-reads the queued units.
+     * Synchronized per project, so the job and a query never read the same project
+     * at once.
+     */
+    private void refresh( IJavaProject javaProject, ProjectMap projectMap, IProgressMonitor monitor )
+    {
+        synchronized ( projectMap )
+        {
+            try
+            {
+                if ( !projectMap.built )
+                {
+                    // Set first: a delta that asks for a rebuild while this runs must not be lost.
+                    projectMap.built = true;
+                    projectMap.pending.clear();
+                    try
+                    {
+                        build( javaProject, projectMap.map, monitor );
+                    }
+                    catch ( JavaModelException | RuntimeException e )
+                    {
+                        projectMap.built = false;
+                        throw e;
+                    }
+                }
+                for ( String path : new ArrayList<>( projectMap.pending ) )
+                {
+                    projectMap.pending.remove( path );
+                    reread( path, projectMap.map );
+                }
+            }
+            catch ( JavaModelException e )
+            {
+                throw new RuntimeException( "Error reading the Java model of " + javaProject.getElementName() + ": " + e.getMessage(), e );
+            }
+        }
+    }
+
+    private void build( IJavaProject javaProject, RepositoryMap map, IProgressMonitor monitor ) throws JavaModelException
+    {
+        Map<String, RepositoryMap.Unit> units = new HashMap<>();
+        for ( IPackageFragmentRoot root : javaProject.getPackageFragmentRoots() )
+        {
+            if ( root.getKind() != IPackageFragmentRoot.K_SOURCE || !javaProject.equals( root.getJavaProject() ) )
+            {
+                continue;
+            }
+            for ( IJavaElement child : root.getChildren() )
+            {
+                if ( monitor.isCanceled() )
+                {
+                    throw new OperationCanceledException();
+                }
+                for ( ICompilationUnit unit : ( (IPackageFragment) child ).getCompilationUnits() )
+                {
+                    if ( isIncluded( unit ) )
+                    {
+                        units.put( unit.getPath().toString(), summarize( unit ) );
+                    }
+                }
+            }
+        }
+        map.clear();
+        units.values().forEach( map::put );
+    }
+
+    private void reread( String path, RepositoryMap map ) throws JavaModelException
+    {
+        IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile( IPath.fromPortableString( path ) );
+        ICompilationUnit unit = JavaCore.createCompilationUnitFrom( file );
+        if ( unit != null && unit.exists() && isIncluded( unit ) )
+        {
+            map.put( summarize( unit ) );
+        }
+        else
+        {
+            map.remove( path );
+        }
+    }
+
+    private boolean isIncluded( ICompilationUnit unit )
+    {
+        IResource resource = unit.getResource();
+        return resource != null && ( aiIgnoreService == null || !aiIgnoreService.isExcluded( resource ) );
+    }
+
+    /**
+     * Reads what a compilation unit declares and mentions.
+     */
+    static RepositoryMap.Unit summarize( ICompilationUnit unit ) throws JavaModelException
+    {
+        List<String> imports = new ArrayList<>();
+        for ( IImportDeclaration declaration : unit.getImports() )
+        {
+            if ( !Flags.isStatic( declaration.getFlags() ) )
+            {
+                imports.add( declaration.getElementName() );
+            }
+        }
+        Map<String, Integer> references = new HashMap<>();
+        for ( String mention : RepositoryMap.typeMentions( unit.getSource() ) )
+        {
+            references.put( mention, 1 );
+        }
+        List<RepositoryMap.TypeEntry> types = new ArrayList<>();
+        for ( IType type : unit.getAllTypes() )
+        {
+            types.add( new RepositoryMap.TypeEntry( type.getFullyQualifiedName( '.' ), declaration( type ), members( type ) ) );
+            List<String> supertypes = new ArrayList<>( List.of( type.getSuperInterfaceNames() ) );
+            if ( type.getSuperclassName() != null )
+            {
+                supertypes.add( type.getSuperclassName() );
+            }
+            for ( String supertype : supertypes )
+            {
+                int typeArguments = supertype.indexOf( '<' );
+                String erasure = typeArguments < 0 ? supertype : supertype.substring( 0, typeArguments );
+                references.put( RepositoryMap.simpleName( erasure ), RepositoryMap.SUPERTYPE_WEIGHT );
+            }
+        }
+        IPackageFragment pkg = (IPackageFragment) unit.getParent();
+        return new RepositoryMap.Unit( unit.getPath().toString(), pkg.getElementName(), List.copyOf( imports ), List.copyOf( types ),
+                Map.copyOf( references ) );
+    }
+
+    private static String declaration( IType type ) throws JavaModelException
+    {
+        StringBuilder decl = new StringBuilder();
+        int flags = type.getFlags() & ( Flags.AccPublic | Flags.AccProtected | Flags.AccStatic | Flags.AccFinal | Flags.AccAbstract );
+        if ( type.isInterface() )
+        {
+            flags &= ~Flags.AccAbstract;
+        }
+        String modifiers = Flags.toString( flags );
+        if ( !modifiers.isEmpty() )
+        {
+            decl.append( modifiers ).append( " " );
+        }
+        decl.append( type.isAnnotation() ? "@interface " : type.isInterface() ? "interface " : type.isEnum() ? "enum " : type.isRecord() ? "record " : "class " );
+        decl.append( type.getElementName() );
+        ITypeParameter[] typeParameters = type.getTypeParameters();
+        if ( typeParameters.length > 0 )
+        {
+            decl.append( "<" );
+            for ( int i = 0; i < typeParameters.length; i++ )
+            {
+                decl.append( i > 0 ? ", " : "" ).append( typeParameters[i].getElementName() );
+            }
+            decl.append( ">" );
+        }
+        String superclass = type.getSuperclassName();
+        if ( superclass != null && !type.isEnum() && !type.isRecord() && !"Object".equals( superclass ) )
+        {
+            decl.append( " extends " ).append( superclass );
+        }
+        String[] interfaces = type.getSuperInterfaceNames();
+        if ( interfaces.length > 0 )
+        {
+            decl.append( type.isInterface() ? " extends " : " implements " ).append( String.join( ", ", interfaces ) );
+        }
+        return decl.toString();
+    }
+
+    /**
+     * Non-private member signatures: enum constants on one line, then
+     * constructors and methods, then fields.
+     */
+    private static List<String> members( IType type ) throws JavaModelException
+    {
+        List<String> members = new ArrayList<>();
+        List<String> constants = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        for ( IField field : type.getFields() )
+        {
+            if ( field.isEnumConstant() )
+            {
+                constants.add( field.getElementName() );
+            }
+            else if ( !Flags.isPrivate( field.getFlags() ) )
+            {
+                fields.add( ( Flags.isStatic( field.getFlags() ) ? "static " : "" ) + Signature.toString( field.getTypeSignature() ) + " "
+                        + field.getElementName() );
+            }
+        }
+        if ( !constants.isEmpty() )
+        {
+            members.add( String.join( ", ", constants ) );
+        }
+        for ( IMethod method : type.getMethods() )
+        {
+            if ( Flags.isPrivate( method.getFlags() ) || Flags.isSynthetic( method.getFlags() ) )
+            {
+                continue;
+            }
+            StringBuilder signature = new StringBuilder();
+            if ( Flags.isStatic( method.getFlags() ) )
+            {
+                signature.append( "static " );
+            }
+            if ( !method.isConstructor() )
+            {
+                signature.append( Signature.toString( method.getReturnType() ) ).append( " " );
+            }
+            signature.append( method.getElementName() ).append( "(" );
+            String[] parameterTypes = method.getParameterTypes();
+            for ( int i = 0; i < parameterTypes.length; i++ )
+            {
+                signature.append( i > 0 ? ", " : "" ).append( Signature.toString( parameterTypes[i] ) );
+            }
+            members.add( signature.append( ")" ).toString() );
+        }
+        members.addAll( fields );
+        return members;
+    }
+
+    private void elementChanged( ElementChangedEvent event )
+    {
+        visit( event.getDelta() );
+        if ( projects.values().stream().anyMatch( projectMap -> !projectMap.built || !projectMap.pending.isEmpty() ) )
+        {
+            job.schedule( UPDATE_DELAY_MS );
+        }
+    }
+
+    private void visit( IJavaElementDelta delta )
+    {
+        IJavaElement element = delta.getElement();
+        int kind = delta.getKind();
+        int flags = delta.getFlags();
+        switch ( element.getElementType() )
+        {
+            case IJavaElement.JAVA_PROJECT:
+                String name = element.getElementName();
+                if ( kind == IJavaElementDelta.REMOVED || ( flags & IJavaElementDelta.F_CLOSED ) != 0 )
+                {
+                    projects.remove( name );
+                    return;
+                }
+                if ( kind == IJavaElementDelta.ADDED || ( flags & ( IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLASSPATH_CHANGED
+                        | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED ) ) != 0 )
+                {
+                    projects.put( name, new ProjectMap() );
+                    return;
+                }
+                break;
+            case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+            case IJavaElement.PACKAGE_FRAGMENT:
+                if ( kind != IJavaElementDelta.CHANGED )
+                {
+                    rebuild( element );
+                    return;
+                }
+                break;
+            case IJavaElement.COMPILATION_UNIT:
+                // Opening or closing an editor only creates or discards a working copy.
+                if ( kind != IJavaElementDelta.CHANGED || ( flags & ~IJavaElementDelta.F_PRIMARY_WORKING_COPY ) != 0 )
+                {
+                    ProjectMap projectMap = projects.get( element.getJavaProject().getElementName() );
+                    if ( projectMap != null )
+                    {
+                        projectMap.pending.add( element.getPath().toString() );
+                    }
+                }
+                return;
+            default:
+                break;
+        }
+        for ( IJavaElementDelta child : delta.getAffectedChildren() )
+        {
+            visit( child );
+        }
+    }
+
+    private void rebuild( IJavaElement element )
+    {
+        ProjectMap projectMap = projects.get( element.getJavaProject().getElementName() );
+        if ( projectMap != null )
+        {
+            projectMap.built = false;
+        }
+    }
+
+    private static boolean isJavaProject( IProject project )
+    {
+        try
+        {
+            return project.isOpen() && project.hasNature( JavaCore.NATURE_ID );
+        }
+        catch ( CoreException e )
+        {
+            return false;
+        }
+    }
+}
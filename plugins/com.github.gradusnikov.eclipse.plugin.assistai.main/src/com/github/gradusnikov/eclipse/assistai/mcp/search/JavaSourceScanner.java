@@ -0,0 +1,105 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.search;
+
+/**
+ * Splits Java source into identifiers, comments and string or character
+ * literals, skipping everything else.
+ * <p>
+ * A lexer just good enough for indexing: it knows where comments and literals
+ * start and end, including text blocks and escapes, but does not tell keywords
+ * from identifiers or check that the source compiles. Unterminated comments and
+ * literals run to the end of the source.
+ */
+public final class JavaSourceScanner
+{
+    /** Receives the tokens in source order, as {@code [start, end)} ranges. */
+    public interface Visitor
+    {
+        default void identifier( CharSequence source, int start, int end )
+        {
+        }
+
+        /** A comment including its {@code //} or {@code /*} delimiters. */
+        default void comment( CharSequence source, int start, int end )
+        {
+        }
+
+        /** The content of a string, text block or character literal, without the quotes. */
+        default void literal( CharSequence source, int start, int end )
+        {
+        }
+    }
+
+    private JavaSourceScanner()
+    {
+    }
+
+    public static void scan( CharSequence source, Visitor visitor )
+    {
+        if ( source == null )
+        {
+            return;
+        }
+        int length = source.length();
+        int i = 0;
+        while ( i < length )
+        {
+            char c = source.charAt( i );
+            if ( c == '/' && i + 1 < length && source.charAt( i + 1 ) == '/' )
+            {
+                int start = i;
+                while ( i < length && source.charAt( i ) != '\n' )
+                {
+                    i++;
+                }
+                visitor.comment( source, start, i );
+            }
+            else if ( c == '/' && i + 1 < length && source.charAt( i + 1 ) == '*' )
+            {
+                int start = i;
+                i += 2;
+                while ( i + 1 < length && !( source.charAt( i ) == '*' && source.charAt( i + 1 ) == '/' ) )
+                {
+                    i++;
+                }
+                i = Math.min( i + 2, length );
+                visitor.comment( source, start, i );
+            }
+            else if ( c == '"' && i + 2 < length && source.charAt( i + 1 ) == '"' && source.charAt( i + 2 ) == '"' )
+            {
+                i += 3;
+                int start = i;
+                while ( i < length && !( i + 2 < length && source.charAt( i ) == '"' && source.charAt( i + 1 ) == '"'
+                        && source.charAt( i + 2 ) == '"' ) )
+                {
+                    i += source.charAt( i ) == '\\' ? 2 : 1;
+                }
+                visitor.literal( source, start, Math.min( i, length ) );
+                i = Math.min( i + 3, length );
+            }
+            else if ( c == '"' || c == '\'' )
+            {
+                i++;
+                int start = i;
+                while ( i < length && source.charAt( i ) != c && source.charAt( i ) != '\n' )
+                {
+                    i += source.charAt( i ) == '\\' ? 2 : 1;
+                }
+                visitor.literal( source, start, Math.min( i, length ) );
+                i = Math.min( i + 1, length );
+            }
+            else if ( Character.isJavaIdentifierStart( c ) )
+            {
+                int start = i;
+                while ( i < length && Character.isJavaIdentifierPart( source.charAt( i ) ) )
+                {
+                    i++;
+                }
+                visitor.identifier( source, start, i );
+            }
+            else
+            {
+                i++;
+            }
+        }
+    }
+}
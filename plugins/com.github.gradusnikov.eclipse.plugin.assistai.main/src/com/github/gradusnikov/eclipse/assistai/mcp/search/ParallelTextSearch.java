@@ -0,0 +1,378 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.services.LineIndex;
+
+/**
+ * Searches a list of files for a pattern on a fork/join pool, reporting matching
+ * lines in list order and stopping as soon as a result or output budget is used
+ * up.
+ * <p>
+ * The files are split into contiguous ranges - callers list them folder by
+ * folder, so a range is a run of neighbouring folders - and idle workers steal
+ * ranges from busy ones. A file's matches are held until every file before it is
+ * done, and the budget is charged in that order, so a capped result is always the
+ * first matches of the list, whichever worker found them first. Every worker
+ * checks a shared stop flag before each file, so a budget that runs out or a
+ * cancelled operation ends the search within one file per worker. The result says
+ * how much of the list was covered, so the caller can tell a complete answer from
+ * a cut-short one.
+ * <p>
+ * One result per matching line, however many matches the line holds.
+ *
+ * @param <F> the file handle, e.g. an {@code IFile}
+ */
+public final class ParallelTextSearch<F>
+{
+    /** Files searched by one task before it stops splitting its range. */
+    static final int          LEAF_FILES     = 8;
+
+    /** Matching lines longer than this are cut, so one minified file cannot use the whole budget. */
+    public static final int   MAX_LINE_CHARS = 400;
+
+    private static final int  PARALLELISM    = Math.max( 2, Runtime.getRuntime().availableProcessors() - 1 );
+
+    private static volatile ForkJoinPool pool;
+
+    /** Reads a file's text; any failure just skips the file. */
+    @FunctionalInterface
+    public interface ContentReader<F>
+    {
+        CharSequence read( F file ) throws Exception;
+    }
+
+    /**
+     * Limits on what a search returns.
+     *
+     * @param maxResults matching lines to report; 0 or less for no limit
+     * @param maxBytes   UTF-8 size of the reported lines; 0 or less for no limit
+     */
+    public record Budget( int maxResults, long maxBytes )
+    {
+        public static final Budget UNLIMITED = new Budget( 0, 0 );
+    }
+
+    /** A matching line. {@code order} is the file's position in the searched list. */
+    public record Match( String path, int lineNumber, String line, int order )
+    {
+        /** The line as reported: {@code path:line: text}. */
+        public String format()
+        {
+            return path + ":" + lineNumber + ": " + line;
+        }
+    }
+
+    /**
+     * The outcome of a search.
+     *
+     * @param matches       the reported lines, by file order and line number
+     * @param filesSearched files read to the end
+     * @param filesTotal    files in the searched list
+     * @param stopReason    {@code null} if every file was searched, otherwise why
+     *                      the search ended early
+     */
+    public record Result( List<Match> matches, int filesSearched, int filesTotal, long bytes, long elapsedMillis, String stopReason )
+    {
+        public boolean complete()
+        {
+            return stopReason == null;
+        }
+
+        /** A one-line account of the coverage, for the end of a tool reply. */
+        public String summary()
+        {
+            String time = String.format( Locale.ROOT, "%.2fs", elapsedMillis / 1000.0 );
+            if ( complete() )
+            {
+                return matches.size() + " matching line(s) in " + filesTotal + " file(s) searched in " + time + ".";
+            }
+            int percent = filesTotal == 0 ? 100 : (int) ( 100L * filesSearched / filesTotal );
+            return matches.size() + " matching line(s); stopped early (" + stopReason + ") after searching " + filesSearched + " of "
+                    + filesTotal + " file(s) (" + percent + "%) in " + time + ".";
+        }
+    }
+
+    private final Function<F, String> pathOf;
+
+    private final ContentReader<F>    reader;
+
+    public ParallelTextSearch( Function<F, String> pathOf, ContentReader<F> reader )
+    {
+        this.pathOf = pathOf;
+        this.reader = reader;
+    }
+
+    /**
+     * Searches the files and blocks until done, the budget is used up, or
+     * {@code cancelled} turns true.
+     *
+     * @param sink receives each reported line, in order, as soon as the files
+     *             before it are done, from the worker threads; may be {@code null}
+     */
+    public Result search( List<F> files, Pattern pattern, Budget budget, Consumer<Match> sink, BooleanSupplier cancelled )
+    {
+        long start = System.nanoTime();
+        Run run = new Run( files, pattern, budget, sink, cancelled );
+        if ( !files.isEmpty() )
+        {
+            pool().invoke( new Range( run, 0, files.size() ) );
+        }
+        List<Match> matches = run.reported();
+        String stopReason = run.stopReason.get();
+        if ( stopReason == null && cancelled != null && cancelled.getAsBoolean() )
+        {
+            stopReason = "cancelled";
+        }
+        return new Result( matches, run.filesSearched.get(), files.size(), run.bytes.get(), ( System.nanoTime() - start ) / 1_000_000,
+                stopReason );
+    }
+
+    private static ForkJoinPool pool()
+    {
+        ForkJoinPool current = pool;
+        if ( current == null )
+        {
+            synchronized ( ParallelTextSearch.class )
+            {
+                current = pool;
+                if ( current == null )
+                {
+                    AtomicInteger threads = new AtomicInteger();
+                    current = new ForkJoinPool( PARALLELISM, p -> {
+                        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread( p );
+                        thread.setName( "assistai-search-" + threads.incrementAndGet() );
+                        thread.setDaemon( true );
+                        return thread;
+                    }, null, false );
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** State shared by the tasks of one search. */
+    private final class Run
+    {
+        final List<F>                       files;
+
+        final Pattern                       pattern;
+
+        final Budget                        budget;
+
+        final Consumer<Match>               sink;
+
+        final BooleanSupplier               cancelled;
+
+        /** Reported lines, in file order; guarded by {@code this}. */
+        private final List<Match>           matches       = new ArrayList<>();
+
+        /** The matches of each finished file not yet reported; guarded by {@code this}. */
+        private final List<Match>[]         finished;
+
+        /** The first file not yet reported; guarded by {@code this}. */
+        private int                         next;
+
+        final AtomicLong                    bytes         = new AtomicLong();
+
+        final AtomicInteger                 filesSearched = new AtomicInteger();
+
+        final AtomicReference<String>       stopReason    = new AtomicReference<>();
+
+        volatile boolean                    stopped;
+
+        @SuppressWarnings( "unchecked" )
+        Run( List<F> files, Pattern pattern, Budget budget, Consumer<Match> sink, BooleanSupplier cancelled )
+        {
+            this.files = files;
+            this.finished = new List[files.size()];
+            this.pattern = pattern;
+            this.budget = budget;
+            this.sink = sink;
+            this.cancelled = cancelled;
+        }
+
+        boolean shouldStop()
+        {
+            if ( stopped )
+            {
+                return true;
+            }
+            if ( cancelled != null && cancelled.getAsBoolean() )
+            {
+                stop( "cancelled" );
+                return true;
+            }
+            return false;
+        }
+
+        void stop( String reason )
+        {
+            stopReason.compareAndSet( null, reason );
+            stopped = true;
+        }
+
+        void searchFile( int order )
+        {
+            F file = files.get( order );
+            CharSequence text;
+            try
+            {
+                text = reader.read( file );
+            }
+            catch ( Exception e )
+            {
+                // Unreadable files are skipped, as the text search engine does.
+                filesSearched.incrementAndGet();
+                finish( order, List.of() );
+                return;
+            }
+            if ( text == null )
+            {
+                filesSearched.incrementAndGet();
+                finish( order, List.of() );
+                return;
+            }
+            // Bounds stay transparent so anchors and look-behinds see the text around a region.
+            Matcher matcher = pattern.matcher( text ).useTransparentBounds( true ).useAnchoringBounds( false );
+            LineIndex lines = null;
+            List<Match> found = new ArrayList<>();
+            // One line more than the limit is enough to tell that the budget runs out here.
+            int cap = budget.maxResults() > 0 ? budget.maxResults() + 1 : Integer.MAX_VALUE;
+            while ( matcher.find() )
+            {
+                if ( stopped )
+                {
+                    // Not counted as searched: the file was only partly read.
+                    return;
+                }
+                if ( lines == null )
+                {
+                    lines = LineIndex.of( text.toString() );
+                }
+                int line = lines.getLineOfOffset( matcher.start() );
+                found.add( new Match( pathOf.apply( file ), line + 1, clip( lines.getLine( line ) ), order ) );
+                if ( found.size() >= cap )
+                {
+                    finish( order, found );
+                    return;
+                }
+                // One result per line: carry on from the next one. This also gets past empty matches.
+                if ( line + 1 >= lines.lineCount() )
+                {
+                    break;
+                }
+                matcher.region( lines.getLineOffset( line + 1 ), text.length() );
+            }
+            filesSearched.incrementAndGet();
+            finish( order, found );
+        }
+
+        /**
+         * Records a finished file, then reports every finished file from the first
+         * unreported one on, until one that is still being searched.
+         */
+        private synchronized void finish( int order, List<Match> found )
+        {
+            finished[order] = found;
+            while ( next < finished.length && finished[next] != null && !stopped )
+            {
+                for ( Match match : finished[next] )
+                {
+                    if ( !report( match ) )
+                    {
+                        break;
+                    }
+                }
+                finished[next++] = null;
+            }
+        }
+
+        /** @return false once the budget is used up */
+        private boolean report( Match match )
+        {
+            if ( budget.maxResults() > 0 && matches.size() >= budget.maxResults() )
+            {
+                stop( "maxResults " + budget.maxResults() + " reached" );
+                return false;
+            }
+            long size = match.format().getBytes( StandardCharsets.UTF_8 ).length + 1;
+            if ( bytes.get() + size > budget.maxBytes() && budget.maxBytes() > 0 )
+            {
+                stop( "maxBytes " + budget.maxBytes() + " reached" );
+                return false;
+            }
+            bytes.addAndGet( size );
+            matches.add( match );
+            if ( sink != null )
+            {
+                sink.accept( match );
+            }
+            return true;
+        }
+
+        synchronized List<Match> reported()
+        {
+            return List.copyOf( matches );
+        }
+
+        private static String clip( String line )
+        {
+            String trimmed = line.strip();
+            return trimmed.length() <= MAX_LINE_CHARS ? trimmed : trimmed.substring( 0, MAX_LINE_CHARS ) + " ...";
+        }
+    }
+
+    /** A contiguous range of the file list, split in halves until small enough to search. */
+    private final class Range extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Run run;
+
+        private final int           from;
+
+        private final int           to;
+
+        Range( Run run, int from, int to )
+        {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ( run.shouldStop() )
+            {
+                return;
+            }
+            if ( to - from > LEAF_FILES )
+            {
+                int middle = ( from + to ) >>> 1;
+                invokeAll( new Range( run, from, middle ), new Range( run, middle, to ) );
+                return;
+            }
+            for ( int i = from; i < to && !run.shouldStop(); i++ )
+            {
+                run.searchFile( i );
+            }
+        }
+    }
+}
@@ -0,0 +1,512 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * An in-memory inverted index of Java symbols - types, methods and fields -
+ * ranked with BM25.
+ * <p>
+ * Each symbol is indexed under the words of its name, split on camel case and
+ * digits (so {@code parseHttpHeader} is found by "http header"), with the name
+ * counting {@value #NAME_WEIGHT} times, plus the words of its signature and of
+ * the text attached to it: Javadoc, comments and string literals. Words are lower
+ * cased, a few stop words dropped and plurals folded; nothing else is needed, so
+ * the index works offline on any machine.
+ * <p>
+ * Symbols are grouped by the file they come from and replaced a whole file at a
+ * time. Removed symbols are only marked dead and skipped by queries until enough
+ * have piled up to rebuild the postings. Memory is bounded: a symbol keeps at most
+ * {@value #MAX_TERMS_PER_SYMBOL} distinct words, and once {@value #MAX_SYMBOLS}
+ * symbols are indexed further files are refused and {@link #isTruncated()} says so.
+ * <p>
+ * Thread safe.
+ */
+public final class SymbolIndex
+{
+    public static final int     MAX_SYMBOLS          = 500_000;
+
+    static final int            MAX_TERMS_PER_SYMBOL = 96;
+
+    static final int            NAME_WEIGHT          = 3;
+
+    private static final float  K1                   = 1.2f;
+
+    private static final float  B                    = 0.75f;
+
+    /** Dead symbols tolerated before the postings are rebuilt, at least. */
+    private static final int    MIN_COMPACTION       = 4096;
+
+    private static final Set<String> STOP_WORDS      = Set.of( "a", "an", "and", "are", "as", "at", "be", "by", "code", "for", "from", "if", "in",
+            "is", "it", "link", "new", "not", "null", "of", "on", "or", "param", "private", "protected", "public", "return", "see", "static", "that",
+            "the", "this", "throws", "to", "void", "with" );
+
+    public enum Kind
+    {
+        TYPE, METHOD, FIELD
+    }
+
+    /**
+     * A symbol as search results show it.
+     *
+     * @param name      {@code com.example.Type}, or {@code com.example.Type#member}
+     * @param signature the declaration, without body
+     * @param line      1-based line of the declaration
+     */
+    public record Symbol( Kind kind, String name, String signature, String path, int line )
+    {
+    }
+
+    /** A symbol and the text it is found by besides its name and signature. */
+    public record Document( Symbol symbol, String text )
+    {
+    }
+
+    public record Hit( Symbol symbol, double score )
+    {
+    }
+
+    /** Ids of the symbols containing one term, and how often they contain it. */
+    private static final class Postings
+    {
+        int[] symbols = new int[2];
+
+        int[] freqs   = new int[2];
+
+        int   size;
+
+        /** Live symbols in this list, the term's document frequency. */
+        int   live;
+
+        void add( int symbol, int freq )
+        {
+            if ( size == symbols.length )
+            {
+                symbols = Arrays.copyOf( symbols, size + ( size >> 1 ) + 2 );
+                freqs = Arrays.copyOf( freqs, symbols.length );
+            }
+            symbols[size] = symbol;
+            freqs[size] = freq;
+            size++;
+            live++;
+        }
+    }
+
+    private final Map<String, Integer> termIds  = new HashMap<>();
+
+    private final List<Postings>       postings = new ArrayList<>();
+
+    private final Map<String, int[]>   byPath   = new HashMap<>();
+
+    private final BitSet               dead     = new BitSet();
+
+    private Symbol[]                   symbols  = new Symbol[1024];
+
+    /** Per symbol, its term ids and their frequencies, to unlink and rebuild it. */
+    private int[][]                    symbolTerms = new int[1024][];
+
+    private int[][]                    symbolFreqs = new int[1024][];
+
+    private int[]                      lengths  = new int[1024];
+
+    private int                        allocated;
+
+    private int                        live;
+
+    private int                        deadCount;
+
+    private long                       totalLength;
+
+    private boolean                    truncated;
+
+    private float[]                    scores   = new float[0];
+
+    /**
+     * Replaces the symbols of a file.
+     *
+     * @return false if the file was not indexed because the index is full
+     */
+    public synchronized boolean put( String path, List<Document> documents )
+    {
+        removeInternal( path );
+        if ( live + documents.size() > MAX_SYMBOLS )
+        {
+            truncated = true;
+            return false;
+        }
+        int[] ids = new int[documents.size()];
+        for ( int i = 0; i < ids.length; i++ )
+        {
+            ids[i] = add( documents.get( i ) );
+        }
+        if ( ids.length > 0 )
+        {
+            byPath.put( path, ids );
+        }
+        return true;
+    }
+
+    public synchronized void remove( String path )
+    {
+        removeInternal( path );
+    }
+
+    /** Removes the symbols of every file under a path prefix, e.g. a project. */
+    public synchronized void removeUnder( String prefix )
+    {
+        for ( String path : new ArrayList<>( byPath.keySet() ) )
+        {
+            if ( path.startsWith( prefix ) )
+            {
+                removeInternal( path );
+            }
+        }
+    }
+
+    public synchronized int size()
+    {
+        return live;
+    }
+
+    public synchronized int fileCount()
+    {
+        return byPath.size();
+    }
+
+    /** True if files were refused since the index filled up. */
+    public synchronized boolean isTruncated()
+    {
+        return truncated;
+    }
+
+    /**
+     * The best matching symbols, best first.
+     *
+     * @param kind       only symbols of this kind, or {@code null} for all
+     * @param pathPrefix only symbols of files under this path, or {@code null}
+     */
+    public synchronized List<Hit> search( String query, int limit, Kind kind, String pathPrefix )
+    {
+        List<String> queryTerms = terms( query ).stream().distinct().toList();
+        if ( queryTerms.isEmpty() || live == 0 || limit <= 0 )
+        {
+            return List.of();
+        }
+        if ( scores.length < allocated )
+        {
+            scores = new float[allocated];
+        }
+        float averageLength = (float) totalLength / live;
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        for ( String term : queryTerms )
+        {
+            Integer termId = termIds.get( term );
+            if ( termId == null )
+            {
+                continue;
+            }
+            Postings list = postings.get( termId );
+            if ( list.live == 0 )
+            {
+                continue;
+            }
+            float idf = (float) Math.log( 1 + ( live - list.live + 0.5 ) / ( list.live + 0.5 ) );
+            for ( int p = 0; p < list.size; p++ )
+            {
+                int symbol = list.symbols[p];
+                if ( dead.get( symbol ) )
+                {
+                    continue;
+                }
+                float freq = list.freqs[p];
+                if ( scores[symbol] == 0 )
+                {
+                    if ( touchedCount == touched.length )
+                    {
+                        touched = Arrays.copyOf( touched, touchedCount * 2 );
+                    }
+                    touched[touchedCount++] = symbol;
+                }
+                scores[symbol] += idf * freq * ( K1 + 1 ) / ( freq + K1 * ( 1 - B + B * lengths[symbol] / averageLength ) );
+            }
+        }
+        PriorityQueue<Hit> best = new PriorityQueue<>( ( a, b ) -> Double.compare( a.score(), b.score() ) );
+        for ( int t = 0; t < touchedCount; t++ )
+        {
+            int symbol = touched[t];
+            float score = scores[symbol];
+            scores[symbol] = 0;
+            Symbol candidate = symbols[symbol];
+            if ( ( kind != null && candidate.kind() != kind ) || ( pathPrefix != null && !candidate.path().startsWith( pathPrefix ) ) )
+            {
+                continue;
+            }
+            if ( best.size() < limit )
+            {
+                best.add( new Hit( candidate, score ) );
+            }
+            else if ( score > best.peek().score() )
+            {
+                best.poll();
+                best.add( new Hit( candidate, score ) );
+            }
+        }
+        List<Hit> hits = new ArrayList<>( best );
+        hits.sort( ( a, b ) -> a.score() != b.score() ? Double.compare( b.score(), a.score() ) : a.symbol().name().compareTo( b.symbol().name() ) );
+        return hits;
+    }
+
+    /**
+     * Splits text into index terms: words broken at non-alphanumerics, camel case
+     * humps and digit boundaries, lower cased. A compound word is also kept whole,
+     * so an exact identifier ranks above its parts.
+     */
+    public static List<String> terms( CharSequence text )
+    {
+        List<String> terms = new ArrayList<>();
+        if ( text == null )
+        {
+            return terms;
+        }
+        int length = text.length();
+        int i = 0;
+        while ( i < length )
+        {
+            while ( i < length && !Character.isLetterOrDigit( text.charAt( i ) ) )
+            {
+                i++;
+            }
+            int wordStart = i;
+            int parts = 0;
+            int partStart = i;
+            while ( i < length && Character.isLetterOrDigit( text.charAt( i ) ) )
+            {
+                if ( i > partStart && isBoundary( text, i ) )
+                {
+                    parts += addTerm( terms, text, partStart, i );
+                    partStart = i;
+                }
+                i++;
+            }
+            if ( i > partStart )
+            {
+                parts += addTerm( terms, text, partStart, i );
+            }
+            if ( parts > 1 )
+            {
+                addTerm( terms, text, wordStart, i );
+            }
+        }
+        return terms;
+    }
+
+    private static boolean isBoundary( CharSequence text, int i )
+    {
+        char previous = text.charAt( i - 1 );
+        char current = text.charAt( i );
+        if ( Character.isDigit( previous ) != Character.isDigit( current ) )
+        {
+            return true;
+        }
+        if ( Character.isLowerCase( previous ) && Character.isUpperCase( current ) )
+        {
+            return true;
+        }
+        // The last capital of an acronym starts the next word: HTTPServer -> HTTP, Server.
+        return Character.isUpperCase( previous ) && Character.isUpperCase( current ) && i + 1 < text.length()
+                && Character.isLowerCase( text.charAt( i + 1 ) );
+    }
+
+    private static int addTerm( List<String> terms, CharSequence text, int start, int end )
+    {
+        String term = normalize( text.subSequence( start, end ).toString().toLowerCase( Locale.ROOT ) );
+        if ( term.length() < 2 || STOP_WORDS.contains( term ) )
+        {
+            return 0;
+        }
+        terms.add( term );
+        return 1;
+    }
+
+    /** Folds plurals, the same way for documents and queries. */
+    private static String normalize( String word )
+    {
+        if ( word.length() > 4 && word.endsWith( "ies" ) )
+        {
+            return word.substring( 0, word.length() - 3 ) + "y";
+        }
+        if ( word.length() > 3 && word.endsWith( "s" ) && !word.endsWith( "ss" ) && !word.endsWith( "us" ) )
+        {
+            return word.substring( 0, word.length() - 1 );
+        }
+        return word;
+    }
+
+    private int add( Document document )
+    {
+        Symbol symbol = document.symbol();
+        Map<String, Integer> freqs = new LinkedHashMap<>();
+        String name = symbol.name();
+        String simpleName = name.substring( Math.max( name.lastIndexOf( '#' ), name.lastIndexOf( '.' ) ) + 1 );
+        for ( String term : terms( simpleName ) )
+        {
+            count( freqs, term, NAME_WEIGHT );
+        }
+        for ( String term : terms( symbol.signature() ) )
+        {
+            count( freqs, term, 1 );
+        }
+        for ( String term : terms( document.text() ) )
+        {
+            count( freqs, term, 1 );
+        }
+
+        int id = allocated++;
+        if ( id == symbols.length )
+        {
+            int capacity = id + ( id >> 1 );
+            symbols = Arrays.copyOf( symbols, capacity );
+            symbolTerms = Arrays.copyOf( symbolTerms, capacity );
+            symbolFreqs = Arrays.copyOf( symbolFreqs, capacity );
+            lengths = Arrays.copyOf( lengths, capacity );
+        }
+        int[] termArray = new int[freqs.size()];
+        int[] freqArray = new int[freqs.size()];
+        int length = 0;
+        int t = 0;
+        for ( Map.Entry<String, Integer> entry : freqs.entrySet() )
+        {
+            Integer termId = termIds.get( entry.getKey() );
+            if ( termId == null )
+            {
+                termId = postings.size();
+                termIds.put( entry.getKey(), termId );
+                postings.add( new Postings() );
+            }
+            postings.get( termId ).add( id, entry.getValue() );
+            termArray[t] = termId;
+            freqArray[t] = entry.getValue();
+            length += entry.getValue();
+            t++;
+        }
+        symbols[id] = symbol;
+        symbolTerms[id] = termArray;
+        symbolFreqs[id] = freqArray;
+        lengths[id] = length;
+        live++;
+        totalLength += length;
+        return id;
+    }
+
+    private static void count( Map<String, Integer> freqs, String term, int weight )
+    {
+        if ( freqs.containsKey( term ) || freqs.size() < MAX_TERMS_PER_SYMBOL )
+        {
+            freqs.merge( term, weight, Integer::sum );
+        }
+    }
+
+    private void removeInternal( String path )
+    {
+        int[] ids = byPath.remove( path );
+        if ( ids == null )
+        {
+            return;
+        }
+        for ( int id : ids )
+        {
+            dead.set( id );
+            deadCount++;
+            for ( int termId : symbolTerms[id] )
+            {
+                postings.get( termId ).live--;
+            }
+            live--;
+            totalLength -= lengths[id];
+        }
+        if ( truncated && live < MAX_SYMBOLS * 9L / 10 )
+        {
+            // There is room again, but whatever was refused stays missing until its file changes.
+            truncated = false;
+        }
+        if ( deadCount > Math.max( MIN_COMPACTION, live ) )
+        {
+            compact();
+        }
+    }
+
+    /** Renumbers the live symbols and rebuilds the postings without the dead ones. */
+    private void compact()
+    {
+        int[] renumber = new int[allocated];
+        int next = 0;
+        for ( int id = 0; id < allocated; id++ )
+        {
+            if ( dead.get( id ) )
+            {
+                renumber[id] = -1;
+                continue;
+            }
+            renumber[id] = next;
+            symbols[next] = symbols[id];
+            symbolTerms[next] = symbolTerms[id];
+            symbolFreqs[next] = symbolFreqs[id];
+            lengths[next] = lengths[id];
+            next++;
+        }
+        for ( int id = next; id < allocated; id++ )
+        {
+            symbols[id] = null;
+            symbolTerms[id] = null;
+            symbolFreqs[id] = null;
+        }
+        allocated = next;
+        dead.clear();
+        deadCount = 0;
+        for ( Map.Entry<String, int[]> entry : byPath.entrySet() )
+        {
+            int[] ids = entry.getValue();
+            for ( int i = 0; i < ids.length; i++ )
+            {
+                ids[i] = renumber[ids[i]];
+            }
+        }
+        // Drop terms nobody uses any more, and rebuild the rest.
+        List<String> keptTerms = new ArrayList<>();
+        int[] termRenumber = new int[postings.size()];
+        Arrays.fill( termRenumber, -1 );
+        for ( Map.Entry<String, Integer> entry : termIds.entrySet() )
+        {
+            if ( postings.get( entry.getValue() ).live > 0 )
+            {
+                termRenumber[entry.getValue()] = keptTerms.size();
+                keptTerms.add( entry.getKey() );
+            }
+        }
+        termIds.clear();
+        postings.clear();
+        for ( String term : keptTerms )
+        {
+            termIds.put( term, postings.size() );
+            postings.add( new Postings() );
+        }
+        for ( int id = 0; id < allocated; id++ )
+        {
+            int[] termArray = symbolTerms[id];
+            for ( int t = 0; t < termArray.length; t++ )
+            {
+                termArray[t] = termRenumber[termArray[t]];
+                postings.get( termArray[t] ).add( id, symbolFreqs[id][t] );
+            }
+        }
+    }
+}
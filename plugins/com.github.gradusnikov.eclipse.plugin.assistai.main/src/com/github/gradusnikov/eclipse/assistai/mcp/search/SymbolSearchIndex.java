@@ -0,0 +1,466 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.services.LineIndex;
+import com.github.gradusnikov.eclipse.assistai.services.AiIgnoreService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * A {@link SymbolIndex} of the types, methods and fields in the source folders of
+ * all open Java projects.
+ * <p>
+ * A background job reads every project once; after that Java element deltas
+ * queue the compilation units that changed and the job re-reads just those, a
+ * moment after the last change. Queries never wait for the job: while it is
+ * still running they answer from what has been indexed so far and say so.
+ * <p>
+ * A symbol is indexed with its Javadoc and, for methods and fields, the comments
+ * and string literals in its body, so a search finds code by what it does or the
+ * messages it logs, not only by its name. Files excluded by {@link AiIgnoreService}
+ * are left out.
+ */
+@Creatable
+@Singleton
+public class SymbolSearchIndex
+{
+    private static final long             UPDATE_DELAY_MS = 500;
+
+    /** Text per symbol beyond its name and signature. */
+    static final int                      MAX_TEXT_CHARS  = 2000;
+
+    @Inject
+    ILog                                  logger;
+
+    @Inject
+    AiIgnoreService                       aiIgnoreService;
+
+    private final SymbolIndex             index           = new SymbolIndex();
+
+    /** Projects to read completely. */
+    private final Set<String>             projectsToScan  = ConcurrentHashMap.newKeySet();
+
+    /** Workspace paths of compilation units to read again. */
+    private final Set<String>             pending         = ConcurrentHashMap.newKeySet();
+
+    private final IElementChangedListener listener        = this::elementChanged;
+
+    private final Job                     job             = new Job( "Indexing Java symbols" )
+                                                          {
+                                                              @Override
+                                                              protected IStatus run( IProgressMonitor monitor )
+                                                              {
+                                                                  return update( monitor );
+                                                              }
+                                                          };
+
+    @PostConstruct
+    public void init()
+    {
+        job.setSystem( true );
+        job.setPriority( Job.DECORATE );
+        JavaCore.addElementChangedListener( listener, ElementChangedEvent.POST_CHANGE );
+        for ( IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects() )
+        {
+            if ( isJavaProject( project ) )
+            {
+                projectsToScan.add( project.getName() );
+            }
+        }
+        job.schedule();
+    }
+
+    @PreDestroy
+    public void dispose()
+    {
+        JavaCore.removeElementChangedListener( listener );
+        job.cancel();
+        try
+        {
+            job.join( 5_000, null );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** True once every project has been read and no change is waiting. */
+    public boolean isReady()
+    {
+        return projectsToScan.isEmpty() && pending.isEmpty();
+    }
+
+    /** Blocks until the index is ready, for tests and benchmarks. */
+    public void awaitReady( long timeoutMillis ) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while ( !isReady() && System.currentTimeMillis() < deadline )
+        {
+            job.join( Math.max( 1, deadline - System.currentTimeMillis() ), null );
+        }
+    }
+
+    public SymbolIndex getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Searches the index and formats the hits, one symbol per entry with its
+     * location and signature.
+     *
+     * @param kind        {@code type}, {@code method} or {@code field}, or {@code null} for all
+     * @param projectName a project to search, or {@code null} for the whole workspace
+     */
+    public String search( String query, String kind, String projectName, int maxResults )
+    {
+        if ( query == null || query.isBlank() )
+        {
+            return "Error: query must not be empty.";
+        }
+        SymbolIndex.Kind symbolKind = null;
+        if ( kind != null && !kind.isBlank() )
+        {
+            try
+            {
+                symbolKind = SymbolIndex.Kind.valueOf( kind.trim().toUpperCase( Locale.ROOT ) );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                return "Error: kind must be one of type, method or field, not '" + kind + "'.";
+            }
+        }
+        String prefix = projectName == null || projectName.isBlank() ? null : "/" + projectName + "/";
+        int limit = maxResults > 0 ? maxResults : 20;
+        long start = System.nanoTime();
+        List<SymbolIndex.Hit> hits = index.search( query, limit, symbolKind, prefix );
+        long micros = ( System.nanoTime() - start ) / 1_000;
+
+        StringBuilder out = new StringBuilder();
+        out.append( hits.size() ).append( hits.size() == 1 ? " symbol" : " symbols" ).append( " for \"" ).append( query ).append( "\"" );
+        out.append( " (" ).append( index.size() ).append( " symbols indexed, " ).append( micros < 1000 ? micros + " us" : micros / 1000 + " ms" )
+                .append( ")\n" );
+        if ( !isReady() )
+        {
+            out.append( "The index is still being built; results may be incomplete.\n" );
+        }
+        if ( index.isTruncated() )
+        {
+            out.append( "The index is full; some files are not indexed.\n" );
+        }
+        out.append( "\n" );
+        int rank = 1;
+        for ( SymbolIndex.Hit hit : hits )
+        {
+            SymbolIndex.Symbol symbol = hit.symbol();
+            out.append( rank++ ).append( ". " ).append( symbol.kind().name().toLowerCase( Locale.ROOT ) ).append( " " )
+                    .append( symbol.name() ).append( "  " ).append( symbol.path() ).append( ":" ).append( symbol.line() ).append( "\n" );
+            out.append( "   " ).append( symbol.signature() ).append( "\n" );
+        }
+        if ( hits.isEmpty() )
+        {
+            out.append( "No matching symbols. Try other words, or fileSearch for exact text.\n" );
+        }
+        return out.toString();
+    }
+
+    private IStatus update( IProgressMonitor monitor )
+    {
+        for ( String projectName : new ArrayList<>( projectsToScan ) )
+        {
+            if ( monitor.isCanceled() )
+            {
+                return Status.CANCEL_STATUS;
+            }
+            projectsToScan.remove( projectName );
+            IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject( projectName );
+            index.removeUnder( project.getFullPath() + "/" );
+            if ( isJavaProject( project ) )
+            {
+                try
+                {
+                    scan( JavaCore.create( project ), monitor );
+                }
+                catch ( JavaModelException e )
+                {
+                    logger.error( "Error indexing the Java symbols of " + projectName, e );
+                }
+            }
+        }
+        for ( String path : new ArrayList<>( pending ) )
+        {
+            if ( monitor.isCanceled() )
+            {
+                return Status.CANCEL_STATUS;
+            }
+            pending.remove( path );
+            reread( path );
+        }
+        return Status.OK_STATUS;
+    }
+
+    private void scan( IJavaProject javaProject, IProgressMonitor monitor ) throws JavaModelException
+    {
+        for ( IPackageFragmentRoot root : javaProject.getPackageFragmentRoots() )
+        {
+            if ( root.getKind() != IPackageFragmentRoot.K_SOURCE || !javaProject.equals( root.getJavaProject() ) )
+            {
+                continue;
+            }
+            for ( IJavaElement child : root.getChildren() )
+            {
+                for ( ICompilationUnit unit : ( (IPackageFragment) child ).getCompilationUnits() )
+                {
+                    if ( monitor.isCanceled() )
+                    {
+                        // Read it again next time.
+                        projectsToScan.add( javaProject.getElementName() );
+                        return;
+                    }
+                    index( unit );
+                }
+            }
+        }
+    }
+
+    private void reread( String path )
+    {
+        IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile( IPath.fromPortableString( path ) );
+        ICompilationUnit unit = JavaCore.createCompilationUnitFrom( file );
+        if ( unit != null && unit.exists() )
+        {
+            index( unit );
+        }
+        else
+        {
+            index.remove( path );
+        }
+    }
+
+    private void index( ICompilationUnit unit )
+    {
+        String path = unit.getPath().toString();
+        IResource resource = unit.getResource();
+        if ( resource == null || ( aiIgnoreService != null && aiIgnoreService.isExcluded( resource ) ) )
+        {
+            index.remove( path );
+            return;
+        }
+        try
+        {
+            index.put( path, extract( unit ) );
+        }
+        catch ( JavaModelException e )
+        {
+            // Deleted or unreadable meanwhile; its delta will follow.
+            index.remove( path );
+        }
+    }
+
+    /**
+     * Reads the symbols of a compilation unit with their signatures and text.
+     */
+    static List<SymbolIndex.Document> extract( ICompilationUnit unit ) throws JavaModelException
+    {
+        List<SymbolIndex.Document> documents = new ArrayList<>();
+        String source = unit.getSource();
+        if ( source == null )
+        {
+            return documents;
+        }
+        LineIndex lines = LineIndex.of( source );
+        String path = unit.getPath().toString();
+        for ( IType type : unit.getAllTypes() )
+        {
+            String typeName = type.getFullyQualifiedName( '.' );
+            StringBuilder declaration = new StringBuilder( kind( type ) ).append( " " ).append( type.getElementName() );
+            if ( type.getSuperclassName() != null && !type.isEnum() && !type.isRecord() )
+            {
+                declaration.append( " extends " ).append( type.getSuperclassName() );
+            }
+            if ( type.getSuperInterfaceNames().length > 0 )
+            {
+                declaration.append( type.isInterface() ? " extends " : " implements " ).append( String.join( ", ", type.getSuperInterfaceNames() ) );
+            }
+            documents.add( document( SymbolIndex.Kind.TYPE, typeName, declaration.toString(), type, path, source, lines,
+                    type.getJavadocRange() ) );
+            for ( IMethod method : type.getMethods() )
+            {
+                StringBuilder parameters = new StringBuilder();
+                String[] types = method.getParameterTypes();
+                String[] names = method.getParameterNames();
+                for ( int i = 0; i < types.length; i++ )
+                {
+                    parameters.append( i > 0 ? ", " : "" ).append( Signature.toString( types[i] ) );
+                    if ( i < names.length )
+                    {
+                        parameters.append( " " ).append( names[i] );
+                    }
+                }
+                String signature = ( method.isConstructor() ? "" : Signature.toString( method.getReturnType() ) + " " ) + method.getElementName()
+                        + "(" + parameters + ")";
+                documents.add( document( SymbolIndex.Kind.METHOD, typeName + "#" + method.getElementName(), modifiers( method ) + signature,
+                        method, path, source, lines, method.getSourceRange() ) );
+            }
+            for ( IField field : type.getFields() )
+            {
+                String signature = field.isEnumConstant() ? field.getElementName()
+                        : modifiers( field ) + Signature.toString( field.getTypeSignature() ) + " " + field.getElementName();
+                documents.add( document( SymbolIndex.Kind.FIELD, typeName + "#" + field.getElementName(), signature, field, path, source, lines,
+                        field.getSourceRange() ) );
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * A symbol with the comments and string literals in {@code textRange}: the
+     * Javadoc of a type, the whole declaration of a member.
+     */
+    private static SymbolIndex.Document document( SymbolIndex.Kind kind, String name, String signature, IMember member, String path,
+            String source, LineIndex lines, ISourceRange textRange ) throws JavaModelException
+    {
+        ISourceRange nameRange = member.getNameRange();
+        int offset = nameRange != null && nameRange.getOffset() >= 0 ? nameRange.getOffset() : 0;
+        StringBuilder text = new StringBuilder();
+        if ( textRange != null && textRange.getOffset() >= 0 )
+        {
+            int end = Math.min( source.length(), textRange.getOffset() + textRange.getLength() );
+            JavaSourceScanner.scan( source.subSequence( textRange.getOffset(), end ), new JavaSourceScanner.Visitor()
+            {
+                @Override
+                public void comment( CharSequence range, int start, int stop )
+                {
+                    append( range, start, stop );
+                }
+
+                @Override
+                public void literal( CharSequence range, int start, int stop )
+                {
+                    append( range, start, stop );
+                }
+
+                private void append( CharSequence range, int start, int stop )
+                {
+                    if ( text.length() < MAX_TEXT_CHARS )
+                    {
+                        text.append( range, start, Math.min( stop, start + MAX_TEXT_CHARS - text.length() ) ).append( ' ' );
+                    }
+                }
+            } );
+        }
+        SymbolIndex.Symbol symbol = new SymbolIndex.Symbol( kind, name, signature, path, lines.getLineOfOffset( offset ) + 1 );
+        return new SymbolIndex.Document( symbol, text.toString() );
+    }
+
+    private static String kind( IType type ) throws JavaModelException
+    {
+        return type.isAnnotation() ? "@interface" : type.isInterface() ? "interface" : type.isEnum() ? "enum" : type.isRecord() ? "record" : "class";
+    }
+
+    private static String modifiers( IMember member ) throws JavaModelException
+    {
+        String modifiers = Flags.toString( member.getFlags() & ( Flags.AccPublic | Flags.AccProtected | Flags.AccPrivate | Flags.AccStatic ) );
+        return modifiers.isEmpty() ? "" : modifiers + " ";
+    }
+
+    private void elementChanged( ElementChangedEvent event )
+    {
+        visit( event.getDelta() );
+        if ( !isReady() )
+        {
+            job.schedule( UPDATE_DELAY_MS );
+        }
+    }
+
+    private void visit( IJavaElementDelta delta )
+    {
+        IJavaElement element = delta.getElement();
+        int kind = delta.getKind();
+        int flags = delta.getFlags();
+        switch ( element.getElementType() )
+        {
+            case IJavaElement.JAVA_PROJECT:
+                if ( kind == IJavaElementDelta.ADDED || kind == IJavaElementDelta.REMOVED || ( flags & ( IJavaElementDelta.F_OPENED
+                        | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED ) ) != 0 )
+                {
+                    // Scanning drops what the project had first, and reads nothing if it is gone.
+                    projectsToScan.add( element.getElementName() );
+                    return;
+                }
+                break;
+            case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+            case IJavaElement.PACKAGE_FRAGMENT:
+                if ( kind != IJavaElementDelta.CHANGED )
+                {
+                    projectsToScan.add( element.getJavaProject().getElementName() );
+                    return;
+                }
+                break;
+            case IJavaElement.COMPILATION_UNIT:
+                // Opening or closing an editor only creates or discards a working copy.
+                if ( kind != IJavaElementDelta.CHANGED || ( flags & ~IJavaElementDelta.F_PRIMARY_WORKING_COPY ) != 0 )
+                {
+                    pending.add( element.getPath().toString() );
+                }
+                return;
+            default:
+                break;
+        }
+        for ( IJavaElementDelta child : delta.getAffectedChildren() )
+        {
+            visit( child );
+        }
+    }
+
+    private static boolean isJavaProject( IProject project )
+    {
+        try
+        {
+            return project.isOpen() && project.hasNature( JavaCore.NATURE_ID );
+        }
+        catch ( CoreException e )
+        {
+            return false;
+        }
+    }
+}
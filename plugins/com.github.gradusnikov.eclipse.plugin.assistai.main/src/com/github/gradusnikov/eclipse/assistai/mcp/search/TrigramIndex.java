@@ -0,0 +1,310 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * Trigram signatures of a set of files, used to rule out files that cannot contain
+ * a match before anything is read from disk.
+ * <p>
+ * Each file gets a bitset with one bit set per distinct trigram of its content,
+ * case folded, at a position given by the trigram's hash. A query's trigrams
+ * must all hit set bits for the file to stay a candidate. Hash collisions can only
+ * keep a file that does not match - a false positive, which the real search then
+ * rejects - never drop one that does. Signatures are sized at
+ * {@value #BITS_PER_TRIGRAM} bits per distinct trigram, which keeps the false
+ * positive rate of a three-trigram query around one percent.
+ * <p>
+ * Per-file signatures rather than posting lists keep updates trivial - a changed
+ * file just gets a new signature - and memory proportional to the number of
+ * distinct trigrams, at the cost of a query touching every entry. With a few bit
+ * tests per entry that is still well under the cost of opening a single file.
+ * <p>
+ * Files are keyed by workspace path and remember the modification stamp they were
+ * indexed at. Thread safe.
+ */
+public final class TrigramIndex
+{
+    static final int  BITS_PER_TRIGRAM = 4;
+
+    static final int  MIN_BITS         = 64;
+
+    static final int  MAX_BITS         = 1 << 17;
+
+    private static final int MAGIC     = 0x54524731;                                   // "TRG1"
+
+    private static final int VERSION   = 1;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** How a file is represented. */
+    public enum Kind
+    {
+        /** Content indexed; the signature decides. */
+        INDEXED,
+        /** Too large or unreadable; always a candidate. */
+        UNINDEXED,
+        /**
+         * Excluded from AI processing when it was seen, so its content was not
+         * indexed. Always a candidate, in case it has been allowed since; the
+         * search's own exclusion check drops it otherwise.
+         */
+        EXCLUDED
+    }
+
+    /** What is known about one file. */
+    public record Entry( long stamp, Kind kind, long[] signature )
+    {
+        boolean mayContain( int[] hashes )
+        {
+            if ( kind != Kind.INDEXED )
+            {
+                return true;
+            }
+            int mask = signature.length * 64 - 1;
+            for ( int hash : hashes )
+            {
+                int bit = hash & mask;
+                if ( ( signature[bit >>> 6] & ( 1L << bit ) ) == 0 )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** Indexes (or re-indexes) a file's content. */
+    public void put( String path, long stamp, CharSequence content )
+    {
+        entries.put( path, new Entry( stamp, Kind.INDEXED, signature( content ) ) );
+    }
+
+    /** Records a file without indexing its content. */
+    public void putUnindexed( String path, long stamp, Kind kind )
+    {
+        entries.put( path, new Entry( stamp, kind, null ) );
+    }
+
+    public Entry get( String path )
+    {
+        return entries.get( path );
+    }
+
+    /** True if the file is known at this modification stamp. */
+    public boolean isCurrent( String path, long stamp )
+    {
+        Entry entry = entries.get( path );
+        return entry != null && entry.stamp() == stamp;
+    }
+
+    public void remove( String path )
+    {
+        entries.remove( path );
+    }
+
+    /** Removes every file under a folder path, e.g. a project that was closed. */
+    public void removeUnder( String folderPath )
+    {
+        String prefix = folderPath.endsWith( "/" ) ? folderPath : folderPath + "/";
+        entries.keySet().removeIf( path -> path.startsWith( prefix ) );
+    }
+
+    /** The paths of all known files; a live view. */
+    public Set<String> paths()
+    {
+        return entries.keySet();
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /** Memory held by signatures, in bytes. */
+    public long signatureBytes()
+    {
+        long bytes = 0;
+        for ( Entry entry : entries.values() )
+        {
+            bytes += entry.signature() == null ? 0 : entry.signature().length * 8L;
+        }
+        return bytes;
+    }
+
+    /**
+     * Paths of the files that may contain a match of the query, in no particular
+     * order.
+     *
+     * @param pathFilter only paths it accepts, e.g. a file name pattern
+     */
+    public List<String> candidates( TrigramQuery query, Predicate<String> pathFilter )
+    {
+        int[] hashes = query.hashes();
+        List<String> result = new ArrayList<>();
+        for ( Map.Entry<String, Entry> e : entries.entrySet() )
+        {
+            if ( e.getValue().mayContain( hashes ) && pathFilter.test( e.getKey() ) )
+            {
+                result.add( e.getKey() );
+            }
+        }
+        return result;
+    }
+
+    /** Writes the index to a file, replacing it atomically. */
+    public void write( Path file ) throws IOException
+    {
+        Path temp = file.resolveSibling( file.getFileName() + ".tmp" );
+        try ( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temp ), 1 << 16 ) ) )
+        {
+            List<Map.Entry<String, Entry>> snapshot = new ArrayList<>( entries.entrySet() );
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            out.writeInt( snapshot.size() );
+            for ( Map.Entry<String, Entry> e : snapshot )
+            {
+                Entry entry = e.getValue();
+                out.writeUTF( e.getKey() );
+                out.writeLong( entry.stamp() );
+                out.writeByte( entry.kind().ordinal() );
+                long[] signature = entry.signature();
+                out.writeInt( signature == null ? 0 : signature.length );
+                if ( signature != null )
+                {
+                    for ( long word : signature )
+                    {
+                        out.writeLong( word );
+                    }
+                }
+            }
+        }
+        Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    /**
+     * Reads an index written by {@link #write}.
+     *
+     * @throws IOException if the file is missing, from another version, or damaged
+     */
+    public static TrigramIndex read( Path file ) throws IOException
+    {
+        TrigramIndex index = new TrigramIndex();
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( Files.newInputStream( file ), 1 << 16 ) ) )
+        {
+            if ( in.readInt() != MAGIC || in.readInt() != VERSION )
+            {
+                throw new IOException( "Not a search index of this version: " + file );
+            }
+            int count = in.readInt();
+            Kind[] kinds = Kind.values();
+            for ( int i = 0; i < count; i++ )
+            {
+                String path = in.readUTF();
+                long stamp = in.readLong();
+                int kind = in.readByte();
+                int words = in.readInt();
+                if ( kind < 0 || kind >= kinds.length || words < 0 || words > MAX_BITS / 64 )
+                {
+                    throw new IOException( "Damaged search index: " + file );
+                }
+                long[] signature = null;
+                if ( kinds[kind] == Kind.INDEXED )
+                {
+                    signature = new long[words];
+                    for ( int w = 0; w < words; w++ )
+                    {
+                        signature[w] = in.readLong();
+                    }
+                }
+                index.entries.put( path, new Entry( stamp, kinds[kind], signature ) );
+            }
+        }
+        return index;
+    }
+
+    /** Builds the signature of a text. */
+    static long[] signature( CharSequence content )
+    {
+        int[] hashes = trigrams( content );
+        int distinct = countDistinct( hashes );
+        int bits = Integer.highestOneBit( Math.max( MIN_BITS, distinct * BITS_PER_TRIGRAM ) - 1 ) << 1;
+        bits = Math.min( MAX_BITS, Math.max( MIN_BITS, bits ) );
+        long[] signature = new long[bits / 64];
+        int mask = bits - 1;
+        for ( int hash : hashes )
+        {
+            int bit = hash & mask;
+            signature[bit >>> 6] |= 1L << bit;
+        }
+        return signature;
+    }
+
+    /** Hashes of the case-folded trigrams of a text, in order, duplicates included. */
+    static int[] trigrams( CharSequence text )
+    {
+        int n = text.length();
+        if ( n < 3 )
+        {
+            return new int[0];
+        }
+        int[] hashes = new int[n - 2];
+        char a = fold( text.charAt( 0 ) );
+        char b = fold( text.charAt( 1 ) );
+        for ( int i = 2; i < n; i++ )
+        {
+            char c = fold( text.charAt( i ) );
+            hashes[i - 2] = hash( a, b, c );
+            a = b;
+            b = c;
+        }
+        return hashes;
+    }
+
+    static int hash( char a, char b, char c )
+    {
+        int h = ( a * 0x9E3779B1 ) ^ ( b * 0x85EBCA77 ) ^ ( c * 0xC2B2AE3D );
+        h ^= h >>> 15;
+        h *= 0x2C1B3C6D;
+        h ^= h >>> 12;
+        return h;
+    }
+
+    private static char fold( char c )
+    {
+        return c < 128 ? ( c >= 'A' && c <= 'Z' ? (char) ( c + 32 ) : c ) : Character.toLowerCase( c );
+    }
+
+    private static int countDistinct( int[] hashes )
+    {
+        if ( hashes.length == 0 )
+        {
+            return 0;
+        }
+        int[] sorted = hashes.clone();
+        Arrays.sort( sorted );
+        int distinct = 1;
+        for ( int i = 1; i < sorted.length; i++ )
+        {
+            if ( sorted[i] != sorted[i - 1] )
+            {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+}
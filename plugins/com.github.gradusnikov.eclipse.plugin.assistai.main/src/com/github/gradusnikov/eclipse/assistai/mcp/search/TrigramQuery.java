@@ -0,0 +1,351 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The trigrams every match of a search must contain, worked out from the search
+ * pattern before any file is opened.
+ * <p>
+ * Extraction is deliberately conservative: only literal text the pattern cannot
+ * match without is used. Anything optional or ambiguous - groups, character
+ * classes, quantified characters, top-level alternation - just ends the current
+ * literal run. A pattern that yields no trigram at all {@linkplain #matchesAll()
+ * matches all files}, so narrowing by a query never loses a match.
+ */
+public final class TrigramQuery
+{
+    private static final TrigramQuery ALL = new TrigramQuery( new int[0], List.of() );
+
+    private final int[]               hashes;
+
+    private final List<String>        literals;
+
+    private TrigramQuery( int[] hashes, List<String> literals )
+    {
+        this.hashes = hashes;
+        this.literals = literals;
+    }
+
+    /** A query for text containing {@code literal}. */
+    public static TrigramQuery forLiteral( String literal )
+    {
+        return of( literal == null ? List.of() : List.of( literal ) );
+    }
+
+    /** A query for text with a match of {@code pattern}. */
+    public static TrigramQuery forPattern( Pattern pattern )
+    {
+        if ( ( pattern.flags() & Pattern.LITERAL ) != 0 )
+        {
+            return forLiteral( pattern.pattern() );
+        }
+        if ( ( pattern.flags() & Pattern.COMMENTS ) != 0 )
+        {
+            // Whitespace and # comments are not literal in this mode; not worth parsing.
+            return ALL;
+        }
+        List<String> runs = requiredLiterals( pattern.pattern() );
+        return runs == null ? ALL : of( runs );
+    }
+
+    /** True if the query cannot rule out any file. */
+    public boolean matchesAll()
+    {
+        return hashes.length == 0;
+    }
+
+    /** Hashes of the required trigrams, see {@link TrigramIndex#hash(char, char, char)}. */
+    int[] hashes()
+    {
+        return hashes;
+    }
+
+    /** The literal runs the trigrams came from, for diagnostics. */
+    public List<String> literals()
+    {
+        return literals;
+    }
+
+    private static TrigramQuery of( List<String> runs )
+    {
+        List<String> used = new ArrayList<>();
+        int[] hashes = new int[0];
+        for ( String run : runs )
+        {
+            if ( run.length() < 3 )
+            {
+                continue;
+            }
+            used.add( run );
+            int[] more = TrigramIndex.trigrams( run );
+            int[] merged = new int[hashes.length + more.length];
+            System.arraycopy( hashes, 0, merged, 0, hashes.length );
+            System.arraycopy( more, 0, merged, hashes.length, more.length );
+            hashes = merged;
+        }
+        return hashes.length == 0 ? ALL : new TrigramQuery( hashes, List.copyOf( used ) );
+    }
+
+    /**
+     * Splits a regular expression into literal runs every match must contain.
+     *
+     * @return the runs, or {@code null} if the pattern has a top-level alternation or
+     *         a construct that makes its literal text unreliable
+     */
+    static List<String> requiredLiterals( String regex )
+    {
+        List<String> runs = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        int n = regex.length();
+        while ( i < n )
+        {
+            char c = regex.charAt( i );
+            switch ( c )
+            {
+                case '\\' -> {
+                    if ( i + 1 >= n )
+                    {
+                        return null;
+                    }
+                    char next = regex.charAt( i + 1 );
+                    if ( next == 'Q' )
+                    {
+                        int end = regex.indexOf( "\\E", i + 2 );
+                        String quoted = end < 0 ? regex.substring( i + 2 ) : regex.substring( i + 2, end );
+                        i = end < 0 ? n : end + 2;
+                        if ( isQuantifier( regex, i ) )
+                        {
+                            // Only the last quoted character is quantified.
+                            run.append( quoted, 0, Math.max( 0, quoted.length() - 1 ) );
+                            flush( run, runs );
+                            i = skipQuantifier( regex, i );
+                        }
+                        else
+                        {
+                            run.append( quoted );
+                        }
+                        continue;
+                    }
+                    if ( Character.isLetterOrDigit( next ) )
+                    {
+                        // \d, \w, \s, \b, \p{..}, back references, \n, \t, \x41, ... - not worth decoding.
+                        flush( run, runs );
+                        i = skipQuantifier( regex, skipEscape( regex, i ) );
+                        continue;
+                    }
+                    i = literal( regex, i + 2, next, run, runs );
+                }
+                case '|' -> {
+                    return null;
+                }
+                case '(' -> {
+                    flush( run, runs );
+                    int end = skipGroup( regex, i );
+                    if ( end < 0 )
+                    {
+                        return null;
+                    }
+                    if ( regex.startsWith( "(?", i ) && regex.indexOf( 'x', i ) >= 0 && regex.indexOf( 'x', i ) < end
+                            && isInlineFlags( regex, i, end ) )
+                    {
+                        // (?x) switches on comments mode for the rest of the pattern.
+                        return null;
+                    }
+                    i = skipQuantifier( regex, end );
+                }
+                case '[' -> {
+                    flush( run, runs );
+                    int end = skipClass( regex, i );
+                    if ( end < 0 )
+                    {
+                        return null;
+                    }
+                    i = skipQuantifier( regex, end );
+                }
+                case '.', '^', '$' -> {
+                    flush( run, runs );
+                    i = skipQuantifier( regex, i + 1 );
+                }
+                case '?', '*', '+', '{', ')', ']' -> {
+                    // A quantifier or bracket with nothing sensible before it.
+                    flush( run, runs );
+                    i++;
+                }
+                default -> i = literal( regex, i + 1, c, run, runs );
+            }
+        }
+        flush( run, runs );
+        return runs;
+    }
+
+    /** Adds a literal character, unless a quantifier makes it optional or repeated. */
+    private static int literal( String regex, int after, char c, StringBuilder run, List<String> runs )
+    {
+        if ( !isQuantifier( regex, after ) )
+        {
+            run.append( c );
+            return after;
+        }
+        if ( regex.charAt( after ) == '+' )
+        {
+            // At least once: still required, but whatever follows is not adjacent.
+            run.append( c );
+        }
+        flush( run, runs );
+        return skipQuantifier( regex, after );
+    }
+
+    private static boolean isQuantifier( String regex, int i )
+    {
+        if ( i >= regex.length() )
+        {
+            return false;
+        }
+        char c = regex.charAt( i );
+        return c == '?' || c == '*' || c == '+' || c == '{';
+    }
+
+    private static int skipQuantifier( String regex, int i )
+    {
+        if ( !isQuantifier( regex, i ) )
+        {
+            return i;
+        }
+        if ( regex.charAt( i ) == '{' )
+        {
+            int end = regex.indexOf( '}', i );
+            i = end < 0 ? regex.length() : end + 1;
+        }
+        else
+        {
+            i++;
+        }
+        // Lazy and possessive modifiers.
+        if ( i < regex.length() && ( regex.charAt( i ) == '?' || regex.charAt( i ) == '+' ) )
+        {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipEscape( String regex, int i )
+    {
+        char kind = regex.charAt( i + 1 );
+        int j = i + 2;
+        if ( ( kind == 'p' || kind == 'P' || kind == 'x' || kind == 'N' || kind == 'k' ) && j < regex.length()
+                && ( regex.charAt( j ) == '{' || regex.charAt( j ) == '<' ) )
+        {
+            int end = regex.indexOf( regex.charAt( j ) == '{' ? '}' : '>', j );
+            return end < 0 ? regex.length() : end + 1;
+        }
+        return j;
+    }
+
+    /** @return the index after the closing parenthesis, or -1 if there is none */
+    private static int skipGroup( String regex, int i )
+    {
+        int depth = 0;
+        for ( int j = i; j < regex.length(); j++ )
+        {
+            char c = regex.charAt( j );
+            if ( c == '\\' )
+            {
+                if ( regex.startsWith( "\\Q", j ) )
+                {
+                    int end = regex.indexOf( "\\E", j + 2 );
+                    if ( end < 0 )
+                    {
+                        return -1;
+                    }
+                    j = end + 1;
+                }
+                else
+                {
+                    j++;
+                }
+            }
+            else if ( c == '[' )
+            {
+                int end = skipClass( regex, j );
+                if ( end < 0 )
+                {
+                    return -1;
+                }
+                j = end - 1;
+            }
+            else if ( c == '(' )
+            {
+                depth++;
+            }
+            else if ( c == ')' && --depth == 0 )
+            {
+                return j + 1;
+            }
+        }
+        return -1;
+    }
+
+    /** @return the index after the closing bracket, or -1 if there is none */
+    private static int skipClass( String regex, int i )
+    {
+        int depth = 0;
+        int j = i;
+        while ( j < regex.length() )
+        {
+            char c = regex.charAt( j );
+            if ( c == '\\' )
+            {
+                j += 2;
+                continue;
+            }
+            if ( c == '[' )
+            {
+                depth++;
+                // A ] right after [ or [^ is a literal member.
+                if ( j + 1 < regex.length() && regex.charAt( j + 1 ) == '^' )
+                {
+                    j++;
+                }
+                if ( j + 1 < regex.length() && regex.charAt( j + 1 ) == ']' )
+                {
+                    j++;
+                }
+            }
+            else if ( c == ']' && --depth == 0 )
+            {
+                return j + 1;
+            }
+            j++;
+        }
+        return -1;
+    }
+
+    private static boolean isInlineFlags( String regex, int start, int end )
+    {
+        for ( int j = start + 2; j < end - 1; j++ )
+        {
+            char c = regex.charAt( j );
+            if ( c == ':' )
+            {
+                return true;
+            }
+            if ( !Character.isLetter( c ) && c != '-' )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void flush( StringBuilder run, List<String> runs )
+    {
+        if ( run.length() > 0 )
+        {
+            runs.add( run.toString() );
+            run.setLength( 0 );
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.search;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.e4.core.di.annotations.Creatable;
+
+import com.github.gradusnikov.eclipse.assistai.Activator;
+import com.github.gradusnikov.eclipse.assistai.services.AiIgnoreService;
+import com.github.gradusnikov.eclipse.assistai.tools.ResourceUtilities;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * A {@link TrigramIndex} of the files in all open projects, so text and regex
+ * searches only open the files that can contain a match, and file name searches do
+ * not open any.
+ * <p>
+ * The index is kept in the plug-in's state location under {@code .metadata} and
+ * reloaded on start-up; a background job then checks every file's modification
+ * stamp and re-indexes only what changed while the IDE was down. After that,
+ * resource change deltas keep it current. Until the first check has finished
+ * {@link #candidates} and {@link #findFiles} return {@code null} and callers fall
+ * back to a full scan.
+ * <p>
+ * Files excluded by {@link AiIgnoreService} are recorded but their content is never
+ * indexed, and changing an ignore file re-checks its project. The index covers
+ * saved file content, the same as the text search engine it narrows.
+ */
+@Creatable
+@Singleton
+public class WorkspaceSearchIndex implements IResourceChangeListener
+{
+    static final String        INDEX_FILE        = "search-index.bin";
+
+    /** Larger files are not indexed and are always searched. */
+    static final long          MAX_INDEXED_BYTES = 4L * 1024 * 1024;
+
+    /** Changes indexed since the last save before the index is written again. */
+    static final int           SAVE_EVERY        = 2000;
+
+    private static final long  UPDATE_DELAY_MS   = 500;
+
+    @Inject
+    ILog                       logger;
+
+    @Inject
+    AiIgnoreService            aiIgnoreService;
+
+    private volatile TrigramIndex index = new TrigramIndex();
+
+    private volatile boolean   ready;
+
+    /** Files changed but not yet re-indexed; they stay candidates meanwhile. */
+    private final Set<String>  pending           = ConcurrentHashMap.newKeySet();
+
+    /** Projects to walk completely, e.g. just opened or with changed ignore rules. */
+    private final Set<String>  projectsToScan    = ConcurrentHashMap.newKeySet();
+
+    private final Job          job               = new Job( "Indexing workspace for search" )
+                                                 {
+                                                     @Override
+                                                     protected IStatus run( IProgressMonitor monitor )
+                                                     {
+                                                         return update( monitor );
+                                                     }
+                                                 };
+
+    private boolean            loaded;
+
+    private int                changesSinceSave;
+
+    @PostConstruct
+    public void init()
+    {
+        job.setSystem( true );
+        job.setPriority( Job.DECORATE );
+        ResourcesPlugin.getWorkspace().addResourceChangeListener( this, IResourceChangeEvent.POST_CHANGE );
+        for ( IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects() )
+        {
+            if ( project.isOpen() )
+            {
+                projectsToScan.add( project.getName() );
+            }
+        }
+        job.schedule();
+    }
+
+    @PreDestroy
+    public void dispose()
+    {
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener( this );
+        job.cancel();
+        try
+        {
+            job.join( 5_000, null );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        if ( ready )
+        {
+            save();
+        }
+    }
+
+    /** True once the index reflects the workspace and queries can use it. */
+    public boolean isReady()
+    {
+        return ready;
+    }
+
+    /**
+     * The files that may contain a match of the pattern.
+     *
+     * @return the candidates, or {@code null} if the index cannot narrow the search -
+     *         it is still being built, or the pattern has no usable literal text
+     */
+    public List<IFile> candidates( Pattern pattern, Pattern fileNamePattern )
+    {
+        if ( !ready )
+        {
+            return null;
+        }
+        TrigramQuery query = TrigramQuery.forPattern( pattern );
+        if ( query.matchesAll() )
+        {
+            return null;
+        }
+        Set<String> paths = new LinkedHashSet<>( index.candidates( query, path -> nameMatches( path, fileNamePattern ) ) );
+        for ( String path : pending )
+        {
+            if ( nameMatches( path, fileNamePattern ) )
+            {
+                paths.add( path );
+            }
+        }
+        return toFiles( paths );
+    }
+
+    /**
+     * The files whose name matches, without opening any of them.
+     *
+     * @return sorted workspace paths, at most {@code limit} of them, or {@code null}
+     *         while the index is still being built
+     */
+    public List<String> findFiles( Pattern fileNamePattern, int limit )
+    {
+        if ( !ready )
+        {
+            return null;
+        }
+        Set<String> paths = new HashSet<>();
+        for ( String path : index.paths() )
+        {
+            if ( nameMatches( path, fileNamePattern ) )
+            {
+                paths.add( path );
+            }
+        }
+        for ( String path : pending )
+        {
+            if ( nameMatches( path, fileNamePattern ) )
+            {
+                paths.add( path );
+            }
+        }
+        List<String> result = new ArrayList<>();
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        for ( String path : paths.stream().sorted().toList() )
+        {
+            IFile file = root.getFile( org.eclipse.core.runtime.Path.fromPortableString( path ) );
+            if ( file.isAccessible() && !aiIgnoreService.isExcluded( file ) )
+            {
+                result.add( path );
+                if ( result.size() >= limit )
+                {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Files indexed, and bytes of signatures held, for diagnostics. */
+    public String describe()
+    {
+        TrigramIndex current = index;
+        return ( ready ? "ready" : "building" ) + ", " + current.size() + " files, " + current.signatureBytes() / 1024 + " KB of signatures, "
+                + pending.size() + " pending";
+    }
+
+    @Override
+    public void resourceChanged( IResourceChangeEvent event )
+    {
+        IResourceDelta delta = event.getDelta();
+        if ( delta == null )
+        {
+            return;
+        }
+        try
+        {
+            delta.accept( this::visit );
+        }
+        catch ( CoreException e )
+        {
+            logger.error( "Error tracking resource changes for the search index", e );
+        }
+        if ( !pending.isEmpty() || !projectsToScan.isEmpty() )
+        {
+            job.schedule( UPDATE_DELAY_MS );
+        }
+    }
+
+    private boolean visit( IResourceDelta delta )
+    {
+        IResource resource = delta.getResource();
+        switch ( resource.getType() )
+        {
+            case IResource.PROJECT -> {
+                IProject project = (IProject) resource;
+                boolean openChanged = ( delta.getFlags() & IResourceDelta.OPEN ) != 0;
+                if ( delta.getKind() == IResourceDelta.REMOVED || ( openChanged && !project.isOpen() ) )
+                {
+                    projectsToScan.remove( project.getName() );
+                    index.removeUnder( project.getFullPath().toString() );
+                    pending.removeIf( path -> path.startsWith( project.getFullPath() + "/" ) );
+                    return false;
+                }
+                if ( ( delta.getKind() == IResourceDelta.ADDED || openChanged ) && project.isOpen() )
+                {
+                    projectsToScan.add( project.getName() );
+                    return false;
+                }
+                return true;
+            }
+            case IResource.FILE -> {
+                String path = resource.getFullPath().toString();
+                if ( delta.getKind() == IResourceDelta.REMOVED )
+                {
+                    index.remove( path );
+                    pending.remove( path );
+                }
+                else if ( delta.getKind() == IResourceDelta.ADDED
+                        || ( delta.getFlags() & ( IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.ENCODING ) ) != 0 )
+                {
+                    pending.add( path );
+                }
+                if ( aiIgnoreService.isRulesFile( resource.getName() ) )
+                {
+                    projectsToScan.add( resource.getProject().getName() );
+                }
+                return false;
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    private IStatus update( IProgressMonitor monitor )
+    {
+        if ( !loaded )
+        {
+            load();
+            loaded = true;
+        }
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        while ( !projectsToScan.isEmpty() )
+        {
+            for ( String name : new ArrayList<>( projectsToScan ) )
+            {
+                if ( monitor.isCanceled() )
+                {
+                    return Status.CANCEL_STATUS;
+                }
+                projectsToScan.remove( name );
+                IProject project = root.getProject( name );
+                if ( project.isOpen() )
+                {
+                    scan( project, monitor );
+                }
+            }
+        }
+        for ( String path : new ArrayList<>( pending ) )
+        {
+            if ( monitor.isCanceled() )
+            {
+                return Status.CANCEL_STATUS;
+            }
+            IFile file = root.getFile( org.eclipse.core.runtime.Path.fromPortableString( path ) );
+            long stamp = file.getModificationStamp();
+            if ( file.isAccessible() )
+            {
+                indexFile( file, stamp );
+            }
+            // Still pending if it changed again while being read.
+            if ( !file.isAccessible() || file.getModificationStamp() == stamp )
+            {
+                pending.remove( path );
+            }
+        }
+        if ( !ready )
+        {
+            ready = true;
+            save();
+        }
+        else if ( changesSinceSave >= SAVE_EVERY )
+        {
+            save();
+        }
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Brings one project up to date: files whose stamp or exclusion changed are
+     * re-indexed, files that are gone are dropped. Walking proxies reads no
+     * content, so an unchanged project costs little more than its file count.
+     */
+    private void scan( IProject project, IProgressMonitor monitor )
+    {
+        List<IFile> stale = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        String prefix = project.getFullPath() + "/";
+        try
+        {
+            project.accept( ( IResourceProxy proxy ) -> {
+                if ( proxy.getType() != IResource.FILE )
+                {
+                    return !monitor.isCanceled();
+                }
+                String path = proxy.requestFullPath().toString();
+                seen.add( path );
+                TrigramIndex.Entry entry = index.get( path );
+                boolean excluded = aiIgnoreService.isExcluded( project, path.substring( prefix.length() ) );
+                if ( entry == null || entry.stamp() != proxy.getModificationStamp() || excluded != ( entry.kind() == TrigramIndex.Kind.EXCLUDED ) )
+                {
+                    stale.add( (IFile) proxy.requestResource() );
+                }
+                return false;
+            }, IResource.NONE );
+        }
+        catch ( CoreException e )
+        {
+            logger.error( "Error scanning " + project.getName() + " for the search index", e );
+            return;
+        }
+        index.paths().removeIf( path -> path.startsWith( prefix ) && !seen.contains( path ) );
+        for ( IFile file : stale )
+        {
+            if ( monitor.isCanceled() )
+            {
+                return;
+            }
+            indexFile( file, file.getModificationStamp() );
+        }
+    }
+
+    private void indexFile( IFile file, long stamp )
+    {
+        String path = file.getFullPath().toString();
+        if ( aiIgnoreService.isExcluded( file ) )
+        {
+            index.putUnindexed( path, stamp, TrigramIndex.Kind.EXCLUDED );
+        }
+        else
+        {
+            try
+            {
+                var location = file.getLocation();
+                if ( location == null || location.toFile().length() > MAX_INDEXED_BYTES )
+                {
+                    index.putUnindexed( path, stamp, TrigramIndex.Kind.UNINDEXED );
+                }
+                else
+                {
+                    index.put( path, stamp, ResourceUtilities.readFileContent( file ) );
+                }
+            }
+            catch ( IOException | CoreException | RuntimeException e )
+            {
+                index.putUnindexed( path, stamp, TrigramIndex.Kind.UNINDEXED );
+            }
+        }
+        changesSinceSave++;
+    }
+
+    private void load()
+    {
+        Path file = indexFile();
+        if ( file == null || !Files.exists( file ) )
+        {
+            return;
+        }
+        try
+        {
+            index = TrigramIndex.read( file );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            // Rebuilt from scratch by the scan that follows.
+            logger.warn( "Discarding unreadable search index: " + e.getMessage() );
+        }
+    }
+
+    private void save()
+    {
+        Path file = indexFile();
+        if ( file == null )
+        {
+            return;
+        }
+        try
+        {
+            index.write( file );
+            changesSinceSave = 0;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            logger.warn( "Could not save the search index: " + e.getMessage() );
+        }
+    }
+
+    private static Path indexFile()
+    {
+        Activator activator = Activator.getDefault();
+        if ( activator == null )
+        {
+            return null;
+        }
+        try
+        {
+            return activator.getStateLocation().append( INDEX_FILE ).toFile().toPath();
+        }
+        catch ( IllegalStateException e )
+        {
+            return null;
+        }
+    }
+
+    private static boolean nameMatches( String path, Pattern fileNamePattern )
+    {
+        return fileNamePattern == null || fileNamePattern.matcher( path.substring( path.lastIndexOf( '/' ) + 1 ) ).matches();
+    }
+
+    private static List<IFile> toFiles( Set<String> paths )
+    {
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        List<IFile> files = new ArrayList<>( paths.size() );
+        for ( String path : paths )
+        {
+            IFile file = root.getFile( org.eclipse.core.runtime.Path.fromPortableString( path ) );
+            if ( file.isAccessible() )
+            {
+                files.add( file );
+            }
+        }
+        return files;
+    }
+}
@@ -31,7 +31,7 @@ public class DuckDuckSearchMcpServer
     private static final int SEARCH_TIMEOUT_MILLIS = 15_000;
 
     @SuppressWarnings("deprecation")
-	@Tool(name="webSearch", description="Performs a search using a Duck Duck Go search engine and returns the search result json.", type="object", longExecution=true, inlineWait=20)
+	@Tool(name="webSearch", readOnly=true, description="Performs a search using a Duck Duck Go search engine and returns the search result json.", type="object", longExecution=true, inlineWait=20)
     public String webSearch(
             @ToolParam(name="query", description="A search query", required=true) String query)
     {
@@ -1,10 +1,15 @@
 
 package com.github.gradusnikov.eclipse.assistai.mcp.servers;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.eclipse.e4.core.di.annotations.Creatable;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.McpServer;
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool;
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolParam;
@@ -16,6 +21,8 @@ import jakarta.inject.Inject;
 @McpServer(name = "eclipse-coder")
 public class EclipseCodeEditingMcpServer 
 {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     @Inject
     private CodeEditingService codeEditingService;
 
@@ -231,6 +238,35 @@ public class EclipseCodeEditingMcpServer
         return codeEditingService.applyPatch(projectName, filePath, patch, showPatchDialog);
     }
 
+    @Tool(name="applyEdits", longExecution=true, description="Applies a batch of edits across one or more files as a single change. All edits are validated first and nothing is written if any of them fails; "
+            + "the files are then written in one workspace operation, so the project is built once instead of once per edit. Returns the diffs and the compile problems of the edited files. "
+            + "Prefer this over a series of replaceString/insertIntoFile/applyPatch calls when making related changes. undoEdits reverts the whole batch.", type="object")
+    public String applyEdits(
+        @ToolParam(name="projectName", description="The project of every edit that does not name its own", required=true) String projectName,
+        @ToolParam(name="edits", description="Array of edits, applied in order; line numbers refer to the file as the earlier edits leave it. Each edit is an object with 'type', 'filePath' and optionally 'projectName', plus per type: "
+            + "replaceString {oldString, newString, startLine?, endLine?}; insert {content, line} (inserted before line); replaceLines {content, startLine, endLine}; "
+            + "deleteLines {startLine, endLine}; patch {patch} (unified diff hunks); replaceContent {content}; create {content}. "
+            + "E.g. [{\"type\": \"replaceString\", \"filePath\": \"src/a/B.java\", \"oldString\": \"int x\", \"newString\": \"long x\"}].",
+            type="array", items="object") Object edits)
+    {
+        List<CodeEditingService.FileEdit> parsed;
+        try
+        {
+            parsed = parseEdits(projectName, edits);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return "Error: " + e.getMessage();
+        }
+        return codeEditingService.applyEdits(parsed);
+    }
+
+    @Tool(name="undoEdits", description="Reverts the last applyEdits batch as a whole: edited files get their previous content back and files it created are deleted.", type="object")
+    public String undoEdits()
+    {
+        return codeEditingService.undoEdits();
+    }
+
     @Tool(name="formatFile", description="Formats an entire file using its registered Eclipse editor's formatter (equivalent to Ctrl/Cmd+Shift+F). Java files use JDT directly; formats such as XML, JSON, HTML, and SQL use the formatter contributed by the installed editor.", type="object")
     public String formatFile(
         @ToolParam(name="projectName", description="The name of the project containing the file", required=true) String projectName,
@@ -238,4 +274,71 @@ public class EclipseCodeEditingMcpServer
     {
         return codeEditingService.formatFile(projectName, filePath);
     }
+
+    static List<CodeEditingService.FileEdit> parseEdits(String projectName, Object edits)
+    {
+        Object parsed = edits;
+        if (edits instanceof String json)
+        {
+            try
+            {
+                parsed = MAPPER.readValue(json, List.class);
+            }
+            catch (JsonProcessingException e)
+            {
+                throw new IllegalArgumentException("edits is not a JSON array: " + e.getOriginalMessage());
+            }
+        }
+        if (!(parsed instanceof List<?> list))
+        {
+            throw new IllegalArgumentException("edits must be an array of {\"type\": ..., \"filePath\": ...} objects.");
+        }
+        List<CodeEditingService.FileEdit> result = new ArrayList<>();
+        for (Object item : list)
+        {
+            if (!(item instanceof Map<?, ?> edit))
+            {
+                throw new IllegalArgumentException("each edit must be an object, got: " + item);
+            }
+            result.add(new CodeEditingService.FileEdit(
+                    stringArg(edit, "type"),
+                    Optional.ofNullable(stringArg(edit, "projectName")).orElse(projectName),
+                    stringArg(edit, "filePath"),
+                    stringArg(edit, "oldString"),
+                    stringArg(edit, "newString"),
+                    stringArg(edit, "content"),
+                    stringArg(edit, "patch"),
+                    intArg(edit, "line"),
+                    intArg(edit, "startLine"),
+                    intArg(edit, "endLine")));
+        }
+        return result;
+    }
+
+    private static String stringArg(Map<?, ?> edit, String name)
+    {
+        Object value = edit.get(name);
+        return value == null ? null : value.toString();
+    }
+
+    private static Integer intArg(Map<?, ?> edit, String name)
+    {
+        Object value = edit.get(name);
+        if (value == null || value.toString().isBlank())
+        {
+            return null;
+        }
+        if (value instanceof Number number)
+        {
+            return number.intValue();
+        }
+        try
+        {
+            return Integer.parseInt(value.toString().trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException(name + " must be a number, got: " + value);
+        }
+    }
 }
@@ -31,7 +31,7 @@ public class EclipseContextMcpServer
     @Inject
     private LocalHistoryService localHistoryService;
 
-    @Tool(name = "listCachedResources",
+    @Tool(name = "listCachedResources", readOnly = true,
           description = "Lists all resources currently cached in the Eclipse workspace context. "
                       + "Shows URIs, types, version numbers, timestamps, and token estimates. "
                       + "Use this to see what files, classes, and data the user has been working with.",
@@ -67,7 +67,7 @@ public class EclipseContextMcpServer
         return sb.toString();
     }
 
-    @Tool(name = "getCachedResource",
+    @Tool(name = "getCachedResource", readOnly = true,
           description = "Gets the content of a specific cached resource by URI without re-reading from disk. "
                       + "Use listCachedResources first to see available URIs. "
                       + "Returns the cached version - fast, no I/O.",
@@ -101,7 +101,7 @@ public class EclipseContextMcpServer
         }
     }
 
-    @Tool(name = "getCacheStats",
+    @Tool(name = "getCacheStats", readOnly = true,
           description = "Gets resource cache statistics: number of resources, token usage, and limits.",
           type = "object")
     public String getCacheStats()
@@ -121,7 +121,7 @@ public class EclipseContextMcpServer
 
     // --- Local History tools ---
 
-    @Tool(name = "getFileHistory",
+    @Tool(name = "getFileHistory", readOnly = true,
           description = "Lists the Local History versions of a file maintained by Eclipse. "
                       + "Shows timestamps and sizes for each historical version. "
                       + "Eclipse automatically saves file history on every modification through the IDE.",
@@ -134,7 +134,7 @@ public class EclipseContextMcpServer
         return localHistoryService.getFileHistory( projectName, filePath, maxEntries );
     }
 
-    @Tool(name = "getFileHistoryContent",
+    @Tool(name = "getFileHistoryContent", readOnly = true,
           description = "Gets the content of a specific Local History version of a file. "
                       + "Use getFileHistory first to see available versions and their indices.",
           type = "object")
@@ -159,7 +159,7 @@ public class EclipseContextMcpServer
         return localHistoryService.restoreFileVersion( projectName, filePath, index );
     }
 
-    @Tool(name = "compareWithHistory",
+    @Tool(name = "compareWithHistory", readOnly = true,
           description = "Shows a unified diff between the current file content and a Local History version. "
                       + "Use getFileHistory to find the version index.",
           type = "object")
@@ -171,6 +171,19 @@ public class EclipseContextMcpServer
         return localHistoryService.compareWithHistory( projectName, filePath, index );
     }
 
+    @Tool(name = "findLineOrigin", readOnly = true,
+          description = "Finds which Local History version introduced a line of the current file, "
+                      + "by binary search over the versions instead of reading each one. "
+                      + "Returns the pair of versions between which the line appeared.",
+          type = "object")
+    public String findLineOrigin(
+            @ToolParam(name = "projectName", description = "The name of the project", required = true) String projectName,
+            @ToolParam(name = "filePath", description = "Path to the file relative to the project root", required = true) String filePath,
+            @ToolParam(name = "lineNumber", description = "1-based line number in the current file", required = true) String lineNumber )
+    {
+        return localHistoryService.findLineOrigin( projectName, filePath, lineNumber );
+    }
+
     // --- helpers ---
 
     private static String truncate( String s, int maxLen )
@@ -18,20 +18,23 @@ public class EclipseGitMcpServer
     @Inject
     private GitService gitService;
 
-    @Tool(name = "gitStatus", description = "Shows the working tree status of the Git repository associated with the project. Displays staged, unstaged, untracked files and current branch info.", type = "object")
+    @Tool(name = "gitStatus", readOnly = true, description = "Shows the working tree status of the Git repository associated with the project. Displays staged, unstaged, untracked files and current branch info.", type = "object")
     public String gitStatus(
             @ToolParam(name = "projectName", description = "The Eclipse project name (use listProjects to find it)", required = true) String projectName)
     {
         return gitService.getStatus(projectName);
     }
 
-    @Tool(name = "gitLog", description = "Shows the commit history of the Git repository associated with the project.", type = "object")
+    @Tool(name = "gitLog", readOnly = true, description = "Shows the commit history of the Git repository associated with the project, one page at a time. A page that does not hold the whole history ends with a cursor to pass back for the next page.", type = "object")
     public String gitLog(
             @ToolParam(name = "projectName", description = "The Eclipse project name", required = true) String projectName,
-            @ToolParam(name = "maxCount", description = "Maximum number of commits to show (default: 20)", required = false) String maxCount)
+            @ToolParam(name = "maxCount", description = "Maximum number of commits per page (default: 20)", required = false) String maxCount,
+            @ToolParam(name = "cursor", description = "Cursor returned with the previous page, or a revision to start from. Default: HEAD", required = false) String cursor,
+            @ToolParam(name = "maxTokens", description = "Approximate size of the page in tokens (default: 8000, -1 for unlimited)", required = false) String maxTokens)
     {
         int count = Optional.ofNullable(maxCount).map(Integer::parseInt).orElse(20);
-        return gitService.getLog(projectName, count);
+        int tokens = Optional.ofNullable(maxTokens).map(Integer::parseInt).orElse(8000);
+        return gitService.getLog(projectName, count, cursor, tokens);
     }
 
     @Tool(name = "gitAdd", description = "Stages files for the next commit. Use '.' to stage all changes (new, modified, and deleted files).", type = "object")
@@ -50,7 +53,7 @@ public class EclipseGitMcpServer
         return gitService.commit(projectName, message);
     }
 
-    @Tool(name = "gitReadFile", description = "Reads a UTF-8 text file from a Git revision without changing the working tree. The path is relative to the Eclipse project. Use revision 'INDEX' to read the staged version; otherwise revision defaults to HEAD and may be a branch, tag, or commit.", type = "object")
+    @Tool(name = "gitReadFile", readOnly = true, description = "Reads a UTF-8 text file from a Git revision without changing the working tree. The path is relative to the Eclipse project. Use revision 'INDEX' to read the staged version; otherwise revision defaults to HEAD and may be a branch, tag, or commit.", type = "object")
     public String gitReadFile(
             @ToolParam(name = "projectName", description = "The Eclipse project name", required = true) String projectName,
             @ToolParam(name = "filePath", description = "File path relative to the Eclipse project", required = true) String filePath,
@@ -60,19 +63,26 @@ public class EclipseGitMcpServer
         return gitService.readFileAtRevision(projectName, filePath, effectiveRevision);
     }
 
-    @Tool(name = "gitDiff", description = "Shows a unified diff for staged or unstaged changes, optionally limited to comma-separated project-relative files/directories and with whitespace changes ignored.", type = "object")
+    @Tool(name = "gitDiff", readOnly = true, longExecution = true, description = "Shows a unified diff for staged or unstaged changes, optionally limited to comma-separated project-relative files/directories and with whitespace changes ignored. Output is paged to fit maxTokens: a page that does not hold every file ends with a cursor, and the files that did not fit are also written to the operation's output. For a large change, start with stat='true' for per-file line counts, then expand the interesting files with pathFilter.", type = "object")
     public String gitDiff(
             @ToolParam(name = "projectName", description = "The Eclipse project name", required = true) String projectName,
             @ToolParam(name = "staged", description = "If 'true', shows staged (cached) changes instead of unstaged. Default: false", required = false) String staged,
             @ToolParam(name = "pathFilter", description = "Optional comma-separated file or directory paths relative to the Eclipse project", required = false) String pathFilter,
-            @ToolParam(name = "ignoreWhitespace", description = "If 'true', ignores whitespace when formatting hunks. Default: false", required = false) String ignoreWhitespace)
+            @ToolParam(name = "ignoreWhitespace", description = "If 'true', ignores whitespace when formatting hunks. Default: false", required = false) String ignoreWhitespace,
+            @ToolParam(name = "stat", description = "If 'true', lists each changed file with its added and removed line counts instead of the patch. Default: false", required = false) String stat,
+            @ToolParam(name = "maxTokens", description = "Approximate size of the page in tokens (default: 10000, -1 for unlimited)", required = false) String maxTokens,
+            @ToolParam(name = "cursor", description = "Cursor returned with the previous page, to continue from there", required = false) String cursor,
+            @ToolParam(name = "renameLimit", description = "Rename candidates beyond which renames are not detected, as detection gets slow on large changes; 0 turns it off (default: 200)", required = false) String renameLimit)
     {
         boolean isStagedDiff = Optional.ofNullable(staged).map(Boolean::parseBoolean).orElse(false);
         boolean ignoresWhitespace = Optional.ofNullable(ignoreWhitespace).map(Boolean::parseBoolean).orElse(false);
-        return gitService.getDiff(projectName, isStagedDiff, pathFilter, ignoresWhitespace);
+        boolean statOnly = Optional.ofNullable(stat).map(Boolean::parseBoolean).orElse(false);
+        int tokens = Optional.ofNullable(maxTokens).map(Integer::parseInt).orElse(10000);
+        int limit = Optional.ofNullable(renameLimit).map(Integer::parseInt).orElse(GitService.DEFAULT_RENAME_LIMIT);
+        return gitService.getDiff(projectName, isStagedDiff, pathFilter, ignoresWhitespace, statOnly, tokens, cursor, limit);
     }
 
-    @Tool(name = "gitBranch", description = "Lists branches in the repository. The current branch is marked with an asterisk (*).", type = "object")
+    @Tool(name = "gitBranch", readOnly = true, description = "Lists branches in the repository. The current branch is marked with an asterisk (*).", type = "object")
     public String gitBranch(
             @ToolParam(name = "projectName", description = "The Eclipse project name", required = true) String projectName,
             @ToolParam(name = "includeRemote", description = "If 'true', includes remote-tracking branches. Default: false", required = false) String includeRemote)
@@ -131,7 +141,7 @@ public class EclipseGitMcpServer
         return gitService.stashPop(projectName);
     }
 
-    @Tool(name = "gitStashList", description = "Lists all stash entries.", type = "object")
+    @Tool(name = "gitStashList", readOnly = true, description = "Lists all stash entries.", type = "object")
     public String gitStashList(
             @ToolParam(name = "projectName", description = "The Eclipse project name", required = true) String projectName)
     {
@@ -9,10 +9,16 @@ import org.eclipse.e4.core.di.annotations.Creatable;
 
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.McpServer;
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool;
+import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolCategory;
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolParam;
+import com.github.gradusnikov.eclipse.assistai.mcp.metrics.ToolMetrics;
+import com.github.gradusnikov.eclipse.assistai.mcp.repomap.RepositoryMapIndex;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.SymbolSearchIndex;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.AttachmentCache;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.CodeAnalysisService;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.CodeEditingService;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.ConsoleService;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.CoverageService;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.EditorService;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.MarkdownService;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.JavaDocService;
@@ -21,6 +27,7 @@ import com.github.gradusnikov.eclipse.assistai.mcp.services.OutlineService;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.ProjectService;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.ResourceService;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.SearchService;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.TestImpactService;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.UnitTestService;
 import com.github.gradusnikov.eclipse.assistai.resources.ResourceResultSerializer;
 import com.github.gradusnikov.eclipse.assistai.resources.ResourceToolResult;
@@ -68,7 +75,25 @@ public class EclipseIntegrationsMcpServer
     @Inject
     private MarkdownService     markdownService;
 
-    @Tool( name = "formatCode", description = "Formats code according to the current Eclipse formatter settings.", type = "object" )
+    @Inject
+    private ToolMetrics         toolMetrics;
+
+    @Inject
+    private RepositoryMapIndex  repositoryMapIndex;
+
+    @Inject
+    private SymbolSearchIndex   symbolSearchIndex;
+
+    @Inject
+    private AttachmentCache     attachmentCache;
+
+    @Inject
+    private CoverageService     coverageService;
+
+    @Inject
+    private TestImpactService   testImpactService;
+
+    @Tool( name = "formatCode", readOnly = true, description = "Formats code according to the current Eclipse formatter settings.", type = "object" )
     public String formatCode( @ToolParam( name = "code", description = "The code to be formatted", required = true )
     String code, @ToolParam( name = "projectName", description = "Optional project name to use project-specific formatter settings", required = false )
     String projectName )
@@ -76,14 +101,14 @@ public class EclipseIntegrationsMcpServer
         return codeEditingService.formatCode( code, projectName );
     }
 
-    @Tool( name = "getJavaDoc", description = "Get the JavaDoc for the given compilation unit.  For example,a class B defined as a member type of a class A in package x.y should have athe fully qualified name \"x.y.A.B\".Note that in order to be found, a type name (or its top level enclosingtype name) must match its corresponding compilation unit name.", type = "object" )
+    @Tool( name = "getJavaDoc", readOnly = true, description = "Get the JavaDoc for the given compilation unit.  For example,a class B defined as a member type of a class A in package x.y should have athe fully qualified name \"x.y.A.B\".Note that in order to be found, a type name (or its top level enclosingtype name) must match its corresponding compilation unit name.", type = "object" )
     public String getJavaDoc( @ToolParam( name = "fullyQualifiedName", description = "A fully qualified name of the compilation unit", required = true )
     String fullyQualifiedClassName )
     {
         return javaDocService.getJavaDoc( fullyQualifiedClassName );
     }
 
-    @Tool( name = "getSource", description = "Get source for a workspace or referenced-library class. Prefers original/attached source and decompiles binary classes when source is unavailable.", type = "object" )
+    @Tool( name = "getSource", readOnly = true, description = "Get source for a workspace or referenced-library class. Prefers original/attached source and decompiles binary classes when source is unavailable.", type = "object" )
     public String getSource( @ToolParam( name = "fullyQualifiedClassName", description = "A fully qualified class name of the Java class", required = true )
     String fullyQualifiedClassName )
     {
@@ -92,7 +117,7 @@ public class EclipseIntegrationsMcpServer
         return ResourceResultSerializer.serialize( result );
     }
 
-    @Tool( name = "explainTypeResolution", description = "Explains exactly how a Java type resolves on one Eclipse project's classpath, including its source/binary origin, classpath root and entry, source attachment, class file, and getSource strategy.", type = "object" )
+    @Tool( name = "explainTypeResolution", readOnly = true, description = "Explains exactly how a Java type resolves on one Eclipse project's classpath, including its source/binary origin, classpath root and entry, source attachment, class file, and getSource strategy.", type = "object" )
     public String explainTypeResolution(
             @ToolParam( name = "projectName", description = "The exact open Eclipse Java project name", required = true ) String projectName,
             @ToolParam( name = "fullyQualifiedClassName", description = "The fully qualified Java type name", required = true ) String fullyQualifiedClassName )
@@ -100,7 +125,7 @@ public class EclipseIntegrationsMcpServer
         return javaDocService.explainTypeResolution( projectName, fullyQualifiedClassName );
     }
 
-    @Tool( name = "getClassOutline", description = "Returns a compact outline of a Java class: class declaration, field declarations, method signatures (no bodies), and inner types â all with line numbers. Much more token-efficient than getSource for understanding class structure. Use this first, then getMethodSource for specific methods.", type = "object" )
+    @Tool( name = "getClassOutline", readOnly = true, description = "Returns a compact outline of a Java class: class declaration, field declarations, method signatures (no bodies), and inner types â all with line numbers. Much more token-efficient than getSource for understanding class structure. Use this first, then getMethodSource for specific methods.", type = "object" )
     public String getClassOutline(
             @ToolParam( name = "fullyQualifiedClassName", description = "A fully qualified class name (e.g. 'com.example.MyClass')", required = true )
             String fullyQualifiedClassName,
@@ -112,7 +137,7 @@ public class EclipseIntegrationsMcpServer
         return ResourceResultSerializer.serialize( result );
     }
 
-    @Tool( name = "getMethodSource", description = "Returns the source code of specific method(s) with line numbers. Accepts comma-separated method names to retrieve multiple methods in one call. Use after getClassOutline to read only the methods you need.", type = "object" )
+    @Tool( name = "getMethodSource", readOnly = true, description = "Returns the source code of specific method(s) with line numbers. Accepts comma-separated method names to retrieve multiple methods in one call. Use after getClassOutline to read only the methods you need.", type = "object" )
     public String getMethodSource(
             @ToolParam( name = "fullyQualifiedClassName", description = "A fully qualified class name (e.g. 'com.example.MyClass')", required = true )
             String fullyQualifiedClassName,
@@ -127,7 +152,7 @@ public class EclipseIntegrationsMcpServer
         return ResourceResultSerializer.serialize( result );
     }
 
-    @Tool( name = "getFilteredSource", description = "Returns source code with optional import exclusion and selective method expansion. Methods not in the expand list are collapsed to their signature with line ranges. Line numbers always match the original file for accurate editing.", type = "object" )
+    @Tool( name = "getFilteredSource", readOnly = true, description = "Returns source code with optional import exclusion and selective method expansion. Methods not in the expand list are collapsed to their signature with line ranges. Line numbers always match the original file for accurate editing.", type = "object" )
     public String getFilteredSource(
             @ToolParam( name = "fullyQualifiedClassName", description = "A fully qualified class name (e.g. 'com.example.MyClass')", required = true )
             String fullyQualifiedClassName,
@@ -141,27 +166,42 @@ public class EclipseIntegrationsMcpServer
         return ResourceResultSerializer.serialize( result );
     }
 
-    @Tool( name = "getProjectProperties", description = "Retrieves the properties and configuration of a specified project.", type = "object" )
+    @Tool( name = "getProjectProperties", readOnly = true, description = "Retrieves the properties and configuration of a specified project.", type = "object" )
     public String getProjectProperties( @ToolParam( name = "projectName", description = "The name of the project to analyze", required = true )
     String projectName )
     {
         return projectService.getProjectProperties( projectName );
     }
 
-    @Tool( name = "getProjectLayout", description = "Get the file and folder structure of a specified project in a hierarchical format. For large projects, use scopePath to limit to a subdirectory and/or maxDepth to limit tree depth.", type = "object" )
+    @Tool( name = "getProjectLayout", readOnly = true, description = "Get the file and folder structure of a specified project in a hierarchical format. Ignored files and the contents of derived folders are left out, and very large folders are summarised. For large projects, use scopePath to limit to a subdirectory and/or maxDepth to limit tree depth; a listing that does not fit maxTokens ends with a cursor to pass back for the next page.", type = "object" )
     public String getProjectLayout( @ToolParam( name = "projectName", description = "The name of the project to analyze", required = true )
     String projectName,
             @ToolParam( name = "scopePath", description = "Optional path relative to the project root to limit the listing (e.g., 'src/main/java/com/example'). If omitted, shows the entire project.", required = false )
             String scopePath,
             @ToolParam( name = "maxDepth", description = "Optional maximum depth of the directory tree to display (e.g., '3' for 3 levels deep). If omitted, shows all levels.", required = false )
-            String maxDepth )
+            String maxDepth,
+            @ToolParam( name = "maxTokens", description = "Approximate size of one page of the listing in tokens (default: 8000)", required = false )
+            String maxTokens,
+            @ToolParam( name = "cursor", description = "Optional cursor returned with the previous page, to continue the listing from there", required = false )
+            String cursor )
     {
         int depth = Optional.ofNullable( maxDepth ).map( Integer::parseInt ).orElse( -1 );
-        ResourceToolResult result = projectService.getProjectLayoutWithResource( projectName, scopePath, depth );
+        int tokens = Optional.ofNullable( maxTokens ).map( Integer::parseInt ).orElse( 8000 );
+        ResourceToolResult result = projectService.getProjectLayoutWithResource( projectName, scopePath, depth, tokens, cursor );
         return ResourceResultSerializer.serialize( result );
     }
 
-    @Tool( name = "getMethodCallHierarchy", longExecution = true, description = "Retrieves the call hierarchy (callers) for a specified method to understand how it's used in the codebase.", type = "object" )
+    @Tool( name = "getRepositoryMap", readOnly = true, description = "Returns a compact map of the most important types of a Java project - declarations and member signatures, ranked by how much of the project references them - cut to a token budget. Use it first to get oriented in an unfamiliar project, then getClassOutline or getMethodSource for details.", type = "object" )
+    public String getRepositoryMap( @ToolParam( name = "projectName", description = "The name of the Java project to map", required = true )
+    String projectName,
+            @ToolParam( name = "maxTokens", description = "Approximate size of the map in tokens (default: 2000)", required = false )
+            String maxTokens )
+    {
+        int budget = Optional.ofNullable( maxTokens ).map( Integer::parseInt ).orElse( 2000 );
+        return repositoryMapIndex.render( projectName, budget );
+    }
+
+    @Tool( name = "getMethodCallHierarchy", readOnly = true, category = ToolCategory.SEARCH, longExecution = true, description = "Retrieves the call hierarchy (callers) for a specified method to understand how it's used in the codebase.", type = "object" )
     public String getMethodCallHierarchy(
             @ToolParam( name = "fullyQualifiedClassName", description = "The fully qualified name of the class containing the method", required = true )
             String fullyQualifiedClassName, @ToolParam( name = "methodName", description = "The name of the method to analyze", required = true )
@@ -175,18 +215,21 @@ public class EclipseIntegrationsMcpServer
                 Optional.ofNullable( maxDepth ).map( Integer::parseInt ).orElse( 0 ) );
     }
 
-    @Tool( name = "getCompilationErrors", description = "Retrieves compilation errors and problems from the current workspace or a specific project.", type = "object" )
+    @Tool( name = "getCompilationErrors", readOnly = true, description = "Retrieves compilation errors and problems from the current workspace or a specific project, errors first. Each listing reports a version; pass it back as sinceVersion to get only the problems that appeared or were resolved since.", type = "object" )
     public String getCompilationErrors(
             @ToolParam( name = "projectName", description = "The name of the specific project to check (optional, leave empty for all projects)", required = false )
             String projectName,
             @ToolParam( name = "severity", description = "Filter by severity level: 'ERROR', 'WARNING', or 'ALL' (default)", required = false )
             String severity, @ToolParam( name = "maxResults", description = "Maximum number of problems to return (default: 50)", required = false )
-            String maxResults )
+            String maxResults,
+            @ToolParam( name = "sinceVersion", description = "Version reported by an earlier call; if given, only new and resolved problems since then are listed (optional)", required = false )
+            String sinceVersion )
     {
-        return codeAnalysisService.getCompilationErrors( projectName, severity, Optional.ofNullable( maxResults ).map( Integer::parseInt ).orElse( 0 ) );
+        return codeAnalysisService.getCompilationErrors( projectName, severity, Optional.ofNullable( maxResults ).map( Integer::parseInt ).orElse( 0 ),
+                Optional.ofNullable( sinceVersion ).filter( s -> !s.isBlank() ).map( Long::parseLong ).orElse( null ) );
     }
 
-    @Tool( name = "readProjectResource", description = "Read the content of a text resource from a specified project. Supports line numbers, reading specific line ranges, and collapsing Java imports to reduce token usage.", type = "object" )
+    @Tool( name = "readProjectResource", readOnly = true, description = "Read the content of a text resource from a specified project. Supports line numbers, reading specific line ranges, and collapsing Java imports to reduce token usage.", type = "object" )
     public String readProjectResource( @ToolParam( name = "projectName", description = "The name of the project containing the resource", required = true )
     String projectName, @ToolParam( name = "resourcePath", description = "The path to the resource relative to the project root", required = true )
     String resourcePath,
@@ -207,7 +250,7 @@ public class EclipseIntegrationsMcpServer
         return ResourceResultSerializer.serialize( result );
     }
 
-    @Tool( name = "readImageResource", description = "Reads a raster image from an Eclipse workspace project and returns it as MCP image content. Supported extensions: png, jpg, jpeg, gif, bmp, tif, tiff and ico. Maximum size: 20 MiB.", type = "object" )
+    @Tool( name = "readImageResource", readOnly = true, description = "Reads a raster image from an Eclipse workspace project and returns it as MCP image content. Supported extensions: png, jpg, jpeg, gif, bmp, tif, tiff and ico. Maximum size: 20 MiB.", type = "object" )
     public McpSchema.ImageContent readImageResource(
             @ToolParam( name = "projectName", description = "The name of the project containing the image", required = true )
             String projectName, @ToolParam( name = "resourcePath", description = "The image path relative to the project root", required = true )
@@ -219,7 +262,7 @@ public class EclipseIntegrationsMcpServer
         return new McpSchema.ImageContent( annotations, data, image.mimeType(), null );
     }
 
-    @Tool( name = "listProjects", description = "List all available projects in the workspace with their detected natures (Java, C/C++, Python, etc.).", type = "object" )
+    @Tool( name = "listProjects", readOnly = true, description = "List all available projects in the workspace with their detected natures (Java, C/C++, Python, etc.).", type = "object" )
     public String listProjects()
     {
         return projectService.listProjects();
@@ -232,7 +275,7 @@ public class EclipseIntegrationsMcpServer
         return projectService.openProject( directoryPath );
     }
 
-    @Tool( name = "getCurrentlyOpenedFile", description = "Gets information about the currently active file in the Eclipse editor.", type = "object" )
+    @Tool( name = "getCurrentlyOpenedFile", readOnly = true, description = "Gets information about the currently active file in the Eclipse editor.", type = "object" )
     public String getCurrentlyOpenedFile()
     {
         // Use resource-aware method and serialize for caching
@@ -240,33 +283,39 @@ public class EclipseIntegrationsMcpServer
         return ResourceResultSerializer.serialize( result );
     }
 
-    @Tool( name = "getEditorSelection", description = "Gets the currently selected text or lines in the active editor.", type = "object" )
+    @Tool( name = "getEditorSelection", readOnly = true, description = "Gets the currently selected text or lines in the active editor.", type = "object" )
     public String getEditorSelection()
     {
         return editorService.getEditorSelection();
     }
 
-    @Tool( name = "getConsoleOutput", description = "Retrieves the recent output from Eclipse console(s).", type = "object" )
+    @Tool( name = "getConsoleOutput", readOnly = true, description = "Retrieves the recent output from Eclipse console(s). Lines carry stable indices: pass offset to page through the output from a given line, or filter to list only the lines matching a regular expression.", type = "object" )
     public String getConsoleOutput(
             @ToolParam( name = "consoleName", description = "Name of the specific console to retrieve (optional, leave empty for all or most recent console)", required = false )
-            String consoleName, @ToolParam( name = "maxLines", description = "Maximum number of lines to retrieve (default: 100)", required = false )
+            String consoleName, @ToolParam( name = "maxLines", description = "Maximum number of lines (or matching lines) to retrieve (default: 100)", required = false )
             String maxLines,
             @ToolParam( name = "includeAllConsoles", description = "Whether to include output from all available consoles (default: false)", required = false )
-            Boolean includeAllConsoles )
+            Boolean includeAllConsoles,
+            @ToolParam( name = "offset", description = "Index of the first line to return; negative counts back from the end. Default: the last maxLines lines, or the start when filtering", required = false )
+            String offset,
+            @ToolParam( name = "filter", description = "Optional regular expression (e.g. 'ERROR|Exception'); only matching lines are returned, with their indices", required = false )
+            String filter )
     {
         // Use resource-aware method and serialize for caching
         ResourceToolResult result = consoleService.getConsoleOutputWithResource( consoleName,
-                Optional.ofNullable( maxLines ).map( Integer::parseInt ).orElse( 0 ), includeAllConsoles );
+                Optional.ofNullable( maxLines ).map( Integer::parseInt ).orElse( 0 ), includeAllConsoles,
+                Optional.ofNullable( offset ).map( Integer::parseInt ).orElse( null ), filter );
         return ResourceResultSerializer.serialize( result );
     }
 
 
     // Unit Test Service Tools
 
-    @Tool( name = "runJUnitTests",
+    @Tool( name = "runJUnitTests", category = ToolCategory.TEST,
            description = "Starts a JUnit test run asynchronously and returns an operationId for polling. "
                + "Scope is inferred from parameters: className+methodName=single method, "
-               + "className=single class, packageName=package, none=all tests in project. "
+               + "className=single class (or comma-separated for multiple classes in one launch), "
+               + "packageName=package, none=all tests in project. "
                + "Use getOperationStatus to poll progress and results. "
                + "For PDE plug-in tests, use runJUnitPluginTests in the eclipse-pde server instead. "
                + "Publishes typed intermediate results while running: "
@@ -306,15 +355,33 @@ public class EclipseIntegrationsMcpServer
                             + "When set, all settings from that config are reused (VM args, classpath, env vars, etc.) "
                             + "and only the test target is overridden.",
                         required = false )
-            String launcherName )
+            String launcherName,
+            @ToolParam( name = "shards",
+                        description = "Optional number of JVMs to split the test classes across, run in parallel and balanced by the "
+                            + "classes' last run times; 'auto' for one per processor. Applies to all tests or a className list, "
+                            + "not to packageName or methodName, and runs without coverage.",
+                        required = false )
+            String shards )
     {
         boolean coverage = Optional.ofNullable( withCoverage ).map( Boolean::parseBoolean ).orElse( false );
         int timeoutSeconds = Optional.ofNullable( timeout ).map( Integer::parseInt ).orElse( 60 );
+        int shardCount = Optional.ofNullable( shards ).filter( s -> !s.isBlank() ).map( s -> "auto".equalsIgnoreCase( s ) ? 0 : Integer.parseInt( s ) ).orElse( 1 );
 
-        if ( className != null && !className.isBlank() && methodName != null && !methodName.isBlank() )
+        if ( shardCount != 1 && ( methodName == null || methodName.isBlank() ) && ( packageName == null || packageName.isBlank() ) )
+        {
+            List<String> classes = className == null ? List.of()
+                    : List.of( className.split( "," ) ).stream().map( String::trim ).filter( s -> !s.isEmpty() ).toList();
+            return unitTestService.runShardedTests( projectName, classes, shardCount, timeoutSeconds );
+        }
+        else if ( className != null && !className.isBlank() && methodName != null && !methodName.isBlank() )
         {
             return unitTestService.runTestMethod( projectName, className, methodName, timeoutSeconds, coverage, launcherName );
         }
+        else if ( className != null && className.contains( "," ) )
+        {
+            List<String> classes = List.of( className.split( "," ) ).stream().map( String::trim ).filter( s -> !s.isEmpty() ).toList();
+            return unitTestService.runClassesTests( projectName, classes, timeoutSeconds, coverage, launcherName );
+        }
         else if ( className != null && !className.isBlank() )
         {
             return unitTestService.runClassTests( projectName, className, timeoutSeconds, coverage, launcherName );
@@ -329,7 +396,7 @@ public class EclipseIntegrationsMcpServer
         }
     }
 
-    @Tool( name = "findTestClasses", description = "Finds test classes and separates plain JUnit tests from PDE harness tests, which must follow the *PDETest naming convention. Flags likely PDE runtime usage in incorrectly named tests.", type = "object" )
+    @Tool( name = "findTestClasses", readOnly = true, description = "Finds test classes and separates plain JUnit tests from PDE harness tests, which must follow the *PDETest naming convention. Flags likely PDE runtime usage in incorrectly named tests.", type = "object" )
     public String findTestClasses(
             @ToolParam( name = "projectName", description = "The exact Eclipse project name to search (use listProjects to find it)", required = true )
             String projectName )
@@ -337,12 +404,45 @@ public class EclipseIntegrationsMcpServer
         return unitTestService.findTestClasses( projectName );
     }
 
+    @Tool( name = "getCoverage", readOnly = true, description = "Returns the line and branch coverage of a class, or of one of its methods, recorded by the last runJUnitTests call with withCoverage=true: per-method counts and the lines that were not or only partly covered. Answered from the last run's data without running anything.", type = "object" )
+    public String getCoverage(
+            @ToolParam( name = "className", description = "The fully qualified class name (e.g. 'com.example.MyService')", required = true )
+            String className,
+            @ToolParam( name = "methodName", description = "Optional method name to narrow the result to (all overloads are included)", required = false )
+            String methodName )
+    {
+        return coverageService.getCoverage( className, methodName );
+    }
+
+    @Tool( name = "runAffectedTests", category = ToolCategory.TEST,
+           description = "Runs only the test classes of a project that the changed Java files can affect: test classes whose file changed "
+               + "or that reference a changed type, directly or through other classes. Changes are the files edited since the project's "
+               + "last green runAffectedTests run; in a fresh session, the files uncommitted in Git. Plug-in projects run in one "
+               + "JUnit Plug-in launch, others in one JUnit launch. Reports the selection, the skipped classes and the time their "
+               + "last runs took, followed by the usual test results. Use getOperationStatus to poll progress.",
+           type = "object",
+           longExecution = true )
+    public String runAffectedTests(
+            @ToolParam( name = "projectName", description = "The exact Eclipse project name containing the test classes (use listProjects to find it)", required = true )
+            String projectName,
+            @ToolParam( name = "changedFiles", description = "Optional comma-separated workspace paths of changed files (e.g. '/MyProject/src/com/example/Foo.java') to use instead of the recorded changes", required = false )
+            String changedFiles,
+            @ToolParam( name = "timeout", description = "Maximum time in seconds to wait for test completion (default: 300)", required = false )
+            String timeout )
+    {
+        List<String> files = changedFiles == null || changedFiles.isBlank()
+                ? null
+                : List.of( changedFiles.split( "," ) ).stream().map( String::trim ).filter( s -> !s.isEmpty() ).toList();
+        int timeoutSeconds = Optional.ofNullable( timeout ).map( Integer::parseInt ).orElse( 300 );
+        return testImpactService.runAffectedTests( projectName, files, timeoutSeconds );
+    }
+
     // Maven Service Tools
 
     // inlineWaitParam is cleared because this tool's own 'timeout' counts
     // MINUTES, and
     // reading it as an inline wait in seconds would silently shorten it by 60x.
-    @Tool( name = "runMavenBuild", description = "Runs a Maven build with the specified goals on a project.", type = "object", longExecution = true, inlineWaitParam = "" )
+    @Tool( name = "runMavenBuild", category = ToolCategory.BUILD, description = "Runs a Maven build with the specified goals on a project.", type = "object", longExecution = true, inlineWaitParam = "" )
     public String runMavenBuild( @ToolParam( name = "projectName", description = "The name of the project to build", required = true )
     String projectName, @ToolParam( name = "goals", description = "The Maven goals to execute (e.g., \"clean install\")", required = true )
     String goals, @ToolParam( name = "profiles", description = "Optional Maven profiles to activate", required = false )
@@ -352,7 +452,31 @@ public class EclipseIntegrationsMcpServer
         return mavenService.runMavenBuild( projectName, goals, profiles, Optional.ofNullable( timeout ).map( Integer::parseInt ).orElse( 0 ) );
     }
 
-    @Tool( name = "updateMavenProject", longExecution = true, description = "Runs the equivalent of the IDE's 'Maven > Update Project' action: re-reads the pom, re-resolves dependencies and reconfigures the project's classpath. Use this after editing a pom.xml - until it runs, the workspace does not see the change, so a newly added dependency is not on the classpath and code using it still fails to compile.", type = "object" )
+    // Like runMavenBuild, the 'timeout' counts MINUTES.
+    @Tool( name = "runIncrementalMavenBuild", category = ToolCategory.BUILD, description = "Builds only the reactor modules that contain the changed files, together with the modules depending on them (like 'mvn -pl <modules> -amd'). When Eclipse has already compiled the reactor without errors, the main sources are not compiled again. Streams the build output and reports how long each module took.", type = "object", longExecution = true, inlineWaitParam = "" )
+    public String runIncrementalMavenBuild(
+            @ToolParam( name = "projectName", description = "The project holding the reactor's root pom", required = true )
+            String projectName,
+            @ToolParam( name = "goals", description = "The Maven goals to execute (e.g., \"install\")", required = true )
+            String goals,
+            @ToolParam( name = "changedFiles", description = "Comma-separated workspace paths of the changed files (e.g. /my-module/src/main/java/com/example/Foo.java). Default: the files uncommitted in Git", required = false )
+            String changedFiles,
+            @ToolParam( name = "profiles", description = "Optional Maven profiles to activate", required = false )
+            String profiles,
+            @ToolParam( name = "reuseEclipseOutput", description = "If 'true', skips Maven's main compilation when the classes Eclipse compiled are current and error-free. Default: true", required = false )
+            String reuseEclipseOutput,
+            @ToolParam( name = "timeout", description = "Maximum time in minutes to wait for build completion (0 for no timeout)", required = false )
+            String timeout )
+    {
+        List<String> files = changedFiles == null || changedFiles.isBlank()
+                ? null
+                : List.of( changedFiles.split( "," ) ).stream().map( String::trim ).filter( s -> !s.isEmpty() ).toList();
+        boolean reuse = Optional.ofNullable( reuseEclipseOutput ).map( Boolean::parseBoolean ).orElse( true );
+        return mavenService.runIncrementalMavenBuild( projectName, goals, files, profiles, reuse,
+                Optional.ofNullable( timeout ).map( Integer::parseInt ).orElse( 0 ) );
+    }
+
+    @Tool( name = "updateMavenProject", category = ToolCategory.BUILD, longExecution = true, description = "Runs the equivalent of the IDE's 'Maven > Update Project' action: re-reads the pom, re-resolves dependencies and reconfigures the project's classpath. Use this after editing a pom.xml - until it runs, the workspace does not see the change, so a newly added dependency is not on the classpath and code using it still fails to compile.", type = "object" )
     public String updateMavenProject(
             @ToolParam( name = "projectName", description = "The name of the Maven project to update (use listMavenProjects to find it)", required = true )
             String projectName,
@@ -366,20 +490,20 @@ public class EclipseIntegrationsMcpServer
         return mavenService.updateMavenProject( projectName, force, workOffline );
     }
 
-    @Tool( name = "getEffectivePom", longExecution = true, description = "Gets the effective POM for a Maven project.", type = "object" )
+    @Tool( name = "getEffectivePom", readOnly = true, longExecution = true, description = "Gets the effective POM for a Maven project.", type = "object" )
     public String getEffectivePom( @ToolParam( name = "projectName", description = "The name of the Maven project", required = true )
     String projectName )
     {
         return mavenService.getEffectivePom( projectName );
     }
 
-    @Tool( name = "listMavenProjects", description = "Lists all available Maven projects in the workspace.", type = "object" )
+    @Tool( name = "listMavenProjects", readOnly = true, description = "Lists all available Maven projects in the workspace.", type = "object" )
     public String listMavenProjects()
     {
         return mavenService.listMavenProjects();
     }
 
-    @Tool( name = "getProjectDependencies", longExecution = true, description = "Gets Maven project dependencies.", type = "object" )
+    @Tool( name = "getProjectDependencies", readOnly = true, longExecution = true, description = "Gets Maven project dependencies.", type = "object" )
     public String getProjectDependencies( @ToolParam( name = "projectName", description = "The name of the Maven project", required = true )
     String projectName )
     {
@@ -388,7 +512,7 @@ public class EclipseIntegrationsMcpServer
 
     // Code Analysis Tools
 
-    @Tool( name = "getTypeHierarchy", longExecution = true, description = "Retrieves the type hierarchy (supertypes, implemented interfaces, and subtypes) for a given Java class or interface.", type = "object" )
+    @Tool( name = "getTypeHierarchy", readOnly = true, category = ToolCategory.SEARCH, longExecution = true, description = "Retrieves the type hierarchy (supertypes, implemented interfaces, and subtypes) for a given Java class or interface.", type = "object" )
     public String getTypeHierarchy(
             @ToolParam( name = "fullyQualifiedClassName", description = "The fully qualified name of the class (e.g., 'com.example.MyClass')", required = true )
             String fullyQualifiedClassName )
@@ -396,7 +520,7 @@ public class EclipseIntegrationsMcpServer
         return codeAnalysisService.getTypeHierarchy( fullyQualifiedClassName );
     }
 
-    @Tool( name = "findReferences", longExecution = true, description = "Finds all references/usages of a Java type, method, or field across the entire workspace. Essential before renaming or deleting code elements.", type = "object" )
+    @Tool( name = "findReferences", readOnly = true, category = ToolCategory.SEARCH, longExecution = true, description = "Finds all references/usages of a Java type, method, or field across the entire workspace. Essential before renaming or deleting code elements.", type = "object" )
     public String findReferences(
             @ToolParam( name = "fullyQualifiedClassName", description = "The fully qualified name of the class containing the element", required = true )
             String fullyQualifiedClassName,
@@ -416,7 +540,7 @@ public class EclipseIntegrationsMcpServer
         return codeAnalysisService.executeQuickFix( Long.parseLong( markerId ), Integer.parseInt( proposalIndex ) );
     }
 
-    @Tool( name = "getImportSuggestions", longExecution = true, description = "Finds import candidates for unresolved types in a Java file. Shows matching fully qualified names from the workspace for each unresolved type error.", type = "object" )
+    @Tool( name = "getImportSuggestions", readOnly = true, category = ToolCategory.SEARCH, longExecution = true, description = "Finds import candidates for unresolved types in a Java file. Shows matching fully qualified names from the workspace for each unresolved type error.", type = "object" )
     public String getImportSuggestions( @ToolParam( name = "projectName", description = "The name of the project containing the file", required = true )
     String projectName, @ToolParam( name = "filePath", description = "The path to the Java file relative to the project root", required = true )
     String filePath )
@@ -426,28 +550,54 @@ public class EclipseIntegrationsMcpServer
 
     // Search Service Tools
 
-    @Tool( name = "fileSearch", longExecution = true, description = "Searches for a plain substring in workspace files using Eclipse's text search engine.", type = "object" )
+    @Tool( name = "searchSymbols", readOnly = true, description = "Finds Java types, methods and fields by what they are about, ranked by relevance. Words are matched against symbol names split on camel case, signatures, Javadoc, comments and string literals, so 'parse http header' finds parseHttpHeaders. Answers from an index kept up to date in the background; use it instead of guessing regular expressions for fileSearchRegExp.", type = "object" )
+    public String searchSymbols( @ToolParam( name = "query", description = "Words describing what to find, e.g. 'retry failed request'", required = true )
+    String query,
+            @ToolParam( name = "kind", description = "Optional kind of symbol: 'type', 'method' or 'field'. If omitted, all kinds are searched.", required = false )
+            String kind,
+            @ToolParam( name = "projectName", description = "Optional project to search. If omitted, the whole workspace is searched.", required = false )
+            String projectName,
+            @ToolParam( name = "maxResults", description = "Maximum number of symbols to return (default: 20)", required = false )
+            String maxResults )
+    {
+        int limit = Optional.ofNullable( maxResults ).map( Integer::parseInt ).orElse( 20 );
+        return symbolSearchIndex.search( query, kind, projectName, limit );
+    }
+
+    @Tool( name = "fileSearch", readOnly = true, category = ToolCategory.SEARCH, longExecution = true, description = "Searches for a plain substring in workspace files, one result per matching line (path:line: text). The search stops once maxResults or maxBytes is reached and ends with a line saying how much of the workspace was searched; matches are streamed to the operation output while it runs.", type = "object" )
     public String fileSearch(
             @ToolParam( name = "containingText", description = "Text that must be contained in a line (plain substring, not regex)", required = true )
             String containingText,
             @ToolParam( name = "fileNamePatterns", description = "Optional file name patterns. Accepts either an array (e.g. [\"*.java\", \"*.xml\"]) or a string (e.g. \"*.java,*.xml\"). If omitted, all files are searched.", required = false )
-            Object fileNamePatterns )
+            Object fileNamePatterns,
+            @ToolParam( name = "maxResults", description = "Maximum number of matching lines to return (default: 200)", required = false )
+            String maxResults,
+            @ToolParam( name = "maxBytes", description = "Maximum size in bytes of the returned lines (default: 65536)", required = false )
+            String maxBytes )
     {
         String[] patterns = normalizeFileNamePatterns( fileNamePatterns );
-        return searchService.fileSearch( containingText, patterns ).toString();
+        int resultLimit = Optional.ofNullable( maxResults ).map( Integer::parseInt ).orElse( 0 );
+        long byteLimit = Optional.ofNullable( maxBytes ).map( Long::parseLong ).orElse( 0L );
+        return searchService.fileSearch( containingText, resultLimit, byteLimit, patterns );
     }
 
-    @Tool( name = "fileSearchRegExp", longExecution = true, description = "Searches workspace files using a Java regular expression via Eclipse's text search engine.", type = "object" )
+    @Tool( name = "fileSearchRegExp", readOnly = true, category = ToolCategory.SEARCH, longExecution = true, description = "Searches workspace files using a Java regular expression, one result per matching line (path:line: text). The search stops once maxResults or maxBytes is reached and ends with a line saying how much of the workspace was searched; matches are streamed to the operation output while it runs.", type = "object" )
     public String fileSearchRegExp( @ToolParam( name = "pattern", description = "Java regular expression", required = true )
     String pattern,
             @ToolParam( name = "fileNamePatterns", description = "Optional file name patterns. Accepts either an array (e.g. [\"*.java\", \"*.xml\"]) or a string (e.g. \"*.java,*.xml\"). If omitted, all files are searched.", required = false )
-            Object fileNamePatterns )
+            Object fileNamePatterns,
+            @ToolParam( name = "maxResults", description = "Maximum number of matching lines to return (default: 200)", required = false )
+            String maxResults,
+            @ToolParam( name = "maxBytes", description = "Maximum size in bytes of the returned lines (default: 65536)", required = false )
+            String maxBytes )
     {
         String[] patterns = normalizeFileNamePatterns( fileNamePatterns );
-        return searchService.fileSearchRegExp( pattern, patterns ).toString();
+        int resultLimit = Optional.ofNullable( maxResults ).map( Integer::parseInt ).orElse( 0 );
+        long byteLimit = Optional.ofNullable( maxBytes ).map( Long::parseLong ).orElse( 0L );
+        return searchService.fileSearchRegExp( pattern, resultLimit, byteLimit, patterns );
     }
 
-    @Tool( name = "findFiles", description = "Finds workspace files matching the given glob patterns.", type = "object" )
+    @Tool( name = "findFiles", readOnly = true, description = "Finds workspace files matching the given glob patterns.", type = "object" )
     public String findFiles(
             @ToolParam( name = "fileNamePatterns", description = "Glob patterns. Accepts either an array (e.g. [\"*.java\", \"pom.xml\"]) or a string (e.g. \"*.java, pom.xml\"). If omitted, defaults to '*'", required = false )
             Object fileNamePatterns, @ToolParam( name = "maxResults", description = "Maximum number of results to return (default: 200)", required = false )
@@ -458,7 +608,7 @@ public class EclipseIntegrationsMcpServer
         return resourceService.findFiles( patterns, limit ).toString();
     }
 
-    @Tool( name = "searchAndReplace", longExecution = true, description = "Search and replace across multiple files in the workspace using Eclipse's text search engine.", type = "object" )
+    @Tool( name = "searchAndReplace", category = ToolCategory.SEARCH, longExecution = true, description = "Search and replace across multiple files in the workspace using Eclipse's text search engine.", type = "object" )
     public String searchAndReplace( @ToolParam( name = "containingText", description = "Plain text to find (not regex)", required = true )
     String containingText, @ToolParam( name = "replacementText", description = "Replacement text (can be empty)", required = true )
     String replacementText,
@@ -469,7 +619,7 @@ public class EclipseIntegrationsMcpServer
         return searchService.searchAndReplace( containingText, replacementText, patterns ).toString();
     }
 
-    @Tool( name = "getMarkdownOutline", description = "Returns the heading structure (table of contents) of a Markdown file with line numbers and section sizes. Use this to understand a large Markdown document before fetching specific sections with getMarkdownSection.", type = "object" )
+    @Tool( name = "getMarkdownOutline", readOnly = true, description = "Returns the heading structure (table of contents) of a Markdown file with line numbers and section sizes. Use this to understand a large Markdown document before fetching specific sections with getMarkdownSection.", type = "object" )
     public String getMarkdownOutline( @ToolParam( name = "projectName", description = "The name of the project containing the Markdown file", required = true )
     String projectName,
             @ToolParam( name = "resourcePath", description = "The path to the Markdown file relative to the project root (e.g., 'docs/README.md')", required = true )
@@ -478,7 +628,7 @@ public class EclipseIntegrationsMcpServer
         return markdownService.getOutline( projectName, resourcePath );
     }
 
-    @Tool( name = "getMarkdownSection", description = "Reads a specific section from a Markdown file by heading name or index. Returns the section content with line numbers. Use getMarkdownOutline first to see available headings.", type = "object" )
+    @Tool( name = "getMarkdownSection", readOnly = true, description = "Reads a specific section from a Markdown file by heading name or index. Returns the section content with line numbers. Use getMarkdownOutline first to see available headings.", type = "object" )
     public String getMarkdownSection( @ToolParam( name = "projectName", description = "The name of the project containing the Markdown file", required = true )
     String projectName, @ToolParam( name = "resourcePath", description = "The path to the Markdown file relative to the project root", required = true )
     String resourcePath,
@@ -491,6 +641,23 @@ public class EclipseIntegrationsMcpServer
         return markdownService.getSection( projectName, resourcePath, heading, includeSubs );
     }
 
+    // Diagnostics
+
+    @Tool( name = "getToolMetrics", readOnly = true, category = ToolCategory.CONTROL, description = "Reports per-tool call counts, latency percentiles (p50/p95/p99/max), total time, queue wait, error and cancellation counts, and result sizes in characters and estimated tokens for every MCP tool called since the IDE started, slowest tools first, followed by the hit rate of the library Javadoc/source cache. Use it to find out which tools dominate wall-clock time.", type = "object" )
+    public String getToolMetrics(
+            @ToolParam( name = "toolFilter", description = "Optional text a tool name must contain (case-insensitive). If omitted, all tools are reported.", required = false )
+            String toolFilter )
+    {
+        return toolMetrics.formatReport( toolFilter ) + "\n\n" + attachmentCache.formatStats();
+    }
+
+    @Tool( name = "resetToolMetrics", category = ToolCategory.CONTROL, description = "Clears the per-tool counters reported by getToolMetrics, so the next report covers only the calls made from now on.", type = "object" )
+    public String resetToolMetrics()
+    {
+        toolMetrics.reset();
+        return "Tool metrics have been reset.";
+    }
+
     private static String[] normalizeFileNamePatterns( Object fileNamePatterns )
     {
         if ( fileNamePatterns == null )
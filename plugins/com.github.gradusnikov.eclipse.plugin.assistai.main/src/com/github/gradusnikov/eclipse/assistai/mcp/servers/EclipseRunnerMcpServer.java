@@ -55,7 +55,7 @@ public class EclipseRunnerMcpServer
         return javaLaunchService.stopApplication(nameOrClass);
     }
 
-    @Tool(name = "listActiveLaunches",
+    @Tool(name = "listActiveLaunches", readOnly = true,
           description = "Lists all currently running or debugging applications with their status, mode (run/debug), and process information.",
           type = "object")
     public String listActiveLaunches()
@@ -63,7 +63,7 @@ public class EclipseRunnerMcpServer
         return javaLaunchService.listActiveLaunches();
     }
 
-    @Tool(name = "listLaunchConfigurations",
+    @Tool(name = "listLaunchConfigurations", readOnly = true,
           description = "Lists all saved launch configurations in the workspace (name, type, and for Java applications the project and main class). "
               + "Returns a JSON array where each entry has: name, typeId, typeName, projectName, mainClass. "
               + "Use this to discover the exact name to pass to launchConfiguration, (eclipse-ide MCP server).runJUnitTests (launcherName), or (eclipse-pde MCP server).runJUnitPluginTests (launcherName). "
@@ -104,7 +104,7 @@ public class EclipseRunnerMcpServer
         return javaLaunchService.toggleBreakpoint(projectName, typeName, Integer.parseInt(lineNumber));
     }
 
-    @Tool(name = "listBreakpoints",
+    @Tool(name = "listBreakpoints", readOnly = true,
           description = "Lists all breakpoints currently set in the workspace, showing their location, enabled status, and any conditions.",
           type = "object")
     public String listBreakpoints()
@@ -120,7 +120,7 @@ public class EclipseRunnerMcpServer
         return javaLaunchService.removeAllBreakpoints();
     }
 
-    @Tool(name = "getStackTrace",
+    @Tool(name = "getStackTrace", readOnly = true,
           description = "Gets the stack trace of all threads for a suspended debug session. Shows the call stack, and local variables for the top frame. The application must be stopped at a breakpoint.",
           type = "object")
     public String getStackTrace(
@@ -9,6 +9,7 @@ import org.eclipse.e4.core.di.annotations.Creatable;
 
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.McpServer;
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool;
+import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolCategory;
 import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolParam;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.PDEService;
 import com.github.gradusnikov.eclipse.assistai.mcp.services.RuntimeReloadService;
@@ -25,7 +26,7 @@ public class PDEMcpServer
     @Inject
     private RuntimeReloadService runtimeReloadService;
 
-    @Tool(name = "getActiveTarget",
+    @Tool(name = "getActiveTarget", readOnly = true,
           description = "Gets information about the currently active Eclipse target platform.",
           type = "object")
     public String getActiveTarget()
@@ -33,7 +34,7 @@ public class PDEMcpServer
         return pdeService.getActiveTarget();
     }
 
-    @Tool(name = "setActiveTarget",
+    @Tool(name = "setActiveTarget", category = ToolCategory.BUILD,
           description = "Sets the active Eclipse target platform from a .target file. Loads and activates the target definition.",
           longExecution = true,
           type = "object")
@@ -43,7 +44,7 @@ public class PDEMcpServer
         return pdeService.setActiveTarget(targetFilePath);
     }
 
-    @Tool(name = "reloadTarget",
+    @Tool(name = "reloadTarget", category = ToolCategory.BUILD,
           description = "Reloads the currently active Eclipse target platform. Useful after target contents change on disk.",
           longExecution = true,
           type = "object")
@@ -73,7 +74,7 @@ public class PDEMcpServer
         return runtimeReloadService.reloadWorkspaceBundle(symbolicName, delay);
     }
 
-    @Tool(name = "runJUnitPluginTests",
+    @Tool(name = "runJUnitPluginTests", category = ToolCategory.TEST,
           description = "Starts a JUnit Plug-in Test run asynchronously using the PDE launcher and returns an operationId for polling. "
               + "Scope is inferred from parameters: className+methodName=single method, "
               + "className=single class (or comma-separated for multiple classes in one launch), "
@@ -26,7 +26,7 @@ public class ReadWebPageMcpServer
     @Inject
     private ILog logger;
 
-    @Tool(name="readWebPage", description="Reads the content of the given web site and returns its content as a markdown text.", type="object")
+    @Tool(name="readWebPage", readOnly=true, description="Reads the content of the given web site and returns its content as a markdown text.", type="object")
     public String readWebPage(
             @ToolParam(name="url", description="A web site URL", required=true) String url)
     {
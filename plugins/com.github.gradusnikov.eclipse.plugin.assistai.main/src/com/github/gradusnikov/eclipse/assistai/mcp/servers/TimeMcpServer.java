@@ -15,7 +15,7 @@ import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolParam;
 @McpServer(name = "time")
 public class TimeMcpServer
 {
-    @Tool(name = "currentTime", description = "Returns the current date and time in the following format: yyyy-MM-dd HH:mm:ss", type = "object")
+    @Tool(name = "currentTime", readOnly = true, description = "Returns the current date and time in the following format: yyyy-MM-dd HH:mm:ss", type = "object")
     public String getCurrentTime()
     {
         ZonedDateTime now = ZonedDateTime.now();
@@ -23,7 +23,7 @@ public class TimeMcpServer
         return now.format(formatter);
     }
     
-    @Tool(name = "convertTimeZone", 
+    @Tool(name = "convertTimeZone", readOnly = true, 
           description = "Converts time from one time zone to another. Returns a converted time in the yyyy-MM-dd HH:mm:ss z format.", 
           type = "object")
     public String convertTimeZone(@ToolParam(name="time", description = "Date/time in the format yyyy-MM-dd HH:mm:ss", required = true) String timeString, 
@@ -0,0 +1,542 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathAttribute;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import com.github.gradusnikov.eclipse.assistai.Activator;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Remembers attached Javadoc and source of library elements, so they are read
+ * from a JAR or a remote Javadoc location once rather than on every request.
+ * <p>
+ * An entry is keyed by the element's handle identifier, a checksum of the
+ * archive it comes from, the path and checksum of the root's source attachment
+ * and its Javadoc location; a changed JAR or attachment therefore simply misses.
+ * Entries are kept in a small LRU in memory and, when the plug-in state location
+ * is available, on disk, so they survive a restart. When a classpath or an
+ * attachment changes, the elements asked for recently are looked up again in the
+ * background under their new keys, so the next request finds them warm. Elements
+ * from source folders, or with source attached as a folder, are not cached; they
+ * have no checksum to tell when they change.
+ */
+@Creatable
+@Singleton
+public class AttachmentCache
+{
+    private static final String            STORE_FOLDER    = "attachments";
+
+    private static final int               MAX_CACHED      = 256;
+
+    private static final int               MAX_STORED      = 10_000;
+
+    private static final int               MAX_REMEMBERED  = 200;
+
+    private static final long              WARM_UP_DELAY_MS = 1_000;
+
+    @Inject
+    ILog                                   logger;
+
+    private final Map<String, String>      cache           = new LinkedHashMap<>( 16, 0.75f, true )
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<String, String> eldest )
+        {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    /** Recently requested elements and how to read them again, by handle and kind. */
+    private final Map<String, Request>     recent          = new LinkedHashMap<>( 16, 0.75f, true )
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<String, Request> eldest )
+        {
+            return size() > MAX_REMEMBERED;
+        }
+    };
+
+    /** Archive checksums by path, valid while the archive's size and time stamp stay the same. */
+    private final Map<String, Checksum>    checksums       = new ConcurrentHashMap<>();
+
+    private final AtomicLong               hits            = new AtomicLong();
+
+    private final AtomicLong               diskHits        = new AtomicLong();
+
+    private final AtomicLong               misses          = new AtomicLong();
+
+    private final IElementChangedListener  listener        = this::elementChanged;
+
+    private final Job                      warmUpJob       = new Job( "Reading library Javadoc and source" )
+    {
+        @Override
+        protected IStatus run( IProgressMonitor monitor )
+        {
+            warmUp( monitor );
+            return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+        }
+    };
+
+    private record Request( String handle, String kind, Function<IJavaElement, String> loader )
+    {
+    }
+
+    private record Checksum( long size, long lastModified, String value )
+    {
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        warmUpJob.setSystem( true );
+        warmUpJob.setPriority( Job.DECORATE );
+        JavaCore.addElementChangedListener( listener, ElementChangedEvent.POST_CHANGE );
+    }
+
+    @PreDestroy
+    public void dispose()
+    {
+        JavaCore.removeElementChangedListener( listener );
+        warmUpJob.cancel();
+    }
+
+    /**
+     * The cached text of an element, or the text read by {@code loader} if there is
+     * none. Blank texts are not cached.
+     *
+     * @param element the element the text belongs to
+     * @param kind    what the text is, e.g. {@code "javadoc"} or {@code "source"}
+     * @param loader  reads the text of an element
+     */
+    public String get( IJavaElement element, String kind, Function<IJavaElement, String> loader )
+    {
+        String key = key( element, kind );
+        if ( key == null )
+        {
+            return loader.apply( element );
+        }
+        synchronized ( cache )
+        {
+            recent.put( kind + ":" + element.getHandleIdentifier(), new Request( element.getHandleIdentifier(), kind, loader ) );
+            String text = cache.get( key );
+            if ( text != null )
+            {
+                hits.incrementAndGet();
+                return text;
+            }
+        }
+        String text = readStored( key );
+        if ( text != null )
+        {
+            diskHits.incrementAndGet();
+            remember( key, text );
+            return text;
+        }
+        misses.incrementAndGet();
+        text = loader.apply( element );
+        if ( text != null && !text.isBlank() )
+        {
+            remember( key, text );
+            store( key, text );
+        }
+        return text;
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getDiskHits()
+    {
+        return diskHits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    /** One line on how well the cache is doing. */
+    public String formatStats()
+    {
+        long memory = hits.get();
+        long disk = diskHits.get();
+        long missed = misses.get();
+        long total = memory + disk + missed;
+        int entries;
+        synchronized ( cache )
+        {
+            entries = cache.size();
+        }
+        return String.format( "Library Javadoc/source cache: %d lookups, %d memory hits, %d disk hits, %d misses (%d%% hit rate), %d entries in memory",
+                total, memory, disk, missed, total == 0 ? 0 : ( memory + disk ) * 100 / total, entries );
+    }
+
+    /**
+     * The cache key of an element from a binary archive, or {@code null} if the
+     * element is not cached.
+     */
+    private String key( IJavaElement element, String kind )
+    {
+        if ( element == null )
+        {
+            return null;
+        }
+        IJavaElement ancestor = element.getAncestor( IJavaElement.PACKAGE_FRAGMENT_ROOT );
+        if ( !( ancestor instanceof IPackageFragmentRoot root ) )
+        {
+            return null;
+        }
+        String attachments;
+        try
+        {
+            if ( root.getKind() != IPackageFragmentRoot.K_BINARY )
+            {
+                return null;
+            }
+            attachments = attachments( root );
+        }
+        catch ( JavaModelException e )
+        {
+            return null;
+        }
+        String checksum = checksum( archiveLocation( root ) );
+        if ( checksum == null || attachments == null )
+        {
+            return null;
+        }
+        return kind + ":" + element.getHandleIdentifier() + "@" + checksum + attachments;
+    }
+
+    /**
+     * The part of the key describing what is attached to a root: the source
+     * attachment with its checksum and the Javadoc location. {@code null} if the
+     * source is attached as a folder, which has no checksum.
+     */
+    private String attachments( IPackageFragmentRoot root ) throws JavaModelException
+    {
+        StringBuilder key = new StringBuilder();
+        IPath source = root.getSourceAttachmentPath();
+        if ( source != null )
+        {
+            String checksum = checksum( location( source ) );
+            if ( checksum == null )
+            {
+                return null;
+            }
+            key.append( "|source=" ).append( source.toPortableString() ).append( "@" ).append( checksum );
+        }
+        IClasspathEntry entry = root.getResolvedClasspathEntry();
+        if ( entry != null )
+        {
+            for ( IClasspathAttribute attribute : entry.getExtraAttributes() )
+            {
+                if ( IClasspathAttribute.JAVADOC_LOCATION_ATTRIBUTE_NAME.equals( attribute.getName() ) )
+                {
+                    key.append( "|javadoc=" ).append( attribute.getValue() );
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    private static Path archiveLocation( IPackageFragmentRoot root )
+    {
+        IPath path = root.getPath();
+        IResource resource = root.getResource();
+        if ( resource != null && resource.getLocation() != null )
+        {
+            path = resource.getLocation();
+        }
+        return path == null ? null : path.toFile().toPath();
+    }
+
+    /** The file system location of a path that is either in the workspace or outside it. */
+    private static Path location( IPath path )
+    {
+        IResource resource = ResourcesPlugin.getWorkspace().getRoot().findMember( path );
+        if ( resource != null && resource.getLocation() != null )
+        {
+            return resource.getLocation().toFile().toPath();
+        }
+        return path.toFile().toPath();
+    }
+
+    /**
+     * A CRC32 of an archive, computed once per size and time stamp. Folders have
+     * no checksum.
+     */
+    private String checksum( Path archive )
+    {
+        if ( archive == null || !Files.isRegularFile( archive ) )
+        {
+            return null;
+        }
+        try
+        {
+            long size = Files.size( archive );
+            long lastModified = Files.getLastModifiedTime( archive ).toMillis();
+            Checksum known = checksums.get( archive.toString() );
+            if ( known != null && known.size() == size && known.lastModified() == lastModified )
+            {
+                return known.value();
+            }
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = Files.newInputStream( archive ))
+            {
+                for ( int read; ( read = in.read( buffer ) ) > 0; )
+                {
+                    crc.update( buffer, 0, read );
+                }
+            }
+            String value = Long.toHexString( crc.getValue() ) + "-" + size;
+            checksums.put( archive.toString(), new Checksum( size, lastModified, value ) );
+            return value;
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+
+    private void remember( String key, String text )
+    {
+        synchronized ( cache )
+        {
+            cache.put( key, text );
+        }
+    }
+
+    private String readStored( String key )
+    {
+        Path file = storeFile( key );
+        if ( file == null || !Files.isRegularFile( file ) )
+        {
+            return null;
+        }
+        try
+        {
+            String text = Files.readString( file );
+            Files.setLastModifiedTime( file, FileTime.fromMillis( System.currentTimeMillis() ) );
+            return text;
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Could not read cached Javadoc/source " + file, e );
+            return null;
+        }
+    }
+
+    private void store( String key, String text )
+    {
+        Path file = storeFile( key );
+        if ( file == null )
+        {
+            return;
+        }
+        try
+        {
+            Files.createDirectories( file.getParent() );
+            Path temporary = Files.createTempFile( file.getParent(), "entry", ".tmp" );
+            Files.writeString( temporary, text );
+            Files.move( temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Could not cache Javadoc/source in " + file, e );
+        }
+    }
+
+    private void elementChanged( ElementChangedEvent event )
+    {
+        if ( classpathChanged( event.getDelta() ) )
+        {
+            warmUpJob.schedule( WARM_UP_DELAY_MS );
+        }
+    }
+
+    private static boolean classpathChanged( IJavaElementDelta delta )
+    {
+        int flags = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+                | IJavaElementDelta.F_SOURCEATTACHED | IJavaElementDelta.F_SOURCEDETACHED;
+        if ( ( delta.getFlags() & flags ) != 0 )
+        {
+            return true;
+        }
+        if ( delta.getElement().getElementType() >= IJavaElement.PACKAGE_FRAGMENT_ROOT )
+        {
+            return false;
+        }
+        for ( IJavaElementDelta child : delta.getAffectedChildren() )
+        {
+            if ( classpathChanged( child ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Looks the recently requested elements up again; those whose archive or
+     * attachments changed get new keys and are read now.
+     */
+    private void warmUp( IProgressMonitor monitor )
+    {
+        List<Request> requests;
+        synchronized ( cache )
+        {
+            requests = new ArrayList<>( recent.values() );
+        }
+        for ( Request request : requests )
+        {
+            if ( monitor.isCanceled() )
+            {
+                return;
+            }
+            IJavaElement element = JavaCore.create( request.handle() );
+            if ( element == null || !element.exists() )
+            {
+                continue;
+            }
+            String key = key( element, request.kind() );
+            boolean cached;
+            synchronized ( cache )
+            {
+                cached = key == null || cache.containsKey( key );
+            }
+            if ( !cached )
+            {
+                try
+                {
+                    get( element, request.kind(), request.loader() );
+                }
+                catch ( RuntimeException e )
+                {
+                    logger.warn( "Could not read " + request.kind() + " of " + element.getElementName(), e );
+                }
+            }
+        }
+        pruneStore();
+    }
+
+    private void pruneStore()
+    {
+        Path folder = storeFolder();
+        if ( folder == null || !Files.isDirectory( folder ) )
+        {
+            return;
+        }
+        try (Stream<Path> files = Files.list( folder ))
+        {
+            List<Path> entries = files.filter( path -> path.getFileName().toString().endsWith( ".txt" ) ).toList();
+            if ( entries.size() <= MAX_STORED )
+            {
+                return;
+            }
+            List<Path> oldestFirst = entries.stream().sorted( Comparator.comparing( AttachmentCache::lastModified ) ).toList();
+            for ( Path file : oldestFirst.subList( 0, entries.size() - MAX_STORED ) )
+            {
+                Files.deleteIfExists( file );
+            }
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Could not prune cached Javadoc/source in " + folder, e );
+        }
+    }
+
+    private static long lastModified( Path file )
+    {
+        try
+        {
+            return Files.getLastModifiedTime( file ).toMillis();
+        }
+        catch ( IOException e )
+        {
+            return 0;
+        }
+    }
+
+    private static Path storeFile( String key )
+    {
+        Path folder = storeFolder();
+        return folder == null ? null : folder.resolve( sha256( key ) + ".txt" );
+    }
+
+    private static Path storeFolder()
+    {
+        Activator activator = Activator.getDefault();
+        if ( activator == null )
+        {
+            return null;
+        }
+        try
+        {
+            return activator.getStateLocation().append( STORE_FOLDER ).toFile().toPath();
+        }
+        catch ( IllegalStateException e )
+        {
+            return null;
+        }
+    }
+
+    private static String sha256( String text )
+    {
+        try
+        {
+            return HexFormat.of().formatHex( MessageDigest.getInstance( "SHA-256" ).digest( text.getBytes( StandardCharsets.UTF_8 ) ) );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+}
@@ -2,35 +2,125 @@ package com.github.gradusnikov.eclipse.assistai.mcp.services;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.jar.Manifest;
 import java.util.stream.Stream;
 
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.e4.core.di.annotations.Creatable;
 import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.IOrdinaryClassFile;
+import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.JavaModelException;
 import org.jetbrains.java.decompiler.api.Decompiler;
-import org.jetbrains.java.decompiler.main.decompiler.DirectoryResultSaver;
+import org.jetbrains.java.decompiler.main.extern.IResultSaver;
 
-import jakarta.inject.Inject;
+import com.github.gradusnikov.eclipse.assistai.Activator;
 
-import org.eclipse.core.runtime.ILog;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
 
 /**
  * Decompiles a JDT binary class when its original source is not attached.
+ * <p>
+ * A class is decompiled together with its nested classes, into the source of
+ * its top-level class. Results are kept in a small LRU cache and, when the
+ * plug-in state location is available, on disk, both keyed by a hash of the
+ * class bytes, so a library class is decompiled once rather than on every
+ * request. A package whose classes are asked for repeatedly has the rest of its
+ * classes decompiled into the disk cache in the background.
  */
 @Creatable
+@Singleton
 public class ClassFileDecompiler
 {
     private static final String DECOMPILED_HEADER = "/* Decompiled by Vineflower. Original source was not attached; names and formatting may differ. */\n";
 
+    private static final String CACHE_FOLDER      = "decompiled";
+
+    private static final int    MAX_CACHED        = 256;
+
+    /** Requests for classes of one package after which the rest of the package is decompiled ahead. */
+    private static final int    PREFETCH_AFTER    = 2;
+
+    private static final int    MAX_PREFETCHED    = 200;
+
+    /** Sources kept on disk; the least recently used are deleted after a prefetch. */
+    private static final int    MAX_CACHE_FILES   = 5_000;
+
     @Inject
     private ILog                logger;
 
+    private final Map<String, String> cache = new LinkedHashMap<>( 16, 0.75f, true )
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<String, String> eldest )
+        {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    private final Map<String, Integer>                 packageRequests = new ConcurrentHashMap<>();
+
+    private final Set<String>                          prefetched      = ConcurrentHashMap.newKeySet();
+
+    private final ConcurrentLinkedQueue<IPackageFragment> prefetchQueue = new ConcurrentLinkedQueue<>();
+
+    private final Job prefetchJob = new Job( "Decompiling library classes" )
+    {
+        @Override
+        protected IStatus run( IProgressMonitor monitor )
+        {
+            IPackageFragment fragment;
+            while ( ( fragment = prefetchQueue.poll() ) != null && !monitor.isCanceled() )
+            {
+                prefetch( fragment, monitor );
+            }
+            pruneCacheFolder();
+            return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+        }
+    };
+
+    public ClassFileDecompiler()
+    {
+        prefetchJob.setSystem( true );
+        prefetchJob.setPriority( Job.DECORATE );
+    }
+
+    @PreDestroy
+    public void dispose()
+    {
+        prefetchQueue.clear();
+        prefetchJob.cancel();
+    }
+
     /**
-     * Decompiles one class file into Java-like source.
+     * Decompiles one class file into Java-like source. A nested class gives the
+     * source of its top-level class.
      *
      * @param classFile
      *            the binary class to decompile
@@ -46,7 +136,14 @@ public class ClassFileDecompiler
 
         try
         {
-            return decompile( classFile.getBytes(), classFile.getElementName() );
+            IPackageFragment fragment = classFile.getParent() instanceof IPackageFragment parent ? parent : null;
+            Map<String, byte[]> classes = collectClasses( topLevel( classFile, fragment ), fragment );
+            if ( fragment != null && notePackageRequest( fragment ) )
+            {
+                prefetchQueue.add( fragment );
+                prefetchJob.schedule();
+            }
+            return decompile( classes, topLevelName( classFile.getElementName() ) );
         }
         catch ( JavaModelException e )
         {
@@ -61,43 +158,325 @@ public class ClassFileDecompiler
         {
             return Optional.empty();
         }
+        return decompile( Map.of( new File( classFileName ).getName(), bytecode ), classFileName );
+    }
+
+    /**
+     * @param classes
+     *            class file names and bytes of a top-level class and its nested classes
+     * @param classFileName
+     *            name of the top-level class file
+     */
+    Optional<String> decompile( Map<String, byte[]> classes, String classFileName )
+    {
+        if ( classes.isEmpty() )
+        {
+            return Optional.empty();
+        }
+        String key = cacheKey( classes );
+        String source = cached( key );
+        if ( source == null )
+        {
+            source = run( classes, classFileName );
+            if ( source == null )
+            {
+                return Optional.empty();
+            }
+            store( key, source );
+        }
+        return Optional.of( DECOMPILED_HEADER + source );
+    }
+
+    /** Number of sources held in memory. */
+    int cachedCount()
+    {
+        synchronized ( cache )
+        {
+            return cache.size();
+        }
+    }
+
+    private String cached( String key )
+    {
+        synchronized ( cache )
+        {
+            String source = cache.get( key );
+            if ( source != null )
+            {
+                return source;
+            }
+        }
+        Path file = cacheFile( key );
+        if ( file != null && Files.isRegularFile( file ) )
+        {
+            try
+            {
+                String source = Files.readString( file );
+                Files.setLastModifiedTime( file, FileTime.fromMillis( System.currentTimeMillis() ) );
+                synchronized ( cache )
+                {
+                    cache.put( key, source );
+                }
+                return source;
+            }
+            catch ( IOException e )
+            {
+                logger.warn( "Could not read decompiled source " + file, e );
+            }
+        }
+        return null;
+    }
+
+    private void store( String key, String source )
+    {
+        synchronized ( cache )
+        {
+            cache.put( key, source );
+        }
+        writeCacheFile( key, source );
+    }
 
+    private void writeCacheFile( String key, String source )
+    {
+        Path file = cacheFile( key );
+        if ( file == null )
+        {
+            return;
+        }
+        try
+        {
+            Files.createDirectories( file.getParent() );
+            Path temporary = Files.createTempFile( file.getParent(), key, ".tmp" );
+            Files.writeString( temporary, source );
+            Files.move( temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Could not cache decompiled source " + file, e );
+        }
+    }
+
+    /**
+     * Runs Vineflower over the class files in one pass. The inputs are written to
+     * a temporary folder; the output is collected in memory.
+     */
+    private String run( Map<String, byte[]> classes, String classFileName )
+    {
         Path workingDirectory = null;
         try
         {
             workingDirectory = Files.createTempDirectory( "assistai-vineflower-" );
-            Path inputFile = workingDirectory.resolve( new File( classFileName ).getName() );
-            Path outputDirectory = Files.createDirectory( workingDirectory.resolve( "source" ) );
-            Files.write( inputFile, bytecode );
+            File[] inputs = new File[classes.size()];
+            int i = 0;
+            for ( Map.Entry<String, byte[]> entry : classes.entrySet() )
+            {
+                Path inputFile = workingDirectory.resolve( entry.getKey() );
+                Files.write( inputFile, entry.getValue() );
+                inputs[i++] = inputFile.toFile();
+            }
 
-            Decompiler decompiler = new Decompiler.Builder().inputs( inputFile.toFile() ).output( new DirectoryResultSaver( outputDirectory.toFile() ) )
-                    .build();
+            InMemoryResultSaver saver = new InMemoryResultSaver();
+            Decompiler decompiler = new Decompiler.Builder().inputs( inputs ).output( saver ).build();
             decompiler.decompile();
 
-            try (Stream<Path> files = Files.walk( outputDirectory ))
+            String expected = topLevelName( new File( classFileName ).getName() ).replace( ".class", ".java" );
+            String source = saver.sources.getOrDefault( expected, saver.sources.values().stream().findFirst().orElse( null ) );
+            return source == null || source.isBlank() ? null : source;
+        }
+        catch ( Exception e )
+        {
+            logger.error( "Could not decompile " + classFileName, e );
+            return null;
+        }
+        finally
+        {
+            deleteWorkingDirectory( workingDirectory );
+        }
+    }
+
+    /**
+     * The class file of the top-level class enclosing a nested class, or the class
+     * file itself.
+     */
+    private static IClassFile topLevel( IClassFile classFile, IPackageFragment fragment )
+    {
+        String name = classFile.getElementName();
+        String topLevelName = topLevelName( name );
+        if ( fragment == null || topLevelName.equals( name ) )
+        {
+            return classFile;
+        }
+        IClassFile outer = fragment.getClassFile( topLevelName );
+        return outer != null && outer.exists() ? outer : classFile;
+    }
+
+    /**
+     * The bytes of a top-level class and of the nested classes compiled next to it.
+     */
+    private static Map<String, byte[]> collectClasses( IClassFile classFile, IPackageFragment fragment ) throws JavaModelException
+    {
+        Map<String, byte[]> classes = new TreeMap<>();
+        String name = classFile.getElementName();
+        byte[] bytes = classFile.getBytes();
+        if ( bytes == null || bytes.length == 0 || name == null || name.isBlank() )
+        {
+            return classes;
+        }
+        classes.put( name, bytes );
+        if ( fragment != null && name.endsWith( ".class" ) )
+        {
+            String nestedPrefix = name.substring( 0, name.length() - ".class".length() ) + "$";
+            for ( IOrdinaryClassFile nested : fragment.getOrdinaryClassFiles() )
             {
-                Optional<Path> sourceFile = files.filter( Files::isRegularFile ).filter( path -> path.getFileName().toString().endsWith( ".java" ) )
-                        .findFirst();
-                if ( sourceFile.isPresent() )
+                if ( nested.getElementName().startsWith( nestedPrefix ) )
                 {
-                    String source = Files.readString( sourceFile.get() );
-                    if ( !source.isBlank() )
+                    classes.put( nested.getElementName(), nested.getBytes() );
+                }
+            }
+        }
+        return classes;
+    }
+
+    private static String topLevelName( String classFileName )
+    {
+        int dollar = classFileName.indexOf( '$' );
+        return dollar > 0 ? classFileName.substring( 0, dollar ) + ".class" : classFileName;
+    }
+
+    /**
+     * Counts a request for a class of the package.
+     *
+     * @return true once, when the package should be decompiled ahead
+     */
+    private boolean notePackageRequest( IPackageFragment fragment )
+    {
+        if ( cacheFolder() == null )
+        {
+            // Without the disk cache prefetched sources would only push requested ones out of memory.
+            return false;
+        }
+        String handle = fragment.getHandleIdentifier();
+        int requests = packageRequests.merge( handle, 1, Integer::sum );
+        return requests >= PREFETCH_AFTER && prefetched.add( handle );
+    }
+
+    private void prefetch( IPackageFragment fragment, IProgressMonitor monitor )
+    {
+        try
+        {
+            Set<String> seen = new HashSet<>();
+            for ( IOrdinaryClassFile classFile : fragment.getOrdinaryClassFiles() )
+            {
+                if ( monitor.isCanceled() || seen.size() >= MAX_PREFETCHED )
+                {
+                    return;
+                }
+                String name = topLevelName( classFile.getElementName() );
+                if ( !seen.add( name ) )
+                {
+                    continue;
+                }
+                Map<String, byte[]> classes = collectClasses( topLevel( classFile, fragment ), fragment );
+                if ( classes.isEmpty() )
+                {
+                    continue;
+                }
+                String key = cacheKey( classes );
+                Path file = cacheFile( key );
+                if ( file != null && !Files.exists( file ) )
+                {
+                    String source = run( classes, name );
+                    if ( source != null )
                     {
-                        return Optional.of( DECOMPILED_HEADER + source );
+                        writeCacheFile( key, source );
                     }
                 }
             }
         }
-        catch ( Exception e )
+        catch ( JavaModelException e )
         {
-            logger.error( "Could not decompile " + classFileName, e );
+            logger.warn( "Could not decompile classes of " + fragment.getElementName() + " ahead", e );
         }
-        finally
+    }
+
+    private void pruneCacheFolder()
+    {
+        Path folder = cacheFolder();
+        if ( folder == null || !Files.isDirectory( folder ) )
         {
-            deleteWorkingDirectory( workingDirectory );
+            return;
+        }
+        try (Stream<Path> files = Files.list( folder ))
+        {
+            List<Path> sources = files.filter( path -> path.getFileName().toString().endsWith( ".java" ) ).toList();
+            if ( sources.size() <= MAX_CACHE_FILES )
+            {
+                return;
+            }
+            List<Path> oldestFirst = sources.stream().sorted( Comparator.comparing( ClassFileDecompiler::lastModified ) ).toList();
+            for ( Path file : oldestFirst.subList( 0, sources.size() - MAX_CACHE_FILES ) )
+            {
+                Files.deleteIfExists( file );
+            }
         }
+        catch ( IOException e )
+        {
+            logger.warn( "Could not prune decompiled sources in " + folder, e );
+        }
+    }
 
-        return Optional.empty();
+    private static long lastModified( Path file )
+    {
+        try
+        {
+            return Files.getLastModifiedTime( file ).toMillis();
+        }
+        catch ( IOException e )
+        {
+            return 0;
+        }
+    }
+
+    private static String cacheKey( Map<String, byte[]> classes )
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance( "SHA-256" );
+            for ( Map.Entry<String, byte[]> entry : new TreeMap<>( classes ).entrySet() )
+            {
+                digest.update( entry.getKey().getBytes( StandardCharsets.UTF_8 ) );
+                digest.update( (byte) 0 );
+                digest.update( entry.getValue() );
+            }
+            return HexFormat.of().formatHex( digest.digest() );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static Path cacheFile( String key )
+    {
+        Path folder = cacheFolder();
+        return folder == null ? null : folder.resolve( key + ".java" );
+    }
+
+    private static Path cacheFolder()
+    {
+        Activator activator = Activator.getDefault();
+        if ( activator == null )
+        {
+            return null;
+        }
+        try
+        {
+            return activator.getStateLocation().append( CACHE_FOLDER ).toFile().toPath();
+        }
+        catch ( IllegalStateException e )
+        {
+            return null;
+        }
     }
 
     private void deleteWorkingDirectory( Path workingDirectory )
@@ -125,4 +504,60 @@ public class ClassFileDecompiler
             logger.warn( "Could not clean decompiler temporary directory " + workingDirectory, e );
         }
     }
+
+    /**
+     * Keeps the decompiled sources by file name instead of writing them out.
+     */
+    private static final class InMemoryResultSaver implements IResultSaver
+    {
+        final Map<String, String> sources = new LinkedHashMap<>();
+
+        @Override
+        public void saveFolder( String path )
+        {
+        }
+
+        @Override
+        public void copyFile( String source, String path, String entryName )
+        {
+        }
+
+        @Override
+        public void saveClassFile( String path, String qualifiedName, String entryName, String content, int[] mapping )
+        {
+            if ( content != null )
+            {
+                sources.put( new File( entryName ).getName(), content );
+            }
+        }
+
+        @Override
+        public void createArchive( String path, String archiveName, Manifest manifest )
+        {
+        }
+
+        @Override
+        public void saveDirEntry( String path, String archiveName, String entryName )
+        {
+        }
+
+        @Override
+        public void copyEntry( String source, String path, String archiveName, String entry )
+        {
+        }
+
+        @Override
+        public void saveClassEntry( String path, String archiveName, String qualifiedName, String entryName, String content )
+        {
+            if ( content != null )
+            {
+                sources.put( new File( entryName ).getName(), content );
+            }
+        }
+
+        @Override
+        public void closeArchive( String path, String archiveName )
+        {
+        }
+    }
 }
@@ -1,11 +1,8 @@
 
 package com.github.gradusnikov.eclipse.assistai.mcp.services;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,13 +17,14 @@ import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 
+import com.github.gradusnikov.eclipse.assistai.mcp.markers.ProblemIndex;
+import com.github.gradusnikov.eclipse.assistai.mcp.markers.ProblemMarkerIndex;
 import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
 import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationContext;
 import org.eclipse.e4.core.di.annotations.Creatable;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaModelMarker;
-import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
@@ -57,6 +55,15 @@ public class CodeAnalysisService
 
     @Inject
     AiIgnoreService aiIgnoreService;
+
+    @Inject
+    LineIndexService lineIndexService;
+
+    @Inject
+    TypeLocator typeLocator;
+
+    @Inject
+    ProblemMarkerIndex problemMarkerIndex;
     
     /**
      * Retrieves the call hierarchy for a specified method.
@@ -86,14 +93,9 @@ public class CodeAnalysisService
             // Find the method in available Java projects
             IMethod targetMethod = null;
             
-            for (IJavaProject project : getAvailableJavaProjects()) 
+            // Source first, then every project's copy: a binary one may lack the method.
+            for (IType type : (Iterable<IType>) typeLocator.findAll(fullyQualifiedClassName)::iterator) 
             {
-                IType type = project.findType(fullyQualifiedClassName);
-                if (type == null) 
-                {
-                    continue;
-                }
-                
                 // If method signature is provided, use it to find the exact method
                 if (methodSignature != null && !methodSignature.isEmpty()) 
                 {
@@ -170,231 +172,229 @@ public class CodeAnalysisService
      */
     public String getCompilationErrors(String projectName, String severity, Integer maxResults)
     {
-        try 
+        return getCompilationErrors(projectName, severity, maxResults, null);
+    }
+
+    /**
+     * Retrieves compilation errors and problems from the workspace or a specific project,
+     * read from the {@link ProblemMarkerIndex}. Every listing reports the index version;
+     * passing it back as {@code sinceVersion} lists only the problems that appeared or
+     * were resolved since.
+     * 
+     * @param projectName The name of the project to check (optional)
+     * @param severity Filter by severity level: 'ERROR', 'WARNING', or 'ALL'
+     * @param maxResults Maximum number of problems to return
+     * @param sinceVersion Version of an earlier listing (optional)
+     * @return A formatted string containing compilation errors
+     */
+    public String getCompilationErrors(String projectName, String severity, Integer maxResults, Long sinceVersion)
+    {
+        // Set default values
+        if (severity == null || severity.isBlank())
         {
-            // Set default values
-            if (severity == null || severity.isBlank())
-            {
-                severity = "ALL";
-            }
-            else 
+            severity = "ALL";
+        }
+        else 
+        {
+            severity = severity.toUpperCase();
+        }
+        
+        if (maxResults == null || maxResults < 1) 
+        {
+            maxResults = 50;
+        }
+        
+        // Define severity filter
+        int severityFilter = switch ( severity.toUpperCase() ) {
+            case "ERROR" -> IMarker.SEVERITY_ERROR;
+            case "WARNING" -> IMarker.SEVERITY_WARNING;
+            default -> ProblemIndex.ANY_SEVERITY;
+        };
+        
+        StringBuilder result = new StringBuilder();
+        result.append("# Compilation Problems\n\n");
+        
+        String scope = null;
+        if (projectName != null && !projectName.isBlank() ) 
+        {
+            IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+            if (project == null || !project.exists()) 
             {
-                severity = severity.toUpperCase();
+                throw new RuntimeException( "Project '" + projectName + "' not found." );
             }
             
-            if (maxResults == null || maxResults < 1) 
+            if (!project.isOpen()) 
             {
-                maxResults = 50;
+                throw new RuntimeException( "Project '" + projectName + "' is closed." );
             }
             
-            // Define severity filter
-            int severityFilter = switch ( severity.toUpperCase() ) {
-                case "ERROR" -> IMarker.SEVERITY_ERROR;
-                case "WARNING" -> IMarker.SEVERITY_WARNING;
-                default -> -1;
-            };
-            
-            StringBuilder result = new StringBuilder();
-            result.append("# Compilation Problems\n\n");
-            
-            // Get markers from workspace or specific project
-            IMarker[] markers;
-            if (projectName != null && !projectName.isBlank() ) 
-            {
-                IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
-                if (project == null || !project.exists()) 
-                {
-                    throw new RuntimeException( "Project '" + projectName + "' not found." );
-                }
-                
-                if (!project.isOpen()) 
-                {
-                    throw new RuntimeException( "Project '" + projectName + "' is closed." );
-                }
-                
-                result.append("Project: ").append(projectName).append("\n\n");
-                markers = project.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE);
-            } 
-            else 
+            result.append("Project: ").append(projectName).append("\n\n");
+            scope = projectName;
+        } 
+        else 
+        {
+            result.append("Scope: All Projects\n\n");
+        }
+        
+        ProblemIndex index = problemMarkerIndex.getIndex();
+        if (sinceVersion != null)
+        {
+            ProblemIndex.Changes changes = index.changesSince(sinceVersion, scope, severityFilter);
+            if (changes.complete())
             {
-                result.append("Scope: All Projects\n\n");
-                markers = ResourcesPlugin.getWorkspace().getRoot().findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE);
+                appendChanges(changes, maxResults, result);
+                return result.toString();
             }
-            
-            // Filter and sort markers
-            List<IMarker> filteredMarkers = new ArrayList<>();
-            for (IMarker marker : markers) 
+            result.append("Version ").append(sinceVersion).append(" is too old to list changes; listing all problems.\n\n");
+        }
+        
+        ProblemIndex.Top top = index.top(scope, severityFilter, maxResults);
+        result.append("Version: ").append(top.version()).append(" (pass as sinceVersion to list only what changes next)\n\n");
+        
+        // Limit the number of results
+        if (top.total() > top.problems().size()) 
+        {
+            result.append("Showing ").append(top.problems().size()).append(" of ").append(top.total())
+                  .append(" problems found.\n\n");
+        }
+        else 
+        {
+            result.append("Found ").append(top.total()).append(" problems.\n\n");
+        }
+        
+        if (top.problems().isEmpty()) 
+        {
+            result.append("No compilation problems found with the specified criteria.");
+            return result.toString();
+        }
+        
+        // Group by resource, keeping the errors-first order
+        Map<String, List<ProblemIndex.Problem>> problemsByResource = new LinkedHashMap<>();
+        for (ProblemIndex.Problem problem : top.problems()) 
+        {
+            problemsByResource.computeIfAbsent(problem.path(), path -> new ArrayList<>()).add(problem);
+        }
+        
+        // Output problems grouped by resource
+        for (Map.Entry<String, List<ProblemIndex.Problem>> entry : problemsByResource.entrySet()) 
+        {
+            result.append("## ").append(entry.getKey()).append("\n\n");
+            for (ProblemIndex.Problem problem : entry.getValue())
             {
-                Integer severityValue = (Integer) marker.getAttribute(IMarker.SEVERITY);
-                if (severityFilter == -1 || (severityValue != null && severityValue.intValue() == severityFilter)) 
-                {
-                    filteredMarkers.add(marker);
-                }
+                appendProblem(problem, true, result);
             }
-            
-            // Sort by severity (errors first, then warnings)
-            filteredMarkers.sort((m1, m2) -> {
-                try {
-                    Integer sev1 = (Integer) m1.getAttribute(IMarker.SEVERITY);
-                    Integer sev2 = (Integer) m2.getAttribute(IMarker.SEVERITY);
-                    return sev2.compareTo(sev1); // Higher severity first
-                } catch (CoreException e) {
-                    return 0;
-                }
-            });
-            
-            // Limit the number of results
-            if (filteredMarkers.size() > maxResults) 
+            result.append("\n");
+        }
+        
+        return result.toString();
+    }
+
+    private void appendChanges(ProblemIndex.Changes changes, int maxResults, StringBuilder result)
+    {
+        result.append("Changes since version ").append(changes.from()).append(" (now version ").append(changes.to())
+              .append("): ").append(changes.added().size()).append(" new, ").append(changes.resolved().size())
+              .append(" resolved.\n\n");
+        if (!changes.added().isEmpty())
+        {
+            result.append("## New problems\n\n");
+            List<ProblemIndex.Problem> added = changes.added();
+            for (ProblemIndex.Problem problem : added.subList(0, Math.min(maxResults, added.size())))
             {
-                result.append("Showing ").append(maxResults).append(" of ").append(filteredMarkers.size())
-                      .append(" problems found.\n\n");
-                filteredMarkers = filteredMarkers.subList(0, maxResults);
+                result.append("### ").append(problem.path()).append("\n");
+                appendProblem(problem, true, result);
             }
-            else 
+            if (added.size() > maxResults)
             {
-                result.append("Found ").append(filteredMarkers.size()).append(" problems.\n\n");
+                result.append("\n... ").append(added.size() - maxResults).append(" more new problems not shown.\n");
             }
-            
-            if (filteredMarkers.isEmpty()) 
+            result.append("\n");
+        }
+        if (!changes.resolved().isEmpty())
+        {
+            result.append("## Resolved problems\n\n");
+            List<ProblemIndex.Problem> resolved = changes.resolved();
+            for (ProblemIndex.Problem problem : resolved.subList(0, Math.min(maxResults, resolved.size())))
             {
-                result.append("No compilation problems found with the specified criteria.");
-                return result.toString();
+                result.append("### ").append(problem.path()).append("\n");
+                appendProblem(problem, false, result);
             }
-            
-            // Group by resource
-            Map<String, List<IMarker>> markersByResource = new HashMap<>();
-            for (IMarker marker : filteredMarkers) 
+            if (resolved.size() > maxResults)
             {
-                IResource resource = marker.getResource();
-                String resourcePath = resource.getFullPath().toString();
-                if (!markersByResource.containsKey(resourcePath)) 
-                {
-                    markersByResource.put(resourcePath, new ArrayList<>());
-                }
-                markersByResource.get(resourcePath).add(marker);
+                result.append("\n... ").append(resolved.size() - maxResults).append(" more resolved problems not shown.\n");
             }
-            
-            // Output problems grouped by resource
-            for (Map.Entry<String, List<IMarker>> entry : markersByResource.entrySet()) 
-            {
-                String resourcePath = entry.getKey();
-                List<IMarker> resourceMarkers = entry.getValue();
-                
-                result.append("## ").append(resourcePath).append("\n\n");
-                
-                for (IMarker marker : resourceMarkers) {
-                    Integer severityValue = (Integer) marker.getAttribute(IMarker.SEVERITY);
-                    String severityText;
-                    
-                    if (severityValue != null) {
-                        switch (severityValue.intValue()) {
-                            case IMarker.SEVERITY_ERROR:
-                                severityText = "ERROR";
-                                break;
-                            case IMarker.SEVERITY_WARNING:
-                                severityText = "WARNING";
-                                break;
-                            case IMarker.SEVERITY_INFO:
-                                severityText = "INFO";
-                                break;
-                            default:
-                                severityText = "UNKNOWN";
-                        }
-                    } else {
-                        severityText = "UNKNOWN";
-                    }
-                    
-                    // Get line number
-                    Integer lineNumber = (Integer) marker.getAttribute(IMarker.LINE_NUMBER);
-                    String lineStr = lineNumber != null ? "Line " + lineNumber : "Unknown location";
-                    
-                    // Get message
-                    String message = (String) marker.getAttribute(IMarker.MESSAGE);
-                    if (message == null) {
-                        message = "No message provided";
-                    }
-                    
-                    result.append("- **").append(severityText).append("** at ").append(lineStr).append(": ")
-                          .append(message).append("\n");
-                    
-                    // Emit the marker's unique ID so it can be referenced by executeQuickFix
-                    result.append("  - Marker ID: ").append(marker.getId()).append("\n");
-
-                    // Java-specific: emit internal problem ID
-                    if (marker.getType().equals(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER)) 
-                    {
-                        var sourceId = marker.getAttribute(IJavaModelMarker.ID);
-                        if (sourceId != null) 
-                        {
-                            result.append("  - Problem ID: ").append(sourceId).append("\n");
-                        }
-                    }
+        }
+    }
 
-                    // Context snippet - any marker attached to an IFile with a line number
-                    if (lineNumber != null && marker.getResource() instanceof IFile ifile)
-                    {
-                        try 
-                        {
-                            String fileContent = readFileContent(ifile);
-                            String[] lines = fileContent.split("\n");
-                            
-                            if (lineNumber > 0 && lineNumber <= lines.length) 
-                            {
-                                int startLine = Math.max(1, lineNumber - 1);
-                                int endLine = Math.min(lines.length, lineNumber + 1);
-                                // Use a neutral fence (no language tag) for non-Java files
-                                String ext = ifile.getFileExtension();
-                                String lang = ext != null ? ext : "";
-                                result.append("  - Context:\n```").append(lang).append("\n");
-                                for (int i = startLine - 1; i < endLine; i++) 
-                                {
-                                    result.append(i == lineNumber - 1 ? "> " : "  ");
-                                    result.append(lines[i]).append("\n");
-                                }
-                                result.append("```\n");
-                            }
-                        } 
-                        catch (Exception e) 
-                        {
-                            // Skip context if we can't read the file
-                        }
-                    }
+    /**
+     * Appends one problem; with {@code details}, also the source context and quick
+     * fixes of its marker, which only a problem that still exists has.
+     */
+    private void appendProblem(ProblemIndex.Problem problem, boolean details, StringBuilder result)
+    {
+        String severityText = switch (problem.severity()) {
+            case IMarker.SEVERITY_ERROR -> "ERROR";
+            case IMarker.SEVERITY_WARNING -> "WARNING";
+            case IMarker.SEVERITY_INFO -> "INFO";
+            default -> "UNKNOWN";
+        };
+        
+        // Get line number
+        int lineNumber = problem.line();
+        String lineStr = lineNumber > 0 ? "Line " + lineNumber : "Unknown location";
+        
+        // Get message
+        String message = problem.message() != null ? problem.message() : "No message provided";
+        
+        result.append("- **").append(severityText).append("** at ").append(lineStr).append(": ")
+              .append(message).append("\n");
+        
+        // Emit the marker's unique ID so it can be referenced by executeQuickFix
+        result.append("  - Marker ID: ").append(problem.markerId()).append("\n");
 
-                    appendQuickFixBlock(marker, result, "  ");
-                }
-                
-                result.append("\n");
-            }
-            
-            return result.toString();
-            
-        }
-        catch (CoreException e) 
+        // Java-specific: emit internal problem ID
+        if (problem.problemId() != null) 
         {
-            logger.error(e.getMessage(), e);
-            throw new RuntimeException( "Error retrieving compilation problems: " + ExceptionUtils.getStackTrace(  e )  );
+            result.append("  - Problem ID: ").append(problem.problemId()).append("\n");
         }
 
-    }
-    
-    /**
-     * Helper method to read file content
-     */
-    private String readFileContent(IFile file) throws CoreException, IOException {
-        aiIgnoreService.assertAccessAllowed(file);
+        IResource resource = details ? ResourcesPlugin.getWorkspace().getRoot().findMember(problem.path()) : null;
+        if (resource == null)
+        {
+            return;
+        }
 
-        try (InputStream is = file.getContents()) 
+        // Context snippet - any marker attached to an IFile with a line number
+        if (lineNumber > 0 && resource instanceof IFile ifile)
         {
-            ByteArrayOutputStream result = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1024];
-            int length;
-            while ((length = is.read(buffer)) != -1) 
+            try 
             {
-                result.write(buffer, 0, length);
+                aiIgnoreService.assertAccessAllowed(ifile);
+                LineIndex lines = lineIndexService.getLineIndex(ifile);
+                
+                if (lineNumber <= lines.lineCount()) 
+                {
+                    int startLine = Math.max(1, lineNumber - 1);
+                    int endLine = Math.min(lines.lineCount(), lineNumber + 1);
+                    // Use a neutral fence (no language tag) for non-Java files
+                    String ext = ifile.getFileExtension();
+                    String lang = ext != null ? ext : "";
+                    result.append("  - Context:\n```").append(lang).append("\n");
+                    for (int i = startLine - 1; i < endLine; i++) 
+                    {
+                        result.append(i == lineNumber - 1 ? "> " : "  ");
+                        result.append(lines.getLine(i)).append("\n");
+                    }
+                    result.append("```\n");
+                }
+            } 
+            catch (Exception e) 
+            {
+                // Skip context if we can't read the file
             }
-            return result.toString(file.getCharset());
         }
-    }    
+
+        appendQuickFixBlock(resource.getMarker(problem.markerId()), result, "  ");
+    }
     
     @SuppressWarnings("restriction")
 	private void collectCallHierarchy(MethodWrapper[] callers, int level, int maxDepth, StringBuilder result) {
@@ -506,13 +506,6 @@ public class CodeAnalysisService
         }
     }
     
-    /**
-     * Retrieves a list of all available Java projects in the current workspace.
-     * It filters out non-Java projects and only includes projects that are open and have the Java nature.
-     *
-     * @return A list of {@link IJavaProject} representing the available Java projects.
-     * @throws RuntimeException if an error occurs while accessing project information.
-     */
     /**
      * Retrieves the type hierarchy (supertypes and subtypes) for a given type.
      *
@@ -523,12 +516,8 @@ public class CodeAnalysisService
     {
         try
         {
-            IType targetType = null;
-            for (IJavaProject project : getAvailableJavaProjects())
-            {
-                targetType = project.findType(fullyQualifiedClassName);
-                if (targetType != null) break;
-            }
+            TypeLocator.Location location = typeLocator.find(fullyQualifiedClassName);
+            IType targetType = location == null ? null : location.type();
             if (targetType == null)
             {
                 return "Type '" + fullyQualifiedClassName + "' not found.";
@@ -593,12 +582,8 @@ public class CodeAnalysisService
     {
         try
         {
-            IType targetType = null;
-            for (IJavaProject project : getAvailableJavaProjects())
-            {
-                targetType = project.findType(fullyQualifiedClassName);
-                if (targetType != null) break;
-            }
+            TypeLocator.Location location = typeLocator.find(fullyQualifiedClassName);
+            IType targetType = location == null ? null : location.type();
             if (targetType == null)
             {
                 return "Type '" + fullyQualifiedClassName + "' not found.";
@@ -662,9 +647,8 @@ public class CodeAnalysisService
                             if (resource instanceof IFile)
                             {
                                 var file = (IFile) resource;
-                                String content = readFileContent(file);
-                                int offset = match.getOffset();
-                                line = content.substring(0, Math.min(offset, content.length())).split("\n").length;
+                                aiIgnoreService.assertAccessAllowed(file);
+                                line = lineIndexService.getLineIndex(file).getLineOfOffset(match.getOffset()) + 1;
                             }
                         }
                         catch (Exception e) { /* ignore */ }
@@ -1175,32 +1159,4 @@ public class CodeAnalysisService
             return "Error getting import suggestions: " + e.getMessage();
         }
     }
-
-    private List<IJavaProject> getAvailableJavaProjects()
-    {
-        List<IJavaProject> javaProjects = new ArrayList<>();
-
-        try
-        {
-            // Get all projects in the workspace
-            IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
-
-            // Filter out the Java projects
-            for ( IProject project : projects )
-            {
-                if ( project.isOpen() && project.hasNature( JavaCore.NATURE_ID ) )
-                {
-                    IJavaProject javaProject = JavaCore.create( project );
-                    javaProjects.add( javaProject );
-                }
-            }
-        }
-        catch ( CoreException e )
-        {
-            throw new RuntimeException( e );
-        }
-
-        return javaProjects;
-    }
-    
 }
\ No newline at end of file
@@ -10,12 +10,15 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Deque;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -26,15 +29,20 @@ import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFileState;
 import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.e4.core.di.annotations.Creatable;
 import org.eclipse.e4.ui.di.UISynchronize;
 import org.eclipse.jdt.core.ICompilationUnit;
@@ -88,6 +96,8 @@ import org.eclipse.ui.part.FileEditorInput;
 import org.eclipse.ui.texteditor.ITextEditor;
 
 import com.github.gradusnikov.eclipse.assistai.completion.CompletionContext;
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationContext;
 import com.github.gradusnikov.eclipse.assistai.resources.ResourceCache;
 import com.github.gradusnikov.eclipse.assistai.services.AiIgnoreService;
 import com.github.gradusnikov.eclipse.assistai.tools.ResourceUtilities;
@@ -116,6 +126,11 @@ public class CodeEditingService
 
     private final Map<IPath, Deque<byte[]>> editBackups = new ConcurrentHashMap<>();
 
+    private static final int MAX_BATCH_PROBLEMS = 50;
+
+    /** How to revert the last {@link #applyEdits} batch. */
+    private volatile List<BatchUndo> lastBatch = List.of();
+
     /**
      * Creates a directory structure (recursively) in the specified project.
      * 
@@ -3233,6 +3248,544 @@ public class CodeEditingService
         return indent;
     }
 
+    /**
+     * One edit of an {@link #applyEdits} batch. The fields used depend on the
+     * type: {@code replaceString} (oldString, newString, optional startLine and
+     * endLine), {@code insert} (content, line), {@code replaceLines} (content,
+     * startLine, endLine), {@code deleteLines} (startLine, endLine),
+     * {@code patch} (patch), {@code replaceContent} (content) and
+     * {@code create} (content). Line numbers are 1-based and refer to the file
+     * as the batch's earlier edits leave it.
+     */
+    public record FileEdit( String type, String projectName, String filePath, String oldString, String newString, String content, String patch,
+            Integer line, Integer startLine, Integer endLine )
+    {
+    }
+
+    /** A file as an edit batch leaves it, before anything is written. */
+    private static final class PendingFile
+    {
+        final IFile   file;
+
+        final String  filePath;
+
+        /** The content on disk, or null for a file the batch creates. */
+        final byte[]  original;
+
+        final Charset charset;
+
+        String        content;
+
+        int           edits;
+
+        PendingFile( IFile file, String filePath, byte[] original, Charset charset, String content )
+        {
+            this.file = file;
+            this.filePath = filePath;
+            this.original = original;
+            this.charset = charset;
+            this.content = content;
+        }
+
+        String originalContent()
+        {
+            return original == null ? "" : new String( original, charset );
+        }
+
+        boolean isChanged()
+        {
+            return original == null || !Arrays.equals( original, content.getBytes( charset ) );
+        }
+    }
+
+    /** How to revert one file of the last batch; a null content deletes a file the batch created. */
+    private record BatchUndo( IFile file, byte[] content )
+    {
+    }
+
+    /**
+     * Applies a batch of edits across files as one change. Every edit is first
+     * applied in memory, in order, and nothing is written unless all of them
+     * succeed. The files are then written in a single workspace operation, so
+     * the workspace sends one resource delta and auto-build runs once for the
+     * whole batch rather than once per edit. Returns the diffs and the problems
+     * the build reports for the edited files. {@link #undoEdits} reverts the
+     * batch as a whole.
+     *
+     * @param edits
+     *            The edits, applied in order
+     * @return A status message with the diffs and the resulting problems
+     */
+    public String applyEdits( List<FileEdit> edits )
+    {
+        Objects.requireNonNull( edits );
+        if ( edits.isEmpty() )
+        {
+            throw new IllegalArgumentException( "Error: No edits given." );
+        }
+
+        long started = System.nanoTime();
+        Map<IFile, PendingFile> files = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        for ( int i = 0; i < edits.size(); i++ )
+        {
+            FileEdit edit = edits.get( i );
+            try
+            {
+                stageEdit( edit, files );
+            }
+            catch ( RuntimeException | CoreException | IOException e )
+            {
+                errors.add( "  #" + ( i + 1 ) + " " + edit.type() + " " + edit.filePath() + ": " + errorMessage( e ) );
+            }
+        }
+        if ( !errors.isEmpty() )
+        {
+            throw new RuntimeException( "Error: No file was changed; " + errors.size() + " of " + edits.size() + " edits are invalid:\n"
+                    + String.join( "\n", errors ) );
+        }
+
+        List<PendingFile> changed = files.values().stream().filter( PendingFile::isChanged ).toList();
+        if ( changed.isEmpty() )
+        {
+            return "Success: The edits leave every file unchanged; nothing was written.";
+        }
+
+        long validated = System.nanoTime();
+        List<BatchUndo> written = new ArrayList<>();
+        IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        try
+        {
+            workspace.run( (IWorkspaceRunnable) monitor -> {
+                for ( PendingFile pending : changed )
+                {
+                    writePending( pending, monitor );
+                    written.add( new BatchUndo( pending.file, pending.original ) );
+                }
+            }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, null );
+        }
+        catch ( CoreException e )
+        {
+            String rollback = "";
+            try
+            {
+                restoreBatch( written );
+            }
+            catch ( CoreException rollbackError )
+            {
+                logger.error( rollbackError.getMessage(), rollbackError );
+                rollback = " Rolling back the files already written failed as well: " + ExceptionUtils.getRootCauseMessage( rollbackError );
+            }
+            throw new RuntimeException( "Error: Writing the edits failed: " + ExceptionUtils.getRootCauseMessage( e ) + rollback );
+        }
+        lastBatch = List.copyOf( written );
+        for ( PendingFile pending : changed )
+        {
+            if ( pending.original != null )
+            {
+                pushEditBackup( pending.file, pending.original );
+            }
+        }
+
+        long applied = System.nanoTime();
+        waitForAutoBuild();
+        long built = System.nanoTime();
+
+        for ( PendingFile pending : changed )
+        {
+            if ( JavaCore.create( pending.file ) instanceof ICompilationUnit compilationUnit )
+            {
+                try
+                {
+                    compilationUnit.makeConsistent( new NullProgressMonitor() );
+                }
+                catch ( JavaModelException e )
+                {
+                    logger.warn( "Could not reconcile " + pending.filePath + ": " + e.getMessage() );
+                }
+            }
+            resourceCache.resourceChanged( pending.file.getFullPath() );
+        }
+        PendingFile primary = changed.get( 0 );
+        int revealLine = firstChangedLine( primary.originalContent(), primary.content );
+        sync.syncExec( () -> {
+            changed.forEach( pending -> refreshEditor( pending.file ) );
+            revealLineInEditor( primary.file, revealLine );
+        } );
+
+        StringBuilder sb = new StringBuilder();
+        sb.append( "Success: Applied " ).append( edits.size() ).append( " edits to " ).append( changed.size() )
+          .append( " file(s) in one workspace operation (validate " ).append( millis( started, validated ) )
+          .append( " ms, write " ).append( millis( validated, applied ) ).append( " ms, build " ).append( millis( applied, built ) )
+          .append( " ms).\n" );
+        for ( PendingFile pending : changed )
+        {
+            sb.append( "\n## " ).append( pending.file.getFullPath() ).append( " (" ).append( pending.edits ).append( " edit(s)" )
+              .append( pending.original == null ? ", created" : "" ).append( ")\n" );
+            sb.append( "```diff\n" ).append( unifiedDiff( pending.filePath, pending.originalContent(), pending.content ) ).append( "```\n" );
+        }
+        appendProblems( sb, changed, workspace.isAutoBuilding() );
+        sb.append( "\nUse undoEdits to revert the whole batch." );
+        return sb.toString();
+    }
+
+    /**
+     * Reverts the last {@link #applyEdits} batch in one workspace operation:
+     * edited files get their previous content back and created files are
+     * deleted.
+     *
+     * @return A status message indicating success or failure
+     */
+    public String undoEdits()
+    {
+        List<BatchUndo> batch = lastBatch;
+        if ( batch.isEmpty() )
+        {
+            throw new RuntimeException( "Error: There is no applyEdits batch to undo." );
+        }
+        lastBatch = List.of();
+        try
+        {
+            restoreBatch( batch );
+        }
+        catch ( CoreException e )
+        {
+            throw new RuntimeException( "Error: Reverting the batch failed: " + ExceptionUtils.getRootCauseMessage( e ) );
+        }
+        batch.forEach( entry -> resourceCache.resourceChanged( entry.file().getFullPath() ) );
+        sync.syncExec( () -> batch.forEach( entry -> refreshEditor( entry.file() ) ) );
+
+        long deleted = batch.stream().filter( entry -> entry.content() == null ).count();
+        return "Success: Reverted the last applyEdits batch: " + ( batch.size() - deleted ) + " file(s) restored, " + deleted
+                + " created file(s) deleted.";
+    }
+
+    /** Applies one edit to the in-memory content of its file. */
+    private void stageEdit( FileEdit edit, Map<IFile, PendingFile> files ) throws CoreException, IOException
+    {
+        String type = edit.type();
+        if ( type == null || type.isBlank() )
+        {
+            throw new IllegalArgumentException( "Error: Edit type is required." );
+        }
+        if ( edit.projectName() == null || edit.projectName().isEmpty() )
+        {
+            throw new IllegalArgumentException( "Error: Project name cannot be empty." );
+        }
+        if ( edit.filePath() == null || edit.filePath().isEmpty() )
+        {
+            throw new IllegalArgumentException( "Error: File path cannot be empty." );
+        }
+
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject( edit.projectName() );
+        if ( !project.exists() )
+        {
+            throw new RuntimeException( "Error: Project '" + edit.projectName() + "' does not exist." );
+        }
+        if ( !project.isOpen() )
+        {
+            throw new RuntimeException( "Error: Project '" + edit.projectName() + "' is closed." );
+        }
+
+        IFile file = project.getFile( IPath.fromPath( Path.of( edit.filePath() ) ) );
+        PendingFile pending = files.get( file );
+        if ( "create".equals( type ) )
+        {
+            if ( pending != null || file.exists() )
+            {
+                throw new RuntimeException( "Error: File '" + edit.filePath() + "' already exists in project '" + edit.projectName() + "'." );
+            }
+            aiIgnoreService.assertAccessAllowed( project, edit.filePath() );
+            pending = new PendingFile( file, edit.filePath(), null, Charset.forName( project.getDefaultCharset() ),
+                    Objects.requireNonNullElse( edit.content(), "" ) );
+            pending.edits++;
+            files.put( file, pending );
+            return;
+        }
+
+        if ( pending == null )
+        {
+            if ( !file.exists() )
+            {
+                throw new RuntimeException( "Error: File '" + edit.filePath() + "' does not exist in project '" + edit.projectName() + "'." );
+            }
+            aiIgnoreService.assertAccessAllowed( file );
+            file.refreshLocal( IResource.DEPTH_ZERO, null );
+            byte[] original;
+            try ( var input = file.getContents() )
+            {
+                original = input.readAllBytes();
+            }
+            Charset charset = Charset.forName( file.getCharset() );
+            pending = new PendingFile( file, edit.filePath(), original, charset, new String( original, charset ) );
+            files.put( file, pending );
+        }
+
+        pending.content = switch ( type )
+        {
+            case "replaceString" -> replaceStringInContent( pending.content, edit.oldString(), Objects.requireNonNullElse( edit.newString(), "" ),
+                    edit.startLine(), edit.endLine() );
+            case "insert" -> insertIntoContent( pending.content, Objects.requireNonNullElse( edit.content(), "" ), required( edit.line(), "line" ) );
+            case "replaceLines" -> replaceLinesInContent( pending.content, Objects.requireNonNullElse( edit.content(), "" ),
+                    required( edit.startLine(), "startLine" ), required( edit.endLine(), "endLine" ) );
+            case "deleteLines" -> deleteLinesInContent( pending.content, required( edit.startLine(), "startLine" ), required( edit.endLine(), "endLine" ) );
+            case "patch" -> patchContent( pending.content, edit.patch() );
+            case "replaceContent" -> Objects.requireNonNull( edit.content(), "Error: content is required." );
+            default -> throw new IllegalArgumentException(
+                    "Error: Unknown edit type '" + type + "'. Use one of: replaceString, insert, replaceLines, deleteLines, patch, replaceContent, create." );
+        };
+        pending.edits++;
+    }
+
+    private static String replaceStringInContent( String content, String oldString, String newString, Integer startLine, Integer endLine )
+    {
+        if ( oldString == null || oldString.isEmpty() )
+        {
+            throw new IllegalArgumentException( "Error: oldString is required." );
+        }
+        List<String> lines = ResourceUtilities.splitLinesWithTerminators( content );
+        int totalLines = lines.size();
+        int first = startLine != null ? Math.max( 0, startLine - 1 ) : 0;
+        int last = endLine != null ? Math.min( totalLines - 1, endLine - 1 ) : totalLines - 1;
+        if ( first >= totalLines )
+        {
+            throw new RuntimeException( "Error: Start line " + startLine + " is beyond the end of the file (total lines: " + totalLines + ")." );
+        }
+        if ( first > last )
+        {
+            throw new RuntimeException( "Error: Start line cannot be greater than end line." );
+        }
+        String before = String.join( "", lines.subList( 0, first ) );
+        String range = String.join( "", lines.subList( first, last + 1 ) );
+        String after = String.join( "", lines.subList( last + 1, totalLines ) );
+        if ( !range.contains( oldString ) )
+        {
+            String rangeInfo = startLine != null || endLine != null
+                    ? " within range (lines " + ( startLine != null ? startLine : 1 ) + " to " + ( endLine != null ? endLine : totalLines ) + ")"
+                    : "";
+            throw new RuntimeException( "Error: The specified string was not found in the file" + rangeInfo + "." );
+        }
+        return before + range.replace( oldString, newString ) + after;
+    }
+
+    private static String insertIntoContent( String content, String text, int atLine )
+    {
+        List<String> lines = ResourceUtilities.splitLinesWithTerminators( content );
+        int at = atLine - 1;
+        if ( at < 0 || at > lines.size() )
+        {
+            throw new RuntimeException( "Error: Invalid line number " + atLine + ". File has " + lines.size() + " lines." );
+        }
+        return String.join( "", lines.subList( 0, at ) ) + text + ( text.endsWith( "\n" ) ? "" : "\n" )
+                + String.join( "", lines.subList( at, lines.size() ) );
+    }
+
+    private static String replaceLinesInContent( String content, String replacement, int startLine, int endLine )
+    {
+        List<String> lines = ResourceUtilities.splitLinesWithTerminators( content );
+        int first = startLine - 1;
+        if ( first < 0 || endLine < startLine || first >= lines.size() )
+        {
+            throw new IllegalArgumentException( "Error: Invalid line range specified." );
+        }
+        int last = Math.min( endLine - 1, lines.size() - 1 );
+        String text = replacement.isEmpty() || replacement.endsWith( "\n" ) ? replacement : replacement + "\n";
+        return String.join( "", lines.subList( 0, first ) ) + text + String.join( "", lines.subList( last + 1, lines.size() ) );
+    }
+
+    private static String deleteLinesInContent( String content, int startLine, int endLine )
+    {
+        List<String> lines = ResourceUtilities.splitLinesWithTerminators( content );
+        if ( startLine < 1 || endLine < startLine )
+        {
+            throw new IllegalArgumentException( "Error: Invalid line range " + startLine + "-" + endLine + "." );
+        }
+        if ( endLine > lines.size() )
+        {
+            throw new IllegalArgumentException( "Error: End line " + endLine + " is beyond the file length (" + lines.size() + " lines)." );
+        }
+        return String.join( "", lines.subList( 0, startLine - 1 ) ) + String.join( "", lines.subList( endLine, lines.size() ) );
+    }
+
+    private String patchContent( String content, String patch )
+    {
+        if ( patch == null || patch.isBlank() )
+        {
+            throw new IllegalArgumentException( "Error: Patch content cannot be empty." );
+        }
+        String lineDelimiter = detectLineDelimiter( content );
+        List<String> patchedLines = applyUnifiedDiff( splitLines( content ), patch );
+        String patched = String.join( lineDelimiter, patchedLines );
+        if ( endsWithLineDelimiter( content ) && !patchedLines.isEmpty() )
+        {
+            patched += lineDelimiter;
+        }
+        return patched;
+    }
+
+    private void writePending( PendingFile pending, IProgressMonitor monitor ) throws CoreException
+    {
+        ByteArrayInputStream source = new ByteArrayInputStream( pending.content.getBytes( pending.charset ) );
+        if ( pending.original == null )
+        {
+            if ( pending.file.getParent() instanceof IFolder folder && !folder.exists() )
+            {
+                ResourceUtilities.createFolderHierarchy( folder );
+            }
+            pending.file.create( source, true, monitor );
+        }
+        else
+        {
+            pending.file.setContents( source, IResource.FORCE, monitor );
+        }
+    }
+
+    private void restoreBatch( List<BatchUndo> batch ) throws CoreException
+    {
+        if ( batch.isEmpty() )
+        {
+            return;
+        }
+        IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        workspace.run( (IWorkspaceRunnable) monitor -> {
+            for ( BatchUndo entry : batch )
+            {
+                if ( entry.content() == null )
+                {
+                    if ( entry.file().exists() )
+                    {
+                        entry.file().delete( true, monitor );
+                    }
+                }
+                else
+                {
+                    entry.file().setContents( new ByteArrayInputStream( entry.content() ), IResource.FORCE, monitor );
+                }
+            }
+        }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, null );
+    }
+
+    /**
+     * Waits for auto-build, with the running operation's monitor so a stuck
+     * build can be cancelled.
+     */
+    private void waitForAutoBuild()
+    {
+        IProgressMonitor monitor = OperationContext.current().map( Operation::monitor ).map( IProgressMonitor.class::cast )
+                .orElseGet( NullProgressMonitor::new );
+        try
+        {
+            Job.getJobManager().join( ResourcesPlugin.FAMILY_AUTO_BUILD, monitor );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( OperationCanceledException e )
+        {
+            // Report what the markers say so far.
+        }
+    }
+
+    private void appendProblems( StringBuilder sb, List<PendingFile> files, boolean autoBuilding )
+    {
+        List<IMarker> problems = new ArrayList<>();
+        for ( PendingFile pending : files )
+        {
+            try
+            {
+                for ( IMarker marker : pending.file.findMarkers( IMarker.PROBLEM, true, IResource.DEPTH_ZERO ) )
+                {
+                    if ( marker.getAttribute( IMarker.SEVERITY, IMarker.SEVERITY_INFO ) >= IMarker.SEVERITY_WARNING )
+                    {
+                        problems.add( marker );
+                    }
+                }
+            }
+            catch ( CoreException e )
+            {
+                logger.warn( "Could not read problems of " + pending.filePath + ": " + e.getMessage() );
+            }
+        }
+        problems.sort( Comparator.comparingInt( ( IMarker marker ) -> -marker.getAttribute( IMarker.SEVERITY, IMarker.SEVERITY_INFO ) )
+                .thenComparing( marker -> marker.getResource().getFullPath().toString() )
+                .thenComparingInt( marker -> marker.getAttribute( IMarker.LINE_NUMBER, 0 ) ) );
+
+        sb.append( "\n## Problems in the edited files\n" );
+        if ( !autoBuilding )
+        {
+            sb.append( "Auto-build is off, so these markers may predate the edits.\n" );
+        }
+        if ( problems.isEmpty() )
+        {
+            sb.append( "No errors or warnings.\n" );
+            return;
+        }
+        for ( IMarker marker : problems.subList( 0, Math.min( MAX_BATCH_PROBLEMS, problems.size() ) ) )
+        {
+            sb.append( "- " ).append( marker.getAttribute( IMarker.SEVERITY, IMarker.SEVERITY_INFO ) == IMarker.SEVERITY_ERROR ? "ERROR" : "WARNING" )
+              .append( " " ).append( marker.getResource().getFullPath() ).append( ":" ).append( marker.getAttribute( IMarker.LINE_NUMBER, 0 ) )
+              .append( " " ).append( marker.getAttribute( IMarker.MESSAGE, "" ) ).append( "\n" );
+        }
+        if ( problems.size() > MAX_BATCH_PROBLEMS )
+        {
+            sb.append( "... " ).append( problems.size() - MAX_BATCH_PROBLEMS ).append( " more not shown.\n" );
+        }
+    }
+
+    private static String unifiedDiff( String filePath, String before, String after )
+    {
+        RawText oldText = new RawText( before.getBytes( StandardCharsets.UTF_8 ) );
+        RawText newText = new RawText( after.getBytes( StandardCharsets.UTF_8 ) );
+        EditList edits = new HistogramDiff().diff( RawTextComparator.DEFAULT, oldText, newText );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try ( DiffFormatter formatter = new DiffFormatter( out ) )
+        {
+            out.write( ( "--- /" + filePath + "\n+++ /" + filePath + "\n" ).getBytes( StandardCharsets.UTF_8 ) );
+            formatter.format( edits, oldText, newText );
+            formatter.flush();
+        }
+        catch ( IOException e )
+        {
+            return "(diff unavailable: " + e.getMessage() + ")\n";
+        }
+        return out.toString( StandardCharsets.UTF_8 );
+    }
+
+    private static int firstChangedLine( String before, String after )
+    {
+        int length = Math.min( before.length(), after.length() );
+        int line = 1;
+        for ( int i = 0; i < length && before.charAt( i ) == after.charAt( i ); i++ )
+        {
+            if ( before.charAt( i ) == '\n' )
+            {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    private static int required( Integer value, String name )
+    {
+        if ( value == null )
+        {
+            throw new IllegalArgumentException( "Error: " + name + " is required." );
+        }
+        return value;
+    }
+
+    private static String errorMessage( Exception e )
+    {
+        String message = Optional.ofNullable( e.getMessage() ).orElseGet( () -> ExceptionUtils.getRootCauseMessage( e ) );
+        return message.startsWith( "Error: " ) ? message.substring( "Error: ".length() ) : message;
+    }
+
+    private static long millis( long from, long to )
+    {
+        return ( to - from ) / 1_000_000;
+    }
+
     private void backupFile( IFile file ) throws CoreException, IOException
     {
         file.refreshLocal( IResource.DEPTH_ZERO, null );
@@ -3241,7 +3794,11 @@ public class CodeEditingService
         {
             content = input.readAllBytes();
         }
+        pushEditBackup( file, content );
+    }
 
+    private void pushEditBackup( IFile file, byte[] content )
+    {
         Deque<byte[]> backups = editBackups.computeIfAbsent( file.getFullPath(), ignored -> new ArrayDeque<>() );
         synchronized ( backups )
         {
@@ -0,0 +1,231 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.e4.ui.di.UISynchronize;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.ui.console.ConsolePlugin;
+import org.eclipse.ui.console.IConsole;
+import org.eclipse.ui.console.IConsoleListener;
+import org.eclipse.ui.console.IConsoleManager;
+import org.eclipse.ui.console.TextConsole;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationOutputBuffer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Keeps the recent output of every text console in a bounded line buffer, so
+ * console output is read from any thread without going through the UI thread
+ * and without copying whole console documents.
+ * <p>
+ * A document listener is attached once per console and appends what is
+ * written at the end of the document to the console's buffer. Lines keep their
+ * absolute index for the life of the console: lines the console trims from the
+ * top of its document stay in the buffer, and clearing the console only drops
+ * them. A last line without its newline shows up once it is completed.
+ */
+@Creatable
+@Singleton
+public class ConsoleCaptureService implements IConsoleListener
+{
+    /** The captured output of one console. */
+    public static final class Capture implements IDocumentListener
+    {
+        private final IConsole              console;
+
+        private final OperationOutputBuffer buffer = new OperationOutputBuffer();
+
+        private volatile long               lastWritten;
+
+        /** The document length after the last change seen; only touched by the document's thread. */
+        private int                         length;
+
+        Capture( IConsole console )
+        {
+            this.console = console;
+        }
+
+        public String name()
+        {
+            return console.getName();
+        }
+
+        public OperationOutputBuffer buffer()
+        {
+            return buffer;
+        }
+
+        /** When output last arrived, in milliseconds since the epoch; 0 if never. */
+        public long lastWritten()
+        {
+            return lastWritten;
+        }
+
+        /** Takes what the console held before capture started; that is not new output. */
+        void seed( IDocument document )
+        {
+            length = document.getLength();
+            String text = document.get();
+            if ( !text.isEmpty() )
+            {
+                buffer.append( text, false );
+            }
+        }
+
+        @Override
+        public void documentAboutToBeChanged( DocumentEvent event )
+        {
+        }
+
+        @Override
+        public void documentChanged( DocumentEvent event )
+        {
+            int before = length;
+            length = event.getDocument().getLength();
+            String text = event.getText();
+            if ( event.getLength() == 0 && event.getOffset() == before )
+            {
+                append( text );
+            }
+            else if ( length == 0 )
+            {
+                buffer.clear();
+            }
+            // Anything else trims the top of the document, which the buffer keeps.
+        }
+
+        void append( String text )
+        {
+            if ( text != null && !text.isEmpty() )
+            {
+                buffer.append( text, false );
+                lastWritten = System.currentTimeMillis();
+            }
+        }
+    }
+
+    @Inject
+    UISynchronize                     sync;
+
+    private final Map<IConsole, Capture> captures = new ConcurrentHashMap<>();
+
+    private boolean                    listening;
+
+    @PostConstruct
+    public void start()
+    {
+        ConsolePlugin plugin = ConsolePlugin.getDefault();
+        if ( plugin == null )
+        {
+            return;
+        }
+        IConsoleManager manager = plugin.getConsoleManager();
+        manager.addConsoleListener( this );
+        listening = true;
+        consolesAdded( manager.getConsoles() );
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if ( listening )
+        {
+            ConsolePlugin.getDefault().getConsoleManager().removeConsoleListener( this );
+            listening = false;
+        }
+        consolesRemoved( captures.keySet().toArray( IConsole[]::new ) );
+    }
+
+    @Override
+    public void consolesAdded( IConsole[] consoles )
+    {
+        for ( IConsole console : consoles )
+        {
+            if ( console instanceof TextConsole textConsole && !captures.containsKey( console ) )
+            {
+                Capture capture = new Capture( console );
+                captures.put( console, capture );
+                // Document listeners are attached on the thread that updates the document.
+                onUiThread( () -> {
+                    IDocument document = textConsole.getDocument();
+                    if ( document != null && captures.get( console ) == capture )
+                    {
+                        capture.seed( document );
+                        document.addDocumentListener( capture );
+                    }
+                } );
+            }
+        }
+    }
+
+    @Override
+    public void consolesRemoved( IConsole[] consoles )
+    {
+        for ( IConsole console : consoles )
+        {
+            Capture capture = captures.remove( console );
+            if ( capture != null && console instanceof TextConsole textConsole )
+            {
+                onUiThread( () -> {
+                    IDocument document = textConsole.getDocument();
+                    if ( document != null )
+                    {
+                        document.removeDocumentListener( capture );
+                    }
+                } );
+            }
+        }
+    }
+
+    /** Captures of the consoles whose name contains the given text, by name. */
+    public List<Capture> find( String nameFragment )
+    {
+        return captures.values().stream()
+                       .filter( capture -> capture.name().contains( nameFragment ) )
+                       .sorted( Comparator.comparing( Capture::name ) )
+                       .toList();
+    }
+
+    /** Captures of all consoles, by name. */
+    public List<Capture> all()
+    {
+        return find( "" );
+    }
+
+    /** The capture of a console, if it is a text console. */
+    public Optional<Capture> get( IConsole console )
+    {
+        return Optional.ofNullable( captures.get( console ) );
+    }
+
+    /** The console that received output last; empty if none has since capture started. */
+    public Optional<Capture> lastWritten()
+    {
+        return captures.values().stream()
+                       .filter( capture -> capture.lastWritten() > 0 )
+                       .max( Comparator.comparingLong( Capture::lastWritten ) );
+    }
+
+    private void onUiThread( Runnable runnable )
+    {
+        if ( sync != null )
+        {
+            sync.asyncExec( runnable );
+        }
+        else
+        {
+            runnable.run();
+        }
+    }
+}
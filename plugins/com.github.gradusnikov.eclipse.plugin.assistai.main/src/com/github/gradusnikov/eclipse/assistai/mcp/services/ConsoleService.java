@@ -1,16 +1,14 @@
 
 package com.github.gradusnikov.eclipse.assistai.mcp.services;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.e4.core.di.annotations.Creatable;
 import org.eclipse.e4.ui.di.UISynchronize;
-import org.eclipse.jface.text.IDocument;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PartInitException;
@@ -20,10 +18,9 @@ import org.eclipse.ui.console.IConsole;
 import org.eclipse.ui.console.IConsoleConstants;
 import org.eclipse.ui.console.IConsoleManager;
 import org.eclipse.ui.console.IConsoleView;
-import org.eclipse.ui.console.IOConsole;
 import org.eclipse.ui.console.MessageConsole;
-import org.eclipse.ui.console.TextConsole;
 
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationOutputBuffer;
 import com.github.gradusnikov.eclipse.assistai.resources.ResourceToolResult;
 
 import jakarta.inject.Inject;
@@ -38,6 +35,8 @@ public class ConsoleService
     ILog logger;
     @Inject
     UISynchronize sync;
+    @Inject
+    ConsoleCaptureService consoleCapture;
     
     /**
      * Retrieves the recent output from Eclipse console(s).
@@ -61,6 +60,24 @@ public class ConsoleService
      * @return ResourceToolResult containing console output and descriptor
      */
     public ResourceToolResult getConsoleOutputWithResource(String consoleName, Integer maxLines, Boolean includeAllConsoles)
+    {
+        return getConsoleOutputWithResource(consoleName, maxLines, includeAllConsoles, null, null);
+    }
+
+    /**
+     * Retrieves a page of console output, or the lines matching a pattern, from the
+     * output kept by {@link ConsoleCaptureService}. Lines are numbered by their
+     * absolute index, which stays stable while the console keeps running, so a
+     * caller can continue from where the previous page ended.
+     * 
+     * @param consoleName Name of the specific console to retrieve (optional)
+     * @param maxLines Maximum number of lines (or matches) to retrieve
+     * @param includeAllConsoles Whether to include output from all available consoles
+     * @param offset Absolute index of the first line; negative counts back from the end (default: the last maxLines lines)
+     * @param filter Optional regular expression; only matching lines are returned
+     * @return ResourceToolResult containing console output and descriptor
+     */
+    public ResourceToolResult getConsoleOutputWithResource(String consoleName, Integer maxLines, Boolean includeAllConsoles, Integer offset, String filter)
     {
         // Validate and set default values
         if (maxLines == null || maxLines < 1) 
@@ -75,155 +92,111 @@ public class ConsoleService
         
         final StringBuilder result = new StringBuilder();
         result.append("# Console Output\n\n");
-        
-        final int finalMaxLines = maxLines;
-        final boolean finalIncludeAllConsoles = includeAllConsoles;
-        
-        sync.syncExec(() -> readConsoleOutput(result, consoleName, finalMaxLines, finalIncludeAllConsoles) );
+        readConsoleOutput(result, consoleName, maxLines, includeAllConsoles, offset, filter);
         
         // Determine the console name for the resource descriptor
         String resourceConsoleName = consoleName != null && !consoleName.trim().isEmpty() 
             ? consoleName 
-            : (finalIncludeAllConsoles ? "All Consoles" : "Active Console");
+            : (includeAllConsoles ? "All Consoles" : "Active Console");
         
         return ResourceToolResult.forConsole(resourceConsoleName, result.toString(), "getConsoleOutput");
     }
 
-	private void readConsoleOutput(StringBuilder result, String consoleName, final int finalMaxLines, final boolean finalIncludeAllConsoles ) 
-	{
-		try 
-		{
-			
-		    // Get all consoles from the console manager
-		    IConsoleManager consoleManager = ConsolePlugin.getDefault().getConsoleManager();
-		    IConsole[] consoles = consoleManager.getConsoles();
-		    
-		    if (consoles.length == 0) 
-		    {
-		        throw new RuntimeException("No consoles found in the Eclipse workspace.");
-		    }
-		    
-		    // Filter consoles based on parameters
-		    List<IConsole> targetConsoles = new ArrayList<>();
-		    
-		    if (consoleName != null && !consoleName.trim().isEmpty()) 
-		    {
-		        // Find console by name
-		        for (IConsole console : consoles) 
-		        {
-		            if (console.getName().contains(consoleName)) 
-		            {
-		                targetConsoles.add(console);
-		            }
-		        }
-		        if (targetConsoles.isEmpty()) 
-		        {
-		            throw new RuntimeException("No console found with name containing '" + consoleName + "'.");
-		        }
-		    } 
-		    else if (finalIncludeAllConsoles) 
-		    {
-		        // Include all consoles
-		        targetConsoles.addAll(Arrays.asList(consoles));
-		    } 
-		    else 
-		    {
-		        // Get the most recently used console
-		        IConsole mostRecentConsole = null;
-		        
+    private void readConsoleOutput(StringBuilder result, String consoleName, int maxLines, boolean includeAllConsoles, Integer offset, String filter)
+    {
+        List<ConsoleCaptureService.Capture> targetConsoles;
+        if (consoleName != null && !consoleName.trim().isEmpty()) 
+        {
+            targetConsoles = consoleCapture.find(consoleName);
+            if (targetConsoles.isEmpty()) 
+            {
+                throw new RuntimeException("No console found with name containing '" + consoleName + "'.");
+            }
+        } 
+        else if (includeAllConsoles) 
+        {
+            targetConsoles = consoleCapture.all();
+        } 
+        else 
+        {
+            // The console that was written to last stands in for the one on display;
+            // the UI thread is only asked when nothing has been written yet.
+            targetConsoles = consoleCapture.lastWritten()
+                    .or(() -> displayedConsole().flatMap(consoleCapture::get))
+                    .or(() -> consoleCapture.all().stream().findFirst())
+                    .map(List::of)
+                    .orElse(List.of());
+        }
+        if (targetConsoles.isEmpty()) 
+        {
+            throw new RuntimeException("No consoles found in the Eclipse workspace.");
+        }
 
-				// First check if there's an active console page
-				Optional<IConsole> consoleOptional = Optional.ofNullable(PlatformUI.getWorkbench().getActiveWorkbenchWindow())
-				    .map(IWorkbenchWindow::getActivePage)
-				    .map(page -> page.findView(IConsoleConstants.ID_CONSOLE_VIEW))
-				    .filter(consoleView -> consoleView instanceof IConsoleView)
-				    .map(consoleView -> ((IConsoleView) consoleView).getConsole());
-				
-				if (consoleOptional.isPresent()) 
-				{
-				    mostRecentConsole = consoleOptional.get();
-				}
+        Pattern pattern;
+        try
+        {
+            pattern = filter == null || filter.isBlank() ? null : Pattern.compile(filter);
+        }
+        catch (PatternSyntaxException e)
+        {
+            throw new IllegalArgumentException("Invalid filter pattern: " + e.getDescription());
+        }
 
-		        // If we couldn't find an active console, just use the first one
-		        if (mostRecentConsole == null && consoles.length > 0) 
-		        {
-		            mostRecentConsole = consoles[0];
-		        }
-		        
-		        if (mostRecentConsole != null) 
-		        {
-		            targetConsoles.add(mostRecentConsole);
-		        }
-		    }
-		    if (targetConsoles.isEmpty()) 
-		    {
-		        throw new RuntimeException("No applicable consoles found to retrieve output from.");
-		    }
-		    
-		    // Process each target console
-		    boolean foundContent = false;
-		    for (IConsole console : targetConsoles) 
-		    {
-		        String consoleContent = "";
-		        
-		        // Handle different console types
-		        if (console instanceof TextConsole) 
-		        {
-		            consoleContent = getTextConsoleContent((TextConsole) console, finalMaxLines);
-		        } 
-		        else if (console instanceof IOConsole) 
-		        {
-		            consoleContent = getIOConsoleContent((IOConsole) console, finalMaxLines);
-		        } 
-		        else if (console instanceof MessageConsole) 
-		        {
-		            consoleContent = getMessageConsoleContent((MessageConsole) console, finalMaxLines);
-		        }
-		        
-		        // Add the console content to the result if not empty
-		        if (consoleContent != null && !consoleContent.trim().isEmpty()) 
-		        {
-		            foundContent = true;
-		            result.append("## Console: ").append(console.getName()).append("\n\n");
-		            result.append("```\n");
-		            result.append(consoleContent);
-		            if (!consoleContent.endsWith("\n")) 
-		            {
-		                result.append("\n");
-		            }
-		            result.append("```\n\n");
-		        }
-		    }
-		    if (!foundContent) 
-		    {
-		        result.append("No content found in the ")
-		              .append(targetConsoles.size() == 1 ? "selected console." : "selected consoles.");
-		    }
-		} 
-		catch (Exception e) 
-		{
-		    throw new RuntimeException( e );
-		}
-	}
+        boolean foundContent = false;
+        for (ConsoleCaptureService.Capture console : targetConsoles) 
+        {
+            OperationOutputBuffer buffer = console.buffer();
+            StringBuilder lines = new StringBuilder();
+            String range;
+            if (pattern != null)
+            {
+                OperationOutputBuffer.GrepResult grep = buffer.grep(pattern, offset == null ? 0 : offset, maxLines);
+                grep.matches().forEach(match -> lines.append(match.index()).append(": ").append(match.line()).append("\n"));
+                range = grep.matches().size() + " matching line(s)"
+                        + (grep.complete() ? "" : ", more from offset " + grep.nextOffset());
+            }
+            else
+            {
+                OperationOutputBuffer.Page page = buffer.page(offset == null ? -maxLines : offset, maxLines);
+                page.lines().forEach(line -> lines.append(line).append("\n"));
+                range = page.lines().isEmpty() ? "no lines"
+                        : "lines " + page.firstIndex() + "-" + (page.nextOffset() - 1) + " of " + page.totalLines();
+            }
+            if (lines.length() > 0) 
+            {
+                foundContent = true;
+                result.append("## Console: ").append(console.name()).append(" (").append(range).append(")\n\n");
+                result.append("```\n");
+                result.append(lines);
+                result.append("```\n\n");
+            }
+        }
+        if (!foundContent) 
+        {
+            result.append(pattern != null ? "No matching lines in the " : "No content found in the ")
+                  .append(targetConsoles.size() == 1 ? "selected console." : "selected consoles.");
+        }
+    }
     
     /**
-     * Extracts content from a TextConsole
-     * 
-     * @param textConsole The console to extract content from
-     * @param maxLines Maximum number of lines to retrieve
-     * @return The extracted console content
+     * The console shown in the Console view of the active window, if any.
      */
-    private String getTextConsoleContent(TextConsole textConsole, int maxLines) 
+    private Optional<IConsole> displayedConsole()
     {
-        IDocument document = textConsole.getDocument();
-        if (document == null) 
+        if (sync == null)
         {
-            return "";
+            return Optional.empty();
         }
-        
-        return extractLastLines(document.get(), maxLines);
+        IConsole[] displayed = new IConsole[1];
+        sync.syncExec(() -> displayed[0] = Optional.ofNullable(PlatformUI.getWorkbench().getActiveWorkbenchWindow())
+                .map(IWorkbenchWindow::getActivePage)
+                .map(page -> page.findView(IConsoleConstants.ID_CONSOLE_VIEW))
+                .filter(IConsoleView.class::isInstance)
+                .map(view -> ((IConsoleView) view).getConsole())
+                .orElse(null));
+        return Optional.ofNullable(displayed[0]);
     }
-    
+
     /**
      * Prints a message to a specified console.
      * 
@@ -252,65 +225,6 @@ public class ConsoleService
         });
     }
     
-    /**
-     * Extracts content from an IOConsole
-     * 
-     * @param ioConsole The console to extract content from
-     * @param maxLines Maximum number of lines to retrieve
-     * @return The extracted console content
-     */
-    private String getIOConsoleContent(IOConsole ioConsole, int maxLines) 
-    {
-        IDocument document = ioConsole.getDocument();
-        if (document == null) 
-        {
-            return "";
-        }
-        
-        return extractLastLines(document.get(), maxLines);
-    }
-    
-    /**
-     * Extracts content from a MessageConsole
-     * 
-     * @param messageConsole The console to extract content from
-     * @param maxLines Maximum number of lines to retrieve
-     * @return The extracted console content
-     */
-    private String getMessageConsoleContent(MessageConsole messageConsole, int maxLines) 
-    {
-        IDocument document = messageConsole.getDocument();
-        if (document == null) 
-        {
-            return "";
-        }
-        
-        return extractLastLines(document.get(), maxLines);
-    }
-    
-    /**
-     * Helper method to extract the last N lines from a string
-     * 
-     * @param fullContent The full content string
-     * @param maxLines Maximum number of lines to extract
-     * @return The extracted lines as a string
-     */
-    private String extractLastLines(String fullContent, int maxLines) 
-    {
-        Objects.requireNonNull(fullContent, "Console content cannot be null");
-        
-        String[] lines = fullContent.split("\n");
-        int startLine = Math.max(0, lines.length - maxLines);
-        
-        StringBuilder consoleText = new StringBuilder();
-        for (int i = startLine; i < lines.length; i++) 
-        {
-            consoleText.append(lines[i]).append("\n");
-        }
-        
-        return consoleText.toString();
-    }
-
     /**
      * Clears the content of a specified console.
      * 
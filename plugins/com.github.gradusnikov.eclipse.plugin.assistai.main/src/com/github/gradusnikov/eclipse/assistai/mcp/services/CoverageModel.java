@@ -0,0 +1,303 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Line and branch coverage of the classes executed in one coverage session, kept
+ * after the report is written so that later questions - how well is this class
+ * or this method covered - are answered without analysing the classes again.
+ * <p>
+ * The model holds no JaCoCo types, so it can be kept by {@link CoverageService}
+ * on installations without coverage tooling; {@link JacocoCoverageAnalyzer}
+ * fills it. Class names are JVM names with {@code /} separators.
+ */
+public final class CoverageModel
+{
+    // Same values as JaCoCo's ICounter status constants.
+    public static final byte EMPTY          = 0;
+
+    public static final byte NOT_COVERED    = 1;
+
+    public static final byte FULLY_COVERED  = 2;
+
+    public static final byte PARTLY_COVERED = 3;
+
+    public record Counter( int total, int covered )
+    {
+        static final Counter ZERO = new Counter( 0, 0 );
+
+        Counter plus( Counter other )
+        {
+            return new Counter( total + other.total, covered + other.covered );
+        }
+
+        String format( String unit )
+        {
+            return covered + "/" + total + " " + unit + ( total > 0 ? " (" + (int) ( 100.0 * covered / total ) + "%)" : "" );
+        }
+    }
+
+    public record MethodCoverage( String name, String descriptor, int firstLine, int lastLine, Counter lines, Counter branches )
+    {
+    }
+
+    /**
+     * @param firstLine    the first line with code, or -1 if the class has no line information
+     * @param lineStatus   status of each line from {@code firstLine} on
+     * @param branchStatus status of the branches of each line from {@code firstLine} on
+     */
+    public record ClassCoverage( String name, String sourceFile, int firstLine, byte[] lineStatus, byte[] branchStatus, Counter lines,
+            Counter branches, List<MethodCoverage> methods )
+    {
+        public String packageName()
+        {
+            int slash = name.lastIndexOf( '/' );
+            return slash < 0 ? "" : name.substring( 0, slash ).replace( '/', '.' );
+        }
+
+        public String sourceFileName()
+        {
+            return sourceFile != null ? sourceFile : name.substring( name.lastIndexOf( '/' ) + 1 ) + ".java";
+        }
+
+        public byte lineStatus( int line )
+        {
+            int index = line - firstLine;
+            return firstLine < 0 || index < 0 || index >= lineStatus.length ? EMPTY : lineStatus[index];
+        }
+
+        public byte branchStatus( int line )
+        {
+            int index = line - firstLine;
+            return firstLine < 0 || index < 0 || index >= branchStatus.length ? EMPTY : branchStatus[index];
+        }
+
+        int lastLine()
+        {
+            return firstLine < 0 ? -1 : firstLine + lineStatus.length - 1;
+        }
+    }
+
+    private final String                     execFile;
+
+    private final int                        executedClasses;
+
+    private final TreeMap<String, ClassCoverage> classes = new TreeMap<>();
+
+    /**
+     * @param execFile        the session file the model was read from
+     * @param executedClasses classes with execution data in the session, whether
+     *                        or not their class files were found
+     */
+    public CoverageModel( String execFile, int executedClasses, Collection<ClassCoverage> classes )
+    {
+        this.execFile = execFile;
+        this.executedClasses = executedClasses;
+        for ( ClassCoverage coverage : classes )
+        {
+            this.classes.put( coverage.name(), coverage );
+        }
+    }
+
+    public String execFile()
+    {
+        return execFile;
+    }
+
+    /** True if the session recorded no execution at all. */
+    public boolean isEmpty()
+    {
+        return executedClasses == 0;
+    }
+
+    public ClassCoverage get( String className )
+    {
+        return classes.get( className.replace( '.', '/' ) );
+    }
+
+    public Collection<ClassCoverage> classes()
+    {
+        return classes.values();
+    }
+
+    /**
+     * The report appended to a test run: overall line and branch coverage, then
+     * the uncovered and partly covered lines of each class that is not fully
+     * covered.
+     */
+    public String formatReport()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append( "\n--- Coverage Report ---\n" );
+
+        Counter lines = Counter.ZERO;
+        Counter branches = Counter.ZERO;
+        StringBuilder jsonArray = new StringBuilder();
+        jsonArray.append( "[\n" );
+        boolean first = true;
+
+        for ( ClassCoverage cls : classes.values() )
+        {
+            lines = lines.plus( cls.lines() );
+            branches = branches.plus( cls.branches() );
+            if ( cls.lines().total() == 0 )
+            {
+                continue;
+            }
+
+            List<Integer> uncoveredLines = linesWith( cls, cls.firstLine(), cls.lastLine(), NOT_COVERED, false );
+            List<Integer> partiallyCoveredLines = linesWith( cls, cls.firstLine(), cls.lastLine(), PARTLY_COVERED, false );
+            List<Integer> uncoveredBranchLines = linesWith( cls, cls.firstLine(), cls.lastLine(), NOT_COVERED, true );
+            List<Integer> partiallyCoveredBranchLines = linesWith( cls, cls.firstLine(), cls.lastLine(), PARTLY_COVERED, true );
+            if ( uncoveredLines.isEmpty() && partiallyCoveredLines.isEmpty() && uncoveredBranchLines.isEmpty() && partiallyCoveredBranchLines.isEmpty() )
+            {
+                continue;
+            }
+
+            if ( !first ) jsonArray.append( ",\n" );
+            first = false;
+
+            jsonArray.append( "  {\n" );
+            jsonArray.append( "    \"sourcefile\": \"" ).append( cls.sourceFileName() ).append( "\",\n" );
+            jsonArray.append( "    \"package\": \"" ).append( cls.packageName() ).append( "\",\n" );
+            jsonArray.append( "    \"lines\": {\n" );
+            jsonArray.append( "      \"nocovered\": " ).append( uncoveredLines ).append( ",\n" );
+            jsonArray.append( "      \"partiallycovered\": " ).append( partiallyCoveredLines ).append( "\n" );
+            jsonArray.append( "    },\n" );
+            jsonArray.append( "    \"branch\": {\n" );
+            jsonArray.append( "      \"nocovered\": " ).append( uncoveredBranchLines ).append( ",\n" );
+            jsonArray.append( "      \"partiallycovered\": " ).append( partiallyCoveredBranchLines ).append( "\n" );
+            jsonArray.append( "    }\n" );
+            jsonArray.append( "  }" );
+        }
+
+        jsonArray.append( "\n]" );
+
+        if ( lines.total() > 0 )
+        {
+            sb.append( "Overall: " ).append( (int) ( 100.0 * lines.covered() / lines.total() ) ).append( "% line coverage (" )
+                    .append( lines.covered() ).append( "/" ).append( lines.total() ).append( " lines)" );
+            if ( branches.total() > 0 )
+            {
+                sb.append( ", " ).append( (int) ( 100.0 * branches.covered() / branches.total() ) ).append( "% branch coverage (" )
+                        .append( branches.covered() ).append( "/" ).append( branches.total() ).append( " branches)" );
+            }
+            sb.append( "\n\n" );
+        }
+
+        if ( first )
+        {
+            sb.append( "All classes fully covered.\n" );
+        }
+        else
+        {
+            sb.append( "Classes with incomplete coverage:\n" );
+            sb.append( jsonArray );
+            sb.append( "\n" );
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Describes the coverage of a class, and of its nested classes, optionally
+     * narrowed to the methods of one name.
+     *
+     * @param className  fully qualified name of the class, with {@code .} or {@code /}
+     * @param methodName a method name, or {@code null} for the whole class
+     */
+    public String describe( String className, String methodName )
+    {
+        String name = className.replace( '.', '/' );
+        List<ClassCoverage> matches = new ArrayList<>();
+        if ( classes.containsKey( name ) )
+        {
+            matches.add( classes.get( name ) );
+        }
+        // Nested classes: '%' is the character after '$'.
+        matches.addAll( classes.subMap( name + "$", name + "%" ).values() );
+        if ( matches.isEmpty() )
+        {
+            return "No coverage recorded for " + className + " in " + execFile + ". The class was not executed in that session.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append( "Coverage of " ).append( className );
+        if ( methodName != null )
+        {
+            sb.append( "#" ).append( methodName );
+        }
+        sb.append( " (session " ).append( execFile ).append( ")\n" );
+        boolean anyMethod = false;
+        for ( ClassCoverage cls : matches )
+        {
+            List<MethodCoverage> methods = cls.methods().stream().filter( m -> methodName == null || m.name().equals( methodName ) ).toList();
+            if ( methodName != null && methods.isEmpty() )
+            {
+                continue;
+            }
+            anyMethod = true;
+            sb.append( "\n" ).append( cls.name().replace( '/', '.' ) ).append( " (" ).append( cls.sourceFileName() ).append( ")" );
+            if ( methodName == null )
+            {
+                sb.append( ": " ).append( cls.lines().format( "lines" ) ).append( ", " ).append( cls.branches().format( "branches" ) );
+            }
+            sb.append( "\n" );
+            for ( MethodCoverage method : methods )
+            {
+                sb.append( "- " ).append( method.name() ).append( method.descriptor() );
+                if ( method.firstLine() >= 0 )
+                {
+                    sb.append( " lines " ).append( method.firstLine() ).append( "-" ).append( method.lastLine() );
+                }
+                sb.append( ": " ).append( method.lines().format( "lines" ) ).append( ", " ).append( method.branches().format( "branches" ) ).append( "\n" );
+                appendLines( sb, cls, method.firstLine(), method.lastLine() );
+            }
+        }
+        if ( !anyMethod )
+        {
+            return "No method named " + methodName + " in the coverage of " + className + ".";
+        }
+        return sb.toString();
+    }
+
+    private static void appendLines( StringBuilder sb, ClassCoverage cls, int from, int to )
+    {
+        if ( from < 0 )
+        {
+            return;
+        }
+        List<Integer> uncovered = linesWith( cls, from, to, NOT_COVERED, false );
+        List<Integer> partly = linesWith( cls, from, to, PARTLY_COVERED, false );
+        List<Integer> branches = linesWith( cls, from, to, NOT_COVERED, true );
+        branches.addAll( linesWith( cls, from, to, PARTLY_COVERED, true ) );
+        if ( !uncovered.isEmpty() )
+        {
+            sb.append( "    not covered lines: " ).append( uncovered ).append( "\n" );
+        }
+        if ( !partly.isEmpty() )
+        {
+            sb.append( "    partly covered lines: " ).append( partly ).append( "\n" );
+        }
+        if ( !branches.isEmpty() )
+        {
+            sb.append( "    lines with missed branches: " ).append( branches.stream().sorted().toList() ).append( "\n" );
+        }
+    }
+
+    private static List<Integer> linesWith( ClassCoverage cls, int from, int to, byte status, boolean branch )
+    {
+        List<Integer> lines = new ArrayList<>();
+        for ( int line = from; from >= 0 && line <= to; line++ )
+        {
+            if ( ( branch ? cls.branchStatus( line ) : cls.lineStatus( line ) ) == status )
+            {
+                lines.add( line );
+            }
+        }
+        return lines;
+    }
+}
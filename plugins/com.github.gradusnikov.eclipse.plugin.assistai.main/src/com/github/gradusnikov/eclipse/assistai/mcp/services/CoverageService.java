@@ -3,6 +3,12 @@ package com.github.gradusnikov.eclipse.assistai.mcp.services;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.ILog;
@@ -19,9 +25,16 @@ public class CoverageService
     private static final String ECLEMMA_CORE_BUNDLE = "org.eclipse.eclemma.core";
     private static final String COVERAGE_LAUNCH_MODE = "coverage";
 
+    /** Upper bound between two looks for the session file while waiting for it. */
+    private static final long RESCAN_INTERVAL_MS = 500;
+
     @Inject
     private ILog logger;
 
+    private JacocoCoverageAnalyzer analyzer;
+
+    private volatile CoverageModel latestCoverage;
+
     public boolean isCoverageAvailable()
     {
         return Platform.getBundle( ECLEMMA_CORE_BUNDLE ) != null;
@@ -32,64 +45,118 @@ public class CoverageService
         return COVERAGE_LAUNCH_MODE;
     }
 
+    /**
+     * Waits for EclEmma to write the session file of a launch. The metadata folder
+     * is watched, so the file is picked up as soon as it appears; it is also
+     * looked for at least every {@value #RESCAN_INTERVAL_MS} ms, for file systems
+     * whose watch service polls slowly or drops events.
+     *
+     * @return the path of the first <code>.exec</code> file written since
+     *         <code>launchStartTime</code>, or <code>null</code> if none appeared in time
+     */
     public String waitForLatestCoverageFile( long launchStartTime, int maxWaitMs )
     {
-        Path basePath = ResourcesPlugin.getWorkspace().getRoot().getLocation().toFile().toPath()
-            .resolve( ".metadata" ).resolve( ".plugins" ).resolve( ECLEMMA_CORE_BUNDLE );
+        Path basePath = coverageFolder();
 
         if ( !Files.exists( basePath ) )
         {
             return null;
         }
 
-        int elapsed = 0;
-        int pollInterval = 500;
-        while ( elapsed < maxWaitMs )
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+        try ( WatchService watchService = basePath.getFileSystem().newWatchService() )
         {
-            try
+            // Register before looking, so a file written in between is not missed.
+            registerWithChildren( watchService, basePath );
+            while ( true )
             {
-                var execFile = Files.walk( basePath, 2 )
-                    .filter( p -> p.toString().endsWith( ".exec" ) )
-                    .filter( p -> {
-                        try
-                        {
-                            return Files.getLastModifiedTime( p ).toMillis() >= launchStartTime;
-                        }
-                        catch ( IOException e )
+                String execFile = findExecFileSince( basePath, launchStartTime );
+                if ( execFile != null )
+                {
+                    return execFile;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if ( remaining <= 0 )
+                {
+                    break;
+                }
+                WatchKey key = watchService.poll( Math.min( remaining, RESCAN_INTERVAL_MS ), TimeUnit.MILLISECONDS );
+                if ( key != null )
+                {
+                    for ( WatchEvent<?> event : key.pollEvents() )
+                    {
+                        if ( event.context() instanceof Path child && key.watchable() instanceof Path parent
+                                && parent.equals( basePath ) && Files.isDirectory( parent.resolve( child ) ) )
                         {
-                            return false;
+                            register( watchService, parent.resolve( child ) );
                         }
-                    } )
-                    .findFirst();
-                if ( execFile.isPresent() )
-                {
-                    return execFile.get().toString();
+                    }
+                    key.reset();
                 }
             }
-            catch ( IOException e )
-            {
-                logger.error( "Error searching for coverage files", e );
-                return null;
-            }
-            try
-            {
-                Thread.sleep( pollInterval );
-            }
-            catch ( InterruptedException e )
-            {
-                Thread.currentThread().interrupt();
-                return null;
-            }
-            elapsed += pollInterval;
+        }
+        catch ( IOException e )
+        {
+            logger.error( "Error searching for coverage files", e );
+            return null;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            return null;
         }
         logger.warn( "Coverage exec file not found within " + maxWaitMs + "ms" );
         return null;
     }
 
-    public String findLatestCoverageFile()
+    private static void register( WatchService watchService, Path folder ) throws IOException
+    {
+        folder.register( watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY );
+    }
+
+    /** Watches the folder and its sub-folders, the depth the session files are looked for at. */
+    private static void registerWithChildren( WatchService watchService, Path folder ) throws IOException
+    {
+        register( watchService, folder );
+        try ( Stream<Path> children = Files.list( folder ) )
+        {
+            for ( Path child : children.filter( Files::isDirectory ).toList() )
+            {
+                register( watchService, child );
+            }
+        }
+    }
+
+    private static String findExecFileSince( Path basePath, long launchStartTime ) throws IOException
+    {
+        try ( Stream<Path> files = Files.walk( basePath, 2 ) )
+        {
+            return files.filter( p -> p.toString().endsWith( ".exec" ) )
+                .filter( p -> {
+                    try
+                    {
+                        return Files.getLastModifiedTime( p ).toMillis() >= launchStartTime;
+                    }
+                    catch ( IOException e )
+                    {
+                        return false;
+                    }
+                } )
+                .map( Path::toString )
+                .findFirst()
+                .orElse( null );
+        }
+    }
+
+    private static Path coverageFolder()
     {
-        Path basePath = ResourcesPlugin.getWorkspace().getRoot().getLocation().toFile().toPath()
+        return ResourcesPlugin.getWorkspace().getRoot().getLocation().toFile().toPath()
             .resolve( ".metadata" ).resolve( ".plugins" ).resolve( ECLEMMA_CORE_BUNDLE );
+    }
+
+    public String findLatestCoverageFile()
+    {
+        Path basePath = coverageFolder();
 
         if ( !Files.exists( basePath ) )
         {
@@ -141,7 +208,13 @@ public class CoverageService
         {
             try
             {
-                return new JacocoCoverageAnalyzer( logger ).analyzeCoverage( execFilePath, projectName );
+                CoverageModel model = analyzer().analyze( execFilePath );
+                if ( model.isEmpty() )
+                {
+                    return "\n--- Coverage ---\nNo execution data found in coverage file.\n";
+                }
+                latestCoverage = model;
+                return model.formatReport();
             }
             catch ( Exception | LinkageError e )
             {
@@ -160,6 +233,43 @@ public class CoverageService
         return sb.toString();
     }
 
+    /**
+     * Describes the coverage of a class, or of the methods of one name, as recorded
+     * by the last coverage run. Answered from the retained {@link CoverageModel};
+     * nothing is analysed again.
+     *
+     * @param className  fully qualified name of the class
+     * @param methodName a method name, or <code>null</code> for the whole class
+     */
+    public String getCoverage( String className, String methodName )
+    {
+        CoverageModel model = latestCoverage;
+        if ( model == null )
+        {
+            return "No coverage data yet. Run tests with withCoverage=true first.";
+        }
+        return model.describe( className, methodName == null || methodName.isBlank() ? null : methodName );
+    }
+
+    /** The model of the last analysed coverage run, or <code>null</code>. */
+    public CoverageModel getLatestCoverage()
+    {
+        return latestCoverage;
+    }
+
+    /**
+     * The analyzer, created on first use so that its per-class results are kept
+     * across runs. Only call behind {@link #isCoverageAnalysisAvailable()}.
+     */
+    synchronized JacocoCoverageAnalyzer analyzer()
+    {
+        if ( analyzer == null )
+        {
+            analyzer = new JacocoCoverageAnalyzer( logger );
+        }
+        return analyzer;
+    }
+
     /**
      * Tells whether the optional <code>org.jacoco.core</code> packages are wired
      * to this bundle. They are an optional import, so on an installation without
@@ -1,17 +1,32 @@
 package com.github.gradusnikov.eclipse.assistai.mcp.services;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import org.apache.maven.execution.ExecutionEvent;
 import org.apache.maven.plugin.MojoExecution;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.m2e.core.embedder.MonitorExecutionListener;
 
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
+
 /**
  * Custom Maven execution listener that captures Maven build output and redirects it to the console.
+ * It also times each reactor module, and can mirror the output into an operation's buffer.
  */
 public class CustomMavenExecutionListener extends MonitorExecutionListener {
     
+    /** How long a reactor module took to build, and how it ended. */
+    public record ModuleTiming(String module, long millis, String outcome) {
+    }
+
     private final String consoleName;
     private ConsoleService consoleService;
+    private final Operation operation;
+    private final Map<String, Long> moduleStarts = new ConcurrentHashMap<>();
+    private final List<ModuleTiming> moduleTimings = new CopyOnWriteArrayList<>();
     
     /**
      * Creates a new Maven execution listener that redirects output to the specified console.
@@ -23,9 +38,28 @@ public class CustomMavenExecutionListener extends MonitorExecutionListener {
      */
     public CustomMavenExecutionListener(IProgressMonitor monitor, String consoleName, 
                                         ConsoleService consoleService) {
+        this(monitor, consoleName, consoleService, null);
+    }
+
+    /**
+     * Creates a listener that also appends its output to the operation's output
+     * buffer, so the build can be followed while it runs.
+     *
+     * @param operation The operation running the build, or null
+     */
+    public CustomMavenExecutionListener(IProgressMonitor monitor, String consoleName, 
+                                        ConsoleService consoleService, Operation operation) {
         super(monitor);
         this.consoleService = consoleService;
         this.consoleName = consoleName;
+        this.operation = operation;
+    }
+
+    /**
+     * The modules built so far, in the order they finished.
+     */
+    public List<ModuleTiming> getModuleTimings() {
+        return List.copyOf(moduleTimings);
     }
     
     @Override
@@ -55,21 +89,30 @@ public class CustomMavenExecutionListener extends MonitorExecutionListener {
     @Override
     public void projectStarted(ExecutionEvent event) {
         super.projectStarted(event);
+        moduleStarts.put(event.getProject().getId(), System.currentTimeMillis());
         writeToConsole("Building " + event.getProject().getName() + " " + event.getProject().getVersion());
     }
     
     @Override
     public void projectSucceeded(ExecutionEvent event) {
         super.projectSucceeded(event);
+        recordTiming(event, "SUCCESS");
         writeToConsole("Project " + event.getProject().getName() + " built successfully");
     }
     
     @Override
     public void projectFailed(ExecutionEvent event) {
         super.projectFailed(event);
+        recordTiming(event, "FAILED");
         writeToConsole("Project " + event.getProject().getName() + " build FAILED");
     }
     
+    @Override
+    public void projectSkipped(ExecutionEvent event) {
+        super.projectSkipped(event);
+        writeToConsole("Project " + event.getProject().getName() + " SKIPPED");
+    }
+    
     @Override
     public void mojoStarted(ExecutionEvent event) {
         super.mojoStarted(event);
@@ -105,5 +148,14 @@ public class CustomMavenExecutionListener extends MonitorExecutionListener {
      */
     private void writeToConsole(final String message) {
         consoleService.println( consoleName, message );
+        if (operation != null) {
+            operation.output().append(message + "\n", false);
+        }
+    }
+
+    private void recordTiming(ExecutionEvent event, String outcome) {
+        Long start = moduleStarts.remove(event.getProject().getId());
+        long millis = start != null ? System.currentTimeMillis() - start : 0;
+        moduleTimings.add(new ModuleTiming(event.getProject().getArtifactId(), millis, outcome));
     }
 }
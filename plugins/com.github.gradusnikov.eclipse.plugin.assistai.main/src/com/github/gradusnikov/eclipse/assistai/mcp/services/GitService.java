@@ -7,27 +7,42 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 
 import java.nio.file.Path;
 
 import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.treewalk.TreeWalk;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.egit.core.JobFamilies;
+import org.eclipse.egit.core.internal.indexdiff.IndexDiffCache;
+import org.eclipse.egit.core.internal.indexdiff.IndexDiffCacheEntry;
+import org.eclipse.egit.core.internal.indexdiff.IndexDiffData;
 import org.eclipse.egit.core.project.RepositoryMapping;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ListBranchCommand;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
 import org.eclipse.jgit.diff.RawTextComparator;
 import org.eclipse.jgit.lib.BranchTrackingStatus;
 import org.eclipse.jgit.lib.ObjectId;
@@ -40,12 +55,15 @@ import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.treewalk.FileTreeIterator;
 import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.patch.FileHeader;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.AbstractTreeIterator;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.ui.IEditorPart;
 
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationContext;
 import com.github.gradusnikov.eclipse.assistai.tools.UISynchronizeCallable;
 
 import jakarta.inject.Inject;
@@ -56,6 +74,38 @@ public class GitService
 {
     private static final ConcurrentHashMap<String, ReentrantLock> repoLocks = new ConcurrentHashMap<>();
 
+    /** Rough size of a token, used to turn a token budget into characters. */
+    private static final int CHARS_PER_TOKEN = 4;
+
+    /** Rename candidates beyond which rename detection is skipped, unless the caller sets a limit. */
+    public static final int DEFAULT_RENAME_LIMIT = 200;
+
+    private static final DateTimeFormatter LOG_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss Z");
+
+    /** Log walks left open after a page, at most this many. */
+    private static final int MAX_OPEN_LOG_WALKS = 4;
+
+    /**
+     * A log walk paused after a page, and the commit the next page starts with.
+     * Continuing it keeps the walk's queue, so a history with merges pages exactly
+     * like one long log.
+     */
+    private record LogWalk(RevWalk walk, RevCommit next)
+    {
+    }
+
+    /** Open log walks by repository directory and the id of their next commit; eldest closed first. */
+    private static final Map<String, LogWalk> logWalks = new LinkedHashMap<>();
+
+    /** How long to wait for EGit to apply pending changes to its index diff before scanning instead. */
+    private static final long INDEX_DIFF_WAIT_MILLIS = 2000;
+
+    /** The paths of a status, whether from EGit's index diff or from a scan of the working tree. */
+    private record StatusPaths(Set<String> added, Set<String> changed, Set<String> removed, Set<String> modified,
+            Set<String> missing, Set<String> untracked, Set<String> conflicting)
+    {
+    }
+
     @Inject
     private ILog logger;
 
@@ -98,12 +148,66 @@ public class GitService
         }
     }
 
-    public String getStatus(String projectName)
+    /**
+     * The status of the repository. EGit keeps an index diff of each repository it
+     * manages up to date from resource changes; that is used when it is current,
+     * and the working tree is only scanned when EGit has not computed it yet.
+     */
+    private StatusPaths readStatus(Repository repository) throws Exception
     {
-        Repository repository = getRepository(projectName);
+        IndexDiffData cached = cachedIndexDiff(repository);
+        if (cached != null)
+        {
+            return new StatusPaths(cached.getAdded(), cached.getChanged(), cached.getRemoved(), cached.getModified(),
+                    cached.getMissing(), cached.getUntracked(), cached.getConflicting());
+        }
         try (Git git = new Git(repository))
         {
             var status = git.status().call();
+            return new StatusPaths(status.getAdded(), status.getChanged(), status.getRemoved(), status.getModified(),
+                    status.getMissing(), status.getUntracked(), status.getConflicting());
+        }
+    }
+
+    /**
+     * EGit's index diff of the repository, or null if it has not been computed yet
+     * or updates are still pending after a short wait. Asking for the entry starts
+     * its computation, so later calls find it.
+     */
+    private IndexDiffData cachedIndexDiff(Repository repository)
+    {
+        IndexDiffCache cache = IndexDiffCache.getInstance();
+        IndexDiffCacheEntry entry = cache == null ? null : cache.getIndexDiffCacheEntry(repository);
+        if (entry == null || entry.getIndexDiff() == null)
+        {
+            return null;
+        }
+        long deadline = System.currentTimeMillis() + INDEX_DIFF_WAIT_MILLIS;
+        try
+        {
+            while (Job.getJobManager().find(JobFamilies.INDEX_DIFF_CACHE_UPDATE).length > 0)
+            {
+                if (System.currentTimeMillis() > deadline)
+                {
+                    return null;
+                }
+                Thread.sleep(20);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return entry.getIndexDiff();
+    }
+
+    public String getStatus(String projectName)
+    {
+        Repository repository = getRepository(projectName);
+        try
+        {
+            var status = readStatus(repository);
             var sb = new StringBuilder();
 
             String branch = repository.getBranch();
@@ -130,9 +234,9 @@ public class GitService
             }
             sb.append("\n");
 
-            Set<String> added = status.getAdded();
-            Set<String> changed = status.getChanged();
-            Set<String> removed = status.getRemoved();
+            Set<String> added = new TreeSet<>(status.added());
+            Set<String> changed = new TreeSet<>(status.changed());
+            Set<String> removed = new TreeSet<>(status.removed());
             if (!added.isEmpty() || !changed.isEmpty() || !removed.isEmpty())
             {
                 sb.append("Changes to be committed:\n");
@@ -142,8 +246,8 @@ public class GitService
                 sb.append("\n");
             }
 
-            Set<String> modified = status.getModified();
-            Set<String> missing = status.getMissing();
+            Set<String> modified = new TreeSet<>(status.modified());
+            Set<String> missing = new TreeSet<>(status.missing());
             if (!modified.isEmpty() || !missing.isEmpty())
             {
                 sb.append("Changes not staged for commit:\n");
@@ -152,7 +256,7 @@ public class GitService
                 sb.append("\n");
             }
 
-            Set<String> untracked = status.getUntracked();
+            Set<String> untracked = new TreeSet<>(status.untracked());
             if (!untracked.isEmpty())
             {
                 sb.append("Untracked files:\n");
@@ -160,7 +264,7 @@ public class GitService
                 sb.append("\n");
             }
 
-            Set<String> conflicting = status.getConflicting();
+            Set<String> conflicting = new TreeSet<>(status.conflicting());
             if (!conflicting.isEmpty())
             {
                 sb.append("Unmerged paths:\n");
@@ -183,33 +287,147 @@ public class GitService
         }
     }
 
-    @SuppressWarnings("deprecation")
-	public String getLog(String projectName, int maxCount)
+    /**
+     * The workspace files of the project's repository that differ from HEAD: staged,
+     * modified or untracked. Files outside the workspace are left out.
+     */
+    public List<IFile> getUncommittedFiles(String projectName)
     {
         Repository repository = getRepository(projectName);
-        try (Git git = new Git(repository))
+        try
         {
-            var log = git.log().setMaxCount(maxCount).call();
-            var sb = new StringBuilder();
+            var status = readStatus(repository);
+            Set<String> paths = new TreeSet<>();
+            paths.addAll(status.added());
+            paths.addAll(status.changed());
+            paths.addAll(status.modified());
+            paths.addAll(status.untracked());
+            paths.addAll(status.conflicting());
+
+            IPath workTree = org.eclipse.core.runtime.Path.fromOSString(repository.getWorkTree().getAbsolutePath());
+            var root = ResourcesPlugin.getWorkspace().getRoot();
+            List<IFile> files = new ArrayList<>();
+            for (String path : paths)
+            {
+                IFile file = root.getFileForLocation(workTree.append(path));
+                if (file != null)
+                {
+                    files.add(file);
+                }
+            }
+            return files;
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException("Failed to get git status: " + e.getMessage(), e);
+        }
+    }
+
+    public String getLog(String projectName, int maxCount)
+    {
+        return getLog(projectName, maxCount, null, -1);
+    }
 
-            for (RevCommit commit : log)
+    /**
+     * One page of the commit history.
+     *
+     * @param maxCount  commits per page
+     * @param cursor    the commit to start from, as returned with the previous page,
+     *                  or any revision; HEAD if null
+     * @param maxTokens approximate size of the page in tokens (-1 for unlimited); a
+     *                  page holds at least one commit
+     */
+    public String getLog(String projectName, int maxCount, String cursor, int maxTokens)
+    {
+        Repository repository = getRepository(projectName);
+        int maxChars = maxTokens > 0 ? maxTokens * CHARS_PER_TOKEN : Integer.MAX_VALUE;
+        LogWalk paused = cursor == null || cursor.isBlank() ? null : takeLogWalk(repository, cursor.strip());
+        RevWalk walk = paused != null ? paused.walk() : new RevWalk(repository);
+        boolean keepWalk = false;
+        try
+        {
+            RevCommit commit;
+            if (paused != null)
             {
-                sb.append("commit ").append(commit.getName()).append("\n");
-                PersonIdent author = commit.getAuthorIdent();
-                sb.append("Author: ").append(author.getName())
-                  .append(" <").append(author.getEmailAddress()).append(">\n");
-                var sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss Z");
-                sdf.setTimeZone(author.getTimeZone());
-                sb.append("Date:   ").append(sdf.format(author.getWhen())).append("\n");
-                sb.append("\n    ").append(commit.getFullMessage().trim().replace("\n", "\n    ")).append("\n\n");
+                commit = paused.next();
+            }
+            else
+            {
+                ObjectId start = repository.resolve(cursor == null || cursor.isBlank() ? Constants.HEAD : cursor.strip());
+                if (start == null)
+                {
+                    return cursor == null || cursor.isBlank() ? "No commits yet." : "Error: Unknown revision or cursor '" + cursor + "'.";
+                }
+                walk.markStart(walk.parseCommit(start));
+                commit = walk.next();
             }
 
+            var sb = new StringBuilder();
+            int shown = 0;
+            while (commit != null && shown < maxCount)
+            {
+                String entry = formatLogEntry(commit);
+                if (shown > 0 && sb.length() + entry.length() > maxChars)
+                {
+                    break;
+                }
+                sb.append(entry);
+                shown++;
+                commit = walk.next();
+            }
+            if (commit != null)
+            {
+                putLogWalk(repository, new LogWalk(walk, commit));
+                keepWalk = true;
+                sb.append("(More commits. Continue with cursor=").append(commit.getName()).append(")\n");
+            }
             return sb.toString();
         }
         catch (Exception e)
         {
             throw new RuntimeException("Failed to get git log: " + e.getMessage(), e);
         }
+        finally
+        {
+            if (!keepWalk)
+            {
+                walk.close();
+            }
+        }
+    }
+
+    private static String formatLogEntry(RevCommit commit)
+    {
+        var sb = new StringBuilder();
+        sb.append("commit ").append(commit.getName()).append("\n");
+        PersonIdent author = commit.getAuthorIdent();
+        sb.append("Author: ").append(author.getName())
+          .append(" <").append(author.getEmailAddress()).append(">\n");
+        sb.append("Date:   ").append(LOG_DATE_FORMAT.format(author.getWhenAsInstant().atZone(author.getZoneId()))).append("\n");
+        sb.append("\n    ").append(commit.getFullMessage().trim().replace("\n", "\n    ")).append("\n\n");
+        return sb.toString();
+    }
+
+    private static LogWalk takeLogWalk(Repository repository, String commitId)
+    {
+        synchronized (logWalks)
+        {
+            return logWalks.remove(repository.getDirectory().getAbsolutePath() + ":" + commitId);
+        }
+    }
+
+    private static void putLogWalk(Repository repository, LogWalk logWalk)
+    {
+        synchronized (logWalks)
+        {
+            logWalks.put(repository.getDirectory().getAbsolutePath() + ":" + logWalk.next().getName(), logWalk);
+            Iterator<LogWalk> eldest = logWalks.values().iterator();
+            while (logWalks.size() > MAX_OPEN_LOG_WALKS)
+            {
+                eldest.next().walk().close();
+                eldest.remove();
+            }
+        }
     }
 
     public String addFiles(String projectName, String filePattern)
@@ -444,9 +662,32 @@ public class GitService
     }
 
     public String getDiff(String projectName, boolean staged, String pathFilter, boolean ignoreWhitespace)
+    {
+        return getDiff(projectName, staged, pathFilter, ignoreWhitespace, false, -1, null, DEFAULT_RENAME_LIMIT);
+    }
+
+    /**
+     * One page of the diff of staged or unstaged changes, files in path order.
+     * <p>
+     * In stat mode each file gets one line with its added and removed line counts;
+     * a file is then expanded by asking for its diff with {@code pathFilter}. A
+     * page that does not fit the budget ends with the path to continue from. Inside
+     * a long running tool the files that did not fit are also written to the
+     * operation's output, so they can be paged and searched there.
+     *
+     * @param stat        list per-file summaries instead of patches
+     * @param maxTokens   approximate size of the page in tokens (-1 for unlimited)
+     * @param cursor      the path to continue from, as returned with the previous page
+     * @param renameLimit rename candidates beyond which renames are not detected;
+     *                    0 turns rename detection off
+     */
+    public String getDiff(String projectName, boolean staged, String pathFilter, boolean ignoreWhitespace,
+            boolean stat, int maxTokens, String cursor, int renameLimit)
     {
         Repository repository = getRepository(projectName);
         List<String> repositoryPaths = resolveDiffPaths(projectName, pathFilter);
+        int maxChars = maxTokens > 0 ? maxTokens * CHARS_PER_TOKEN : Integer.MAX_VALUE;
+        String from = cursor == null || cursor.isBlank() ? null : cursor.strip();
 
         try (var out = new ByteArrayOutputStream();
              var formatter = new DiffFormatter(out))
@@ -460,7 +701,11 @@ public class GitService
             RawTextComparator comparator = ignoreWhitespace ? RawTextComparator.WS_IGNORE_ALL : RawTextComparator.DEFAULT;
             formatter.setRepository(repository);
             formatter.setDiffComparator(comparator);
-            formatter.setDetectRenames(true);
+            formatter.setDetectRenames(renameLimit > 0);
+            if (renameLimit > 0)
+            {
+                formatter.getRenameDetector().setRenameLimit(renameLimit);
+            }
             if (!repositoryPaths.isEmpty())
             {
                 formatter.setPathFilter(PathFilterGroup.createFromStrings(repositoryPaths));
@@ -473,12 +718,80 @@ public class GitService
                     ? prepareIndexTreeParser(repository)
                     : new FileTreeIterator(repository);
 
-            List<DiffEntry> diffs = formatter.scan(oldTree, newTree);
+            List<DiffEntry> diffs = new ArrayList<>(formatter.scan(oldTree, newTree));
+            diffs.sort(Comparator.comparing(GitService::diffPath));
+            boolean renamesSkipped = renameLimit > 0 && formatter.getRenameDetector().isOverRenameLimit();
+
+            Optional<Operation> operation = OperationContext.current();
+            var page = new StringBuilder();
+            String next = null;
+            int shown = 0;
+            int remaining = 0;
             for (DiffEntry diff : diffs)
             {
-                formatter.format(diff);
+                String path = diffPath(diff);
+                if (from != null && path.compareTo(from) < 0)
+                {
+                    continue;
+                }
+                if (next != null && (stat || operation.isEmpty()))
+                {
+                    remaining++;
+                    continue;
+                }
+                if (operation.map(Operation::isCancelRequested).orElse(false))
+                {
+                    break;
+                }
+                String text = stat ? formatStat(formatter, diff) : formatPatch(formatter, out, diff);
+                if (next != null)
+                {
+                    remaining++;
+                    operation.get().output().append(text, false);
+                }
+                else if (page.length() + text.length() <= maxChars)
+                {
+                    page.append(text);
+                    shown++;
+                }
+                else if (shown == 0)
+                {
+                    // A single file larger than the budget is cut rather than never shown.
+                    page.append(text, 0, Math.max(0, text.lastIndexOf('\n', maxChars) + 1))
+                        .append("[diff of ").append(path).append(" cut to fit the budget; ask for pathFilter with a larger maxTokens]\n");
+                    shown++;
+                }
+                else
+                {
+                    next = path;
+                    remaining++;
+                    if (!stat && operation.isPresent())
+                    {
+                        operation.get().output().enableSpill();
+                        operation.get().output().append(text, false);
+                    }
+                }
+            }
+
+            if (stat)
+            {
+                page.insert(0, diffs.size() + " file(s) changed\n");
+            }
+            if (renamesSkipped)
+            {
+                page.append("\n(Renames were not detected: more than ").append(renameLimit)
+                    .append(" candidates. Raise renameLimit to detect them.)\n");
+            }
+            if (next != null)
+            {
+                page.append("\n(").append(remaining).append(" more file(s) did not fit the budget. Continue with cursor=").append(next);
+                if (!stat && operation.isPresent())
+                {
+                    page.append(", or read them in this operation's output");
+                }
+                page.append(")\n");
             }
-            return out.toString(StandardCharsets.UTF_8);
+            return page.toString();
         }
         catch (IllegalArgumentException e)
         {
@@ -490,6 +803,42 @@ public class GitService
         }
     }
 
+    private static String diffPath(DiffEntry diff)
+    {
+        return diff.getChangeType() == DiffEntry.ChangeType.DELETE ? diff.getOldPath() : diff.getNewPath();
+    }
+
+    private static String formatPatch(DiffFormatter formatter, ByteArrayOutputStream out, DiffEntry diff) throws IOException
+    {
+        out.reset();
+        formatter.format(diff);
+        formatter.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String formatStat(DiffFormatter formatter, DiffEntry diff) throws IOException
+    {
+        FileHeader header = formatter.toFileHeader(diff);
+        String path = switch (diff.getChangeType())
+        {
+            case RENAME, COPY -> diff.getOldPath() + " -> " + diff.getNewPath();
+            default -> diffPath(diff);
+        };
+        String kind = diff.getChangeType().name().substring(0, 1);
+        if (header.getPatchType() != FileHeader.PatchType.UNIFIED)
+        {
+            return kind + " " + path + "  (binary)\n";
+        }
+        int added = 0;
+        int removed = 0;
+        for (Edit edit : header.toEditList())
+        {
+            added += edit.getLengthB();
+            removed += edit.getLengthA();
+        }
+        return kind + " " + path + "  +" + added + " -" + removed + "\n";
+    }
+
     private List<String> resolveDiffPaths(String projectName, String pathFilter)
     {
         if (pathFilter == null || pathFilter.isBlank())
@@ -709,33 +1058,47 @@ public class GitService
 
     public String getCurrentDiff()
     {
-        return uiSync.syncCall(() -> {
+        // Only the editor lookup needs the UI thread; the diff, which may wait for
+        // EGit's index diff, runs on the caller's.
+        Repository repository = uiSync.syncCall(() -> {
             var activeResource = editorService.getActiveEditor()
                     .map(IEditorPart::getEditorInput)
                     .map(editorInput -> editorInput.getAdapter(IResource.class))
                     .orElseThrow(() -> new RuntimeException("No active resource available."));
             var mapping = RepositoryMapping.getMapping(activeResource);
-            var repository = mapping.getRepository();
-            try (var git = new Git(repository))
+            return mapping.getRepository();
+        });
+        try (var git = new Git(repository))
+        {
+            var head = repository.resolve("HEAD");
+            if (Objects.isNull(head))
             {
-                var head = repository.resolve("HEAD");
-                if (Objects.isNull(head))
-                {
-                    return "Initial commit: No previous commits found.";
-                }
-                else
-                {
-                    var headTree = prepareTreeParser(repository, head);
-                    var indexTree = prepareIndexTreeParser(repository);
-                    var stagedChanges = git.diff().setOldTree(headTree).setNewTree(indexTree).call();
-                    return formatDiffEntries(git.getRepository(), stagedChanges);
-                }
+                return "Initial commit: No previous commits found.";
             }
-            catch (Exception e)
+            else
             {
-                throw new RuntimeException(e);
+                var headTree = prepareTreeParser(repository, head);
+                var diff = git.diff().setOldTree(headTree).setCached(true);
+                IndexDiffData cached = cachedIndexDiff(repository);
+                if (cached != null)
+                {
+                    // Only the staged paths can differ, so the rest of the index is not compared.
+                    Set<String> staged = new TreeSet<>(cached.getAdded());
+                    staged.addAll(cached.getChanged());
+                    staged.addAll(cached.getRemoved());
+                    if (staged.isEmpty())
+                    {
+                        return formatDiffEntries(repository, List.of());
+                    }
+                    diff.setPathFilter(PathFilterGroup.createFromStrings(staged));
+                }
+                return formatDiffEntries(git.getRepository(), diff.call());
             }
-        });
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException(e);
+        }
     }
 
     private static AbstractTreeIterator prepareTreeParser(Repository repository, ObjectId objectId) throws IOException
@@ -2,11 +2,21 @@ package com.github.gradusnikov.eclipse.assistai.mcp.services;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -18,13 +28,23 @@ import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.analysis.ICounter;
-import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.ExecutionDataReader;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.SessionInfoStore;
 
+import com.github.gradusnikov.eclipse.assistai.mcp.services.CoverageModel.ClassCoverage;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.CoverageModel.Counter;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.CoverageModel.MethodCoverage;
+
 /**
- * Reads and reports JaCoCo coverage data.
+ * Reads JaCoCo coverage data into a {@link CoverageModel}.
+ * <p>
+ * The analysis of each recently seen class is kept in an LRU, keyed by a CRC of
+ * its class file and by its execution data, probe for probe, so a later session
+ * re-analyses only the classes that were recompiled or ran differently; those
+ * are analysed in parallel.
  * <p>
  * Every reference to an <code>org.jacoco.*</code> type lives in this class. The
  * JaCoCo packages are an optional import of this bundle, so on an installation
@@ -36,14 +56,38 @@ import org.jacoco.core.data.SessionInfoStore;
  */
 class JacocoCoverageAnalyzer
 {
-    private final ILog logger;
+    private record Analysed( String key, ClassCoverage coverage )
+    {
+    }
+
+    private record Pending( String className, String key, byte[] bytes )
+    {
+    }
+
+    private static final int            MAX_ANALYSED = 10_000;
+
+    private final ILog                  logger;
+
+    /** The last analysis of each class, by class name. */
+    private final Map<String, Analysed> analysed = Collections.synchronizedMap( new LinkedHashMap<>( 16, 0.75f, true )
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<String, Analysed> eldest )
+        {
+            return size() > MAX_ANALYSED;
+        }
+    } );
+
+    private final AtomicInteger         lastAnalysedCount = new AtomicInteger();
 
     JacocoCoverageAnalyzer( ILog logger )
     {
         this.logger = logger;
     }
 
-    String analyzeCoverage( String execFilePath, String projectName ) throws Exception
+    CoverageModel analyze( String execFilePath ) throws IOException
     {
         ExecutionDataStore executionDataStore = new ExecutionDataStore();
         SessionInfoStore sessionInfoStore = new SessionInfoStore();
@@ -56,18 +100,149 @@ class JacocoCoverageAnalyzer
             reader.read();
         }
 
-        Set<String> executedClassNames = executionDataStore.getContents().stream()
-            .map( data -> data.getName() )
-            .collect( Collectors.toSet() );
+        Collection<ExecutionData> executed = executionDataStore.getContents();
+        if ( executed.isEmpty() )
+        {
+            lastAnalysedCount.set( 0 );
+            return new CoverageModel( execFilePath, 0, List.of() );
+        }
 
-        if ( executedClassNames.isEmpty() )
+        List<File> outputLocations = outputLocations();
+        List<ClassCoverage> classes = new ArrayList<>();
+        List<Pending> pending = new ArrayList<>();
+        for ( ExecutionData data : executed )
         {
-            return "\n--- Coverage ---\nNo execution data found in coverage file.\n";
+            String className = data.getName();
+            File classFile = findClassFile( className, outputLocations );
+            if ( classFile == null )
+            {
+                continue;
+            }
+            byte[] bytes;
+            try
+            {
+                bytes = Files.readAllBytes( classFile.toPath() );
+            }
+            catch ( IOException e )
+            {
+                warn( "Skipping class '" + className + "': " + e.getMessage() );
+                continue;
+            }
+            String key = key( bytes, data );
+            Analysed previous = analysed.get( className );
+            if ( previous != null && previous.key().equals( key ) )
+            {
+                classes.add( previous.coverage() );
+            }
+            else
+            {
+                pending.add( new Pending( className, key, bytes ) );
+            }
         }
 
-        CoverageBuilder coverageBuilder = new CoverageBuilder();
-        Analyzer analyzer = new Analyzer( executionDataStore, coverageBuilder );
+        // Analyzer and CoverageBuilder are not thread safe; each task gets its own.
+        // Results are collected here too, as the LRU may already have dropped some.
+        Map<String, ClassCoverage> fresh = new ConcurrentHashMap<>();
+        pending.parallelStream().forEach( task -> {
+            try
+            {
+                CoverageBuilder coverageBuilder = new CoverageBuilder();
+                new Analyzer( executionDataStore, coverageBuilder ).analyzeClass( task.bytes(), task.className() );
+                for ( IClassCoverage cls : coverageBuilder.getClasses() )
+                {
+                    ClassCoverage coverage = toModel( cls );
+                    fresh.put( task.className(), coverage );
+                    analysed.put( task.className(), new Analysed( task.key(), coverage ) );
+                }
+            }
+            catch ( Exception e )
+            {
+                warn( "Skipping class '" + task.className() + "': " + e.getMessage() );
+            }
+        } );
+        for ( Pending task : pending )
+        {
+            ClassCoverage coverage = fresh.get( task.className() );
+            if ( coverage != null )
+            {
+                classes.add( coverage );
+            }
+        }
+        lastAnalysedCount.set( pending.size() );
+        return new CoverageModel( execFilePath, executed.size(), classes );
+    }
+
+    /** Classes analysed by the last {@link #analyze(String)}, rather than taken from earlier sessions. */
+    int lastAnalysedCount()
+    {
+        return lastAnalysedCount.get();
+    }
+
+    /**
+     * The class file's CRC and the execution data itself: the probes are spelled
+     * out bit for bit, as a hash of them could match for a different run.
+     */
+    private static String key( byte[] bytes, ExecutionData data )
+    {
+        CRC32 crc = new CRC32();
+        crc.update( bytes );
+        boolean[] probes = data.getProbes();
+        BitSet hit = new BitSet( probes.length );
+        for ( int i = 0; i < probes.length; i++ )
+        {
+            if ( probes[i] )
+            {
+                hit.set( i );
+            }
+        }
+        return Long.toHexString( crc.getValue() ) + ":" + Long.toHexString( data.getId() ) + ":" + probes.length + ":"
+                + HexFormat.of().formatHex( hit.toByteArray() );
+    }
+
+    private static ClassCoverage toModel( IClassCoverage cls )
+    {
+        int firstLine = cls.getFirstLine();
+        int lastLine = cls.getLastLine();
+        int lineCount = firstLine < 0 ? 0 : lastLine - firstLine + 1;
+        byte[] lineStatus = new byte[lineCount];
+        byte[] branchStatus = new byte[lineCount];
+        for ( int i = 0; i < lineCount; i++ )
+        {
+            lineStatus[i] = (byte) cls.getLine( firstLine + i ).getStatus();
+            ICounter branches = cls.getLine( firstLine + i ).getBranchCounter();
+            branchStatus[i] = branches.getTotalCount() > 0 ? (byte) branches.getStatus() : CoverageModel.EMPTY;
+        }
+        List<MethodCoverage> methods = new ArrayList<>();
+        for ( IMethodCoverage method : cls.getMethods() )
+        {
+            methods.add( new MethodCoverage( method.getName(), method.getDesc(), method.getFirstLine(), method.getLastLine(),
+                    counter( method.getLineCounter() ), counter( method.getBranchCounter() ) ) );
+        }
+        return new ClassCoverage( cls.getName(), cls.getSourceFileName(), lineCount == 0 ? -1 : firstLine, lineStatus, branchStatus,
+                counter( cls.getLineCounter() ), counter( cls.getBranchCounter() ), List.copyOf( methods ) );
+    }
+
+    private static Counter counter( ICounter counter )
+    {
+        return new Counter( counter.getTotalCount(), counter.getCoveredCount() );
+    }
+
+    private static File findClassFile( String className, List<File> outputLocations )
+    {
+        String classFilePath = className.replace( '/', File.separatorChar ) + ".class";
+        for ( File outputLocation : outputLocations )
+        {
+            File classFile = new File( outputLocation, classFilePath );
+            if ( classFile.exists() )
+            {
+                return classFile;
+            }
+        }
+        return null;
+    }
 
+    private static List<File> outputLocations()
+    {
         List<File> outputLocations = new ArrayList<>();
         IProject[] allProjects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
         for ( IProject project : allProjects )
@@ -105,161 +280,14 @@ class JacocoCoverageAnalyzer
                 // skip projects that can't be resolved
             }
         }
-
-        for ( String className : executedClassNames )
-        {
-            String classFilePath = className.replace( '/', File.separatorChar ) + ".class";
-            for ( File outputLocation : outputLocations )
-            {
-                File classFile = new File( outputLocation, classFilePath );
-                if ( classFile.exists() )
-                {
-                    try ( FileInputStream fis = new FileInputStream( classFile ) )
-                    {
-                        analyzer.analyzeAll( fis, className );
-                    }
-                    catch ( Exception e )
-                    {
-                        if ( logger != null )
-                        {
-                            logger.warn( "Skipping class '" + className + "': " + e.getMessage() );
-                        }
-                    }
-                    break;
-                }
-            }
-        }
-
-        return formatReport( coverageBuilder, projectName );
-    }
-
-    private String formatReport( CoverageBuilder coverageBuilder, String projectName )
-    {
-        StringBuilder sb = new StringBuilder();
-        sb.append( "\n--- Coverage Report ---\n" );
-
-        int totalLines = 0;
-        int coveredLines = 0;
-        int totalBranches = 0;
-        int coveredBranches = 0;
-
-        StringBuilder jsonArray = new StringBuilder();
-        jsonArray.append( "[\n" );
-        boolean first = true;
-
-        for ( IPackageCoverage pkg : coverageBuilder.getBundle( projectName ).getPackages() )
-        {
-            String packageName = pkg.getName().replace( '/', '.' );
-            totalLines += pkg.getLineCounter().getTotalCount();
-            coveredLines += pkg.getLineCounter().getCoveredCount();
-            totalBranches += pkg.getBranchCounter().getTotalCount();
-            coveredBranches += pkg.getBranchCounter().getCoveredCount();
-
-            for ( IClassCoverage cls : pkg.getClasses() )
-            {
-                int clsLines = cls.getLineCounter().getTotalCount();
-                if ( clsLines == 0 ) continue;
-
-                List<Integer> uncoveredLines = new ArrayList<>();
-                List<Integer> partiallyCoveredLines = new ArrayList<>();
-                List<Integer> uncoveredBranchLines = new ArrayList<>();
-                List<Integer> partiallyCoveredBranchLines = new ArrayList<>();
-
-                for ( int i = cls.getFirstLine(); i <= cls.getLastLine(); i++ )
-                {
-                    int lineStatus = cls.getLine( i ).getStatus();
-                    if ( lineStatus == ICounter.NOT_COVERED )
-                    {
-                        uncoveredLines.add( i );
-                    }
-                    else if ( lineStatus == ICounter.PARTLY_COVERED )
-                    {
-                        partiallyCoveredLines.add( i );
-                    }
-
-                    int branchTotal = cls.getLine( i ).getBranchCounter().getTotalCount();
-                    if ( branchTotal > 0 )
-                    {
-                        int branchStatus = cls.getLine( i ).getBranchCounter().getStatus();
-                        if ( branchStatus == ICounter.NOT_COVERED )
-                        {
-                            uncoveredBranchLines.add( i );
-                        }
-                        else if ( branchStatus == ICounter.PARTLY_COVERED )
-                        {
-                            partiallyCoveredBranchLines.add( i );
-                        }
-                    }
-                }
-
-                if ( uncoveredLines.isEmpty() && partiallyCoveredLines.isEmpty()
-                    && uncoveredBranchLines.isEmpty() && partiallyCoveredBranchLines.isEmpty() )
-                {
-                    continue;
-                }
-
-                if ( !first ) jsonArray.append( ",\n" );
-                first = false;
-
-                String sourceFile = cls.getSourceFileName() != null ? cls.getSourceFileName()
-                    : cls.getName().substring( cls.getName().lastIndexOf( '/' ) + 1 ) + ".java";
-
-                jsonArray.append( "  {\n" );
-                jsonArray.append( "    \"sourcefile\": \"" ).append( sourceFile ).append( "\",\n" );
-                jsonArray.append( "    \"package\": \"" ).append( packageName ).append( "\",\n" );
-                jsonArray.append( "    \"lines\": {\n" );
-                jsonArray.append( "      \"nocovered\": " ).append( toJsonArray( uncoveredLines ) ).append( ",\n" );
-                jsonArray.append( "      \"partiallycovered\": " ).append( toJsonArray( partiallyCoveredLines ) ).append( "\n" );
-                jsonArray.append( "    },\n" );
-                jsonArray.append( "    \"branch\": {\n" );
-                jsonArray.append( "      \"nocovered\": " ).append( toJsonArray( uncoveredBranchLines ) ).append( ",\n" );
-                jsonArray.append( "      \"partiallycovered\": " ).append( toJsonArray( partiallyCoveredBranchLines ) ).append( "\n" );
-                jsonArray.append( "    }\n" );
-                jsonArray.append( "  }" );
-            }
-        }
-
-        jsonArray.append( "\n]" );
-
-        if ( totalLines > 0 )
-        {
-            int overallLinePct = (int) ( 100.0 * coveredLines / totalLines );
-            sb.append( "Overall: " ).append( overallLinePct ).append( "% line coverage (" )
-                .append( coveredLines ).append( "/" ).append( totalLines ).append( " lines)" );
-            if ( totalBranches > 0 )
-            {
-                int overallBranchPct = (int) ( 100.0 * coveredBranches / totalBranches );
-                sb.append( ", " ).append( overallBranchPct ).append( "% branch coverage (" )
-                    .append( coveredBranches ).append( "/" ).append( totalBranches ).append( " branches)" );
-            }
-            sb.append( "\n\n" );
-        }
-
-        if ( first )
-        {
-            sb.append( "All classes fully covered.\n" );
-        }
-        else
-        {
-            sb.append( "Classes with incomplete coverage:\n" );
-            sb.append( jsonArray );
-            sb.append( "\n" );
-        }
-
-        return sb.toString();
+        return outputLocations;
     }
 
-    private String toJsonArray( List<Integer> values )
+    private void warn( String message )
     {
-        if ( values.isEmpty() ) return "[]";
-        StringBuilder sb = new StringBuilder();
-        sb.append( "[" );
-        for ( int i = 0; i < values.size(); i++ )
+        if ( logger != null )
         {
-            if ( i > 0 ) sb.append( ", " );
-            sb.append( values.get( i ) );
+            logger.warn( message );
         }
-        sb.append( "]" );
-        return sb.toString();
     }
 }
@@ -5,11 +5,10 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.e4.core.di.annotations.Creatable;
@@ -23,7 +22,6 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.IType;
-import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jface.text.Document;
 import org.eclipse.ui.editors.text.TextFileDocumentProvider;
@@ -51,6 +49,12 @@ public class JavaDocService
     @Inject
     private ClassFileDecompiler classFileDecompiler;
 
+    @Inject
+    private TypeLocator         typeLocator;
+
+    @Inject
+    private AttachmentCache     attachmentCache;
+
     /**
      * Retrieves the attached JavaDoc documentation for a given class within the
      * available Java projects. It searches all projects for the JavaDoc and if
@@ -64,7 +68,7 @@ public class JavaDocService
      */
     public String getJavaDoc( String fullyQualifiedClassName )
     {
-        return getAvailableJavaProjects().stream().map( project -> getAttachedJavadoc( fullyQualifiedClassName, project ) ).filter( Objects::nonNull )
+        return findTypes( fullyQualifiedClassName ).map( this::getCachedJavadoc ).filter( Objects::nonNull )
                 .filter( Predicate.not( String::isBlank ) ).findAny().orElse( "JavaDoc is not available for " + fullyQualifiedClassName );
     }
 
@@ -89,7 +93,8 @@ public class JavaDocService
     /**
      * Retrieves a list of all available Java projects in the current workspace.
      * It filters out non-Java projects and only includes projects that are open
-     * and have the Java nature.
+     * and have the Java nature. The list is the one cached by the shared
+     * {@link TypeLocator}.
      *
      * @return A list of {@link IJavaProject} representing the available Java
      *         projects.
@@ -98,71 +103,150 @@ public class JavaDocService
      */
     public List<IJavaProject> getAvailableJavaProjects()
     {
-        List<IJavaProject> javaProjects = new ArrayList<>();
+        return typeLocator != null ? typeLocator.getJavaProjects() : TypeLocator.listJavaProjects();
+    }
 
-        try
+    /**
+     * Resolves a class name to its types, for the callers to try in turn: those of
+     * {@link TypeLocator#findAll}, workspace source first, or - for a service
+     * created without a locator - the type as seen by each available project.
+     *
+     * @param fullyQualifiedClassName
+     *            The fully qualified name of the class.
+     * @return The resolved types, empty if no project resolves the name.
+     */
+    private Stream<IType> findTypes( String fullyQualifiedClassName )
+    {
+        if ( typeLocator != null )
         {
-            // Get all projects in the workspace
-            IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
-
-            // Filter out the Java projects
-            for ( IProject project : projects )
+            return typeLocator.findAll( fullyQualifiedClassName );
+        }
+        List<IType> types = new ArrayList<>();
+        for ( IJavaProject javaProject : getAvailableJavaProjects() )
+        {
+            try
             {
-                if ( project.isOpen() && project.hasNature( JavaCore.NATURE_ID ) )
+                IType type = javaProject.findType( fullyQualifiedClassName );
+                if ( type != null )
                 {
-                    IJavaProject javaProject = JavaCore.create( project );
-                    javaProjects.add( javaProject );
+                    types.add( type );
                 }
             }
+            catch ( JavaModelException e )
+            {
+                logger.error( e.getMessage(), e );
+            }
         }
-        catch ( CoreException e )
+        return types.stream();
+    }
+
+    /**
+     * The JavaDoc of a resolved class, from the {@link AttachmentCache} when the
+     * class comes from a library.
+     */
+    private String getCachedJavadoc( IType type )
+    {
+        try
+        {
+            if ( attachmentCache == null )
+            {
+                return getAttachedJavadoc( type );
+            }
+            return attachmentCache.get( type, "javadoc", element -> getAttachedJavadoc( (IType) element ) );
+        }
+        catch ( IncompleteJavadocException e )
+        {
+            // Returned, but never cached: the next request reads it again.
+            logger.error( e.getCause().getMessage(), e.getCause() );
+            return e.partial;
+        }
+    }
+
+    /**
+     * The original or attached source of a resolved class, from the
+     * {@link AttachmentCache} when the class comes from a library.
+     */
+    private String getCachedSource( IType type ) throws JavaModelException
+    {
+        if ( attachmentCache == null )
         {
-            throw new RuntimeException( e );
+            return getAttachedSource( type );
         }
+        return attachmentCache.get( type, "source", element -> {
+            try
+            {
+                return getAttachedSource( (IType) element );
+            }
+            catch ( JavaModelException e )
+            {
+                logger.error( "Could not read the attached source of " + element.getElementName(), e );
+                return null;
+            }
+        } );
+    }
 
-        return javaProjects;
+    private String getAttachedSource( IType type ) throws JavaModelException
+    {
+        IClassFile classFile = type.getClassFile();
+        String attachedSource = classFile == null ? type.getSource() : classFile.getSource();
+        if ( ( attachedSource == null || attachedSource.isBlank() ) && classFile != null )
+        {
+            attachedSource = type.getSource();
+        }
+        return attachedSource;
     }
 
     /**
-     * Gathers and returns JavaDoc information for a specified class within a
-     * given Java project. It retrieves the JavaDoc by looking up the type
-     * corresponding to the fully qualified class name and extracting its
-     * documentation, as well as the documentation of its children elements.
+     * Gathers and returns JavaDoc information for a resolved class. It
+     * extracts the type's documentation, as well as the documentation of its
+     * children elements.
      *
-     * @param fullyQualifiedClassName
-     *            The fully qualified name of the class for which to retrieve
-     *            JavaDoc.
-     * @param javaProject
-     *            The Java project within which to search for the class.
+     * @param type
+     *            The type for which to retrieve JavaDoc.
      * @return A string containing the JavaDoc for the class and its children,
      *         or an empty string if not found.
+     * @throws IncompleteJavadocException
+     *             carrying what was read, if reading stopped part way.
      */
-    private String getAttachedJavadoc( String fullyQualifiedClassName, IJavaProject javaProject )
+    private String getAttachedJavadoc( IType type )
     {
         String javaDoc = "";
+        var converter = FlexmarkHtmlConverter.builder().build();
         try
         {
-            IType type = javaProject.findType( fullyQualifiedClassName );
-            if ( Objects.nonNull( type ) )
-            {
-                javaDoc += getMemberJavaDoc( (IMember) type );
+            javaDoc += getMemberJavaDoc( (IMember) type );
 
-                for ( IJavaElement child : type.getChildren() )
-                {
-                    javaDoc += getMemberJavaDoc( (IMember) child );
-                }
+            for ( IJavaElement child : type.getChildren() )
+            {
+                javaDoc += getMemberJavaDoc( (IMember) child );
             }
         }
         catch ( JavaModelException e )
         {
-            logger.error( e.getMessage(), e );
+            throw new IncompleteJavadocException( converter.convert( javaDoc ), e );
         }
 
-        var converter = FlexmarkHtmlConverter.builder().build();
         String markdown = converter.convert( javaDoc );
         return markdown;
     }
 
+    /**
+     * The JavaDoc of a class could only be read in part. Thrown through the
+     * {@link AttachmentCache} loader, so the partial text is not cached.
+     */
+    private static class IncompleteJavadocException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final String      partial;
+
+        IncompleteJavadocException( String partial, JavaModelException cause )
+        {
+            super( cause );
+            this.partial = partial;
+        }
+    }
+
     /**
      * Retrieves the JavaDoc documentation for a given member of a Java project.
      * This method extracts the JavaDoc directly if it is attached to the
@@ -330,16 +414,10 @@ public class JavaDocService
     {
         final String toolName = "getSource";
 
-        for ( IJavaProject javaProject : getAvailableJavaProjects() )
+        for ( IType type : (Iterable<IType>) findTypes( fullyQualifiedClassName )::iterator )
         {
             try
             {
-                IType type = javaProject.findType( fullyQualifiedClassName );
-                if ( type == null )
-                {
-                    continue;
-                }
-
                 IResource resource = getTypeResource( type );
                 if ( resource instanceof IFile file )
                 {
@@ -357,11 +435,7 @@ public class JavaDocService
                 }
 
                 IClassFile classFile = type.getClassFile();
-                String attachedSource = classFile == null ? type.getSource() : classFile.getSource();
-                if ( ( attachedSource == null || attachedSource.isBlank() ) && classFile != null )
-                {
-                    attachedSource = type.getSource();
-                }
+                String attachedSource = getCachedSource( type );
                 if ( attachedSource != null && !attachedSource.isBlank() )
                 {
                     return ResourceToolResult.fromJavaType( type, attachedSource, toolName );
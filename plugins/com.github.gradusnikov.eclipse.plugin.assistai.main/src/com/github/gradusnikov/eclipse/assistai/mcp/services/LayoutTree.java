@@ -0,0 +1,316 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The files and folders of one project as a tree of names, rendered as a
+ * Markdown list within a size budget.
+ * <p>
+ * Paths are project relative and use {@code /}. Folders are listed before files,
+ * both by name. A folder with more than {@value #MAX_CHILDREN} children lists the
+ * first {@value #SHOWN_WHEN_SUMMARISED} and sums up the rest by file extension,
+ * unless it is the folder being rendered. A derived folder is kept as a single
+ * entry without children. When the budget runs out the page ends with a cursor:
+ * the path of the first entry not shown, from which the next page continues.
+ * <p>
+ * Thread safe.
+ */
+public final class LayoutTree
+{
+    static final int MAX_CHILDREN          = 50;
+
+    static final int SHOWN_WHEN_SUMMARISED = 30;
+
+    /**
+     * @param nextCursor the path to continue from, or {@code null} if the listing is complete
+     */
+    public record Page( String text, String nextCursor )
+    {
+    }
+
+    private static final class Node
+    {
+        final String          name;
+
+        final boolean         folder;
+
+        boolean               derived;
+
+        /** Children by name; {@code null} for files. */
+        final Map<String, Node> children;
+
+        Node( String name, boolean folder )
+        {
+            this.name = name;
+            this.folder = folder;
+            this.children = folder ? new TreeMap<>() : null;
+        }
+    }
+
+    private final Node root;
+
+    private int        size;
+
+    public LayoutTree( String rootName )
+    {
+        this.root = new Node( rootName, true );
+    }
+
+    /**
+     * Adds a file or folder, and any missing folders above it. Marking a folder
+     * derived drops what it held.
+     */
+    public synchronized void put( String path, boolean folder, boolean derived )
+    {
+        Node parent = root;
+        String[] segments = path.split( "/" );
+        for ( int i = 0; i < segments.length - 1; i++ )
+        {
+            Node next = parent.children.get( segments[i] );
+            if ( next == null || !next.folder )
+            {
+                next = new Node( segments[i], true );
+                parent.children.put( segments[i], next );
+                size++;
+            }
+            else if ( next.derived )
+            {
+                // Nothing below a derived folder is kept.
+                return;
+            }
+            parent = next;
+        }
+        String name = segments[segments.length - 1];
+        Node node = parent.children.get( name );
+        if ( node == null || node.folder != folder )
+        {
+            if ( node != null )
+            {
+                size -= count( node );
+            }
+            node = new Node( name, folder );
+            parent.children.put( name, node );
+            size++;
+        }
+        if ( derived && folder && !node.derived )
+        {
+            size -= count( node ) - 1;
+            node.children.clear();
+        }
+        node.derived = derived;
+    }
+
+    public synchronized void remove( String path )
+    {
+        Node parent = root;
+        String[] segments = path.split( "/" );
+        for ( int i = 0; i < segments.length - 1 && parent != null; i++ )
+        {
+            Node next = parent.children.get( segments[i] );
+            parent = next != null && next.folder ? next : null;
+        }
+        if ( parent != null )
+        {
+            Node removed = parent.children.remove( segments[segments.length - 1] );
+            if ( removed != null )
+            {
+                size -= count( removed );
+            }
+        }
+    }
+
+    /** Entries in the tree, not counting the root. */
+    public synchronized int size()
+    {
+        return size;
+    }
+
+    /**
+     * Renders the tree below a folder.
+     *
+     * @param scope    project relative path of the folder to list, or empty for the project
+     * @param maxDepth levels below {@code scope} to list, or 0 or less for all
+     * @param maxChars size budget of the entries; at least one entry is always shown
+     * @param cursor   the path to start from, as returned in a previous page, or {@code null}
+     * @return the page, or {@code null} if {@code scope} or {@code cursor} is not in the tree
+     */
+    public synchronized Page render( String scope, int maxDepth, int maxChars, String cursor )
+    {
+        Node start = root;
+        String startPath = "";
+        if ( scope != null && !scope.isEmpty() )
+        {
+            for ( String segment : scope.split( "/" ) )
+            {
+                Node next = start.children == null ? null : start.children.get( segment );
+                if ( next == null )
+                {
+                    return null;
+                }
+                start = next;
+            }
+            startPath = scope;
+        }
+        Renderer renderer = new Renderer( start, maxDepth > 0 ? maxDepth : Integer.MAX_VALUE, maxChars, cursor );
+        renderer.walk( start, startPath, 0, new ArrayList<>() );
+        if ( !renderer.started )
+        {
+            return null;
+        }
+        return new Page( renderer.out.toString(), renderer.next );
+    }
+
+    private static final class Renderer
+    {
+        final Node          scope;
+
+        final int           maxDepth;
+
+        final int           maxChars;
+
+        final String        cursor;
+
+        final StringBuilder out = new StringBuilder();
+
+        boolean             started;
+
+        int                 entries;
+
+        String              next;
+
+        Renderer( Node scope, int maxDepth, int maxChars, String cursor )
+        {
+            this.scope = scope;
+            this.maxDepth = maxDepth;
+            this.maxChars = maxChars;
+            this.cursor = cursor;
+            this.started = cursor == null || cursor.isEmpty();
+        }
+
+        /** @return false once the budget is used up */
+        boolean walk( Node node, String path, int depth, List<String> context )
+        {
+            String line = "  ".repeat( depth ) + "- " + node.name + ( node.folder ? "/" : "" ) + suffix( node, depth ) + "\n";
+            if ( !started )
+            {
+                if ( path.equals( cursor ) )
+                {
+                    started = true;
+                    // Repeat the folders above the cursor so the page reads as a tree.
+                    context.forEach( out::append );
+                }
+                else if ( node != scope && !cursor.startsWith( path + "/" ) )
+                {
+                    return true;
+                }
+            }
+            if ( started )
+            {
+                if ( entries > 0 && out.length() + line.length() > maxChars )
+                {
+                    next = path;
+                    return false;
+                }
+                out.append( line );
+                entries++;
+            }
+            if ( !node.folder || node.derived || depth >= maxDepth )
+            {
+                return true;
+            }
+            List<Node> ordered = new ArrayList<>( node.children.size() );
+            node.children.values().stream().filter( child -> child.folder ).forEach( ordered::add );
+            node.children.values().stream().filter( child -> !child.folder ).forEach( ordered::add );
+            int shown = node != scope && ordered.size() > MAX_CHILDREN ? SHOWN_WHEN_SUMMARISED : ordered.size();
+            List<String> childContext = started ? context : append( context, line );
+            for ( int i = 0; i < shown; i++ )
+            {
+                Node child = ordered.get( i );
+                if ( !walk( child, path.isEmpty() ? child.name : path + "/" + child.name, depth + 1, childContext ) )
+                {
+                    return false;
+                }
+            }
+            if ( shown < ordered.size() && started )
+            {
+                String summary = "  ".repeat( depth + 1 ) + "- ... " + summarise( ordered.subList( shown, ordered.size() ) )
+                        + " (list with scopePath=" + path + ")\n";
+                out.append( summary );
+            }
+            return true;
+        }
+
+        private String suffix( Node node, int depth )
+        {
+            if ( node.derived )
+            {
+                return " (derived, not listed)";
+            }
+            if ( node.folder && depth >= maxDepth && !node.children.isEmpty() )
+            {
+                return " (" + node.children.size() + " items)";
+            }
+            return "";
+        }
+
+        private static List<String> append( List<String> context, String line )
+        {
+            List<String> copy = new ArrayList<>( context );
+            copy.add( line );
+            return copy;
+        }
+    }
+
+    /** "12 more folders, 340 more files (*.java 300, *.xml 40)" */
+    private static String summarise( List<Node> nodes )
+    {
+        int folders = 0;
+        Map<String, Integer> extensions = new TreeMap<>();
+        for ( Node node : nodes )
+        {
+            if ( node.folder )
+            {
+                folders++;
+            }
+            else
+            {
+                int dot = node.name.lastIndexOf( '.' );
+                extensions.merge( dot > 0 ? "*" + node.name.substring( dot ) : "other", 1, Integer::sum );
+            }
+        }
+        int files = nodes.size() - folders;
+        StringBuilder summary = new StringBuilder();
+        if ( folders > 0 )
+        {
+            summary.append( folders ).append( " more folders" );
+        }
+        if ( files > 0 )
+        {
+            summary.append( folders > 0 ? ", " : "" ).append( files ).append( " more files (" );
+            List<Map.Entry<String, Integer>> byCount = new ArrayList<>( extensions.entrySet() );
+            byCount.sort( Map.Entry.<String, Integer> comparingByValue().reversed() );
+            for ( int i = 0; i < byCount.size() && i < 5; i++ )
+            {
+                summary.append( i > 0 ? ", " : "" ).append( byCount.get( i ).getKey() ).append( " " ).append( byCount.get( i ).getValue() );
+            }
+            summary.append( byCount.size() > 5 ? ", ...)" : ")" );
+        }
+        return summary.toString();
+    }
+
+    private static int count( Node node )
+    {
+        int count = 1;
+        if ( node.children != null )
+        {
+            for ( Node child : node.children.values() )
+            {
+                count += count( child );
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.util.Arrays;
+
+/**
+ * The start offset of every line of a text, built in one pass, so turning a
+ * character offset into a line is a binary search instead of a walk from the top
+ * of the file.
+ * <p>
+ * {@code \n}, {@code \r\n} and a lone {@code \r} all end a line, the same as
+ * {@link java.io.BufferedReader#readLine()} and Eclipse's documents. Line numbers
+ * are 0-based, like {@code IDocument.getLineOfOffset}.
+ * <p>
+ * Immutable, so one instance can be shared between threads.
+ */
+public final class LineIndex
+{
+    private final String text;
+
+    /** {@code lineStarts[i]} is the offset of the first character of line {@code i}. */
+    private final int[]  lineStarts;
+
+    private final int    lineCount;
+
+    private LineIndex( String text, int[] lineStarts, int lineCount )
+    {
+        this.text = text;
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+    }
+
+    public static LineIndex of( String text )
+    {
+        String content = text == null ? "" : text;
+        int[] starts = new int[Math.max( 16, content.length() / 32 )];
+        int count = 1;
+        int length = content.length();
+        for ( int i = 0; i < length; i++ )
+        {
+            char c = content.charAt( i );
+            if ( c == '\n' || c == '\r' )
+            {
+                if ( c == '\r' && i + 1 < length && content.charAt( i + 1 ) == '\n' )
+                {
+                    i++;
+                }
+                if ( count == starts.length )
+                {
+                    starts = Arrays.copyOf( starts, count * 2 );
+                }
+                starts[count++] = i + 1;
+            }
+        }
+        return new LineIndex( content, starts, count );
+    }
+
+    /** The indexed text. */
+    public String text()
+    {
+        return text;
+    }
+
+    /**
+     * Number of lines. A text ending with a line terminator has an empty last line,
+     * as in an Eclipse document.
+     */
+    public int lineCount()
+    {
+        return lineCount;
+    }
+
+    /**
+     * The 0-based line containing an offset. Offsets past the end map to the last
+     * line and negative ones to the first.
+     */
+    public int getLineOfOffset( int offset )
+    {
+        if ( offset <= 0 )
+        {
+            return 0;
+        }
+        int found = Arrays.binarySearch( lineStarts, 0, lineCount, offset );
+        // Not found: the insertion point is the line after the one holding the offset.
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /** Offset of the first character of a 0-based line. */
+    public int getLineOffset( int line )
+    {
+        return lineStarts[line];
+    }
+
+    /** The text of a 0-based line, without its terminator. */
+    public String getLine( int line )
+    {
+        int start = lineStarts[line];
+        int end = line + 1 < lineCount ? lineStarts[line + 1] : text.length();
+        while ( end > start && ( text.charAt( end - 1 ) == '\n' || text.charAt( end - 1 ) == '\r' ) )
+        {
+            end--;
+        }
+        return text.substring( start, end );
+    }
+
+    /** Rough heap footprint, for keeping a cache of these within bounds. */
+    long estimatedBytes()
+    {
+        return 2L * text.length() + 4L * lineStarts.length;
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.e4.core.di.annotations.Creatable;
+
+import com.github.gradusnikov.eclipse.assistai.tools.ResourceUtilities;
+
+import jakarta.inject.Singleton;
+
+/**
+ * Hands out {@link LineIndex}es for workspace files, reading and indexing each
+ * file once per modification stamp.
+ * <p>
+ * Search and reference results arrive as character offsets, often hundreds of them
+ * in the same file. Reading and splitting the file for every match made a search
+ * with many hits in a large file quadratic; with the index shared here each hit is
+ * a cache lookup and a binary search.
+ * <p>
+ * The cache holds the most recently used files, up to {@value #MAX_CACHE_BYTES}
+ * bytes of text. Safe to call from several threads at once - text search reports
+ * matches concurrently.
+ */
+@Creatable
+@Singleton
+public class LineIndexService
+{
+    static final long                     MAX_CACHE_BYTES = 64L * 1024 * 1024;
+
+    private final Map<IPath, CachedIndex> cache           = new LinkedHashMap<>( 64, 0.75f, true );
+
+    private long                          cachedBytes;
+
+    private record CachedIndex( long modificationStamp, LineIndex index )
+    {
+    }
+
+    /**
+     * The index of a file's current content, read from the workspace only if the
+     * file changed since it was last indexed.
+     */
+    public LineIndex getLineIndex( IFile file ) throws IOException, CoreException
+    {
+        IPath path = file.getFullPath();
+        long stamp = file.getModificationStamp();
+        synchronized ( cache )
+        {
+            CachedIndex cached = cache.get( path );
+            if ( cached != null && cached.modificationStamp() == stamp && stamp != IResource.NULL_STAMP )
+            {
+                return cached.index();
+            }
+        }
+        // Read outside the lock; two threads racing on the same file just both index it.
+        LineIndex index = LineIndex.of( ResourceUtilities.readFileContent( file ) );
+        if ( stamp != IResource.NULL_STAMP )
+        {
+            put( path, new CachedIndex( stamp, index ) );
+        }
+        return index;
+    }
+
+    /**
+     * Resolves an offset in a file to its 1-based line number and the line's text.
+     *
+     * @return the line, or {@code null} if the file cannot be read
+     */
+    public Line getLine( IFile file, int offset )
+    {
+        try
+        {
+            LineIndex index = getLineIndex( file );
+            int line = index.getLineOfOffset( offset );
+            return new Line( line + 1, index.getLine( line ) );
+        }
+        catch ( IOException | CoreException e )
+        {
+            return null;
+        }
+    }
+
+    /** A line located by offset. */
+    public record Line( int lineNumber, String content )
+    {
+    }
+
+    /** Forgets every cached index. */
+    public void clear()
+    {
+        synchronized ( cache )
+        {
+            cache.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    private void put( IPath path, CachedIndex entry )
+    {
+        long bytes = entry.index().estimatedBytes();
+        if ( bytes > MAX_CACHE_BYTES / 4 )
+        {
+            // One huge file would flush everything else; let it be re-read instead.
+            return;
+        }
+        synchronized ( cache )
+        {
+            CachedIndex previous = cache.put( path, entry );
+            if ( previous != null )
+            {
+                cachedBytes -= previous.index().estimatedBytes();
+            }
+            cachedBytes += bytes;
+            Iterator<CachedIndex> eldest = cache.values().iterator();
+            while ( cachedBytes > MAX_CACHE_BYTES && eldest.hasNext() )
+            {
+                cachedBytes -= eldest.next().index().estimatedBytes();
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFileState;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+
+import com.github.gradusnikov.eclipse.assistai.tools.ResourceUtilities;
+
+import jakarta.inject.Singleton;
+
+/**
+ * What is known about the Local History of files, so browsing it does not read
+ * every version again on each call.
+ * <p>
+ * A history state never changes once written, so its size and content hash are
+ * read once and kept, keyed by the file's path and the state's time stamp. The
+ * contents of recently read states and the diffs between pairs of contents (by
+ * hash) are kept in small LRU caches. Diffs use JGit's Myers implementation,
+ * which works in linear space.
+ */
+@Creatable
+@Singleton
+public class LocalHistoryIndex
+{
+    /** Size in bytes and SHA-1 of one version's content. */
+    public record StateInfo( long size, String hash )
+    {
+    }
+
+    /**
+     * Result of {@link #origin}: the oldest version in the unbroken run of
+     * versions, newest first, that contain the line; -1 if even the newest does
+     * not. {@code probes} is the number of versions that were read.
+     */
+    public record Origin( int index, int probes )
+    {
+    }
+
+    private static final int MAX_STATES   = 4096;
+
+    private static final int MAX_CONTENTS = 16;
+
+    private static final int MAX_DIFFS    = 32;
+
+    private final Map<String, StateInfo> states   = lru( MAX_STATES );
+
+    private final Map<String, byte[]>    contents = lru( MAX_CONTENTS );
+
+    private final Map<String, String>    diffs    = lru( MAX_DIFFS );
+
+    public StateInfo info( IFileState state ) throws CoreException
+    {
+        StateInfo info;
+        synchronized ( states )
+        {
+            info = states.get( key( state ) );
+        }
+        if ( info == null )
+        {
+            info = describe( contents( state ) );
+            synchronized ( states )
+            {
+                states.put( key( state ), info );
+            }
+        }
+        return info;
+    }
+
+    public byte[] contents( IFileState state ) throws CoreException
+    {
+        String key = key( state );
+        byte[] content;
+        synchronized ( contents )
+        {
+            content = contents.get( key );
+        }
+        if ( content == null )
+        {
+            try ( InputStream in = state.getContents() )
+            {
+                content = ResourceUtilities.readInputStream( in );
+            }
+            catch ( IOException e )
+            {
+                throw new RuntimeException( "Error reading history state of " + state.getFullPath() + ": " + e.getMessage(), e );
+            }
+            synchronized ( contents )
+            {
+                contents.put( key, content );
+            }
+            synchronized ( states )
+            {
+                states.putIfAbsent( key, describe( content ) );
+            }
+        }
+        return content;
+    }
+
+    /**
+     * The unified diff hunks (three lines of context) turning one content into
+     * the other, or a note when they are equal or binary.
+     */
+    public String diff( byte[] oldContent, byte[] newContent, Charset charset )
+    {
+        String key = describe( oldContent ).hash() + ".." + describe( newContent ).hash() + "@" + charset.name();
+        synchronized ( diffs )
+        {
+            String cached = diffs.get( key );
+            if ( cached != null )
+            {
+                return cached;
+            }
+        }
+        String diff = computeDiff( oldContent, newContent, charset );
+        synchronized ( diffs )
+        {
+            diffs.put( key, diff );
+        }
+        return diff;
+    }
+
+    /**
+     * Finds where a line entered the file by binary search over its history,
+     * newest first: the line is assumed to be present in the newest versions
+     * down to some index and absent from all older ones, so only about log2(n)
+     * versions are read. Lines are compared with surrounding whitespace trimmed.
+     */
+    public Origin origin( IFileState[] history, String line, Charset charset ) throws CoreException
+    {
+        String wanted = line.strip();
+        Map<String, Boolean> seen = new HashMap<>();
+        int probes = 0;
+        int low = 0;
+        int high = history.length - 1;
+        int found = -1;
+        while ( low <= high )
+        {
+            int middle = ( low + high ) >>> 1;
+            IFileState state = history[middle];
+            boolean present = false;
+            if ( state.exists() )
+            {
+                String hash = info( state ).hash();
+                Boolean known = seen.get( hash );
+                if ( known == null )
+                {
+                    probes++;
+                    known = containsLine( new String( contents( state ), charset ), wanted );
+                    seen.put( hash, known );
+                }
+                present = known;
+            }
+            if ( present )
+            {
+                found = middle;
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        return new Origin( found, probes );
+    }
+
+    static boolean containsLine( String content, String wanted )
+    {
+        return content.lines().anyMatch( candidate -> candidate.strip().equals( wanted ) );
+    }
+
+    static StateInfo describe( byte[] content )
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance( "SHA-1" ).digest( content );
+            return new StateInfo( content.length, HexFormat.of().formatHex( digest ) );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static String computeDiff( byte[] oldContent, byte[] newContent, Charset charset )
+    {
+        if ( RawText.isBinary( oldContent ) || RawText.isBinary( newContent ) )
+        {
+            return "Binary content differs.\n";
+        }
+        RawText oldText = new RawText( oldContent );
+        RawText newText = new RawText( newContent );
+        EditList edits = DiffAlgorithm.getAlgorithm( DiffAlgorithm.SupportedAlgorithm.MYERS )
+                                      .diff( RawTextComparator.DEFAULT, oldText, newText );
+        if ( edits.isEmpty() )
+        {
+            return "(no differences)\n";
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try ( DiffFormatter formatter = new DiffFormatter( out ) )
+        {
+            formatter.format( edits, oldText, newText );
+            formatter.flush();
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( "Error formatting diff: " + e.getMessage(), e );
+        }
+        return out.toString( charset );
+    }
+
+    private static String key( IFileState state )
+    {
+        return state.getFullPath() + "@" + state.getModificationTime();
+    }
+
+    private static <V> Map<String, V> lru( int max )
+    {
+        return new LinkedHashMap<>( 16, 0.75f, true )
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, V> eldest )
+            {
+                return size() > max;
+            }
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.gradusnikov.eclipse.assistai.mcp.services;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -34,6 +35,9 @@ public class LocalHistoryService
     @Inject
     AiIgnoreService aiIgnoreService;
 
+    @Inject
+    LocalHistoryIndex historyIndex;
+
     private static final DateTimeFormatter TIMESTAMP_FMT = DateTimeFormatter
             .ofPattern( "yyyy-MM-dd HH:mm:ss" )
             .withZone( ZoneId.systemDefault() );
@@ -59,16 +63,24 @@ public class LocalHistoryService
 
             StringBuilder sb = new StringBuilder();
             sb.append( "# Local History for " ).append( filePath ).append( "\n\n" );
-            sb.append( String.format( "%-6s  %-20s  %s\n", "Index", "Timestamp", "Size" ) );
-            sb.append( "-".repeat( 50 ) ).append( "\n" );
+            sb.append( String.format( "%-6s  %-20s  %-10s  %s\n", "Index", "Timestamp", "Size", "Hash" ) );
+            sb.append( "-".repeat( 56 ) ).append( "\n" );
 
             int count = Math.min( history.length, limit );
             for ( int i = 0; i < count; i++ )
             {
                 IFileState state = history[i];
                 Instant ts = Instant.ofEpochMilli( state.getModificationTime() );
-                String size = state.exists() ? formatSize( state.getContents().available() ) : "deleted";
-                sb.append( String.format( "%-6d  %-20s  %s\n", i, TIMESTAMP_FMT.format( ts ), size ) );
+                if ( state.exists() )
+                {
+                    LocalHistoryIndex.StateInfo info = historyIndex.info( state );
+                    sb.append( String.format( "%-6d  %-20s  %-10s  %s\n", i, TIMESTAMP_FMT.format( ts ),
+                            formatSize( info.size() ), info.hash().substring( 0, 10 ) ) );
+                }
+                else
+                {
+                    sb.append( String.format( "%-6d  %-20s  %s\n", i, TIMESTAMP_FMT.format( ts ), "deleted" ) );
+                }
             }
 
             if ( history.length > count )
@@ -103,8 +115,7 @@ public class LocalHistoryService
 
             IFileState state = history[idx];
             Instant ts = Instant.ofEpochMilli( state.getModificationTime() );
-            String content = new String( ResourceUtilities.readInputStream( state.getContents() ),
-                    Charset.forName( file.getCharset() ) );
+            String content = new String( historyIndex.contents( state ), Charset.forName( file.getCharset() ) );
 
             StringBuilder sb = new StringBuilder();
             sb.append( "# " ).append( filePath ).append( " @ " ).append( TIMESTAMP_FMT.format( ts ) ).append( "\n\n" );
@@ -143,11 +154,7 @@ public class LocalHistoryService
             IFileState state = history[idx];
             Instant ts = Instant.ofEpochMilli( state.getModificationTime() );
 
-            String content = new String( ResourceUtilities.readInputStream( state.getContents() ),
-                    Charset.forName( file.getCharset() ) );
-
-            try ( ByteArrayInputStream source = new ByteArrayInputStream(
-                    content.getBytes( Charset.forName( file.getCharset() ) ) ) )
+            try ( ByteArrayInputStream source = new ByteArrayInputStream( historyIndex.contents( state ) ) )
             {
                 file.setContents( source, IResource.FORCE | IResource.KEEP_HISTORY, null );
             }
@@ -190,14 +197,8 @@ public class LocalHistoryService
             IFileState state = history[idx];
             Instant ts = Instant.ofEpochMilli( state.getModificationTime() );
 
-            String charset = file.getCharset();
-            String oldContent = new String( ResourceUtilities.readInputStream( state.getContents() ),
-                    Charset.forName( charset ) );
-            String newContent = new String( ResourceUtilities.readInputStream( file.getContents() ),
-                    Charset.forName( charset ) );
-
-            String[] oldLines = oldContent.split( "\n", -1 );
-            String[] newLines = newContent.split( "\n", -1 );
+            byte[] oldContent = historyIndex.contents( state );
+            byte[] newContent = readCurrent( file );
 
             StringBuilder sb = new StringBuilder();
             sb.append( "# Diff: " ).append( filePath ).append( "\n" );
@@ -205,7 +206,7 @@ public class LocalHistoryService
             sb.append( "--- " ).append( filePath ).append( " (" ).append( TIMESTAMP_FMT.format( ts ) ).append( ")\n" );
             sb.append( "+++ " ).append( filePath ).append( " (current)\n" );
 
-            appendSimpleDiff( sb, oldLines, newLines );
+            sb.append( historyIndex.diff( oldContent, newContent, Charset.forName( file.getCharset() ) ) );
 
             return sb.toString();
         }
@@ -215,6 +216,68 @@ public class LocalHistoryService
         }
     }
 
+    public String findLineOrigin( String projectName, String filePath, String lineNumber )
+    {
+        IFile file = resolveFile( projectName, filePath );
+        int number = parseIndex( lineNumber );
+
+        try
+        {
+            Charset charset = Charset.forName( file.getCharset() );
+            String[] lines = new String( readCurrent( file ), charset ).split( "\n", -1 );
+            if ( number < 1 || number > lines.length )
+            {
+                return "Invalid line " + number + ". Valid range: 1-" + lines.length;
+            }
+            String line = lines[number - 1];
+            if ( line.isBlank() )
+            {
+                return "Line " + number + " is blank; pick a line with content.";
+            }
+
+            IFileState[] history = file.getHistory( null );
+            if ( history == null || history.length == 0 )
+            {
+                return "No local history found for " + filePath;
+            }
+
+            LocalHistoryIndex.Origin origin = historyIndex.origin( history, line, charset );
+            int found = origin.index();
+
+            StringBuilder sb = new StringBuilder();
+            sb.append( "# Origin of " ).append( filePath ).append( ":" ).append( number ).append( "\n\n" );
+            sb.append( "    " ).append( line.strip() ).append( "\n\n" );
+            if ( found < 0 )
+            {
+                sb.append( "Introduced by the latest change: no Local History version has this line. " )
+                  .append( "The newest version is index 0 (" )
+                  .append( TIMESTAMP_FMT.format( Instant.ofEpochMilli( history[0].getModificationTime() ) ) ).append( ").\n" );
+            }
+            else if ( found == history.length - 1 )
+            {
+                sb.append( "Present in every Local History version down to the oldest, index " ).append( found )
+                  .append( " (" ).append( TIMESTAMP_FMT.format( Instant.ofEpochMilli( history[found].getModificationTime() ) ) )
+                  .append( "); the line predates the history.\n" );
+            }
+            else
+            {
+                sb.append( "Introduced between index " ).append( found + 1 ).append( " (" )
+                  .append( TIMESTAMP_FMT.format( Instant.ofEpochMilli( history[found + 1].getModificationTime() ) ) )
+                  .append( ", without the line) and index " ).append( found ).append( " (" )
+                  .append( TIMESTAMP_FMT.format( Instant.ofEpochMilli( history[found].getModificationTime() ) ) )
+                  .append( ", with it).\n" );
+            }
+            sb.append( "\nRead " ).append( origin.probes() ).append( " of " ).append( history.length )
+              .append( " versions. The search assumes the line was not removed and added back later; " )
+              .append( "check with getFileHistoryContent if that may have happened.\n" );
+            return sb.toString();
+        }
+        catch ( Exception e )
+        {
+            throw new RuntimeException( "Error searching local history: " + e.getMessage(), e );
+        }
+    }
+
     public long getFileModificationTime( IFile file )
     {
         try
@@ -254,6 +317,14 @@ public class LocalHistoryService
         return file;
     }
 
+    private byte[] readCurrent( IFile file ) throws Exception
+    {
+        try ( InputStream in = file.getContents() )
+        {
+            return ResourceUtilities.readInputStream( in );
+        }
+    }
+
     private int parseIndex( String index )
     {
         Objects.requireNonNull( index, "index is required" );
@@ -293,58 +364,6 @@ public class LocalHistoryService
         }
     }
 
-    private void appendSimpleDiff( StringBuilder sb, String[] oldLines, String[] newLines )
-    {
-        int maxLen = Math.max( oldLines.length, newLines.length );
-        int contextSize = 3;
-        boolean inHunk = false;
-        int hunkStart = -1;
-
-        for ( int i = 0; i < maxLen; i++ )
-        {
-            String oldLine = i < oldLines.length ? oldLines[i] : null;
-            String newLine = i < newLines.length ? newLines[i] : null;
-            boolean different = !Objects.equals( oldLine, newLine );
-
-            if ( different )
-            {
-                if ( !inHunk )
-                {
-                    int start = Math.max( 0, i - contextSize );
-                    sb.append( String.format( "@@ -%d +%d @@\n", start + 1, start + 1 ) );
-                    for ( int c = start; c < i; c++ )
-                    {
-                        sb.append( " " ).append( c < oldLines.length ? oldLines[c] : "" ).append( "\n" );
-                    }
-                    inHunk = true;
-                    hunkStart = i;
-                }
-                if ( oldLine != null ) sb.append( "-" ).append( oldLine ).append( "\n" );
-                if ( newLine != null ) sb.append( "+" ).append( newLine ).append( "\n" );
-            }
-            else if ( inHunk )
-            {
-                if ( i - hunkStart > contextSize * 2 )
-                {
-                    for ( int c = 0; c < contextSize && ( hunkStart + c ) < i; c++ )
-                    {
-                        int idx = hunkStart + c;
-                        if ( idx < oldLines.length )
-                        {
-                            sb.append( " " ).append( oldLines[idx] ).append( "\n" );
-                        }
-                    }
-                    inHunk = false;
-                }
-                else
-                {
-                    sb.append( " " ).append( oldLine ).append( "\n" );
-                    hunkStart = i;
-                }
-            }
-        }
-    }
-
     private String formatSize( long bytes )
     {
         if ( bytes < 1024 ) return bytes + " B";
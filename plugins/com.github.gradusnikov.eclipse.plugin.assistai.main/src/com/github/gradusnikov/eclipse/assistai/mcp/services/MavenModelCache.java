@@ -0,0 +1,244 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+import org.apache.maven.model.Profile;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.embedder.IMavenConfiguration;
+import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectFacade;
+import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Rendered results of the Maven queries - effective POM, dependencies, the list
+ * of Maven projects - kept until their inputs change, so repeated questions
+ * about a build do not each read the Maven model again.
+ * <p>
+ * A project's results are keyed by what the model is built from: the pom and
+ * each parent pom (by content hash, or by id for parents from a repository), the
+ * active profiles and the user and global settings files. A lookup re-checks
+ * the key, which stats those files and only re-hashes the ones whose size or
+ * time stamp changed. Changes m2e reports through
+ * {@link IMavenProjectChangedListener} drop the project's results outright.
+ */
+@Creatable
+@Singleton
+public class MavenModelCache implements IMavenProjectChangedListener
+{
+    private record Entry( String key, String text )
+    {
+    }
+
+    private record FileStamp( long size, long modified, String hash )
+    {
+    }
+
+    @Inject
+    ILog                                           logger;
+
+    /** Results by project name, then by kind of result. */
+    private final Map<String, Map<String, Entry>> entries     = new ConcurrentHashMap<>();
+
+    private final Map<Path, FileStamp>             stamps      = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped by every change event; a result computed while an event arrived is
+     * returned but not kept, as it may have been read from the old model.
+     */
+    private final AtomicLong                       generation  = new AtomicLong();
+
+    private volatile String                        projectList;
+
+    private boolean                                listening;
+
+    @PostConstruct
+    public void start()
+    {
+        try
+        {
+            MavenPlugin.getMavenProjectRegistry().addMavenProjectChangedListener( this );
+            listening = true;
+        }
+        catch ( RuntimeException e )
+        {
+            warn( "Maven results will not be invalidated by m2e events: " + e.getMessage() );
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if ( listening )
+        {
+            MavenPlugin.getMavenProjectRegistry().removeMavenProjectChangedListener( this );
+            listening = false;
+        }
+    }
+
+    /**
+     * The result of the given kind for the project, from the cache if its inputs
+     * are unchanged, otherwise from the loader. Nothing is cached while m2e has
+     * not read the project's model, as its parent chain is then unknown.
+     */
+    public String get( IMavenProjectFacade facade, String kind, Supplier<String> loader )
+    {
+        String key = inputsKey( facade );
+        if ( key == null )
+        {
+            return loader.get();
+        }
+        return get( facade.getProject().getName(), kind, key, loader );
+    }
+
+    String get( String projectName, String kind, String key, Supplier<String> loader )
+    {
+        Entry entry = entries.getOrDefault( projectName, Map.of() ).get( kind );
+        if ( entry != null && entry.key().equals( key ) )
+        {
+            return entry.text();
+        }
+        long before = generation.get();
+        String text = loader.get();
+        if ( generation.get() == before )
+        {
+            entries.computeIfAbsent( projectName, name -> new ConcurrentHashMap<>() ).put( kind, new Entry( key, text ) );
+        }
+        return text;
+    }
+
+    /** The list of Maven projects, kept until any Maven project changes. */
+    public String projectList( Supplier<String> loader )
+    {
+        String list = projectList;
+        if ( list != null )
+        {
+            return list;
+        }
+        long before = generation.get();
+        list = loader.get();
+        if ( generation.get() == before )
+        {
+            projectList = list;
+        }
+        return list;
+    }
+
+    @Override
+    public void mavenProjectChanged( List<MavenProjectChangedEvent> events, IProgressMonitor monitor )
+    {
+        generation.incrementAndGet();
+        projectList = null;
+        for ( MavenProjectChangedEvent event : events )
+        {
+            IMavenProjectFacade facade = event.getMavenProject() != null ? event.getMavenProject() : event.getOldMavenProject();
+            if ( facade != null )
+            {
+                invalidate( facade.getProject().getName() );
+            }
+        }
+    }
+
+    void invalidate( String projectName )
+    {
+        entries.remove( projectName );
+    }
+
+    private String inputsKey( IMavenProjectFacade facade )
+    {
+        MavenProject mavenProject = facade.getMavenProject();
+        if ( mavenProject == null )
+        {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        for ( MavenProject project = mavenProject; project != null; project = project.getParent() )
+        {
+            File pom = project.getFile();
+            // A parent resolved from a repository is immutable for its version.
+            key.append( pom != null ? stamp( pom.toPath() ) : project.getId() ).append( '\n' );
+        }
+        for ( Profile profile : mavenProject.getActiveProfiles() )
+        {
+            key.append( profile.getId() ).append( ',' );
+        }
+        key.append( '\n' );
+        IMavenConfiguration configuration = MavenPlugin.getMavenConfiguration();
+        String userSettings = configuration.getUserSettingsFile();
+        key.append( stamp( userSettings != null ? Paths.get( userSettings ) : Paths.get( System.getProperty( "user.home" ), ".m2", "settings.xml" ) ) );
+        String globalSettings = configuration.getGlobalSettingsFile();
+        if ( globalSettings != null )
+        {
+            key.append( '\n' ).append( stamp( Paths.get( globalSettings ) ) );
+        }
+        return key.toString();
+    }
+
+    /**
+     * The file's path and content hash; the hash is reused while the size and
+     * modification time stay the same.
+     */
+    String stamp( Path file )
+    {
+        try
+        {
+            BasicFileAttributes attributes = Files.readAttributes( file, BasicFileAttributes.class );
+            long modified = attributes.lastModifiedTime().toMillis();
+            FileStamp known = stamps.get( file );
+            if ( known == null || known.size() != attributes.size() || known.modified() != modified )
+            {
+                known = new FileStamp( attributes.size(), modified, hash( file ) );
+                stamps.put( file, known );
+            }
+            return file + "#" + known.hash();
+        }
+        catch ( IOException e )
+        {
+            // Missing, e.g. no user settings: a later appearance changes the key.
+            stamps.remove( file );
+            return file + "#-";
+        }
+    }
+
+    private static String hash( Path file ) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        try ( InputStream in = Files.newInputStream( file ) )
+        {
+            byte[] buffer = new byte[8192];
+            for ( int read; ( read = in.read( buffer ) ) > 0; )
+            {
+                crc.update( buffer, 0, read );
+            }
+        }
+        return Long.toHexString( crc.getValue() );
+    }
+
+    private void warn( String message )
+    {
+        if ( logger != null )
+        {
+            logger.warn( message );
+        }
+    }
+}
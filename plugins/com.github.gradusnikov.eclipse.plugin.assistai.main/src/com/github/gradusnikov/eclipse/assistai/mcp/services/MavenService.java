@@ -1,15 +1,26 @@
 package com.github.gradusnikov.eclipse.assistai.mcp.services;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenExecutionResult;
 import org.apache.maven.project.MavenProject;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ILog;
@@ -23,9 +34,13 @@ import org.eclipse.m2e.core.project.MavenUpdateRequest;
 import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
 import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationContext;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.e4.core.di.annotations.Creatable;
 import org.eclipse.e4.ui.di.UISynchronize;
+import org.eclipse.jdt.core.IJavaModelMarker;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.m2e.core.MavenPlugin;
 import org.eclipse.m2e.core.embedder.ICallable;
 import org.eclipse.m2e.core.embedder.IMaven;
@@ -34,6 +49,8 @@ import org.eclipse.m2e.core.internal.IMavenConstants;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.IMavenProjectRegistry;
 
+import com.github.gradusnikov.eclipse.assistai.mcp.services.CustomMavenExecutionListener.ModuleTiming;
+
 import jakarta.inject.Inject;
 
 @SuppressWarnings( "restriction" ) // For using M2E internal classes
@@ -56,6 +73,12 @@ public class MavenService
     @Inject
     ConsoleService consoleService;
 
+    @Inject
+    MavenModelCache modelCache;
+
+    @Inject
+    GitService     gitService;
+
     /**
      * Runs a Maven build with the specified goals on a project.
      * 
@@ -237,6 +260,315 @@ public class MavenService
         MavenPlugin.getProjectConfigurationManager().updateProjectConfiguration( facade.getProject(), monitor );
     }
 
+    /**
+     * Builds only the reactor modules the changed files belong to, and the modules
+     * that depend on them - Maven's {@code -pl <modules> -amd} - from the reactor
+     * whose root is {@code projectName}.
+     * <p>
+     * When the workspace builds automatically, the goals do not clean, and every
+     * module of the reactor is free of Java errors and compiles into Maven's own
+     * output folder, the classes Eclipse already compiled are used as they are and
+     * the compiler plug-in skips the main sources ({@code maven.main.skip}).
+     * Build output is streamed to the operation's output as well as the Maven
+     * console, and the report lists how long each module took.
+     *
+     * @param projectName        the project holding the reactor's root pom
+     * @param goals              the Maven goals to execute
+     * @param changedFiles       workspace paths of the changed files, or
+     *                           {@code null} for the files uncommitted in Git
+     * @param profiles           Maven profiles to activate, comma-separated
+     * @param reuseEclipseOutput whether to skip main compilation when that is safe
+     * @param timeout            minutes to wait for the build, 0 for no limit
+     */
+    public String runIncrementalMavenBuild( String projectName, String goals, List<String> changedFiles, String profiles,
+            boolean reuseEclipseOutput, Integer timeout )
+    {
+        Objects.requireNonNull( projectName, "Project name cannot be null" );
+        Objects.requireNonNull( goals, "Maven goals cannot be null" );
+        if ( projectName.isEmpty() || goals.isEmpty() )
+        {
+            throw new IllegalArgumentException( "Error: Project name and Maven goals cannot be empty." );
+        }
+        if ( timeout == null || timeout < 0 )
+        {
+            timeout = 0;
+        }
+
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject( projectName );
+        if ( !project.exists() )
+        {
+            throw new RuntimeException( "Error: Project '" + projectName + "' does not exist." );
+        }
+        if ( !project.isOpen() )
+        {
+            throw new RuntimeException( "Error: Project '" + projectName + "' is closed." );
+        }
+        IMavenProjectFacade root = MavenPlugin.getMavenProjectRegistry().getProject( project );
+        if ( root == null )
+        {
+            throw new RuntimeException( "Error: Could not find Maven configuration for project '" + projectName + "'." );
+        }
+
+        List<IMavenProjectFacade> reactor = reactorModules( root );
+        List<IFile> files = changedFiles( projectName, changedFiles );
+        Map<IMavenProjectFacade, List<String>> affected = new LinkedHashMap<>();
+        boolean wholeReactor = false;
+        for ( IFile file : files )
+        {
+            IMavenProjectFacade module = owningModule( file, reactor );
+            if ( module == null )
+            {
+                continue;
+            }
+            if ( module == root && file.equals( root.getPom() ) )
+            {
+                wholeReactor = true;
+            }
+            affected.computeIfAbsent( module, m -> new ArrayList<>() ).add( file.getFullPath().toString() );
+        }
+        if ( affected.isEmpty() )
+        {
+            return "No changed files belong to the reactor of '" + projectName + "'"
+                    + ( changedFiles == null ? " (looked at the files uncommitted in Git)" : "" )
+                    + ", so nothing was built. Use runMavenBuild to build the whole reactor.";
+        }
+
+        List<String> goalList = parseGoals( goals );
+        List<String> profileList = parseProfiles( profiles );
+        List<String> selected = wholeReactor ? List.of()
+                : affected.keySet().stream().map( m -> m.getArtifactKey().groupId() + ":" + m.getArtifactKey().artifactId() ).toList();
+
+        Optional<Operation> operation = OperationContext.current();
+        IProgressMonitor joinMonitor = operation.map( Operation::monitor )
+                                                .map( IProgressMonitor.class::cast )
+                                                .orElseGet( NullProgressMonitor::new );
+        String reuseBlocker = reuseEclipseOutput ? eclipseOutputBlocker( reactor, goalList, joinMonitor ) : "not requested";
+
+        final String consoleOutput = "Maven Console";
+        sync.syncExec( () -> consoleService.clear( consoleOutput ) );
+        final CustomMavenExecutionListener[] listener = new CustomMavenExecutionListener[1];
+        final Job job = new Job( "Incremental Maven Build: " + goals + " on " + projectName )
+        {
+            @Override
+            protected IStatus run( IProgressMonitor monitor )
+            {
+                try
+                {
+                    IMavenExecutionContext context = MavenPlugin.getMaven().createExecutionContext();
+                    MavenExecutionRequest request = context.getExecutionRequest();
+                    request.setActiveProfiles( profileList );
+                    request.setGoals( goalList );
+                    request.setBaseDirectory( root.getPomFile().getParentFile() );
+                    request.setPom( root.getPomFile() );
+                    if ( !selected.isEmpty() )
+                    {
+                        request.setSelectedProjects( selected );
+                        request.setMakeBehavior( MavenExecutionRequest.REACTOR_MAKE_DOWNSTREAM );
+                    }
+                    if ( reuseBlocker == null )
+                    {
+                        Properties userProperties = new Properties();
+                        userProperties.putAll( request.getUserProperties() );
+                        userProperties.setProperty( "maven.main.skip", "true" );
+                        request.setUserProperties( userProperties );
+                    }
+                    listener[0] = new CustomMavenExecutionListener( monitor, consoleOutput, consoleService, operation.orElse( null ) );
+                    request.setExecutionListener( listener[0] );
+                    MavenExecutionResult result = context.execute( request );
+                    if ( !result.getExceptions().isEmpty() )
+                    {
+                        return org.eclipse.core.runtime.Status.error( result.getExceptions().getFirst().getMessage(), result.getExceptions().getFirst() );
+                    }
+                    return org.eclipse.core.runtime.Status.OK_STATUS;
+                }
+                catch ( Exception e )
+                {
+                    logger.error( "Error executing incremental Maven build", e );
+                    return org.eclipse.core.runtime.Status.error( "Error executing Maven build", e );
+                }
+            }
+        };
+        operation.ifPresent( op -> {
+            op.setConsoleHint( consoleOutput );
+            op.addCancelHook( job::cancel );
+        } );
+        job.schedule();
+        try
+        {
+            job.join( TimeUnit.MINUTES.toMillis( timeout ), joinMonitor );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while waiting for the Maven build", e );
+        }
+
+        IStatus result = job.getResult();
+        StringBuilder sb = new StringBuilder();
+        sb.append( "Incremental Maven build " )
+          .append( result == null ? "is still running" : result.isOK() ? "succeeded" : "FAILED: " + result.getMessage() )
+          .append( " for reactor '" ).append( projectName ).append( "' with goals: " ).append( goals ).append( "\n\n" );
+        if ( wholeReactor )
+        {
+            sb.append( "The root pom changed, so the whole reactor was built.\n" );
+        }
+        else
+        {
+            sb.append( "Changed modules (built with their dependents):\n" );
+        }
+        affected.forEach( ( module, paths ) -> sb.append( "- " ).append( module.getArtifactKey().artifactId() ).append( ": " )
+                                              .append( paths.size() ).append( " changed file(s)\n" ) );
+        sb.append( "\nMain compilation " )
+          .append( reuseBlocker == null ? "skipped, using the classes Eclipse compiled." : "run by Maven (Eclipse output not reused: " + reuseBlocker + ")." )
+          .append( "\n" );
+
+        List<ModuleTiming> timings = listener[0] != null ? listener[0].getModuleTimings() : List.of();
+        if ( !timings.isEmpty() )
+        {
+            sb.append( "\nModule timings, slowest first:\n" );
+            timings.stream()
+                   .sorted( Comparator.comparingLong( ModuleTiming::millis ).reversed() )
+                   .forEach( timing -> sb.append( String.format( "- %s: %.1fs %s%n", timing.module(), timing.millis() / 1000.0, timing.outcome() ) ) );
+        }
+        sb.append( "\nTo view build output, use the getConsoleOutput tool with consoleName=\"Maven Console\"" );
+        return sb.toString();
+    }
+
+    /**
+     * The Maven projects of the workspace whose pom lies under the root's folder,
+     * the root first.
+     */
+    private List<IMavenProjectFacade> reactorModules( IMavenProjectFacade root )
+    {
+        String rootDir = root.getPomFile().getParentFile().getAbsolutePath() + File.separator;
+        List<IMavenProjectFacade> modules = new ArrayList<>();
+        modules.add( root );
+        for ( IMavenProjectFacade facade : MavenPlugin.getMavenProjectRegistry().getProjects() )
+        {
+            if ( facade != root && facade.getPomFile().getAbsolutePath().startsWith( rootDir ) )
+            {
+                modules.add( facade );
+            }
+        }
+        return modules;
+    }
+
+    /**
+     * The module whose folder most closely contains the file, or {@code null}.
+     */
+    private IMavenProjectFacade owningModule( IFile file, List<IMavenProjectFacade> reactor )
+    {
+        if ( file.getLocation() == null )
+        {
+            return null;
+        }
+        String path = file.getLocation().toFile().getAbsolutePath();
+        IMavenProjectFacade owner = null;
+        int longest = -1;
+        for ( IMavenProjectFacade module : reactor )
+        {
+            String dir = module.getPomFile().getParentFile().getAbsolutePath() + File.separator;
+            if ( path.startsWith( dir ) && dir.length() > longest )
+            {
+                owner = module;
+                longest = dir.length();
+            }
+        }
+        return owner;
+    }
+
+    private List<IFile> changedFiles( String projectName, List<String> changedFiles )
+    {
+        if ( changedFiles != null )
+        {
+            List<IFile> files = new ArrayList<>();
+            for ( String path : changedFiles )
+            {
+                IResource resource = ResourcesPlugin.getWorkspace().getRoot().findMember( path );
+                org.eclipse.core.runtime.Path fullPath = new org.eclipse.core.runtime.Path( path );
+                if ( resource instanceof IFile file )
+                {
+                    files.add( file );
+                }
+                else if ( resource == null && fullPath.segmentCount() > 1 )
+                {
+                    // A deleted file still names its module.
+                    files.add( ResourcesPlugin.getWorkspace().getRoot().getFile( fullPath ) );
+                }
+            }
+            return files;
+        }
+        if ( gitService == null )
+        {
+            return List.of();
+        }
+        try
+        {
+            return gitService.getUncommittedFiles( projectName );
+        }
+        catch ( RuntimeException e )
+        {
+            throw new RuntimeException( "Error: Could not list the changed files from Git (" + e.getMessage() + "). Pass changedFiles instead.", e );
+        }
+    }
+
+    /**
+     * Why the classes Eclipse compiled cannot stand in for Maven's main
+     * compilation, or {@code null} if they can. Waits for a pending auto-build
+     * first, so the markers and class files are current.
+     */
+    private String eclipseOutputBlocker( List<IMavenProjectFacade> reactor, List<String> goals, IProgressMonitor monitor )
+    {
+        if ( goals.stream().anyMatch( goal -> goal.equals( "clean" ) || goal.startsWith( "clean:" ) ) )
+        {
+            return "the goals clean the output folders";
+        }
+        if ( !ResourcesPlugin.getWorkspace().isAutoBuilding() )
+        {
+            return "the workspace does not build automatically";
+        }
+        try
+        {
+            Job.getJobManager().join( ResourcesPlugin.FAMILY_AUTO_BUILD, monitor );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            return "could not wait for the workspace build";
+        }
+        catch ( OperationCanceledException e )
+        {
+            return "could not wait for the workspace build";
+        }
+        try
+        {
+            Set<String> blocked = new TreeSet<>();
+            for ( IMavenProjectFacade module : reactor )
+            {
+                IProject project = module.getProject();
+                if ( !project.hasNature( JavaCore.NATURE_ID ) )
+                {
+                    continue;
+                }
+                if ( project.findMaxProblemSeverity( IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE ) >= IMarker.SEVERITY_ERROR )
+                {
+                    blocked.add( project.getName() + " has compilation errors" );
+                    continue;
+                }
+                IJavaProject javaProject = JavaCore.create( project );
+                if ( !module.getOutputLocation().equals( javaProject.getOutputLocation() ) )
+                {
+                    blocked.add( project.getName() + " compiles into " + javaProject.getOutputLocation() );
+                }
+            }
+            return blocked.isEmpty() ? null : String.join( "; ", blocked );
+        }
+        catch ( CoreException e )
+        {
+            return "could not read the workspace build state: " + e.getMessage();
+        }
+    }
+
     /**
      * The headless equivalent of the IDE's "Maven > Update Project" action: re-reads the
      * pom, re-resolves dependencies and reconfigures the project's classpath and facets.
@@ -353,48 +685,52 @@ public class MavenService
                 throw new RuntimeException( "Error: Could not find Maven configuration for project '" + projectName + "'." );
             }
 
-            // Get the effective POM
-            final IMaven maven = MavenPlugin.getMaven();
-            final IMavenExecutionContext context = maven.createExecutionContext();
+            return cached( facade, "effective-pom", () -> readEffectivePom( facade ) );
+        }
+        catch ( CoreException e )
+        {
+            throw new RuntimeException( "Error retrieving effective POM: " + e.getMessage(), e );
+        }
+    }
+
+    private String readEffectivePom( IMavenProjectFacade facade )
+    {
+        // Get the effective POM
+        final IMaven maven = MavenPlugin.getMaven();
+        final IMavenExecutionContext context = maven.createExecutionContext();
 
-            try
+        try
+        {
+            // Use ICallable to get the effective POM XML
+            String effectivePom = context.execute( new ICallable<String>()
             {
-                // Use ICallable to get the effective POM XML
-                String effectivePom = context.execute( new ICallable<String>()
+                @Override
+                public String call( IMavenExecutionContext context, IProgressMonitor monitor ) throws CoreException
                 {
-                    @Override
-                    public String call( IMavenExecutionContext context, IProgressMonitor monitor ) throws CoreException
+                    try
                     {
-                        try
-                        {
-                            // Read the project using the available API
-                            MavenProject mavenProject = maven.readProject( facade.getPomFile(), monitor );
+                        // Read the project using the available API
+                        MavenProject mavenProject = maven.readProject( facade.getPomFile(), monitor );
 
-                            // Convert the model to XML
-                            try (ByteArrayOutputStream out = new ByteArrayOutputStream())
-                            {
-                                maven.writeModel( mavenProject.getModel(), out );
-                                return out.toString();
-                            }
-                        }
-                        catch ( Exception e )
+                        // Convert the model to XML
+                        try (ByteArrayOutputStream out = new ByteArrayOutputStream())
                         {
-                            throw new CoreException( org.eclipse.core.runtime.Status.error( "Failed to get effective POM", e ) );
+                            maven.writeModel( mavenProject.getModel(), out );
+                            return out.toString();
                         }
                     }
-                }, new NullProgressMonitor() );
-
-                return effectivePom;
-            }
-            catch ( CoreException e )
-            {
-                throw new RuntimeException( "Failed to get effective POM: " + e.getMessage(), e );
-            }
+                    catch ( Exception e )
+                    {
+                        throw new CoreException( org.eclipse.core.runtime.Status.error( "Failed to get effective POM", e ) );
+                    }
+                }
+            }, new NullProgressMonitor() );
 
+            return effectivePom;
         }
         catch ( CoreException e )
         {
-            throw new RuntimeException( "Error retrieving effective POM: " + e.getMessage(), e );
+            throw new RuntimeException( "Failed to get effective POM: " + e.getMessage(), e );
         }
     }
 
@@ -404,6 +740,11 @@ public class MavenService
      * @return A list of Maven projects with their details
      */
     public String listMavenProjects()
+    {
+        return modelCache != null ? modelCache.projectList( this::readMavenProjects ) : readMavenProjects();
+    }
+
+    private String readMavenProjects()
     {
         try
         {
@@ -489,64 +830,69 @@ public class MavenService
                 throw new RuntimeException( "Error: Could not find Maven configuration for project '" + projectName + "'." );
             }
 
-            // Get dependencies
-            final StringBuilder result = new StringBuilder();
-            result.append( "Dependencies for project '" ).append( projectName ).append( "':\n\n" );
+            return cached( facade, "dependencies", () -> readDependencies( projectName, facade ) );
+        }
+        catch ( CoreException e )
+        {
+            throw new RuntimeException( "Error retrieving project dependencies: " + e.getMessage(), e );
+        }
+    }
+
+    private String readDependencies( String projectName, IMavenProjectFacade facade )
+    {
+        // Get dependencies
+        final StringBuilder result = new StringBuilder();
+        result.append( "Dependencies for project '" ).append( projectName ).append( "':\n\n" );
 
-            final IMaven maven = MavenPlugin.getMaven();
-            final IMavenExecutionContext context = maven.createExecutionContext();
+        final IMaven maven = MavenPlugin.getMaven();
+        final IMavenExecutionContext context = maven.createExecutionContext();
 
-            try
+        try
+        {
+            // Execute in Maven context to get dependencies
+            context.execute( new ICallable<Void>()
             {
-                // Execute in Maven context to get dependencies
-                context.execute( new ICallable<Void>()
+                @Override
+                public Void call( IMavenExecutionContext context, IProgressMonitor monitor ) throws CoreException
                 {
-                    @Override
-                    public Void call( IMavenExecutionContext context, IProgressMonitor monitor ) throws CoreException
+                    try
                     {
-                        try
-                        {
-                            // Read the project using the available API
-                            MavenProject mavenProject = maven.readProject( facade.getPomFile(), monitor );
+                        // Read the project using the available API
+                        MavenProject mavenProject = maven.readProject( facade.getPomFile(), monitor );
 
-                            // Add note about dependency extraction method
-                            result.append( "Note: Showing dependencies from the Maven project model.\n\n" );
+                        // Add note about dependency extraction method
+                        result.append( "Note: Showing dependencies from the Maven project model.\n\n" );
 
-                            // Get the dependencies from the model
-                            List<org.apache.maven.model.Dependency> dependencies = mavenProject.getModel().getDependencies();
+                        // Get the dependencies from the model
+                        List<org.apache.maven.model.Dependency> dependencies = mavenProject.getModel().getDependencies();
 
-                            if ( dependencies.isEmpty() )
-                            {
-                                result.append( "No dependencies found in this project.\n" );
-                            }
-                            else
-                            {
-                                for ( org.apache.maven.model.Dependency dependency : dependencies )
-                                {
-                                    result.append( "- GroupId: " ).append( dependency.getGroupId() ).append( "\n" );
-                                    result.append( "  ArtifactId: " ).append( dependency.getArtifactId() ).append( "\n" );
-                                    result.append( "  Version: " ).append( dependency.getVersion() ).append( "\n" );
-                                    result.append( "  Scope: " ).append( dependency.getScope() != null ? dependency.getScope() : "compile" ).append( "\n" );
-                                    result.append( "\n" );
-                                }
-                            }
-
-                            return null;
+                        if ( dependencies.isEmpty() )
+                        {
+                            result.append( "No dependencies found in this project.\n" );
                         }
-                        catch ( Exception e )
+                        else
                         {
-                            throw new CoreException( org.eclipse.core.runtime.Status.error( "Error analyzing dependencies", e ) );
+                            for ( org.apache.maven.model.Dependency dependency : dependencies )
+                            {
+                                result.append( "- GroupId: " ).append( dependency.getGroupId() ).append( "\n" );
+                                result.append( "  ArtifactId: " ).append( dependency.getArtifactId() ).append( "\n" );
+                                result.append( "  Version: " ).append( dependency.getVersion() ).append( "\n" );
+                                result.append( "  Scope: " ).append( dependency.getScope() != null ? dependency.getScope() : "compile" ).append( "\n" );
+                                result.append( "\n" );
+                            }
                         }
+
+                        return null;
                     }
-                }, new NullProgressMonitor() );
+                    catch ( Exception e )
+                    {
+                        throw new CoreException( org.eclipse.core.runtime.Status.error( "Error analyzing dependencies", e ) );
+                    }
+                }
+            }, new NullProgressMonitor() );
 
-                return result.toString();
+            return result.toString();
 
-            }
-            catch ( CoreException e )
-            {
-                throw new RuntimeException( "Error retrieving project dependencies: " + e.getMessage(), e );
-            }
         }
         catch ( CoreException e )
         {
@@ -554,6 +900,15 @@ public class MavenService
         }
     }
 
+    /**
+     * The rendered result from the model cache while the project's pom chain,
+     * profiles and settings are unchanged, otherwise freshly read.
+     */
+    private String cached( IMavenProjectFacade facade, String kind, Supplier<String> loader )
+    {
+        return modelCache != null ? modelCache.get( facade, kind, loader ) : loader.get();
+    }
+
     /**
      * Parses Maven goals from a space-separated string.
      */
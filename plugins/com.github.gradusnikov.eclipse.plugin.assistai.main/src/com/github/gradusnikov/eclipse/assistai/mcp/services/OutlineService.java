@@ -8,9 +8,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.e4.core.di.annotations.Creatable;
 import org.eclipse.jdt.core.Flags;
@@ -18,15 +16,12 @@ import org.eclipse.jdt.core.IAnnotation;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IImportContainer;
-import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeParameter;
-import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
-import org.eclipse.jface.text.Document;
 
 import com.github.gradusnikov.eclipse.assistai.resources.ResourceToolResult;
 import com.github.gradusnikov.eclipse.assistai.services.AiIgnoreService;
@@ -44,6 +39,12 @@ public class OutlineService
     @Inject
     AiIgnoreService aiIgnoreService;
 
+    @Inject
+    LineIndexService lineIndexService;
+
+    @Inject
+    TypeLocator typeLocator;
+
     /**
      * Returns a compact outline of a Java class: class declaration, fields,
      * method signatures (no bodies), and inner types - all with line numbers.
@@ -52,17 +53,13 @@ public class OutlineService
     {
         final String toolName = "getClassOutline";
 
-        for (IJavaProject javaProject : getAvailableJavaProjects())
+        TypeLocator.Location location = typeLocator.findSource(fullyQualifiedClassName);
+        if (location != null)
         {
             try
             {
-                IType type = javaProject.findType(fullyQualifiedClassName);
-                if (type == null)
-                    continue;
-
+                IType type = location.type();
                 ICompilationUnit cu = type.getCompilationUnit();
-                if (cu == null)
-                    continue;
 
                 if (cu.getResource() != null && aiIgnoreService.isExcluded(cu.getResource()))
                 {
@@ -70,8 +67,7 @@ public class OutlineService
                             "Access denied: '" + fullyQualifiedClassName + "' is excluded from AI processing by .aiignore.", toolName);
                 }
 
-                String source = cu.getBuffer().getContents();
-                Document doc = new Document(source);
+                LineIndex doc = lineIndexOf(cu);
 
                 StringBuilder result = new StringBuilder();
 
@@ -160,17 +156,13 @@ public class OutlineService
             return ResourceToolResult.transientResult("No method names specified.", toolName);
         }
 
-        for (IJavaProject javaProject : getAvailableJavaProjects())
+        TypeLocator.Location location = typeLocator.findSource(fullyQualifiedClassName);
+        if (location != null)
         {
             try
             {
-                IType type = javaProject.findType(fullyQualifiedClassName);
-                if (type == null)
-                    continue;
-
+                IType type = location.type();
                 ICompilationUnit cu = type.getCompilationUnit();
-                if (cu == null)
-                    continue;
 
                 if (cu.getResource() != null && aiIgnoreService.isExcluded(cu.getResource()))
                 {
@@ -178,10 +170,8 @@ public class OutlineService
                             "Access denied: '" + fullyQualifiedClassName + "' is excluded from AI processing by .aiignore.", toolName);
                 }
 
-                String source = cu.getBuffer().getContents();
-                String[] lines = source.split("\n", -1);
-                Document doc = new Document(source);
-                int width = String.valueOf(lines.length).length();
+                LineIndex doc = lineIndexOf(cu);
+                int width = String.valueOf(doc.lineCount()).length();
 
                 StringBuilder result = new StringBuilder();
                 List<String> found = new ArrayList<>();
@@ -222,9 +212,9 @@ public class OutlineService
                           .append(method.getElementName())
                           .append(" (lines ").append(startLine).append("-").append(endLine).append(")\n");
 
-                    for (int i = startLine - 1; i < endLine && i < lines.length; i++)
+                    for (int i = startLine - 1; i < endLine && i < doc.lineCount(); i++)
                     {
-                        result.append(String.format("%" + width + "d\t%s\n", i + 1, lines[i]));
+                        result.append(String.format("%" + width + "d\t%s\n", i + 1, doc.getLine(i)));
                     }
                     result.append("\n");
                 }
@@ -271,17 +261,13 @@ public class OutlineService
                 : Collections.emptySet();
         boolean expandAll = expandMethods.isEmpty();
 
-        for (IJavaProject javaProject : getAvailableJavaProjects())
+        TypeLocator.Location location = typeLocator.findSource(fullyQualifiedClassName);
+        if (location != null)
         {
             try
             {
-                IType type = javaProject.findType(fullyQualifiedClassName);
-                if (type == null)
-                    continue;
-
+                IType type = location.type();
                 ICompilationUnit cu = type.getCompilationUnit();
-                if (cu == null)
-                    continue;
 
                 if (cu.getResource() != null && aiIgnoreService.isExcluded(cu.getResource()))
                 {
@@ -289,10 +275,8 @@ public class OutlineService
                             "Access denied: '" + fullyQualifiedClassName + "' is excluded from AI processing by .aiignore.", toolName);
                 }
 
-                String source = cu.getBuffer().getContents();
-                String[] lines = source.split("\n", -1);
-                Document doc = new Document(source);
-                int width = String.valueOf(lines.length).length();
+                LineIndex doc = lineIndexOf(cu);
+                int width = String.valueOf(doc.lineCount()).length();
 
                 // Collapse ranges: startLine -> endLine (1-based, inclusive)
                 TreeMap<Integer, Integer> collapseRanges = new TreeMap<>();
@@ -345,7 +329,7 @@ public class OutlineService
                 StringBuilder result = new StringBuilder();
                 int i = 0;
 
-                while (i < lines.length)
+                while (i < doc.lineCount())
                 {
                     int lineNum = i + 1;
 
@@ -358,7 +342,7 @@ public class OutlineService
                         continue;
                     }
 
-                    result.append(String.format("%" + width + "d\t%s\n", lineNum, lines[i]));
+                    result.append(String.format("%" + width + "d\t%s\n", lineNum, doc.getLine(i)));
                     i++;
                 }
 
@@ -373,6 +357,26 @@ public class OutlineService
         return ResourceToolResult.transientResult("Type not found: " + fullyQualifiedClassName, toolName);
     }
 
+    /**
+     * Line index of a compilation unit's current buffer. A saved file is indexed
+     * once per modification; an editor with unsaved changes is indexed as it is.
+     */
+    private LineIndex lineIndexOf(ICompilationUnit cu) throws JavaModelException
+    {
+        if (!cu.hasUnsavedChanges() && cu.getResource() instanceof IFile file)
+        {
+            try
+            {
+                return lineIndexService.getLineIndex(file);
+            }
+            catch (Exception e)
+            {
+                // fall back to the buffer
+            }
+        }
+        return LineIndex.of(cu.getBuffer().getContents());
+    }
+
     // --- Formatting helpers ---
 
     private String formatClassDeclaration(IType type) throws JavaModelException
@@ -612,25 +616,4 @@ public class OutlineService
 
         return -1;
     }
-
-    private List<IJavaProject> getAvailableJavaProjects()
-    {
-        List<IJavaProject> javaProjects = new ArrayList<>();
-        try
-        {
-            IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
-            for (IProject project : projects)
-            {
-                if (project.isOpen() && project.hasNature(JavaCore.NATURE_ID))
-                {
-                    javaProjects.add(JavaCore.create(project));
-                }
-            }
-        }
-        catch (CoreException e)
-        {
-            throw new RuntimeException(e);
-        }
-        return javaProjects;
-    }
 }
@@ -68,6 +68,9 @@ public class PDEService
     @Inject
     private CoverageService coverageService;
 
+    @Inject
+    private TestHistory testHistory;
+
     // -------------------------------------------------------------------------
     // Target platform
     // -------------------------------------------------------------------------
@@ -764,6 +767,10 @@ public class PDEService
             // selection can safely reuse its workspace.
             waitForLaunchTermination( launchRef[0] );
 
+            if ( testHistory != null )
+            {
+                testHistory.record( testRunResults[0] );
+            }
             String results = testRunResults[0].toString();
 
             if ( useCoverage )
@@ -0,0 +1,188 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.e4.core.di.annotations.Creatable;
+
+import com.github.gradusnikov.eclipse.assistai.services.AiIgnoreService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * A {@link LayoutTree} per project, read on first use and then kept current from
+ * resource deltas, so repeated layout requests do not walk the workspace.
+ * <p>
+ * The tree leaves out what the AI must not see ({@link AiIgnoreService}), team
+ * private and hidden members such as {@code .git}, and derived files; a derived
+ * folder such as {@code target} or {@code bin} stays as a single entry. A change
+ * to an ignore file or to a derived flag drops the project's tree, which is read
+ * again on the next request.
+ */
+@Creatable
+@Singleton
+public class ProjectLayoutCache implements IResourceChangeListener
+{
+    @Inject
+    ILog                             logger;
+
+    @Inject
+    AiIgnoreService                  aiIgnoreService;
+
+    private final Map<String, LayoutTree> trees       = new ConcurrentHashMap<>();
+
+    /** Bumped per project by every delta, so a read racing with a change is not cached. */
+    private final Map<String, Integer>    generations = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init()
+    {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener( this, IResourceChangeEvent.POST_CHANGE );
+    }
+
+    @PreDestroy
+    public void dispose()
+    {
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener( this );
+        trees.clear();
+    }
+
+    /**
+     * The tree of an open project, read now if it is not cached.
+     */
+    public LayoutTree getTree( IProject project ) throws CoreException
+    {
+        LayoutTree tree = trees.get( project.getName() );
+        if ( tree != null )
+        {
+            return tree;
+        }
+        Integer before = generations.get( project.getName() );
+        tree = read( project );
+        if ( Objects.equals( before, generations.get( project.getName() ) ) )
+        {
+            LayoutTree cached = trees.putIfAbsent( project.getName(), tree );
+            return cached != null ? cached : tree;
+        }
+        return tree;
+    }
+
+    /** Forgets every tree. */
+    public void clear()
+    {
+        trees.clear();
+    }
+
+    private LayoutTree read( IProject project ) throws CoreException
+    {
+        LayoutTree tree = new LayoutTree( project.getName() );
+        // Team private and hidden members are not visited without the INCLUDE flags.
+        project.accept( proxy -> {
+            if ( proxy.getType() == IResource.PROJECT )
+            {
+                return true;
+            }
+            IResource resource = proxy.requestResource();
+            boolean folder = proxy.getType() == IResource.FOLDER;
+            if ( isExcluded( resource ) || ( proxy.isDerived() && !folder ) )
+            {
+                return false;
+            }
+            tree.put( resource.getProjectRelativePath().toString(), folder, proxy.isDerived() );
+            return folder && !proxy.isDerived();
+        }, IResource.NONE );
+        return tree;
+    }
+
+    private boolean isExcluded( IResource resource )
+    {
+        return aiIgnoreService != null && aiIgnoreService.isExcluded( resource );
+    }
+
+    @Override
+    public void resourceChanged( IResourceChangeEvent event )
+    {
+        IResourceDelta delta = event.getDelta();
+        if ( delta == null )
+        {
+            return;
+        }
+        for ( IResourceDelta child : delta.getAffectedChildren() )
+        {
+            if ( !( child.getResource() instanceof IProject project ) )
+            {
+                continue;
+            }
+            String name = project.getName();
+            generations.merge( name, 1, Integer::sum );
+            LayoutTree tree = trees.get( name );
+            if ( tree == null )
+            {
+                continue;
+            }
+            if ( child.getKind() != IResourceDelta.CHANGED || ( child.getFlags() & ( IResourceDelta.OPEN | IResourceDelta.DESCRIPTION ) ) != 0 )
+            {
+                trees.remove( name );
+                continue;
+            }
+            try
+            {
+                boolean[] stale = new boolean[1];
+                child.accept( d -> apply( d, tree, stale ) );
+                if ( stale[0] )
+                {
+                    trees.remove( name );
+                }
+            }
+            catch ( CoreException e )
+            {
+                logger.error( "Error updating the layout of " + name, e );
+                trees.remove( name );
+            }
+        }
+    }
+
+    private boolean apply( IResourceDelta delta, LayoutTree tree, boolean[] stale )
+    {
+        IResource resource = delta.getResource();
+        if ( resource.getType() == IResource.PROJECT )
+        {
+            return true;
+        }
+        if ( ( resource.getType() == IResource.FILE && aiIgnoreService != null && aiIgnoreService.isRulesFile( resource.getName() ) )
+                || ( delta.getFlags() & IResourceDelta.DERIVED_CHANGED ) != 0 )
+        {
+            stale[0] = true;
+            return false;
+        }
+        String path = resource.getProjectRelativePath().toString();
+        switch ( delta.getKind() )
+        {
+            case IResourceDelta.REMOVED:
+                tree.remove( path );
+                return false;
+            case IResourceDelta.ADDED:
+                boolean folder = resource.getType() == IResource.FOLDER;
+                if ( resource.isTeamPrivateMember() || resource.isHidden() || isExcluded( resource ) || ( resource.isDerived() && !folder ) )
+                {
+                    return false;
+                }
+                tree.put( path, folder, resource.isDerived() );
+                return folder && !resource.isDerived();
+            default:
+                return true;
+        }
+    }
+}
@@ -48,6 +48,12 @@ public class ProjectService {
 
     @Inject
     AiIgnoreService aiIgnoreService;
+
+    @Inject
+    ProjectLayoutCache projectLayoutCache;
+
+    /** Rough size of a token, used to turn a token budget into characters. */
+    private static final int CHARS_PER_TOKEN = 4;
     
     /**
      * Lists all available projects in the workspace with their detected natures.
@@ -227,42 +233,65 @@ public class ProjectService {
      * @return A hierarchical representation of the project structure
      */
     public String getProjectLayout(String projectName, String scopePath, int maxDepth) 
+    {
+        return getProjectLayout(projectName, scopePath, maxDepth, -1, null);
+    }
+
+    /**
+     * Gets one page of the file and folder structure of a specified project. The
+     * structure comes from the {@link ProjectLayoutCache}; a page that does not fit
+     * the budget ends with the cursor to continue from.
+     * 
+     * @param projectName The name of the project to analyze
+     * @param scopePath Optional path relative to the project root to limit the listing (e.g., "src/main/java")
+     * @param maxDepth Maximum depth of the directory tree to display (-1 for unlimited)
+     * @param maxTokens Approximate size of the page in tokens (-1 for unlimited)
+     * @param cursor Optional path to continue from, as returned with the previous page
+     * @return A hierarchical representation of the project structure
+     */
+    public String getProjectLayout(String projectName, String scopePath, int maxDepth, int maxTokens, String cursor) 
     {
         IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
         if (project == null || !project.exists()) 
         {
             return "Project '" + projectName + "' not found.";
         }
+        if (!project.isOpen())
+        {
+            return "Project '" + projectName + "' is closed.";
+        }
         
-        StringBuilder result = new StringBuilder();
+        String scope = scopePath == null ? "" : scopePath.strip().replace('\\', '/').replaceAll("^/+|/+$", "");
+        String from = cursor == null || cursor.isBlank() ? null : cursor.strip();
         try 
         {
-            IResource startResource = project;
-            if (scopePath != null && !scopePath.isBlank())
+            int maxChars = maxTokens > 0 ? maxTokens * CHARS_PER_TOKEN : Integer.MAX_VALUE;
+            LayoutTree.Page page = projectLayoutCache.getTree(project).render(scope, maxDepth, maxChars, from);
+            if (page == null)
             {
-                IResource scoped = project.findMember(scopePath);
-                if (scoped == null || !scoped.exists())
-                {
-                    return "Error: Path '" + scopePath + "' not found in project '" + projectName + "'.";
-                }
-                startResource = scoped;
-                result.append("# Project Structure: ").append(projectName).append("/").append(scopePath).append("\n\n");
+                return from != null && (scope.isEmpty() || project.findMember(scope) != null)
+                        ? "Error: Cursor '" + from + "' not found in project '" + projectName + "'."
+                        : "Error: Path '" + scopePath + "' not found in project '" + projectName + "'.";
+            }
+            
+            StringBuilder result = new StringBuilder();
+            result.append("# Project Structure: ").append(projectName);
+            if (!scope.isEmpty())
+            {
+                result.append("/").append(scope);
             }
-            else
+            result.append("\n\n").append(page.text());
+            if (page.nextCursor() != null)
             {
-                result.append("# Project Structure: ").append(projectName).append("\n\n");
+                result.append("\n(Listing cut to fit the budget. Continue with cursor=").append(page.nextCursor()).append(")\n");
             }
-
-            int effectiveMaxDepth = maxDepth > 0 ? maxDepth : Integer.MAX_VALUE;
-            collectResourcesForLLM(startResource, 0, effectiveMaxDepth, result);
+            return result.toString();
         } 
         catch (CoreException e)
         {
             logger.error(e.getMessage(), e);
             return "Error retrieving project layout: " + e.getMessage();
         }
-        
-        return result.toString();
     }
     
     /**
@@ -328,56 +357,6 @@ public class ProjectService {
         }
     }
     
-    private void collectResourcesForLLM(IResource resource, int depth, int maxDepth, StringBuilder result) throws CoreException {
-        if (aiIgnoreService.isExcluded(resource))
-        {
-            return;
-        }
-
-        // Use proper indentation with markdown list formatting
-        String indent = "";
-        for (int i = 0; i < depth; i++) 
-        {
-            indent += "  ";
-        }
-        
-        // Append the current resource with markdown list item
-        String prefix = depth > 0 ? indent + "- " : "- ";
-        result.append(prefix).append(resource.getName());
-        
-        // Add type indicator for better context
-        String type = switch ( resource.getType() ) {
-            case IResource.FOLDER -> "(Directory)";
-            case IResource.FILE -> "(File)";
-            case IResource.PROJECT -> "(Project)";
-            default -> "";
-        };
-        result.append( " ");
-        result.append( type );
-        result.append("\n");
-    
-        // If the resource is a container, list its children (respecting maxDepth)
-        if (resource instanceof IContainer && depth < maxDepth) 
-        {
-            IContainer container = (IContainer) resource;
-            IResource[] members = container.members();
-            for (IResource member : members) 
-            {
-                collectResourcesForLLM(member, depth + 1, maxDepth, result);
-            }
-        }
-        else if (resource instanceof IContainer && depth >= maxDepth)
-        {
-            // Indicate there are more contents not shown
-            IContainer container = (IContainer) resource;
-            int childCount = container.members().length;
-            if (childCount > 0)
-            {
-                result.append(indent).append("    ").append("... (").append(childCount).append(" items)\n");
-            }
-        }
-    }
-
     /**
      * Appends Java project specific properties to the result.
      * 
@@ -805,6 +784,14 @@ public class ProjectService {
      * Gets the project layout with resource metadata for caching, with optional scope and depth.
      */
     public ResourceToolResult getProjectLayoutWithResource(String projectName, String scopePath, int maxDepth) {
+        return getProjectLayoutWithResource(projectName, scopePath, maxDepth, -1, null);
+    }
+
+    /**
+     * Gets one page of the project layout with resource metadata. Only a complete
+     * listing of the whole project is cacheable; scoped listings and pages are transient.
+     */
+    public ResourceToolResult getProjectLayoutWithResource(String projectName, String scopePath, int maxDepth, int maxTokens, String cursor) {
         final String toolName = "getProjectLayout";
         
         IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
@@ -823,9 +810,14 @@ public class ProjectService {
         }
         
         try {
-            // Delegate to the main method that handles scope and depth
-            String content = getProjectLayout(projectName, scopePath, maxDepth);
+            // Delegate to the main method that handles scope, depth and paging
+            String content = getProjectLayout(projectName, scopePath, maxDepth, maxTokens, cursor);
             
+            boolean whole = (scopePath == null || scopePath.isBlank()) && (cursor == null || cursor.isBlank())
+                    && maxDepth <= 0 && !content.contains("Continue with cursor=");
+            if (!whole || content.startsWith("Error")) {
+                return ResourceToolResult.transientResult(content, toolName);
+            }
             // Return cacheable result for project layout
             return ResourceToolResult.forProjectLayout(projectName, content, toolName);
             
@@ -23,6 +23,7 @@ import org.eclipse.search.core.text.TextSearchMatchAccess;
 import org.eclipse.search.core.text.TextSearchRequestor;
 import org.eclipse.search.core.text.TextSearchScope;
 
+import com.github.gradusnikov.eclipse.assistai.mcp.search.WorkspaceSearchIndex;
 import com.github.gradusnikov.eclipse.assistai.resources.ResourceToolResult;
 import com.github.gradusnikov.eclipse.assistai.services.AiIgnoreService;
 import com.github.gradusnikov.eclipse.assistai.tools.ResourceUtilities;
@@ -50,6 +51,9 @@ public class ResourceService
     @Inject
     AiIgnoreService aiIgnoreService;
 
+    @Inject
+    WorkspaceSearchIndex searchIndex;
+
     /**
      * Finds workspace files matching the given glob patterns.
      *
@@ -66,6 +70,13 @@ public class ResourceService
 
         int limit = ( maxResults == null || maxResults <= 0 ) ? 200 : maxResults.intValue();
 
+        // Answered from the index's file list without opening any file, once it is built.
+        List<String> indexed = searchIndex.findFiles( fileNamePattern, limit );
+        if ( indexed != null )
+        {
+            return indexed;
+        }
+
         IResource[] roots = getOpenProjectsAsRoots();
         if ( roots.length == 0 )
         {
@@ -4,19 +4,25 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.e4.core.di.annotations.Creatable;
@@ -25,6 +31,10 @@ import org.eclipse.search.core.text.TextSearchMatchAccess;
 import org.eclipse.search.core.text.TextSearchRequestor;
 import org.eclipse.search.core.text.TextSearchScope;
 
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationContext;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.ParallelTextSearch;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.WorkspaceSearchIndex;
 import com.github.gradusnikov.eclipse.assistai.services.AiIgnoreService;
 import com.github.gradusnikov.eclipse.assistai.tools.ResourceUtilities;
 
@@ -32,17 +42,32 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 /**
- * Workspace file search based on Eclipse's {@link TextSearchEngine}.
+ * Workspace file search. Searches run on a fork/join pool over the files the
+ * {@link WorkspaceSearchIndex} says may match, and stop at a result or size budget;
+ * search and replace uses Eclipse's {@link TextSearchEngine}.
  */
 @Creatable
 @Singleton
 public class SearchService
 {
+    static final int DEFAULT_MAX_RESULTS = 200;
+
+    static final long DEFAULT_MAX_BYTES = 64 * 1024;
+
     private final ILog logger;
 
     @Inject
     AiIgnoreService aiIgnoreService;
 
+    @Inject
+    LineIndexService lineIndexService;
+
+    @Inject
+    WorkspaceSearchIndex searchIndex;
+
+    private final ParallelTextSearch<IFile> textSearch = new ParallelTextSearch<>(
+            file -> file.getFullPath().toString(), ResourceUtilities::readFileContent);
+
     public record SearchResult(IFile file, int lineNumber, String lineContent)
     {
 
@@ -85,6 +110,36 @@ public class SearchService
         return search(Pattern.compile(pattern), fileNamePatterns);
     }
 
+    /**
+     * Plain substring search for the tools: bounded, and reported as text with a
+     * line saying how much of the workspace was covered.
+     *
+     * @param maxResults matching lines to return; 0 or less for {@value #DEFAULT_MAX_RESULTS}
+     * @param maxBytes   size of the returned lines; 0 or less for {@value #DEFAULT_MAX_BYTES}
+     */
+    public String fileSearch(String containingText, int maxResults, long maxBytes, String... fileNamePatterns)
+    {
+        if (containingText == null || containingText.isBlank())
+        {
+            throw new IllegalArgumentException("containingText must not be null/blank");
+        }
+
+        return formatResult(searchFiles(Pattern.compile(Pattern.quote(containingText)), budget(maxResults, maxBytes), fileNamePatterns));
+    }
+
+    /**
+     * Regex search for the tools, bounded like {@link #fileSearch(String, int, long, String...)}.
+     */
+    public String fileSearchRegExp(String pattern, int maxResults, long maxBytes, String... fileNamePatterns)
+    {
+        if (pattern == null || pattern.isBlank())
+        {
+            throw new IllegalArgumentException("pattern must not be null/blank");
+        }
+
+        return formatResult(searchFiles(Pattern.compile(pattern), budget(maxResults, maxBytes), fileNamePatterns));
+    }
+
     /**
      * Search and replace across the workspace using Eclipse's {@link TextSearchEngine}.
      * <p>
@@ -113,13 +168,13 @@ public class SearchService
 
         Pattern matchPattern = Pattern.compile(Pattern.quote(containingText));
 
-        IResource[] roots = getOpenProjectsAsRoots();
+        Pattern fileNamePattern = ResourceUtilities.globPatternsToRegex(fileNamePatterns);
+        IResource[] roots = getSearchRoots(matchPattern, fileNamePattern);
         if (roots.length == 0)
         {
             return List.of();
         }
 
-        Pattern fileNamePattern = ResourceUtilities.globPatternsToRegex(fileNamePatterns);
         TextSearchScope scope = TextSearchScope.newSearchScope(roots, fileNamePattern, true);
         TextSearchEngine engine = TextSearchEngine.createDefault();
 
@@ -184,7 +239,7 @@ public class SearchService
         }
     }
 
-    private static int replaceInFile(IFile file, String containingText, String replacementText)
+    private int replaceInFile(IFile file, String containingText, String replacementText)
             throws CoreException, IOException
     {
         if (file == null || !file.exists())
@@ -193,7 +248,8 @@ public class SearchService
         }
 
         Charset charset = Charset.forName(file.getCharset());
-        String original = ResourceUtilities.readFileContent(file);
+        // Already read and indexed while the matches were located.
+        String original = lineIndexService.getLineIndex(file).text();
 
         int replacements = countOccurrences(original, containingText);
         if (replacements == 0)
@@ -238,54 +294,103 @@ public class SearchService
     {
         Objects.requireNonNull(pattern, "pattern");
 
-        IResource[] roots = getOpenProjectsAsRoots();
-        if (roots.length == 0)
-        {
-            return List.of();
-        }
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        return searchFiles(pattern, ParallelTextSearch.Budget.UNLIMITED, fileNamePatterns).matches().stream()
+                .map(match -> new SearchResult(root.getFile(IPath.fromPortableString(match.path())), match.lineNumber(), match.line()))
+                .toList();
+    }
 
-        // Use core TextSearchScope to avoid UI bundle dependency.
-        // In this Eclipse version TextSearchScope.newSearchScope expects a regex Pattern.
+    /**
+     * Searches the candidate files in parallel. Inside a long running tool the
+     * matching lines are appended to the operation's output as they are found, and
+     * cancelling the operation stops the search.
+     */
+    private ParallelTextSearch.Result searchFiles(Pattern pattern, ParallelTextSearch.Budget budget, String... fileNamePatterns)
+    {
         Pattern fileNamePattern = ResourceUtilities.globPatternsToRegex(fileNamePatterns);
-        TextSearchScope scope = TextSearchScope.newSearchScope(roots, fileNamePattern, true);
-        TextSearchEngine engine = TextSearchEngine.createDefault();
-
-        List<SearchResult> results = new ArrayList<>();
-
-        TextSearchRequestor requestor = new TextSearchRequestor()
+        Optional<Operation> operation = OperationContext.current();
+        try
         {
-            @Override
-            public boolean acceptFile(IFile file) throws CoreException
-            {
-                return file != null && file.isAccessible() && !aiIgnoreService.isExcluded(file);
-            }
+            List<IFile> files = listSearchFiles(pattern, fileNamePattern);
+            operation.ifPresent(op -> op.setProgress("searching " + files.size() + " file(s)"));
+            Consumer<ParallelTextSearch.Match> sink = operation
+                    .map(op -> (Consumer<ParallelTextSearch.Match>) match -> op.output().append(match.format() + "\n", false))
+                    .orElse(null);
+            BooleanSupplier cancelled = operation.map(op -> (BooleanSupplier) op::isCancelRequested).orElse(null);
+            ParallelTextSearch.Result result = textSearch.search(files, pattern, budget, sink, cancelled);
+            operation.ifPresent(op -> op.setProgress(result.summary()));
+            return result;
+        }
+        catch (CoreException e)
+        {
+            logger.error(e.getMessage(), e);
+            throw new RuntimeException("Error searching files: " + ExceptionUtils.getRootCauseMessage(e), e);
+        }
+    }
 
-            @Override
-            public boolean acceptPatternMatch(TextSearchMatchAccess matchAccess) throws CoreException
+    /**
+     * The files to search, folder by folder: the trigram index candidates when it
+     * can narrow the search, otherwise every file of the open projects.
+     */
+    private List<IFile> listSearchFiles(Pattern pattern, Pattern fileNamePattern) throws CoreException
+    {
+        List<IFile> files = new ArrayList<>();
+        List<IFile> candidates = searchIndex.candidates(pattern, fileNamePattern);
+        if (candidates != null)
+        {
+            for (IFile file : candidates)
             {
-                IFile file = matchAccess.getFile();
-
-                // Convert offset -> line number/content by reading the file.
-                int matchOffset = matchAccess.getMatchOffset();
-
-                LineInfo lineInfo = getLineInfo(file, matchOffset);
-                results.add(new SearchResult(file, lineInfo.lineNumber, lineInfo.lineContent));
-                return true;
+                if (!aiIgnoreService.isExcluded(file))
+                {
+                    files.add(file);
+                }
             }
-        };
+            files.sort(Comparator.comparing(file -> file.getFullPath().toString()));
+            return files;
+        }
+        for (IResource project : getOpenProjectsAsRoots())
+        {
+            project.accept(proxy -> {
+                if (proxy.getType() != IResource.FILE)
+                {
+                    return true;
+                }
+                if (fileNamePattern.matcher(proxy.getName()).matches())
+                {
+                    IFile file = (IFile) proxy.requestResource();
+                    if (file.isAccessible() && !aiIgnoreService.isExcluded(file))
+                    {
+                        files.add(file);
+                    }
+                }
+                return false;
+            }, IResource.NONE);
+        }
+        return files;
+    }
 
-        IProgressMonitor monitor = new NullProgressMonitor();
+    private static ParallelTextSearch.Budget budget(int maxResults, long maxBytes)
+    {
+        return new ParallelTextSearch.Budget(maxResults > 0 ? maxResults : DEFAULT_MAX_RESULTS, maxBytes > 0 ? maxBytes : DEFAULT_MAX_BYTES);
+    }
 
-        try
+    private static String formatResult(ParallelTextSearch.Result result)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (ParallelTextSearch.Match match : result.matches())
         {
-            engine.search(scope, requestor, pattern, monitor);
-            return results;
+            sb.append(match.format()).append("\n");
         }
-        catch (Exception e)
+        if (!result.matches().isEmpty())
         {
-            logger.error(e.getMessage(), e);
-            throw new RuntimeException("Error searching files: " + ExceptionUtils.getRootCauseMessage(e), e);
+            sb.append("\n");
         }
+        sb.append(result.summary());
+        if (!result.complete() && !"cancelled".equals(result.stopReason()))
+        {
+            sb.append(" More matches exist: use a more specific pattern or fileNamePatterns, or raise maxResults/maxBytes.");
+        }
+        return sb.toString();
     }
 
     private record LineInfo(int lineNumber, String lineContent)
@@ -293,36 +398,27 @@ public class SearchService
 
     }
 
-    private static LineInfo getLineInfo(IFile file, int offset)
+    private LineInfo getLineInfo(IFile file, int offset)
     {
         if (file == null)
         {
             return new LineInfo(-1, "");
         }
 
-        try
-        {
-            List<String> lines = ResourceUtilities.readFileLines(file);
-
-            // Compute line number from offset by walking through lines and accounting for '\n'.
-            int charCount = 0;
-            for (int i = 0; i < lines.size(); i++)
-            {
-                String line = lines.get(i);
-                int nextCharCount = charCount + line.length() + 1;
-                if (offset < nextCharCount)
-                {
-                    return new LineInfo(i + 1, line);
-                }
-                charCount = nextCharCount;
-            }
+        // The file is indexed once and shared by all its matches.
+        LineIndexService.Line line = lineIndexService.getLine(file, offset);
+        return line != null ? new LineInfo(line.lineNumber(), line.content()) : new LineInfo(-1, "");
+    }
 
-            return new LineInfo(-1, "");
-        }
-        catch (CoreException | IOException e)
-        {
-            return new LineInfo(-1, "");
-        }
+    /**
+     * The files the trigram index says may match, or all open projects when the
+     * index cannot narrow the search (still building, or no literal text in the
+     * pattern).
+     */
+    private IResource[] getSearchRoots(Pattern pattern, Pattern fileNamePattern)
+    {
+        List<IFile> candidates = searchIndex.candidates(pattern, fileNamePattern);
+        return candidates != null ? candidates.toArray(IResource[]::new) : getOpenProjectsAsRoots();
     }
 
     private static IResource[] getOpenProjectsAsRoots()
@@ -0,0 +1,177 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+
+import com.github.gradusnikov.eclipse.assistai.Activator;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.UnitTestService.TestResult;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.UnitTestService.TestRunResult;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * The outcome of the last run of each test class - how long its tests took and
+ * whether any of them failed - fed by the JUnit and JUnit Plug-in test runs and
+ * kept in the plug-in state location, so shards can be balanced from the first
+ * run of a session.
+ */
+@Creatable
+@Singleton
+public class TestHistory
+{
+    private static final String STORE_FILE = "test-history.tsv";
+
+    public record ClassStats( double seconds, boolean failed )
+    {
+    }
+
+    @Inject
+    ILog                                  logger;
+
+    private final Map<String, ClassStats> classes    = new ConcurrentHashMap<>();
+
+    private final AtomicLong              runs       = new AtomicLong();
+
+    /** Classes by the number of the run that last recorded them in this session. */
+    private final Map<String, Long>       recordedIn = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load()
+    {
+        Path file = storeFile();
+        if ( file == null || !Files.isRegularFile( file ) )
+        {
+            return;
+        }
+        try
+        {
+            for ( String line : Files.readAllLines( file, StandardCharsets.UTF_8 ) )
+            {
+                String[] fields = line.split( "\t" );
+                if ( fields.length == 3 )
+                {
+                    classes.put( fields[0], new ClassStats( Double.parseDouble( fields[1] ), Boolean.parseBoolean( fields[2] ) ) );
+                }
+            }
+        }
+        catch ( IOException | NumberFormatException e )
+        {
+            warn( "Could not read the test history: " + e.getMessage() );
+        }
+    }
+
+    public void record( TestRunResult run )
+    {
+        Map<String, ClassStats> ran = new HashMap<>();
+        for ( TestResult result : run.getTestResults() )
+        {
+            boolean failed = Result.FAILURE.toString().equals( result.status() ) || Result.ERROR.toString().equals( result.status() );
+            ran.merge( result.className(), new ClassStats( result.executionTime(), failed ),
+                    ( a, b ) -> new ClassStats( a.seconds() + b.seconds(), a.failed() || b.failed() ) );
+        }
+        classes.putAll( ran );
+        long number = runs.incrementAndGet();
+        ran.keySet().forEach( className -> recordedIn.put( className, number ) );
+        if ( !ran.isEmpty() )
+        {
+            save();
+        }
+    }
+
+    /** The last run of the class, or {@code null} if it has not run. */
+    public ClassStats get( String className )
+    {
+        return classes.get( className );
+    }
+
+    /** The number of the last recorded run, to pass to {@link #notPassedSince}. */
+    public long lastRun()
+    {
+        return runs.get();
+    }
+
+    /**
+     * The given classes that have no passing result recorded after run number
+     * {@code run} - they failed, or did not report, as in a cancelled run.
+     */
+    public Set<String> notPassedSince( long run, Collection<String> classNames )
+    {
+        return classNames.stream()
+                .filter( c -> recordedIn.getOrDefault( c, 0L ) <= run || classes.get( c ).failed() )
+                .collect( Collectors.toSet() );
+    }
+
+    /** Last run times of the given classes that have run. */
+    public Map<String, Double> seconds( List<String> classNames )
+    {
+        return classNames.stream().filter( classes::containsKey ).collect( Collectors.toMap( c -> c, c -> classes.get( c ).seconds(), ( a, b ) -> a ) );
+    }
+
+    /** The given classes whose last run failed. */
+    public Set<String> failed( List<String> classNames )
+    {
+        return classNames.stream().filter( c -> classes.containsKey( c ) && classes.get( c ).failed() ).collect( Collectors.toSet() );
+    }
+
+    private synchronized void save()
+    {
+        Path file = storeFile();
+        if ( file == null )
+        {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        classes.forEach( ( name, stats ) -> lines.add( name + "\t" + stats.seconds() + "\t" + stats.failed() ) );
+        try
+        {
+            Files.createDirectories( file.getParent() );
+            Files.write( file, lines, StandardCharsets.UTF_8 );
+        }
+        catch ( IOException e )
+        {
+            warn( "Could not write the test history: " + e.getMessage() );
+        }
+    }
+
+    private static Path storeFile()
+    {
+        Activator activator = Activator.getDefault();
+        if ( activator == null )
+        {
+            return null;
+        }
+        try
+        {
+            return activator.getStateLocation().append( STORE_FILE ).toFile().toPath();
+        }
+        catch ( IllegalStateException e )
+        {
+            return null;
+        }
+    }
+
+    private void warn( String message )
+    {
+        if ( logger != null )
+        {
+            logger.warn( message );
+        }
+    }
+}
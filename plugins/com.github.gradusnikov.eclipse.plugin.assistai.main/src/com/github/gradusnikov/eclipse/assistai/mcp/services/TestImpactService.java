@@ -0,0 +1,477 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchParticipant;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.services.TestHistory.ClassStats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Picks the test classes of a project that the Java files changed since its last
+ * green run can affect, and runs only those.
+ * <p>
+ * A test class is affected when its compilation unit changed, or when it
+ * references a type of a changed unit - directly or through up to
+ * {@link #MAX_DEPTH} units that do. References come from the JDT search index.
+ * The units referencing each unit are cached: an entry stays usable while every
+ * unit changed after it was computed is itself a changed file of the query, since
+ * those are where the walk starts anyway.
+ * <p>
+ * Changed files are recorded from resource deltas. For a project that has not had
+ * a green run in this session and has no recorded changes, the uncommitted files
+ * of its Git repository are used instead.
+ */
+@Creatable
+@Singleton
+public class TestImpactService implements IResourceChangeListener
+{
+    static final int            MAX_DEPTH   = 4;
+
+    private static final int    MAX_UNITS   = 5_000;
+
+    private static final String PDE_NATURE  = "org.eclipse.pde.PluginNature";
+
+    /**
+     * @param tests    the affected test classes
+     * @param skipped  the project's other test classes
+     * @param complete whether the walk reached every unit referencing a changed
+     *                 one; if not, a skipped class may still be affected
+     */
+    public record Selection( List<String> tests, List<String> skipped, Set<IPath> changedFiles, String changeSource, boolean complete )
+    {
+        public int totalTests()
+        {
+            return tests.size() + skipped.size();
+        }
+    }
+
+    private record Referencers( long computedAt, Set<String> units )
+    {
+    }
+
+    @Inject
+    ILog                                    logger;
+
+    @Inject
+    UnitTestService                         unitTestService;
+
+    @Inject
+    PDEService                              pdeService;
+
+    @Inject
+    GitService                              gitService;
+
+    @Inject
+    TestHistory                             testHistory;
+
+    private final AtomicLong                sequence    = new AtomicLong();
+
+    /** Java files by the sequence number of their last change. */
+    private final Map<IPath, Long>          changedAt   = new ConcurrentHashMap<>();
+
+    /** Projects by the sequence number at the start of their last green run. */
+    private final Map<String, Long>         greenAt     = new ConcurrentHashMap<>();
+
+    /** Compilation unit handles by the handles of the units that reference them. */
+    private final Map<String, Referencers>  referencers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init()
+    {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener( this, IResourceChangeEvent.POST_CHANGE );
+    }
+
+    @PreDestroy
+    public void dispose()
+    {
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener( this );
+        referencers.clear();
+    }
+
+    @Override
+    public void resourceChanged( IResourceChangeEvent event )
+    {
+        if ( event.getDelta() == null )
+        {
+            return;
+        }
+        try
+        {
+            event.getDelta().accept( delta -> {
+                if ( delta.getResource().getType() == IResource.FILE )
+                {
+                    boolean contentChange = delta.getKind() != IResourceDelta.CHANGED
+                            || ( delta.getFlags() & ( IResourceDelta.CONTENT | IResourceDelta.REPLACED ) ) != 0;
+                    if ( contentChange && "java".equals( delta.getResource().getFileExtension() ) )
+                    {
+                        changedAt.put( delta.getResource().getFullPath(), sequence.incrementAndGet() );
+                    }
+                    return false;
+                }
+                return true;
+            } );
+        }
+        catch ( CoreException e )
+        {
+            if ( logger != null )
+            {
+                logger.warn( "Could not record changed files: " + e.getMessage() );
+            }
+        }
+    }
+
+    /**
+     * Runs the tests of a project affected by the given files, or by the files
+     * changed since the project's last green run.
+     *
+     * @param changedFiles workspace paths of changed files, or {@code null} to use
+     *                     the recorded changes
+     */
+    public String runAffectedTests( String projectName, List<String> changedFiles, Integer timeout )
+    {
+        Objects.requireNonNull( projectName, "Project name cannot be null" );
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject( projectName );
+        try
+        {
+            if ( !project.isOpen() || !project.hasNature( JavaCore.NATURE_ID ) )
+            {
+                return "Error: Project '" + projectName + "' is not an open Java project.";
+            }
+            long runStartsAt = sequence.get();
+            Selection selection = select( JavaCore.create( project ), changedFiles );
+
+            StringBuilder sb = new StringBuilder();
+            sb.append( "Changed Java files (" ).append( selection.changeSource() ).append( "): " ).append( selection.changedFiles().size() ).append( "\n" );
+            selection.changedFiles().stream().limit( 20 ).forEach( path -> sb.append( "  " ).append( path ).append( "\n" ) );
+            if ( selection.changedFiles().size() > 20 )
+            {
+                sb.append( "  ... and " ).append( selection.changedFiles().size() - 20 ).append( " more\n" );
+            }
+            if ( !selection.complete() )
+            {
+                sb.append( "The reference walk hit its limit (" ).append( MAX_DEPTH ).append( " levels, " ).append( MAX_UNITS )
+                  .append( " units) with units left to follow; skipped classes may be affected too, so this run does not count as green.\n" );
+            }
+            if ( selection.tests().isEmpty() )
+            {
+                if ( changedFiles == null && selection.complete() )
+                {
+                    greenAt.put( projectName, runStartsAt );
+                }
+                return sb.append( "No test classes of '" ).append( projectName ).append( "' are affected; nothing to run." ).toString();
+            }
+
+            sb.append( "Affected test classes: " ).append( selection.tests().size() ).append( " of " ).append( selection.totalTests() ).append( "\n" );
+            selection.tests().forEach( test -> sb.append( "  " ).append( test ).append( "\n" ) );
+
+            long recordedBefore = testHistory == null ? 0 : testHistory.lastRun();
+            long start = System.currentTimeMillis();
+            String result = project.hasNature( PDE_NATURE )
+                    ? pdeService.runJUnitPluginTestClasses( projectName, selection.tests(), timeout )
+                    : unitTestService.runClassesTests( projectName, selection.tests(), timeout );
+            double seconds = ( System.currentTimeMillis() - start ) / 1000.0;
+
+            // Only results recorded by this run count: a cancelled run records none,
+            // and a class that did not report has not passed.
+            Set<String> notPassed = testHistory == null ? Set.copyOf( selection.tests() )
+                    : testHistory.notPassedSince( recordedBefore, selection.tests() );
+            if ( notPassed.isEmpty() && selection.complete() && changedFiles == null )
+            {
+                greenAt.put( projectName, runStartsAt );
+            }
+            sb.append( String.format( "Ran in %.1fs. ", seconds ) ).append( formatSkipped( selection ) ).append( "\n" );
+            if ( !notPassed.isEmpty() )
+            {
+                sb.append( notPassed.size() ).append( " of the selected classes did not report a passing result; the changes stay pending.\n" );
+            }
+            sb.append( "\n" );
+            return sb.append( result ).toString();
+        }
+        catch ( CoreException e )
+        {
+            return "Error selecting affected tests: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Selects the test classes of {@code javaProject} affected by the given files,
+     * or by the recorded changes.
+     */
+    public Selection select( IJavaProject javaProject, Collection<String> changedFiles ) throws CoreException
+    {
+        String changeSource;
+        Set<IPath> changed = new TreeSet<>( ( a, b ) -> a.toString().compareTo( b.toString() ) );
+        if ( changedFiles != null )
+        {
+            changedFiles.stream().map( org.eclipse.core.runtime.Path::new ).forEach( changed::add );
+            changeSource = "as given";
+        }
+        else
+        {
+            String projectName = javaProject.getElementName();
+            Long green = greenAt.get( projectName );
+            changedAt.forEach( ( path, at ) -> {
+                if ( green == null || at > green )
+                {
+                    changed.add( path );
+                }
+            } );
+            changeSource = green == null ? "recorded in this session" : "since the last green run";
+            if ( green == null && changed.isEmpty() && gitService != null )
+            {
+                for ( IFile file : gitService.getUncommittedFiles( projectName ) )
+                {
+                    if ( "java".equals( file.getFileExtension() ) )
+                    {
+                        changed.add( file.getFullPath() );
+                    }
+                }
+                changeSource = "uncommitted in Git";
+            }
+        }
+        changed.removeIf( path -> !"java".equals( path.getFileExtension() ) );
+
+        Map<String, List<String>> testsByUnit = testsByUnit( javaProject );
+
+        // An entry computed before a change to a unit that is not a seed may miss a
+        // reference that unit added.
+        long validFrom = 0;
+        for ( Map.Entry<IPath, Long> entry : changedAt.entrySet() )
+        {
+            if ( !changed.contains( entry.getKey() ) )
+            {
+                validFrom = Math.max( validFrom, entry.getValue() );
+            }
+        }
+
+        IJavaSearchScope scope = searchScope( javaProject );
+        Set<String> visited = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        Set<String> removedTypeNames = new HashSet<>();
+        for ( IPath path : changed )
+        {
+            IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile( path );
+            IJavaElement element = JavaCore.create( file );
+            if ( element instanceof ICompilationUnit unit && unit.exists() )
+            {
+                if ( visited.add( unit.getHandleIdentifier() ) )
+                {
+                    queue.add( unit.getHandleIdentifier() );
+                }
+            }
+            else if ( !file.exists() )
+            {
+                removedTypeNames.add( path.removeFileExtension().lastSegment() );
+            }
+        }
+        for ( String typeName : removedTypeNames )
+        {
+            for ( String unit : search( typeReferences( typeName ), scope ) )
+            {
+                if ( visited.add( unit ) )
+                {
+                    queue.add( unit );
+                }
+            }
+        }
+
+        Set<String> tests = new LinkedHashSet<>();
+        boolean complete = true;
+        for ( int depth = 0; !queue.isEmpty(); depth++ )
+        {
+            Deque<String> next = new ArrayDeque<>();
+            for ( String unit : queue )
+            {
+                tests.addAll( testsByUnit.getOrDefault( unit, List.of() ) );
+                if ( !complete )
+                {
+                    continue;
+                }
+                for ( String referencing : referencers( unit, scope, validFrom ) )
+                {
+                    if ( visited.contains( referencing ) )
+                    {
+                        continue;
+                    }
+                    if ( depth == MAX_DEPTH || visited.size() >= MAX_UNITS )
+                    {
+                        complete = false;
+                        break;
+                    }
+                    visited.add( referencing );
+                    next.add( referencing );
+                }
+            }
+            queue = next;
+        }
+        List<String> skipped = testsByUnit.values().stream().flatMap( List::stream ).filter( test -> !tests.contains( test ) ).sorted().toList();
+        return new Selection( List.copyOf( tests ), skipped, changed, changeSource, complete );
+    }
+
+    private Set<String> referencers( String unitHandle, IJavaSearchScope scope, long validFrom ) throws CoreException
+    {
+        Referencers cached = referencers.get( unitHandle );
+        if ( cached != null && cached.computedAt() >= validFrom )
+        {
+            return cached.units();
+        }
+        long computedAt = sequence.get();
+        Set<String> units = Set.of();
+        if ( JavaCore.create( unitHandle ) instanceof ICompilationUnit unit && unit.exists() )
+        {
+            SearchPattern pattern = null;
+            for ( IType type : unit.getAllTypes() )
+            {
+                SearchPattern typePattern = SearchPattern.createPattern( type, IJavaSearchConstants.REFERENCES );
+                pattern = pattern == null ? typePattern : SearchPattern.createOrPattern( pattern, typePattern );
+            }
+            if ( pattern != null )
+            {
+                units = search( pattern, scope );
+                units.remove( unitHandle );
+            }
+        }
+        referencers.put( unitHandle, new Referencers( computedAt, units ) );
+        return units;
+    }
+
+    private static SearchPattern typeReferences( String simpleName )
+    {
+        return SearchPattern.createPattern( simpleName, IJavaSearchConstants.TYPE, IJavaSearchConstants.REFERENCES,
+                SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE );
+    }
+
+    private static Set<String> search( SearchPattern pattern, IJavaSearchScope scope ) throws CoreException
+    {
+        Set<String> units = new HashSet<>();
+        new SearchEngine().search( pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, scope, new SearchRequestor()
+        {
+            @Override
+            public void acceptSearchMatch( SearchMatch match )
+            {
+                if ( match.getElement() instanceof IJavaElement element
+                        && element.getAncestor( IJavaElement.COMPILATION_UNIT ) instanceof ICompilationUnit unit )
+                {
+                    units.add( unit.getHandleIdentifier() );
+                }
+            }
+        }, null );
+        return units;
+    }
+
+    /** The project and the projects on its classpath, sources only. */
+    private static IJavaSearchScope searchScope( IJavaProject javaProject ) throws CoreException
+    {
+        List<IJavaElement> projects = new ArrayList<>();
+        projects.add( javaProject );
+        for ( String name : javaProject.getRequiredProjectNames() )
+        {
+            IProject required = ResourcesPlugin.getWorkspace().getRoot().getProject( name );
+            if ( required.isOpen() && required.hasNature( JavaCore.NATURE_ID ) )
+            {
+                projects.add( JavaCore.create( required ) );
+            }
+        }
+        return SearchEngine.createJavaSearchScope( projects.toArray( IJavaElement[]::new ), IJavaSearchScope.SOURCES );
+    }
+
+    /** Test class names of the project's source units, by unit handle. */
+    private static Map<String, List<String>> testsByUnit( IJavaProject javaProject ) throws CoreException
+    {
+        Map<String, List<String>> tests = new HashMap<>();
+        for ( IPackageFragmentRoot root : javaProject.getPackageFragmentRoots() )
+        {
+            if ( root.getKind() != IPackageFragmentRoot.K_SOURCE || !javaProject.equals( root.getJavaProject() ) )
+            {
+                continue;
+            }
+            for ( IJavaElement child : root.getChildren() )
+            {
+                if ( child instanceof IPackageFragment pkg )
+                {
+                    for ( ICompilationUnit unit : pkg.getCompilationUnits() )
+                    {
+                        for ( IType type : unit.getTypes() )
+                        {
+                            if ( !type.isInterface() && !Flags.isAbstract( type.getFlags() ) && UnitTestService.isTestClass( type ) )
+                            {
+                                tests.computeIfAbsent( unit.getHandleIdentifier(), k -> new ArrayList<>() ).add( type.getFullyQualifiedName() );
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return tests;
+    }
+
+    /** The skipped classes and what their last runs took, which is the time saved. */
+    private String formatSkipped( Selection selection )
+    {
+        if ( selection.skipped().isEmpty() )
+        {
+            return "No test classes were skipped.";
+        }
+        double seconds = 0;
+        int timed = 0;
+        for ( String test : selection.skipped() )
+        {
+            ClassStats stats = testHistory == null ? null : testHistory.get( test );
+            if ( stats != null )
+            {
+                seconds += stats.seconds();
+                timed++;
+            }
+        }
+        String skipped = "Skipped " + selection.skipped().size() + " test classes";
+        if ( timed == 0 )
+        {
+            return skipped + "; none of them has a recorded run, so the time saved is not known.";
+        }
+        return skipped + String.format( "; their last runs took %.1fs", seconds )
+                + ( timed < selection.skipped().size() ? " for the " + timed + " with a recorded run." : "." );
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits test classes into shards of about equal run time, each shard run by its
+ * own JVM.
+ * <p>
+ * Classes are dealt longest first to the shard with the least planned time, using
+ * the durations of their last runs; a class without one is assumed to take the
+ * average of those that have. Within a shard, classes that failed last time run
+ * first, so a failure that persists shows up early.
+ */
+public final class TestShardPlanner
+{
+    /** Assumed duration of a class when no class has a recorded one. */
+    static final double DEFAULT_SECONDS = 1.0;
+
+    public record Shard( List<String> classes, double plannedSeconds )
+    {
+    }
+
+    private TestShardPlanner()
+    {
+    }
+
+    /**
+     * @param classes the test classes to run
+     * @param shards  the number of shards wanted; fewer are returned when there are
+     *                fewer classes
+     * @param seconds the last run time of classes, by class name
+     * @param failed  classes whose last run failed
+     */
+    public static List<Shard> plan( List<String> classes, int shards, Map<String, Double> seconds, Set<String> failed )
+    {
+        int count = Math.max( 1, Math.min( shards, classes.size() ) );
+        double assumed = seconds.values().stream().mapToDouble( Double::doubleValue ).average().orElse( DEFAULT_SECONDS );
+
+        List<String> byDuration = new ArrayList<>( classes );
+        byDuration.sort( Comparator.<String>comparingDouble( c -> seconds.getOrDefault( c, assumed ) ).reversed().thenComparing( c -> c ) );
+
+        List<List<String>> assigned = new ArrayList<>();
+        double[] planned = new double[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            assigned.add( new ArrayList<>() );
+        }
+        for ( String testClass : byDuration )
+        {
+            int lightest = 0;
+            for ( int i = 1; i < count; i++ )
+            {
+                if ( planned[i] < planned[lightest] )
+                {
+                    lightest = i;
+                }
+            }
+            assigned.get( lightest ).add( testClass );
+            planned[lightest] += seconds.getOrDefault( testClass, assumed );
+        }
+
+        List<Shard> result = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            List<String> ordered = new ArrayList<>( assigned.get( i ) );
+            // Stable: failed classes move to the front, longest first among each group.
+            ordered.sort( Comparator.comparing( ( String c ) -> !failed.contains( c ) ) );
+            if ( !ordered.isEmpty() )
+            {
+                result.add( new Shard( List.copyOf( ordered ), planned[i] ) );
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,312 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+
+/**
+ * Resolves fully qualified type names to {@link IType} handles, remembering the
+ * answer.
+ * <p>
+ * A lookup asks each open Java project in turn, as {@code IJavaProject.findType}
+ * only sees a project's own classpath. In a workspace with many projects that is
+ * slow for a type near the end of the list and slowest for a name that does not
+ * resolve, and the tools repeat the same lookups many times in a session. Answers,
+ * misses included, and the list of Java projects are kept until a Java element
+ * delta says they may be out of date:
+ * <ul>
+ * <li>projects opened, closed, added or removed, and classpath changes, drop
+ * everything;</li>
+ * <li>a compilation unit or class file that changed or went away drops the answers
+ * it held; any new or changed unit also drops the misses, as it may declare one of
+ * them.</li>
+ * </ul>
+ * Thread safe.
+ */
+@Creatable
+@Singleton
+public class TypeLocator
+{
+    /** A resolved type and the project it was resolved in. */
+    public record Location( IType type, IJavaProject project )
+    {
+    }
+
+    /** Cached miss. */
+    private static final Location              NOT_FOUND   = new Location( null, null );
+
+    private final Map<String, Location>        types       = new ConcurrentHashMap<>();
+
+    private final Map<String, Location>        sourceTypes = new ConcurrentHashMap<>();
+
+    private volatile List<IJavaProject>        javaProjects;
+
+    /** Bumped by every invalidation, so a lookup racing with one does not cache a stale answer. */
+    private final AtomicLong                   generation  = new AtomicLong();
+
+    private final IElementChangedListener      listener    = this::elementChanged;
+
+    @PostConstruct
+    public void init()
+    {
+        JavaCore.addElementChangedListener( listener, ElementChangedEvent.POST_CHANGE );
+    }
+
+    @PreDestroy
+    public void dispose()
+    {
+        JavaCore.removeElementChangedListener( listener );
+    }
+
+    /**
+     * The open Java projects of the workspace, in workspace order.
+     */
+    public List<IJavaProject> getJavaProjects()
+    {
+        List<IJavaProject> projects = javaProjects;
+        if ( projects == null )
+        {
+            long before = generation.get();
+            projects = listJavaProjects();
+            if ( generation.get() == before )
+            {
+                javaProjects = projects;
+            }
+        }
+        return projects;
+    }
+
+    /**
+     * Finds a type the way looping over {@link #getJavaProjects()} with
+     * {@code findType} would: the first project that resolves the name wins, even
+     * if it only sees a binary copy.
+     *
+     * @return the type, or {@code null} if no project resolves it
+     */
+    public Location find( String fullyQualifiedName )
+    {
+        return lookup( types, fullyQualifiedName, false );
+    }
+
+    /**
+     * Finds the first resolution of a type to workspace source, skipping projects
+     * that only see it as a class file.
+     *
+     * @return the type, or {@code null} if no project has it as source
+     */
+    public Location findSource( String fullyQualifiedName )
+    {
+        return lookup( sourceTypes, fullyQualifiedName, true );
+    }
+
+    /**
+     * Every resolution of a type, for a caller that needs a copy with something the
+     * first may lack - Javadoc, source, a particular method: the workspace source,
+     * then the first resolution, then each project's, without repeats. The stream
+     * is lazy, and the per-project lookups are not cached, so they only cost
+     * anything when the cached answers do not do.
+     */
+    public Stream<IType> findAll( String fullyQualifiedName )
+    {
+        Stream<IType> located = Stream.of( findSource( fullyQualifiedName ), find( fullyQualifiedName ) ).filter( Objects::nonNull )
+                .map( Location::type );
+        Stream<IType> everyProject = getJavaProjects().stream().map( project -> findType( project, fullyQualifiedName ) )
+                .filter( Objects::nonNull );
+        return Stream.concat( located, everyProject ).distinct();
+    }
+
+    /** Forgets every answer and the project list. */
+    public void clear()
+    {
+        generation.incrementAndGet();
+        javaProjects = null;
+        types.clear();
+        sourceTypes.clear();
+    }
+
+    /**
+     * Enumerates the open Java projects without any caching.
+     *
+     * @throws RuntimeException if a project's natures cannot be read
+     */
+    public static List<IJavaProject> listJavaProjects()
+    {
+        List<IJavaProject> projects = new ArrayList<>();
+        try
+        {
+            for ( IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects() )
+            {
+                if ( project.isOpen() && project.hasNature( JavaCore.NATURE_ID ) )
+                {
+                    projects.add( JavaCore.create( project ) );
+                }
+            }
+        }
+        catch ( CoreException e )
+        {
+            throw new RuntimeException( e );
+        }
+        return List.copyOf( projects );
+    }
+
+    private Location lookup( Map<String, Location> cache, String fullyQualifiedName, boolean sourceOnly )
+    {
+        if ( fullyQualifiedName == null || fullyQualifiedName.isBlank() )
+        {
+            return null;
+        }
+        Location cached = cache.get( fullyQualifiedName );
+        if ( cached == NOT_FOUND )
+        {
+            return null;
+        }
+        if ( cached != null && cached.type().exists() )
+        {
+            return cached;
+        }
+        long before = generation.get();
+        Location found = resolve( fullyQualifiedName, sourceOnly );
+        if ( generation.get() == before )
+        {
+            cache.put( fullyQualifiedName, found == null ? NOT_FOUND : found );
+        }
+        return found;
+    }
+
+    private Location resolve( String fullyQualifiedName, boolean sourceOnly )
+    {
+        for ( IJavaProject project : getJavaProjects() )
+        {
+            IType type = findType( project, fullyQualifiedName );
+            if ( type != null && ( !sourceOnly || type.getCompilationUnit() != null ) )
+            {
+                return new Location( type, project );
+            }
+        }
+        return null;
+    }
+
+    private static IType findType( IJavaProject project, String fullyQualifiedName )
+    {
+        try
+        {
+            return project.findType( fullyQualifiedName );
+        }
+        catch ( JavaModelException e )
+        {
+            // A project with a broken classpath just cannot see the type.
+            return null;
+        }
+    }
+
+    private void elementChanged( ElementChangedEvent event )
+    {
+        if ( invalidate( event.getDelta() ) )
+        {
+            clear();
+        }
+    }
+
+    /**
+     * Drops what a delta makes stale.
+     *
+     * @return true if everything has to go
+     */
+    private boolean invalidate( IJavaElementDelta delta )
+    {
+        IJavaElement element = delta.getElement();
+        int kind = delta.getKind();
+        int flags = delta.getFlags();
+        switch ( element.getElementType() )
+        {
+            case IJavaElement.JAVA_PROJECT:
+                if ( kind != IJavaElementDelta.CHANGED || ( flags & ( IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+                        | IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED ) ) != 0 )
+                {
+                    return true;
+                }
+                break;
+            case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+                if ( kind != IJavaElementDelta.CHANGED || ( flags & ( IJavaElementDelta.F_ADDED_TO_CLASSPATH
+                        | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+                        | IJavaElementDelta.F_REORDER ) ) != 0 )
+                {
+                    return true;
+                }
+                break;
+            case IJavaElement.PACKAGE_FRAGMENT:
+                if ( kind == IJavaElementDelta.REMOVED )
+                {
+                    // Its units may not be reported one by one.
+                    evictUnder( element );
+                    dropMisses();
+                    return false;
+                }
+                break;
+            case IJavaElement.COMPILATION_UNIT:
+            case IJavaElement.CLASS_FILE:
+                if ( kind != IJavaElementDelta.ADDED )
+                {
+                    evictUnder( element );
+                }
+                dropMisses();
+                return false;
+            default:
+                break;
+        }
+        for ( IJavaElementDelta child : delta.getAffectedChildren() )
+        {
+            if ( invalidate( child ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Forgets the answers that point into a package, compilation unit or class file. */
+    private void evictUnder( IJavaElement container )
+    {
+        generation.incrementAndGet();
+        types.values().removeIf( location -> isUnder( location, container ) );
+        sourceTypes.values().removeIf( location -> isUnder( location, container ) );
+    }
+
+    private void dropMisses()
+    {
+        generation.incrementAndGet();
+        types.values().removeIf( location -> location == NOT_FOUND );
+        sourceTypes.values().removeIf( location -> location == NOT_FOUND );
+    }
+
+    private static boolean isUnder( Location location, IJavaElement container )
+    {
+        if ( location == NOT_FOUND )
+        {
+            return false;
+        }
+        IJavaElement ancestor = location.type().getAncestor( container.getElementType() );
+        return ancestor != null && ancestor.equals( container );
+    }
+}
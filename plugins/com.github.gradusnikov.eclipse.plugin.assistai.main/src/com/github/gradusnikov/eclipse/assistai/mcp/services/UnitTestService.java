@@ -1,10 +1,17 @@
 package com.github.gradusnikov.eclipse.assistai.mcp.services;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.debug.core.ILaunch;
@@ -26,6 +33,7 @@ import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.e4.core.di.annotations.Creatable;
 import org.eclipse.e4.ui.di.UISynchronize;
+import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IAnnotation;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -57,6 +65,12 @@ public class UnitTestService {
     @Inject
     CoverageService coverageService;
     
+    @Inject
+    TestHistory testHistory;
+    
+    /** Numbers the sharded runs, so concurrent runs of one project tell their sessions apart. */
+    private final AtomicInteger shardedRuns = new AtomicInteger();
+    
     /**
      * Represents a test result with details about the test execution
      */
@@ -101,7 +115,7 @@ public class UnitTestService {
             this.totalTime = 0.0;
         }
         
-        public void addTestResult(TestResult result) {
+        public synchronized void addTestResult(TestResult result) {
             testResults.add(result);
             totalCount++;
             
@@ -135,6 +149,18 @@ public class UnitTestService {
                 + ", Time: " + String.format("%.2f", totalTime) + "s";
         }
 
+        public synchronized int getTotalCount() {
+            return totalCount;
+        }
+
+        public synchronized double getTotalTime() {
+            return totalTime;
+        }
+
+        public synchronized List<TestResult> getTestResults() {
+            return List.copyOf(testResults);
+        }
+
         /** Full test listing — suitable for 'results' intermediate result. */
         public synchronized String toResults() {
             StringBuilder sb = new StringBuilder();
@@ -282,12 +308,196 @@ public class UnitTestService {
             if (type == null) {
                 throw new RuntimeException("Error: Class '" + className + "' not found in project '" + projectName + "'.");
             }
-            return launchJUnitTests(javaProject, null, type, timeout, null, withCoverage, launcherName);
+            return launchJUnitTests(javaProject, null, List.of(type), timeout, null, withCoverage, launcherName);
         } catch (CoreException e) {
             throw new RuntimeException("Error running tests: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Runs the given test classes in one launch.
+     *
+     * @param classNames fully qualified names of the test classes
+     */
+    public String runClassesTests(String projectName, List<String> classNames, Integer timeout) {
+        return runClassesTests(projectName, classNames, timeout, false, null);
+    }
+
+    /**
+     * Runs the given test classes in one launch, optionally with coverage and using
+     * a saved launch configuration as a base.
+     *
+     * @param launcherName optional saved launch config name to reuse
+     */
+    public String runClassesTests(String projectName, List<String> classNames, Integer timeout, boolean withCoverage, String launcherName) {
+        Objects.requireNonNull(projectName, "Project name cannot be null");
+        Objects.requireNonNull(classNames, "Class names cannot be null");
+        
+        if (projectName.isEmpty()) {
+            throw new IllegalArgumentException("Error: Project name cannot be empty.");
+        }
+        
+        if (classNames.isEmpty()) {
+            throw new IllegalArgumentException("Error: At least one class name is required.");
+        }
+        
+        if (timeout == null || timeout <= 0) {
+            timeout = 300; // Default timeout of 300 seconds
+        }
+        
+        try {
+            IJavaProject javaProject = getJavaProject( projectName );
+            return launchJUnitTests(javaProject, null, findTypes(javaProject, classNames), timeout, null, withCoverage, launcherName);
+        } catch (CoreException e) {
+            throw new RuntimeException("Error running tests: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Runs test classes split across parallel launches, each in its own JVM. The
+     * classes are balanced by the duration of their last runs and the classes that
+     * failed last time run first in their shard; see {@link TestShardPlanner}.
+     * Results are merged into one summary.
+     *
+     * @param classNames fully qualified names of the test classes, or {@code null}
+     *                   or empty for all test classes of the project
+     * @param shards     the number of parallel launches, or 0 for one per processor
+     */
+    public String runShardedTests(String projectName, List<String> classNames, int shards, Integer timeout) {
+        Objects.requireNonNull(projectName, "Project name cannot be null");
+        
+        if (projectName.isEmpty()) {
+            throw new IllegalArgumentException("Error: Project name cannot be empty.");
+        }
+        
+        if (timeout == null || timeout <= 0) {
+            timeout = 300; // Default timeout of 300 seconds
+        }
+        if (shards <= 0) {
+            shards = Runtime.getRuntime().availableProcessors();
+        }
+        
+        try {
+            IJavaProject javaProject = getJavaProject( projectName );
+            List<IType> types = classNames == null || classNames.isEmpty()
+                    ? findRunnableTestClasses(javaProject)
+                    : findTypes(javaProject, classNames);
+            if (types.isEmpty()) {
+                return "No test classes found in project '" + projectName + "'.";
+            }
+            Map<String, IType> byName = new HashMap<>();
+            types.forEach(type -> byName.put(type.getFullyQualifiedName(), type));
+            List<String> names = List.copyOf(byName.keySet());
+            List<TestShardPlanner.Shard> plan = TestShardPlanner.plan(names, shards,
+                    testHistory != null ? testHistory.seconds(names) : Map.of(),
+                    testHistory != null ? testHistory.failed(names) : Set.of());
+
+            Optional<Operation> operation = OperationContext.current();
+            TestRunResult merged = new TestRunResult(projectName + " - " + plan.size() + " shards");
+            List<ShardLaunch> launches = new ArrayList<>();
+            int run = shardedRuns.incrementAndGet();
+            for (int i = 0; i < plan.size(); i++) {
+                launches.add(new ShardLaunch("run " + run + ", shard " + (i + 1) + " of " + plan.size(), merged, operation));
+            }
+            operation.ifPresent( op -> op.setProgress( "starting " + plan.size() + " shards" ) );
+
+            long start = System.currentTimeMillis();
+            ExecutorService executor = Executors.newFixedThreadPool(plan.size());
+            try {
+                List<Future<String>> outcomes = new ArrayList<>();
+                for (int i = 0; i < plan.size(); i++) {
+                    List<IType> shardTypes = plan.get(i).classes().stream().map(byName::get).toList();
+                    ShardLaunch launch = launches.get(i);
+                    int shardTimeout = timeout;
+                    outcomes.add(executor.submit(() -> launchJUnitTests(javaProject, null, shardTypes, shardTimeout, null, false, null, launch)));
+                }
+                StringBuilder shardReport = new StringBuilder();
+                for (int i = 0; i < plan.size(); i++) {
+                    String outcome = outcomes.get(i).get();
+                    ShardLaunch launch = launches.get(i);
+                    shardReport.append("  ").append(launch.name).append(": ")
+                            .append(plan.get(i).classes().size()).append(" classes, planned ")
+                            .append(String.format("%.1fs", plan.get(i).plannedSeconds()));
+                    if (launch.result == null) {
+                        shardReport.append(", ").append(outcome.lines().findFirst().orElse("no result"));
+                    } else {
+                        shardReport.append(", ").append(String.format("%.1fs", launch.result.getTotalTime()));
+                    }
+                    shardReport.append("\n");
+                }
+                double wall = (System.currentTimeMillis() - start) / 1000.0;
+                return "Sharded run: " + plan.size() + " parallel launches, "
+                        + String.format("%.1fs of tests in %.1fs wall time", merged.getTotalTime(), wall) + "\n"
+                        + shardReport + "\n" + merged;
+            } finally {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            // The shards' launches are terminated by the operation's cancel hooks.
+            Thread.currentThread().interrupt();
+            return "Test run cancelled.";
+        } catch (ExecutionException e) {
+            return "Error running tests: " + e.getCause().getMessage();
+        } catch (CoreException e) {
+            throw new RuntimeException("Error running tests: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * One of the parallel launches of {@link #runShardedTests}.
+     */
+    private static final class ShardLaunch {
+        final String name;
+        final TestRunResult merged;
+        final Optional<Operation> operation;
+        volatile TestRunResult result;
+
+        ShardLaunch(String name, TestRunResult merged, Optional<Operation> operation) {
+            this.name = name;
+            this.merged = merged;
+            this.operation = operation;
+        }
+    }
+    
+    private List<IType> findTypes(IJavaProject javaProject, List<String> classNames) throws JavaModelException {
+        List<IType> types = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String className : classNames) {
+            IType type = javaProject.findType(className.trim());
+            if (type == null) {
+                missing.add(className);
+            } else if (!types.contains(type)) {
+                types.add(type);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new RuntimeException("Error: Classes not found in project '" + javaProject.getElementName() + "': " + String.join(", ", missing));
+        }
+        return types;
+    }
+    
+    /** Concrete top-level test classes of the project's source folders. */
+    private List<IType> findRunnableTestClasses(IJavaProject javaProject) throws JavaModelException {
+        List<IType> types = new ArrayList<>();
+        for (IPackageFragmentRoot root : javaProject.getPackageFragmentRoots()) {
+            if (root.getKind() != IPackageFragmentRoot.K_SOURCE || !javaProject.equals(root.getJavaProject())) {
+                continue;
+            }
+            for (IJavaElement child : root.getChildren()) {
+                if (child instanceof IPackageFragment pkg) {
+                    for (ICompilationUnit unit : pkg.getCompilationUnits()) {
+                        for (IType type : unit.getTypes()) {
+                            if (!type.isInterface() && !Flags.isAbstract(type.getFlags()) && isTestClass(type)) {
+                                types.add(type);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return types;
+    }
+    
     /**
      * Runs a specific test method.
      * 
@@ -341,7 +551,7 @@ public class UnitTestService {
             if (method == null) {
                 throw new RuntimeException("Error: Method '" + methodName + "' not found in class '" + className + "'.");
             }
-            return launchJUnitTests(javaProject, null, type, timeout, methodName, withCoverage, launcherName);
+            return launchJUnitTests(javaProject, null, List.of(type), timeout, methodName, withCoverage, launcherName);
         } catch (CoreException e) {
             throw new RuntimeException("Error running tests: " + e.getMessage(), e);
         }
@@ -592,6 +802,21 @@ public class UnitTestService {
         return null;
     }
     
+    /**
+     * Deletes a shard's launch configuration. Its name holds the run number, so it
+     * would never be reused and would only pile up in the launch dialog.
+     */
+    private void deleteLaunchConfig(String name) {
+        ILaunchConfiguration configuration = findExistingLaunchConfig(DebugPlugin.getDefault().getLaunchManager(), name);
+        if (configuration != null) {
+            try {
+                configuration.delete();
+            } catch (CoreException e) {
+                logger.error("Could not delete launch configuration " + name, e);
+            }
+        }
+    }
+    
     /**
      * Finds a method in a type by name.
      */
@@ -661,12 +886,26 @@ public class UnitTestService {
      * targeting attributes are overridden.
      */
     private String launchJUnitTests(IJavaProject javaProject, IPackageFragment packageFragment,
-                                    IType testClass, int timeout, String methodName,
+                                    List<IType> testClasses, int timeout, String methodName,
                                     boolean withCoverage, String launcherName) {
+        return launchJUnitTests(javaProject, packageFragment, testClasses, timeout, methodName, withCoverage, launcherName, null);
+    }
+
+    /**
+     * @param shard the sharded run this launch belongs to, or {@code null}: its launch
+     *              only listens to its own test session, reports into the run's merged
+     *              result and publishes to the run's operation
+     */
+    private String launchJUnitTests(IJavaProject javaProject, IPackageFragment packageFragment,
+                                    List<IType> testClasses, int timeout, String methodName,
+                                    boolean withCoverage, String launcherName, ShardLaunch shard) {
+        final IType testClass = testClasses == null || testClasses.isEmpty() ? null : testClasses.get(0);
+        final boolean selectedClassLaunch = shard != null || (testClasses != null && testClasses.size() > 1);
         final CountDownLatch latch = new CountDownLatch(1);
         final TestRunResult[] testRunResults = new TestRunResult[1];
-        final Optional<Operation> operation = OperationContext.current();
+        final Optional<Operation> operation = shard != null ? shard.operation : OperationContext.current();
         final AtomicInteger finishedTests = new AtomicInteger();
+        final String[] runName = new String[1];
         
         try {
             // Register a test run listener to collect results
@@ -675,19 +914,25 @@ public class UnitTestService {
                 
                 @Override
                 public void sessionStarted(ITestRunSession session) {
+                    if (!isOwnSession(session)) {
+                        return;
+                    }
                     currentRun = new TestRunResult(session.getTestRunName());
                     operation.ifPresent( op -> op.setProgress( "test session started" ) );
                 }
                 
                 @Override
                 public void sessionFinished(ITestRunSession session) {
+                    if (!isOwnSession(session)) {
+                        return;
+                    }
                     testRunResults[0] = currentRun;
                     latch.countDown();
                 }
                 
                 @Override
                 public void testCaseFinished(ITestCaseElement testCaseElement) {
-                    if (currentRun != null) {
+                    if (currentRun != null && isOwnSession(testCaseElement.getTestRunSession())) {
                         String className = testCaseElement.getTestClassName();
                         String testName = testCaseElement.getTestMethodName();
                         String status = testCaseElement.getTestResult(true).toString();
@@ -695,18 +940,33 @@ public class UnitTestService {
                                          testCaseElement.getFailureTrace().getTrace() : "";
                         double time = testCaseElement.getElapsedTimeInSeconds();
                         
-                        currentRun.addTestResult(new TestResult(className, testName, status, message, time));
-                        int count = finishedTests.incrementAndGet();
+                        TestResult result = new TestResult(className, testName, status, message, time);
+                        currentRun.addTestResult(result);
+                        TestRunResult published = currentRun;
+                        int count;
+                        if (shard != null) {
+                            shard.merged.addTestResult(result);
+                            published = shard.merged;
+                            count = shard.merged.getTotalCount();
+                        } else {
+                            count = finishedTests.incrementAndGet();
+                        }
+                        TestRunResult progress = published;
                         operation.ifPresent( op -> {
                             op.setProgress( count + " tests finished; last: " + className + "#" + testName );
                             // Publish typed intermediate results so getOperationStatus
                             // can surface pass/fail counts and detailed test listing
                             // while the run is still going.
-                            op.setIntermediateResult( "summary", currentRun.toSummary() );
-                            op.setIntermediateResult( "results", currentRun.toResults() );
+                            op.setIntermediateResult( "summary", progress.toSummary() );
+                            op.setIntermediateResult( "results", progress.toResults() );
                         } );
                     }
                 }
+
+                // Shards run side by side and every listener hears every session.
+                private boolean isOwnSession(ITestRunSession session) {
+                    return shard == null || (runName[0] != null && runName[0].equals(session.getTestRunName()));
+                }
             };
             
             JUnitCore.addTestRunListener(listener);
@@ -724,9 +984,14 @@ public class UnitTestService {
                     workingCopy = base.getWorkingCopy();
                 } else {
                     // Build a deterministic launch name based on the test target
-                    ILaunchConfigurationType type = launchManager.getLaunchConfigurationType(
-                            "org.eclipse.jdt.junit.launchconfig");
-                    String launchName = buildLaunchName(javaProject, packageFragment, testClass, methodName);
+                    ILaunchConfigurationType type = launchManager.getLaunchConfigurationType(selectedClassLaunch
+                            ? SelectedJUnitLaunchDelegate.LAUNCH_CONFIGURATION_TYPE
+                            : "org.eclipse.jdt.junit.launchconfig");
+                    String launchName = shard != null
+                            ? javaProject.getElementName() + " - " + shard.name
+                            : selectedClassLaunch
+                            ? javaProject.getElementName() + " - " + testClasses.size() + " selected classes"
+                            : buildLaunchName(javaProject, packageFragment, testClass, methodName);
                     ILaunchConfiguration existing = findExistingLaunchConfig(launchManager, launchName);
                     if (existing != null) {
                         workingCopy = existing.getWorkingCopy();
@@ -743,7 +1008,12 @@ public class UnitTestService {
                 // NOT the IResource path (e.g. "/ProjectName") — the JUnit launcher resolves
                 // the input element via JavaCore.create(handleId), and a resource path causes
                 // "The input element of the launch configuration does not exist".
-                if (testClass != null) {
+                if (selectedClassLaunch) {
+                    workingCopy.setAttribute(SelectedJUnitLaunchDelegate.ATTR_TEST_CLASSES,
+                            testClasses.stream().map(IType::getFullyQualifiedName).toList());
+                    workingCopy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_MAIN_TYPE_NAME, "");
+                    workingCopy.setAttribute("org.eclipse.jdt.junit.CONTAINER", "");
+                } else if (testClass != null) {
                     workingCopy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_MAIN_TYPE_NAME,
                             testClass.getFullyQualifiedName());
                     workingCopy.setAttribute("org.eclipse.jdt.junit.CONTAINER", "");
@@ -767,6 +1037,7 @@ public class UnitTestService {
                 }
                 // Create the actual configuration
                 ILaunchConfiguration configuration = workingCopy.doSave();
+                runName[0] = configuration.getName();
                 
                 // Determine launch mode
                 boolean useCoverage = withCoverage && coverageService.isCoverageAvailable();
@@ -807,6 +1078,12 @@ public class UnitTestService {
                     return "Error: No test results collected. The test run may have failed to start.";
                 }
                 
+                if (testHistory != null) {
+                    testHistory.record(testRunResults[0]);
+                }
+                if (shard != null) {
+                    shard.result = testRunResults[0];
+                }
                 String results = testRunResults[0].toString();
                 
                 if (useCoverage) {
@@ -818,6 +1095,9 @@ public class UnitTestService {
                 
             } finally {
                 JUnitCore.removeTestRunListener(listener);
+                if (shard != null && runName[0] != null) {
+                    deleteLaunchConfig(runName[0]);
+                }
             }
             
         } catch (InterruptedException e) {
@@ -959,7 +1239,7 @@ public class UnitTestService {
      * Determines if a class is a test class by checking for test annotations
      * or methods following test naming conventions.
      */
-    private boolean isTestClass(IType type) throws JavaModelException {
+    static boolean isTestClass(IType type) throws JavaModelException {
         // Check if class name ends with Test
         if (type.getElementName().endsWith("Test")) {
             return true;
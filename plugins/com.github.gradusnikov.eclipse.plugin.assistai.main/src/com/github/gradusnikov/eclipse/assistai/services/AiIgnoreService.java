@@ -159,6 +159,16 @@ public class AiIgnoreService implements IResourceChangeListener
         }
     }
 
+    /**
+     * True if a file of this name holds AI ignore rules, so that creating, changing
+     * or deleting it changes what {@link #isExcluded} answers for its project.
+     */
+    public boolean isRulesFile(String fileName)
+    {
+        return fileName.equals(getIgnoreFileName()) || fileName.equals(DEFAULT_IGNORE_FILENAME)
+                || fileName.equals(".aiexclude") || fileName.equals(NOAI_FILENAME);
+    }
+
     /**
      * Invalidates the cached rules for a specific project.
      */
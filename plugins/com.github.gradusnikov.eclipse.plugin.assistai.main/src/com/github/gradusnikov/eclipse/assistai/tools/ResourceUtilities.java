@@ -63,24 +63,33 @@ public class ResourceUtilities
                     is.readAllBytes(),
                     Charset.forName(file.getCharset()));
 
-            List<String> lines = new ArrayList<>();
+            return splitLinesWithTerminators(content);
+        }
+    }
 
-            var matcher = Pattern.compile(".*?(\\R|$)", Pattern.DOTALL)
-                    .matcher(content);
+    /**
+     * Splits text into lines, each keeping its line terminator, so that joining
+     * them gives back the text unchanged.
+     */
+    public static List<String> splitLinesWithTerminators(String content)
+    {
+        List<String> lines = new ArrayList<>();
 
-            while (matcher.find())
-            {
-                String line = matcher.group();
+        var matcher = Pattern.compile(".*?(\\R|$)", Pattern.DOTALL)
+                .matcher(content);
 
-                // avoid the extra empty match at EOF
-                if (!line.isEmpty())
-                {
-                    lines.add(line);
-                }
-            }
+        while (matcher.find())
+        {
+            String line = matcher.group();
 
-            return lines;
+            // avoid the extra empty match at EOF
+            if (!line.isEmpty())
+            {
+                lines.add(line);
+            }
         }
+
+        return lines;
     }
     
     /**
@@ -7,9 +7,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
+import com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool;
+import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolParam;
 import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationRegistry;
 import com.github.gradusnikov.eclipse.assistai.mcp.servers.EclipseIntegrationsMcpServer;
 import com.github.gradusnikov.eclipse.assistai.mcp.servers.PDEMcpServer;
@@ -79,4 +84,90 @@ public class McpServerFactoryPDETest
 
         assertSame( original, factory.createCallToolResult( original ) );
     }
+
+    @Test
+    public void publishesReadOnlyAsAToolHint()
+    {
+        McpServerFactory factory = new McpServerFactory( null, new OperationRegistry() );
+        Map<String, McpSchema.Tool> tools = factory.listTools( new BatchableTools() ).stream()
+                .collect( Collectors.toMap( McpSchema.Tool::name, tool -> tool ) );
+
+        assertEquals( Boolean.TRUE, tools.get( "echo" ).annotations().readOnlyHint() );
+        assertEquals( Boolean.FALSE, tools.get( "write" ).annotations().readOnlyHint() );
+    }
+
+    @Test
+    public void batchRunsReadOnlyCallsInOrderAndRefusesTheRest() throws Exception
+    {
+        ToolExecutor executor = new ToolExecutor( new BatchableTools() );
+        McpServerFactory.BatchTools batch = new McpServerFactory.BatchTools( executor, new OperationRegistry(), Set.of(), "" );
+
+        String result = batch.batch( List.of( Map.of( "tool", "echo", "arguments", Map.of( "text", "one" ) ),
+                Map.of( "tool", "write", "arguments", Map.of( "text", "two" ) ),
+                Map.of( "tool", "echo", "arguments", Map.of() ),
+                Map.of( "tool", "missing" ),
+                Map.of( "tool", "echo", "arguments", Map.of( "text", "five" ) ) ), null );
+
+        assertTrue( result.indexOf( "one" ) < result.indexOf( "five" ), result );
+        assertTrue( result.contains( "write is not read-only" ), result );
+        assertTrue( result.contains( "missing required parameters [text]" ), result );
+        assertTrue( result.contains( "unknown tool 'missing'" ), result );
+        assertTrue( result.startsWith( "[1] echo" ), result );
+    }
+
+    @Test
+    public void batchAcceptsCallsSentAsAJsonString() throws Exception
+    {
+        ToolExecutor executor = new ToolExecutor( new BatchableTools() );
+        McpServerFactory.BatchTools batch = new McpServerFactory.BatchTools( executor, new OperationRegistry(), Set.of(), "eclipse_" );
+
+        String result = batch.batch( "[{\"tool\": \"eclipse_echo\", \"arguments\": {\"text\": \"hi\"}}]", "5" );
+
+        assertTrue( result.contains( "hi" ), result );
+    }
+
+    @Test
+    public void batchCancelsCallsThatMissTheDeadline() throws Exception
+    {
+        ToolExecutor executor = new ToolExecutor( new BatchableTools() );
+        McpServerFactory.BatchTools batch = new McpServerFactory.BatchTools( executor, new OperationRegistry(), Set.of(), "" );
+
+        String result = batch.batch( List.of( Map.of( "tool", "sleep" ) ), "1" );
+
+        assertTrue( result.contains( "was cancelled" ), result );
+        // The worker is interrupted instead of sleeping on with its lane slot.
+        assertTrue( BatchableTools.interrupted.await( 10, TimeUnit.SECONDS ) );
+    }
+
+    public static class BatchableTools
+    {
+        static final CountDownLatch interrupted = new CountDownLatch( 1 );
+
+        @Tool( name = "echo", readOnly = true, description = "Echoes." )
+        public String echo( @ToolParam( name = "text", description = "Text." ) String text )
+        {
+            return text;
+        }
+
+        @Tool( name = "write", description = "Pretends to change something." )
+        public String write( @ToolParam( name = "text", description = "Text." ) String text )
+        {
+            return "written " + text;
+        }
+
+        @Tool( name = "sleep", readOnly = true, description = "Sleeps until interrupted." )
+        public String sleep()
+        {
+            try
+            {
+                Thread.sleep( 60_000 );
+                return "woke up";
+            }
+            catch ( InterruptedException e )
+            {
+                interrupted.countDown();
+                return "interrupted";
+            }
+        }
+    }
 }
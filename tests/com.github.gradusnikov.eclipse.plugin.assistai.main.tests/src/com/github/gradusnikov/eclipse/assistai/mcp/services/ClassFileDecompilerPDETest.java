@@ -1,5 +1,6 @@
 package com.github.gradusnikov.eclipse.assistai.mcp.services;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
@@ -7,7 +8,9 @@ import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Proxy;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.jdt.core.IJavaProject;
@@ -35,6 +38,35 @@ public class ClassFileDecompilerPDETest
         assertTrue( source.get().contains( "return value + 1" ) );
     }
 
+    @Test
+    public void decompilesNestedClassesTogetherAndCachesTheSource() throws IOException
+    {
+        Map<String, byte[]> classes = new TreeMap<>();
+        for ( String name : List.of( "NestedDecompilerFixture.class", "NestedDecompilerFixture$Counter.class" ) )
+        {
+            try (InputStream input = getClass().getResourceAsStream( name ))
+            {
+                assertTrue( input != null );
+                classes.put( name, input.readAllBytes() );
+            }
+        }
+        ClassFileDecompiler decompiler = new ClassFileDecompiler();
+
+        Optional<String> source = decompiler.decompile( classes, "NestedDecompilerFixture.class" );
+
+        assertTrue( source.isPresent() );
+        assertTrue( source.get().contains( "class NestedDecompilerFixture" ) );
+        assertTrue( source.get().contains( "class Counter" ) );
+        assertTrue( source.get().contains( "return value + 2" ) );
+
+        long start = System.nanoTime();
+        Optional<String> again = decompiler.decompile( classes, "NestedDecompilerFixture.class" );
+        long micros = ( System.nanoTime() - start ) / 1_000;
+        System.out.printf( "decompiler: cached source returned in %d us%n", micros );
+        assertEquals( source, again );
+        assertEquals( 1, decompiler.cachedCount() );
+    }
+
     @Test
     public void getSourceFallsBackToBinaryClassDecompilation() throws Exception
     {
@@ -155,3 +187,14 @@ class DecompilerFixture
         return value + 1;
     }
 }
+
+class NestedDecompilerFixture
+{
+    static class Counter
+    {
+        int next( int value )
+        {
+            return value + 2;
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.github.gradusnikov.eclipse.assistai.mcp.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.List;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -582,6 +584,48 @@ public class ApplicationNew {
         assertEquals( original, ResourceUtilities.readFileContent( file ) );
     }
 
+    @Test
+    public void testApplyEditsChangesSeveralFilesAsOneBatch() throws Exception
+    {
+        IFile first = createFile( "src/first.txt", "one\ntwo\nthree\n" );
+        IFile second = createFile( "src/second.txt", "alpha\nbeta\n" );
+
+        String result = service.applyEdits( List.of(
+                edit( "replaceString", "src/first.txt", "two", "TWO", null, null, null, null ),
+                edit( "insert", "src/second.txt", null, null, "first line", 1, null, null ),
+                edit( "deleteLines", "src/first.txt", null, null, null, null, 3, 3 ),
+                edit( "create", "src/nested/third.txt", null, null, "new\n", null, null, null ) ) );
+
+        assertTrue( result.contains( "Applied 4 edits to 3 file(s)" ), result );
+        assertEquals( "one\nTWO\n", ResourceUtilities.readFileContent( first ) );
+        assertEquals( "first line\nalpha\nbeta\n", ResourceUtilities.readFileContent( second ) );
+        IFile third = project.getFile( new Path( "src/nested/third.txt" ) );
+        assertEquals( "new\n", ResourceUtilities.readFileContent( third ) );
+
+        service.undoEdits();
+
+        assertEquals( "one\ntwo\nthree\n", ResourceUtilities.readFileContent( first ) );
+        assertEquals( "alpha\nbeta\n", ResourceUtilities.readFileContent( second ) );
+        assertFalse( third.exists() );
+    }
+
+    @Test
+    public void testApplyEditsDoesNotWriteWhenAnyEditIsInvalid() throws Exception
+    {
+        IFile first = createFile( "src/first.txt", "one\ntwo\n" );
+        IFile second = createFile( "src/second.txt", "alpha\n" );
+
+        RuntimeException error = assertThrows( RuntimeException.class, () -> service.applyEdits( List.of(
+                edit( "replaceString", "src/first.txt", "one", "ONE", null, null, null, null ),
+                edit( "replaceString", "src/second.txt", "missing", "x", null, null, null, null ),
+                edit( "create", "src/first.txt", null, null, "", null, null, null ) ) ) );
+
+        assertTrue( error.getMessage().contains( "2 of 3 edits are invalid" ), error.getMessage() );
+        assertTrue( error.getMessage().contains( "#2 replaceString src/second.txt" ), error.getMessage() );
+        assertEquals( "one\ntwo\n", ResourceUtilities.readFileContent( first ) );
+        assertEquals( "alpha\n", ResourceUtilities.readFileContent( second ) );
+    }
+
     @Test
     public void testReplaceFileContentSynchronizesJdtModel() throws Exception
     {
@@ -628,6 +672,12 @@ public class ApplicationNew {
         assertTrue( result.contains( "Workspace state: saved=true" ) );
     }
 
+    private static CodeEditingService.FileEdit edit( String type, String filePath, String oldString, String newString, String content,
+            Integer line, Integer startLine, Integer endLine )
+    {
+        return new CodeEditingService.FileEdit( type, TEST_PROJECT_NAME, filePath, oldString, newString, content, null, line, startLine, endLine );
+    }
+
     private IFile createFile(String path, String content) throws CoreException {
         IFile file = project.getFile(new Path(path));
         ByteArrayInputStream source = new ByteArrayInputStream(content.getBytes());
@@ -0,0 +1,89 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.ui.console.MessageConsole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationOutputBuffer;
+
+public class ConsoleCaptureServicePDETest
+{
+    private Document document;
+    private ConsoleCaptureService.Capture capture;
+
+    @BeforeEach
+    public void beforeEach()
+    {
+        document = new Document( "started\n" );
+        capture = new ConsoleCaptureService.Capture( new MessageConsole( "Capture Test", null ) );
+        capture.seed( document );
+        document.addDocumentListener( capture );
+    }
+
+    @Test
+    public void capturesWhatIsAppended() throws BadLocationException
+    {
+        append( "first\nsecond" );
+        append( " half\n" );
+
+        OperationOutputBuffer.Page page = capture.buffer().page( -10, 10 );
+        assertEquals( List.of( "started", "first", "second half" ), page.lines() );
+        assertEquals( 0, page.firstIndex() );
+    }
+
+    @Test
+    public void seedingIsNotNewOutput() throws BadLocationException
+    {
+        assertEquals( 0, capture.lastWritten() );
+
+        append( "first\n" );
+        assertTrue( capture.lastWritten() > 0 );
+    }
+
+    @Test
+    public void keepsLinesTheConsoleTrims() throws BadLocationException
+    {
+        append( "one\ntwo\n" );
+        // The console's high water mark cuts the top of its document.
+        document.replace( 0, "started\none\n".length(), "" );
+        append( "three\n" );
+
+        assertEquals( List.of( "started", "one", "two", "three" ), capture.buffer().page( 0, 10 ).lines() );
+    }
+
+    @Test
+    public void clearingKeepsIndicesGoing() throws BadLocationException
+    {
+        append( "one\n" );
+        document.set( "" );
+        append( "after\n" );
+
+        OperationOutputBuffer.Page page = capture.buffer().page( 0, 10 );
+        assertEquals( List.of( "after" ), page.lines() );
+        assertEquals( 2, page.firstIndex() );
+    }
+
+    @Test
+    public void grepsWithAbsoluteIndices() throws BadLocationException
+    {
+        append( "ok\nERROR one\nok\nERROR two\n" );
+
+        OperationOutputBuffer.GrepResult grep = capture.buffer().grep( Pattern.compile( "ERROR" ), 0, 10 );
+        assertEquals( 2, grep.matches().size() );
+        assertEquals( 2, grep.matches().get( 0 ).index() );
+        assertEquals( 4, grep.matches().get( 1 ).index() );
+    }
+
+    private void append( String text ) throws BadLocationException
+    {
+        document.replace( document.getLength(), 0, text );
+    }
+}
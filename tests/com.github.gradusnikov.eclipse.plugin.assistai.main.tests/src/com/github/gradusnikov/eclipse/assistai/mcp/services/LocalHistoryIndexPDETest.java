@@ -0,0 +1,131 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IFileState;
+import org.eclipse.core.runtime.IPath;
+import org.junit.jupiter.api.Test;
+
+public class LocalHistoryIndexPDETest
+{
+    private final LocalHistoryIndex index = new LocalHistoryIndex();
+
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Test
+    public void readsEachStateOnce() throws Exception
+    {
+        IFileState state = state( 1000, "one\ntwo\n" );
+
+        LocalHistoryIndex.StateInfo info = index.info( state );
+        assertEquals( 8, info.size() );
+        assertEquals( info, index.info( state ) );
+        index.contents( state );
+
+        assertEquals( 1, reads.get() );
+    }
+
+    @Test
+    public void diffsAreMemoisedByContent()
+    {
+        byte[] before = "a\nb\nc\n".getBytes( StandardCharsets.UTF_8 );
+        byte[] after = "a\nB\nc\n".getBytes( StandardCharsets.UTF_8 );
+
+        String diff = index.diff( before, after, StandardCharsets.UTF_8 );
+        assertTrue( diff.contains( "@@ -1,3 +1,3 @@" ), diff );
+        assertTrue( diff.contains( "-b\n+B\n" ), diff );
+        assertSame( diff, index.diff( before.clone(), after.clone(), StandardCharsets.UTF_8 ) );
+        assertEquals( "(no differences)\n", index.diff( before, before, StandardCharsets.UTF_8 ) );
+    }
+
+    @Test
+    public void findsTheVersionThatIntroducedALine() throws Exception
+    {
+        // Newest first: the line arrived in the version at index 2.
+        IFileState[] history = new IFileState[8];
+        for ( int i = 0; i < history.length; i++ )
+        {
+            history[i] = state( 1000 - i, "class A {\n" + ( i <= 2 ? "  int added;\n" : "" ) + "  // v" + i + "\n}\n" );
+        }
+
+        LocalHistoryIndex.Origin origin = index.origin( history, "int added;", StandardCharsets.UTF_8 );
+
+        assertEquals( 2, origin.index() );
+        assertTrue( origin.probes() <= 4, "probes: " + origin.probes() );
+        assertEquals( origin.probes(), reads.get() );
+    }
+
+    @Test
+    public void reportsLinesNewerAndOlderThanTheHistory() throws Exception
+    {
+        IFileState[] history = { state( 2, "x\ny\n" ), state( 1, "y\n" ) };
+
+        assertEquals( -1, index.origin( history, "z", StandardCharsets.UTF_8 ).index() );
+        assertEquals( 1, index.origin( history, "y", StandardCharsets.UTF_8 ).index() );
+        assertEquals( 0, index.origin( history, "x", StandardCharsets.UTF_8 ).index() );
+    }
+
+    private IFileState state( long time, String content )
+    {
+        byte[] bytes = content.getBytes( StandardCharsets.UTF_8 );
+        IPath path = IPath.fromPortableString( "/p/A.java" );
+        return new IFileState()
+        {
+            @Override
+            public InputStream getContents()
+            {
+                reads.incrementAndGet();
+                return new ByteArrayInputStream( bytes );
+            }
+
+            @Override
+            public IPath getFullPath()
+            {
+                return path;
+            }
+
+            @Override
+            public long getModificationTime()
+            {
+                return time;
+            }
+
+            @Override
+            public String getName()
+            {
+                return "A.java";
+            }
+
+            @Override
+            public boolean exists()
+            {
+                return true;
+            }
+
+            @Override
+            public boolean isReadOnly()
+            {
+                return true;
+            }
+
+            @Override
+            public String getCharset()
+            {
+                return "UTF-8";
+            }
+
+            @Override
+            public <T> T getAdapter( Class<T> adapter )
+            {
+                return null;
+            }
+        };
+    }
+}
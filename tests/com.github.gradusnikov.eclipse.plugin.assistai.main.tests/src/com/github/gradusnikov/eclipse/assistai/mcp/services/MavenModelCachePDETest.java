@@ -0,0 +1,88 @@
+package com.github.gradusnikov.eclipse.assistai.mcp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MavenModelCachePDETest
+{
+    private final MavenModelCache cache = new MavenModelCache();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void returnsTheRenderedTextWhileTheKeyIsUnchanged()
+    {
+        assertEquals( "pom 1", cache.get( "app", "effective-pom", "k1", this::load ) );
+        assertEquals( "pom 1", cache.get( "app", "effective-pom", "k1", this::load ) );
+        assertEquals( "pom 2", cache.get( "app", "effective-pom", "k2", this::load ) );
+        assertEquals( 2, loads.get() );
+    }
+
+    @Test
+    public void invalidatesOnlyTheChangedProject()
+    {
+        cache.get( "app", "dependencies", "k", this::load );
+        cache.get( "lib", "dependencies", "k", this::load );
+
+        cache.invalidate( "app" );
+
+        assertEquals( "pom 3", cache.get( "app", "dependencies", "k", this::load ) );
+        assertEquals( "pom 2", cache.get( "lib", "dependencies", "k", this::load ) );
+    }
+
+    @Test
+    public void doesNotKeepAResultComputedDuringAChangeEvent()
+    {
+        cache.get( "app", "effective-pom", "k", () -> {
+            cache.mavenProjectChanged( List.of(), null );
+            return load();
+        } );
+
+        assertEquals( "pom 2", cache.get( "app", "effective-pom", "k", this::load ) );
+    }
+
+    @Test
+    public void projectListIsKeptUntilAChangeEvent()
+    {
+        assertEquals( "pom 1", cache.projectList( this::load ) );
+        assertEquals( "pom 1", cache.projectList( this::load ) );
+
+        cache.mavenProjectChanged( List.of(), null );
+
+        assertEquals( "pom 2", cache.projectList( this::load ) );
+    }
+
+    @Test
+    public void stampFollowsTheFileContent() throws IOException
+    {
+        Path pom = directory.resolve( "pom.xml" );
+        Files.writeString( pom, "<project>1</project>" );
+        String first = cache.stamp( pom );
+        assertEquals( first, cache.stamp( pom ) );
+
+        Files.writeString( pom, "<project>2</project>" );
+        Files.setLastModifiedTime( pom, FileTime.fromMillis( Files.getLastModifiedTime( pom ).toMillis() + 2000 ) );
+        assertNotEquals( first, cache.stamp( pom ) );
+
+        Files.delete( pom );
+        assertEquals( pom + "#-", cache.stamp( pom ) );
+    }
+
+    private String load()
+    {
+        return "pom " + loads.incrementAndGet();
+    }
+}
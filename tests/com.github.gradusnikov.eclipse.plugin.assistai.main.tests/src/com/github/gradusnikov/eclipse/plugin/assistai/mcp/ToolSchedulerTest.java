@@ -0,0 +1,92 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.ToolScheduler;
+import com.github.gradusnikov.eclipse.assistai.mcp.annotations.ToolCategory;
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationRegistry;
+
+/**
+ * A full lane must queue heavy calls in order without ever holding up the calls
+ * that poll or cancel them.
+ */
+public class ToolSchedulerTest
+{
+    @Test
+    public void queuesBeyondTheLaneLimitAndKeepsControlCallsMoving() throws Exception
+    {
+        ToolScheduler scheduler = new ToolScheduler( Map.of( ToolCategory.BUILD, 1 ) );
+        OperationRegistry registry = new OperationRegistry();
+        CountDownLatch release = new CountDownLatch( 1 );
+
+        CompletableFuture<Object> first = scheduler.submit( ToolCategory.BUILD, () -> await( release ), null );
+        Operation second = registry.register( "runMavenBuild", "second" );
+        CompletableFuture<Object> secondFuture = scheduler.submit( ToolCategory.BUILD, () -> "second", second );
+        Operation third = registry.register( "runMavenBuild", "third" );
+        AtomicBoolean thirdRan = new AtomicBoolean();
+        CompletableFuture<Object> thirdFuture = scheduler.submit( ToolCategory.BUILD, () -> thirdRan.getAndSet( true ), third );
+
+        assertEquals( 2, scheduler.queued( ToolCategory.BUILD ) );
+        assertTrue( second.getQueueStatus().contains( "1 of 2 in the queue" ), second.getQueueStatus() );
+        assertTrue( third.getQueueStatus().contains( "2 of 2 in the queue" ), third.getQueueStatus() );
+
+        assertEquals( "status", scheduler.submit( ToolCategory.CONTROL, () -> "status", null ).get( 5, TimeUnit.SECONDS ) );
+        assertEquals( "search", scheduler.submit( ToolCategory.SEARCH, () -> "search", null ).get( 5, TimeUnit.SECONDS ) );
+
+        thirdFuture.cancel( true );
+        assertEquals( 1, scheduler.queued( ToolCategory.BUILD ) );
+
+        release.countDown();
+        assertEquals( "done", first.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( "second", secondFuture.get( 5, TimeUnit.SECONDS ) );
+        assertNull( second.getQueueStatus() );
+        assertFalse( thirdRan.get() );
+        assertEquals( 2, scheduler.queuedTotal( ToolCategory.BUILD ) );
+        assertEquals( 0, scheduler.queued( ToolCategory.BUILD ) );
+    }
+
+    @Test
+    public void aFailingCallHandsItsSlotOn() throws Exception
+    {
+        ToolScheduler scheduler = new ToolScheduler( Map.of( ToolCategory.TEST, 1 ) );
+
+        CompletableFuture<Object> failing = scheduler.submit( ToolCategory.TEST, () -> {
+            throw new IllegalStateException( "boom" );
+        }, null );
+        CompletableFuture<Object> next = scheduler.submit( ToolCategory.TEST, () -> "next", null );
+
+        assertTrue( failing.handle( ( value, error ) -> error ).get( 5, TimeUnit.SECONDS ) instanceof IllegalStateException );
+        assertEquals( "next", next.get( 5, TimeUnit.SECONDS ) );
+        // The slot is given back after the body completes its future.
+        for ( int i = 0; i < 100 && scheduler.running( ToolCategory.TEST ) > 0; i++ )
+        {
+            Thread.sleep( 10 );
+        }
+        assertEquals( 0, scheduler.running( ToolCategory.TEST ) );
+    }
+
+    private static Object await( CountDownLatch latch )
+    {
+        try
+        {
+            latch.await( 10, TimeUnit.SECONDS );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.markers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.markers.ProblemIndex;
+import com.github.gradusnikov.eclipse.assistai.mcp.markers.ProblemIndex.Problem;
+
+public class ProblemIndexTest
+{
+    private static Problem problem( long id, String project, String file, int severity, int line )
+    {
+        return new Problem( id, project, "/" + project + "/" + file, severity, line, "problem " + id, "org.eclipse.jdt.core.problem", null );
+    }
+
+    @Test
+    public void listsErrorsFirstThenByFileAndLine()
+    {
+        ProblemIndex index = new ProblemIndex();
+        index.put( problem( 1, "a", "B.java", ProblemIndex.SEVERITY_WARNING, 3 ) );
+        index.put( problem( 2, "a", "B.java", ProblemIndex.SEVERITY_ERROR, 9 ) );
+        index.put( problem( 3, "a", "A.java", ProblemIndex.SEVERITY_ERROR, 20 ) );
+        index.put( problem( 4, "b", "A.java", ProblemIndex.SEVERITY_INFO, 1 ) );
+
+        ProblemIndex.Top top = index.top( null, ProblemIndex.ANY_SEVERITY, 10 );
+
+        assertEquals( List.of( 3L, 2L, 1L, 4L ), top.problems().stream().map( Problem::markerId ).toList() );
+        assertEquals( 4, top.total() );
+    }
+
+    @Test
+    public void limitsAndFiltersWithoutLosingTheTotal()
+    {
+        ProblemIndex index = new ProblemIndex();
+        for ( int i = 0; i < 100; i++ )
+        {
+            index.put( problem( i, i % 2 == 0 ? "a" : "b", "F" + i + ".java", i % 3 == 0 ? ProblemIndex.SEVERITY_ERROR : ProblemIndex.SEVERITY_WARNING, 1 ) );
+        }
+
+        ProblemIndex.Top errors = index.top( "a", ProblemIndex.SEVERITY_ERROR, 5 );
+
+        assertEquals( 5, errors.problems().size() );
+        assertEquals( 17, errors.total() );
+        assertTrue( errors.problems().stream().allMatch( p -> p.project().equals( "a" ) && p.severity() == ProblemIndex.SEVERITY_ERROR ) );
+        assertEquals( 0, index.top( "missing", ProblemIndex.ANY_SEVERITY, 5 ).total() );
+    }
+
+    @Test
+    public void reportsOnlyWhatChangedSinceAVersion()
+    {
+        ProblemIndex index = new ProblemIndex();
+        index.put( problem( 1, "a", "A.java", ProblemIndex.SEVERITY_ERROR, 1 ) );
+        index.put( problem( 2, "a", "A.java", ProblemIndex.SEVERITY_ERROR, 2 ) );
+        index.put( problem( 3, "a", "A.java", ProblemIndex.SEVERITY_WARNING, 3 ) );
+        long since = index.version();
+
+        index.remove( 1 );
+        index.put( problem( 4, "a", "B.java", ProblemIndex.SEVERITY_ERROR, 7 ) );
+        // Came and went in between: not worth mentioning.
+        index.put( problem( 5, "a", "C.java", ProblemIndex.SEVERITY_ERROR, 1 ) );
+        index.remove( 5 );
+        // Moved to another line: the old one is resolved, the new one added.
+        index.put( problem( 2, "a", "A.java", ProblemIndex.SEVERITY_ERROR, 5 ) );
+        // Unchanged re-put: no new version.
+        long before = index.version();
+        index.put( problem( 3, "a", "A.java", ProblemIndex.SEVERITY_WARNING, 3 ) );
+        assertEquals( before, index.version() );
+
+        ProblemIndex.Changes changes = index.changesSince( since, null, ProblemIndex.ANY_SEVERITY );
+
+        assertTrue( changes.complete() );
+        assertEquals( List.of( "2@5", "4@7" ), changes.added().stream().map( p -> p.markerId() + "@" + p.line() ).toList() );
+        assertEquals( List.of( "1@1", "2@2" ), changes.resolved().stream().map( p -> p.markerId() + "@" + p.line() ).toList() );
+        assertEquals( index.version(), changes.to() );
+
+        ProblemIndex.Changes none = index.changesSince( index.version(), null, ProblemIndex.ANY_SEVERITY );
+        assertTrue( none.complete() );
+        assertTrue( none.added().isEmpty() && none.resolved().isEmpty() );
+    }
+
+    @Test
+    public void closingAProjectResolvesItsProblems()
+    {
+        ProblemIndex index = new ProblemIndex();
+        index.put( problem( 1, "a", "A.java", ProblemIndex.SEVERITY_ERROR, 1 ) );
+        index.put( problem( 2, "b", "A.java", ProblemIndex.SEVERITY_ERROR, 1 ) );
+        long since = index.version();
+
+        index.removeProject( "a" );
+
+        assertEquals( 1, index.size() );
+        assertEquals( List.of( 1L ), index.changesSince( since, null, ProblemIndex.ANY_SEVERITY ).resolved().stream().map( Problem::markerId ).toList() );
+    }
+
+    @Test
+    public void aVersionOlderThanTheLogAsksForAFullListing()
+    {
+        ProblemIndex index = new ProblemIndex();
+        for ( int i = 0; i <= ProblemIndex.MAX_LOG; i++ )
+        {
+            index.put( problem( i, "a", "A.java", ProblemIndex.SEVERITY_WARNING, i ) );
+        }
+
+        assertFalse( index.changesSince( 0, null, ProblemIndex.ANY_SEVERITY ).complete() );
+        assertTrue( index.changesSince( index.version() - 10, null, ProblemIndex.ANY_SEVERITY ).complete() );
+        assertFalse( index.changesSince( index.version() + 1, null, ProblemIndex.ANY_SEVERITY ).complete() );
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.ToolExecutor;
+import com.github.gradusnikov.eclipse.assistai.mcp.annotations.Tool;
+import com.github.gradusnikov.eclipse.assistai.mcp.metrics.LatencyHistogram;
+import com.github.gradusnikov.eclipse.assistai.mcp.metrics.ToolMetrics;
+import com.github.gradusnikov.eclipse.assistai.mcp.metrics.ToolStats;
+
+/**
+ * The metrics are only useful for finding slow tools if the percentiles are close to
+ * the truth and every call lands in exactly one outcome bucket.
+ */
+public class ToolMetricsTest
+{
+    @Test
+    public void percentilesStayWithinTheBucketError()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( int millis = 1; millis <= 1000; millis++ )
+        {
+            histogram.record( millis * 1_000_000L );
+        }
+
+        assertEquals( 1000, histogram.count() );
+        assertEquals( 1_000_000, histogram.maxMicros() );
+        assertWithin( 500_000, histogram.percentileMicros( 50 ), 0.07 );
+        assertWithin( 990_000, histogram.percentileMicros( 99 ), 0.07 );
+        assertEquals( 1_000_000, histogram.percentileMicros( 100 ) );
+    }
+
+    @Test
+    public void anEmptyHistogramReportsZero()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals( 0, histogram.percentileMicros( 99 ) );
+        assertEquals( 0.0, histogram.meanMicros() );
+    }
+
+    @Test
+    public void reusesTheCountersOfAKnownTool()
+    {
+        ToolMetrics metrics = new ToolMetrics();
+        assertSame( metrics.stats( "fileSearch" ), metrics.stats( "fileSearch" ) );
+    }
+
+    @Test
+    public void recordsOutcomeAndResultSizeOfExecutedTools() throws Exception
+    {
+        ToolMetrics metrics = new ToolMetrics();
+        ToolExecutor executor = new ToolExecutor( new Tools(), metrics );
+
+        assertEquals( "0123456789", executor.call( "ok", Map.of() ).get() );
+        executor.call( "failing", Map.of() ).handle( ( value, error ) -> value ).get();
+        executor.call( "errorText", Map.of() ).get();
+
+        ToolStats ok = metrics.stats( "ok" );
+        assertEquals( 1, ok.calls() );
+        assertEquals( 0, ok.inFlight() );
+        assertEquals( 0, ok.errors() );
+        assertEquals( 10, ok.resultChars() );
+        assertEquals( 1, ok.latency().count() );
+        assertEquals( 1, ok.queueWait().count() );
+
+        assertEquals( 1, metrics.stats( "failing" ).errors() );
+        assertEquals( 1, metrics.stats( "errorText" ).errors() );
+        assertEquals( 3, metrics.getTotalCalls() );
+
+        String report = metrics.formatReport( "ok" );
+        assertTrue( report.contains( "ok" ) );
+        assertFalse( report.contains( "failing" ) );
+    }
+
+    private static void assertWithin( long expected, long actual, double tolerance )
+    {
+        assertTrue( Math.abs( actual - expected ) <= expected * tolerance, "expected ~" + expected + " but was " + actual );
+    }
+
+    public static class Tools
+    {
+        @Tool( name = "ok", description = "Returns ten characters." )
+        public String ok()
+        {
+            return "0123456789";
+        }
+
+        @Tool( name = "failing", description = "Throws." )
+        public String failing()
+        {
+            throw new IllegalStateException( "boom" );
+        }
+
+        @Tool( name = "errorText", description = "Reports an error the way most services do." )
+        public String errorText()
+        {
+            return "Error: nothing to see";
+        }
+    }
+}
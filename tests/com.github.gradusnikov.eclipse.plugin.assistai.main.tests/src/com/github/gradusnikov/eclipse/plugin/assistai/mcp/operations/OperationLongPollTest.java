@@ -0,0 +1,94 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.operations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.Operation;
+import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationRegistry;
+
+/**
+ * A long poll that wakes on change must return as soon as the operation reports
+ * something a caller would act on, and not be woken by every line of build output.
+ */
+public class OperationLongPollTest
+{
+    private final OperationRegistry registry = new OperationRegistry();
+
+    @Test
+    @Timeout( 60 )
+    public void wakesOnProgressLongBeforeTheTimeout() throws Exception
+    {
+        Operation operation = registry.register( "runMavenBuild", "" );
+        registry.attachFuture( operation, new CompletableFuture<>() );
+
+        AtomicBoolean polled = new AtomicBoolean();
+        Thread reporter = new Thread( () -> {
+            // Reports until the poll returns, so it does not matter which starts first.
+            while ( !polled.get() )
+            {
+                operation.setProgress( "compiling" );
+                sleep( 50 );
+            }
+        } );
+        reporter.start();
+
+        // Only waking on progress ends this wait; otherwise the test times out.
+        String status = registry.getOperationStatus( operation.getId(), 0, 0, 3600, null, true );
+        polled.set( true );
+        reporter.join();
+
+        assertTrue( status.contains( "compiling" ), status );
+        assertFalse( operation.isTerminal() );
+    }
+
+    @Test
+    public void outputLinesAloneDoNotEndALongPoll() throws Exception
+    {
+        Operation operation = registry.register( "runMavenBuild", "" );
+        long seen = operation.milestoneCount();
+
+        operation.output().append( "[INFO] Building\n", false );
+
+        assertFalse( operation.awaitMilestone( seen, 100 ) );
+        operation.setIntermediateResult( "summary", "1 test" );
+        assertTrue( operation.awaitMilestone( seen, 100 ) );
+    }
+
+    @Test
+    public void listenersHearAboutOutputAndCompletion() throws Exception
+    {
+        Operation operation = registry.register( "runJUnitTests", "" );
+        AtomicInteger changes = new AtomicInteger();
+        operation.addChangeListener( op -> changes.incrementAndGet() );
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        registry.attachFuture( operation, future );
+
+        operation.output().append( "one\ntwo\n", false );
+        assertEquals( 1, changes.get() );
+
+        future.complete( "done" );
+        assertTrue( changes.get() >= 2 );
+        assertTrue( operation.isTerminal() );
+        assertTrue( operation.awaitMilestone( operation.milestoneCount(), 0 ) );
+    }
+
+    private static void sleep( long millis )
+    {
+        try
+        {
+            Thread.sleep( millis );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
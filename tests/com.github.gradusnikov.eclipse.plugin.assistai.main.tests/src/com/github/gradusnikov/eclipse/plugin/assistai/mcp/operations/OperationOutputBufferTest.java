@@ -1,8 +1,15 @@
 package com.github.gradusnikov.eclipse.plugin.assistai.mcp.operations;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
 import org.junit.jupiter.api.Test;
 
 import com.github.gradusnikov.eclipse.assistai.mcp.operations.OperationOutputBuffer;
@@ -131,4 +138,210 @@ public class OperationOutputBufferTest
         assertTrue( page.lines().isEmpty() );
         assertEquals( 2, page.totalLines() );
     }
+
+    @Test
+    public void spillKeepsEvictedLinesPageable()
+    {
+        OperationOutputBuffer buffer = new OperationOutputBuffer();
+        buffer.enableSpill();
+        assertTrue( buffer.isSpilling() );
+        int written = OperationOutputBuffer.MAX_LINES * 3;
+        for ( int i = 0; i < written; i++ )
+        {
+            buffer.append( "line" + i + "\n", false );
+        }
+
+        // The first lines of a long build are usually the ones explaining the failure.
+        OperationOutputBuffer.Page first = buffer.page( 0, 3 );
+        assertEquals( 0, first.droppedLines() );
+        assertEquals( 0, first.firstIndex() );
+        assertEquals( "line0", first.lines().get( 0 ) );
+        assertEquals( "line2", first.lines().get( 2 ) );
+
+        // A page straddling disk and memory comes back in one piece.
+        int straddle = written - OperationOutputBuffer.MAX_LINES - 2;
+        OperationOutputBuffer.Page middle = buffer.page( straddle, 4 );
+        assertEquals( 4, middle.lines().size() );
+        for ( int i = 0; i < 4; i++ )
+        {
+            assertEquals( "line" + ( straddle + i ), middle.lines().get( i ) );
+        }
+        buffer.clear();
+        assertFalse( buffer.isSpilling() );
+    }
+
+    @Test
+    public void spilledPagesStartAnywhereBetweenIndexedLines() throws Exception
+    {
+        long spillFiles = countSpillFiles();
+        OperationOutputBuffer buffer = new OperationOutputBuffer();
+        buffer.enableSpill();
+        assertEquals( spillFiles + 1, countSpillFiles() );
+        int written = OperationOutputBuffer.MAX_LINES * 2;
+        for ( int i = 0; i < written; i++ )
+        {
+            buffer.append( ( i % 2 == 0 ? "" : "line" + i ) + "\n", false );
+        }
+        // Only the evicted lines are read back from the file.
+        int evicted = written - OperationOutputBuffer.MAX_LINES;
+        Random random = new Random( 7 );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            int offset = random.nextInt( evicted );
+            OperationOutputBuffer.Page page = buffer.page( offset, 1 + random.nextInt( 600 ) );
+            assertEquals( offset, page.firstIndex() );
+            for ( int j = 0; j < page.lines().size(); j++ )
+            {
+                int index = offset + j;
+                assertEquals( index % 2 == 0 ? "" : "line" + index, page.lines().get( j ) );
+            }
+        }
+
+        // The spill file goes with the output rather than waiting for the JVM to exit.
+        buffer.clear();
+        assertEquals( spillFiles, countSpillFiles() );
+    }
+
+    private static long countSpillFiles() throws Exception
+    {
+        try ( Stream<Path> files = Files.list( Path.of( System.getProperty( "java.io.tmpdir" ) ) ) )
+        {
+            return files.filter( file -> file.getFileName().toString().startsWith( "assistai-operation-" ) ).count();
+        }
+    }
+
+    @Test
+    public void grepFindsLinesAnywhereInTheSpilledOutput()
+    {
+        OperationOutputBuffer buffer = new OperationOutputBuffer();
+        buffer.enableSpill();
+        int written = OperationOutputBuffer.MAX_LINES * 4;
+        for ( int i = 0; i < written; i++ )
+        {
+            buffer.append( ( i % 1000 == 7 ? "[ERROR] failure " : "[INFO] ok " ) + i + "\n", false );
+        }
+
+        Pattern error = Pattern.compile( "ERROR" );
+        OperationOutputBuffer.GrepResult all = buffer.grep( error, 0, 1000 );
+        assertTrue( all.complete() );
+        assertEquals( written / 1000, all.matches().size() );
+        assertEquals( 7, all.matches().get( 0 ).index() );
+        assertEquals( "[ERROR] failure 7", all.matches().get( 0 ).line() );
+
+        // Stopping at the limit inside the spilled part resumes exactly where it left off.
+        OperationOutputBuffer.GrepResult firstTwo = buffer.grep( error, 0, 2 );
+        assertFalse( firstTwo.complete() );
+        assertEquals( 1007, firstTwo.matches().get( 1 ).index() );
+        OperationOutputBuffer.GrepResult rest = buffer.grep( error, firstTwo.nextOffset(), 1000 );
+        assertEquals( all.matches().size() - 2, rest.matches().size() );
+        assertEquals( 2007, rest.matches().get( 0 ).index() );
+        buffer.clear();
+    }
+
+    @Test
+    public void grepWithoutSpillSearchesWhatIsStillInMemory()
+    {
+        OperationOutputBuffer buffer = new OperationOutputBuffer();
+        int written = OperationOutputBuffer.MAX_LINES + 10;
+        for ( int i = 0; i < written; i++ )
+        {
+            buffer.append( "line" + i + "\n", false );
+        }
+
+        OperationOutputBuffer.GrepResult result = buffer.grep( Pattern.compile( "^line(0|5009)$" ), 0, 10 );
+        assertEquals( 1, result.matches().size() );
+        assertEquals( 5009, result.matches().get( 0 ).index() );
+    }
+
+    @Test
+    public void grepKeepsIndicesAcrossCarriageReturnsInSpilledLines()
+    {
+        OperationOutputBuffer buffer = new OperationOutputBuffer();
+        buffer.enableSpill();
+        int written = OperationOutputBuffer.MAX_LINES * 2;
+        for ( int i = 0; i < written; i++ )
+        {
+            // Progress output redraws its line with a bare carriage return.
+            buffer.append( ( i % 3 == 0 ? "progress 10%\rprogress 100%\r\r " : "line" ) + i + "\n", false );
+        }
+
+        OperationOutputBuffer.GrepResult result = buffer.grep( Pattern.compile( "^line(3001|9998)$" ), 0, 10 );
+        assertEquals( 2, result.matches().size() );
+        assertEquals( 3001, result.matches().get( 0 ).index() );
+        assertEquals( 9998, result.matches().get( 1 ).index() );
+        assertEquals( "progress 10%\rprogress 100%\r\r 3", buffer.grep( Pattern.compile( "100%\\r\\r 3$" ), 0, 1 ).matches().get( 0 ).line() );
+        buffer.clear();
+    }
+
+    // Volume: the buffer sits on the stream reader threads of every build and test
+    // run. Timings are only logged; the assertions check the results.
+
+    @Test
+    public void appendsManyLines()
+    {
+        OperationOutputBuffer buffer = new OperationOutputBuffer();
+        buffer.enableSpill();
+        long start = System.nanoTime();
+        for ( int i = 0; i < 200_000; i++ )
+        {
+            buffer.append( "[INFO] Compiling " + i + " source files to /workspace/project/target/classes\n", false );
+        }
+        buffer.flush();
+        long millis = ( System.nanoTime() - start ) / 1_000_000;
+        System.out.println( "200k lines appended in " + millis + "ms" );
+
+        assertEquals( 200_000, buffer.totalLines() );
+        assertEquals( "[INFO] Compiling 0 source files to /workspace/project/target/classes", buffer.page( 0, 1 ).lines().get( 0 ) );
+        assertEquals( "[INFO] Compiling 199999 source files to /workspace/project/target/classes", buffer.page( -1, 1 ).lines().get( 0 ) );
+        OperationOutputBuffer.GrepResult hit = buffer.grep( Pattern.compile( "Compiling 123456 " ), 0, 10 );
+        assertEquals( 1, hit.matches().size() );
+        assertEquals( 123456, hit.matches().get( 0 ).index() );
+        buffer.clear();
+    }
+
+    @Test
+    public void aHugeLineWithoutNewlinesIsCappedAsItArrives()
+    {
+        OperationOutputBuffer buffer = new OperationOutputBuffer();
+        String chunk = "x".repeat( 64 );
+        long start = System.nanoTime();
+        // About 4 MB of progress dots with no newline in sight.
+        for ( int i = 0; i < 65_536; i++ )
+        {
+            buffer.append( chunk, false );
+        }
+        buffer.append( "\n", false );
+        long millis = ( System.nanoTime() - start ) / 1_000_000;
+        System.out.println( "4MB line appended in " + millis + "ms" );
+
+        assertEquals( 1, buffer.totalLines() );
+        String line = buffer.page( 0, 1 ).lines().get( 0 );
+        assertTrue( line.startsWith( "x".repeat( OperationOutputBuffer.MAX_LINE_CHARS ) ) );
+        assertTrue( line.endsWith( "[truncated]" ) );
+        assertTrue( line.length() < OperationOutputBuffer.MAX_LINE_CHARS + 50 );
+    }
+
+    @Test
+    public void randomPagesDoNotDependOnTheOffset()
+    {
+        OperationOutputBuffer buffer = new OperationOutputBuffer();
+        int written = OperationOutputBuffer.MAX_LINES * 2;
+        for ( int i = 0; i < written; i++ )
+        {
+            buffer.append( "line" + i + "\n", false );
+        }
+        Random random = new Random( 42 );
+        int first = buffer.page( 0, 0 ).droppedLines();
+        long start = System.nanoTime();
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            int offset = first + random.nextInt( written - first );
+            OperationOutputBuffer.Page page = buffer.page( offset, 20 );
+            assertEquals( offset, page.firstIndex() );
+            assertEquals( Math.min( 20, written - offset ), page.lines().size() );
+            assertEquals( "line" + offset, page.lines().get( 0 ) );
+        }
+        long millis = ( System.nanoTime() - start ) / 1_000_000;
+        System.out.println( "100k pages read in " + millis + "ms" );
+    }
 }
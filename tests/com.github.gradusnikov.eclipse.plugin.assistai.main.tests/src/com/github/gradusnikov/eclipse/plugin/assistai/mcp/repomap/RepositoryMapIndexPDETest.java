@@ -0,0 +1,171 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.repomap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.repomap.RepositoryMap;
+import com.github.gradusnikov.eclipse.assistai.mcp.repomap.RepositoryMapIndex;
+
+/**
+ * Builds the map of a generated project of {@value #PACKAGES} x {@value #TYPES_PER_PACKAGE}
+ * classes, all of which use one core type and a few of their neighbours.
+ */
+public class RepositoryMapIndexPDETest
+{
+    private static final String PROJECT = "RepositoryMapProject";
+
+    private static final int PACKAGES = 40;
+
+    private static final int TYPES_PER_PACKAGE = 50;
+
+    private static final NullProgressMonitor monitor = new NullProgressMonitor();
+
+    @BeforeAll
+    public static void createProject() throws Exception
+    {
+        ResourcesPlugin.getWorkspace().run(m -> {
+            IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+            if (project.exists())
+            {
+                project.delete(true, true, monitor);
+            }
+            IProjectDescription description = project.getWorkspace().newProjectDescription(PROJECT);
+            description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+            project.create(description, monitor);
+            project.open(monitor);
+
+            IFolder sourceFolder = project.getFolder("src");
+            sourceFolder.create(IResource.NONE, true, monitor);
+            IJavaProject javaProject = JavaCore.create(project);
+            IClasspathEntry[] classpath = {
+                    JavaCore.newSourceEntry(sourceFolder.getFullPath()),
+                    JavaCore.newContainerEntry(new Path(JavaRuntime.JRE_CONTAINER))
+            };
+            javaProject.setRawClasspath(classpath, project.getFullPath().append("bin"), monitor);
+
+            IFolder core = sourceFolder.getFolder("core");
+            core.create(IResource.NONE, true, monitor);
+            createFile(core.getFile("Core.java"), "package core; public interface Core { void handle(String event); }");
+            for (int p = 0; p < PACKAGES; p++)
+            {
+                IFolder folder = sourceFolder.getFolder("p" + p);
+                folder.create(IResource.NONE, true, monitor);
+                for (int t = 0; t < TYPES_PER_PACKAGE; t++)
+                {
+                    int next = (t + 1) % TYPES_PER_PACKAGE;
+                    createFile(folder.getFile("T" + t + ".java"), "package p" + p + ";\nimport core.Core;\n"
+                            + "public class T" + t + " implements Core {\n"
+                            + "    private T" + next + " next;\n"
+                            + "    public void handle(String event) { next.handle(event); }\n"
+                            + "    public T" + next + " getNext() { return next; }\n"
+                            + "}\n");
+                }
+            }
+        }, monitor);
+    }
+
+    @AfterAll
+    public static void deleteProject() throws Exception
+    {
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+        if (project.exists())
+        {
+            project.delete(true, true, monitor);
+        }
+    }
+
+    @Test
+    public void testMostReferencedTypeLeadsTheMap()
+    {
+        RepositoryMapIndex index = new RepositoryMapIndex();
+        RepositoryMap map = index.getMap(PROJECT);
+
+        assertNotNull(map);
+        assertEquals(PACKAGES * TYPES_PER_PACKAGE + 1, map.typeCount());
+        RepositoryMap.Ranked top = map.rank().get(0);
+        assertEquals("core.Core", top.type().name());
+        assertEquals(PACKAGES * TYPES_PER_PACKAGE, top.usedBy());
+        assertTrue(top.type().members().contains("void handle(String)"), top.type().members().toString());
+        assertNull(index.getMap("NoSuchProject"));
+    }
+
+    @Test
+    public void testEditedUnitIsReadAgain() throws Exception
+    {
+        RepositoryMapIndex index = new RepositoryMapIndex();
+        index.init();
+        try
+        {
+            index.getMap(PROJECT);
+            IFile file = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT).getFile("src/core/Added.java");
+            createFile(file, "package core; public class Added { public int size() { return 0; } }");
+            assertTrue(index.getMap(PROJECT).rank().stream().anyMatch(r -> r.type().name().equals("core.Added")));
+
+            file.delete(true, monitor);
+            assertTrue(index.getMap(PROJECT).rank().stream().noneMatch(r -> r.type().name().equals("core.Added")));
+        }
+        finally
+        {
+            index.dispose();
+        }
+    }
+
+    /**
+     * Cold build versus warm queries; the warm path has to answer from memory,
+     * without reading any unit again. The timings are only printed.
+     */
+    @Test
+    public void benchmarkColdBuildAndWarmQueries()
+    {
+        RepositoryMapIndex index = new RepositoryMapIndex();
+
+        long start = System.nanoTime();
+        String cold = index.render(PROJECT, 2000);
+        long coldMillis = (System.nanoTime() - start) / 1_000_000;
+        RepositoryMap map = index.getMap(PROJECT);
+        long version = map.version();
+
+        int rounds = 100;
+        start = System.nanoTime();
+        String warm = null;
+        for (int r = 0; r < rounds; r++)
+        {
+            warm = index.render(PROJECT, 2000);
+        }
+        long warmMicros = (System.nanoTime() - start) / 1_000 / rounds;
+
+        System.out.printf("repository map of %d types: cold build %d ms, warm query %d us%n", PACKAGES * TYPES_PER_PACKAGE + 1,
+                coldMillis, warmMicros);
+        assertEquals(cold, warm);
+        assertSame(map, index.getMap(PROJECT));
+        assertEquals(version, map.version(), "a warm query must not re-read any unit");
+    }
+
+    private static void createFile(IFile file, String content) throws CoreException
+    {
+        file.create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, monitor);
+    }
+}
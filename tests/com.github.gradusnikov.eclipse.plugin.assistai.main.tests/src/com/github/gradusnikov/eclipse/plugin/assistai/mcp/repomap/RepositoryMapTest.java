@@ -0,0 +1,122 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.repomap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.repomap.RepositoryMap;
+import com.github.gradusnikov.eclipse.assistai.mcp.repomap.RepositoryMap.Ranked;
+import com.github.gradusnikov.eclipse.assistai.mcp.repomap.RepositoryMap.TypeEntry;
+import com.github.gradusnikov.eclipse.assistai.mcp.repomap.RepositoryMap.Unit;
+
+public class RepositoryMapTest
+{
+    private static Unit unit( String packageName, String typeName, List<String> imports, String... mentions )
+    {
+        Map<String, Integer> references = new HashMap<>();
+        for ( String mention : mentions )
+        {
+            references.put( mention, 1 );
+        }
+        String name = packageName + "." + typeName;
+        return new Unit( "/p/src/" + name.replace( '.', '/' ) + ".java", packageName,
+                imports, List.of( new TypeEntry( name, "public class " + typeName, List.of( "void run()" ) ) ), references );
+    }
+
+    private static List<String> names( RepositoryMap map )
+    {
+        return map.rank().stream().map( ranked -> ranked.type().name() ).toList();
+    }
+
+    @Test
+    public void theMostReferencedTypeComesFirst()
+    {
+        RepositoryMap map = new RepositoryMap();
+        map.put( unit( "a", "Core", List.of() ) );
+        map.put( unit( "a", "Helper", List.of(), "Core" ) );
+        map.put( unit( "b", "One", List.of( "a.Core", "a.Helper" ), "Core", "Helper" ) );
+        map.put( unit( "b", "Two", List.of( "a.*" ), "Core" ) );
+        map.put( unit( "c", "Three", List.of( "a.Core" ), "Core", "String", "List" ) );
+
+        List<Ranked> ranked = map.rank();
+
+        assertEquals( "a.Core", ranked.get( 0 ).type().name() );
+        assertEquals( 4, ranked.get( 0 ).usedBy() );
+        assertEquals( "a.Helper", ranked.get( 1 ).type().name() );
+    }
+
+    @Test
+    public void namesResolveLikeTheCompilerWouldOrNotAtAll()
+    {
+        RepositoryMap map = new RepositoryMap();
+        map.put( unit( "x", "Node", List.of() ) );
+        map.put( unit( "y", "Node", List.of() ) );
+        // Same package wins over nothing, an explicit import wins over the same package.
+        map.put( unit( "y", "User", List.of(), "Node" ) );
+        map.put( unit( "y", "Importer", List.of( "x.Node" ), "Node" ) );
+        // Neither imported nor in the same package: a library type of the same name.
+        map.put( unit( "z", "Stranger", List.of( "java.util.*" ), "Node" ) );
+
+        Map<String, Integer> usedBy = new HashMap<>();
+        map.rank().forEach( ranked -> usedBy.put( ranked.type().name(), ranked.usedBy() ) );
+
+        assertEquals( 1, (int) usedBy.get( "x.Node" ) );
+        assertEquals( 1, (int) usedBy.get( "y.Node" ) );
+    }
+
+    @Test
+    public void replacingAUnitMovesItsEdges()
+    {
+        RepositoryMap map = new RepositoryMap();
+        map.put( unit( "a", "First", List.of() ) );
+        map.put( unit( "a", "Second", List.of() ) );
+        map.put( unit( "a", "User", List.of(), "First" ) );
+        assertEquals( "a.First", names( map ).get( 0 ) );
+        long version = map.version();
+
+        map.put( unit( "a", "User", List.of(), "Second" ) );
+
+        assertTrue( map.version() > version );
+        assertEquals( "a.Second", names( map ).get( 0 ) );
+
+        map.remove( "/p/src/a/Second.java" );
+        assertFalse( names( map ).contains( "a.Second" ) );
+        assertEquals( 2, map.typeCount() );
+    }
+
+    @Test
+    public void renderingKeepsToTheBudget()
+    {
+        RepositoryMap map = new RepositoryMap();
+        for ( int i = 0; i < 200; i++ )
+        {
+            map.put( unit( "pkg", "Type" + i, List.of(), "Type" + ( i / 2 ) ) );
+        }
+
+        String top = map.rank().get( 0 ).type().name();
+        String small = map.render( "p", 100 );
+        String large = map.render( "p", 5000 );
+
+        assertTrue( small.length() <= 100 * 4 + 200, small );
+        assertTrue( small.contains( top ) );
+        assertTrue( small.contains( "types not shown" ) );
+        assertTrue( large.length() > small.length() );
+        assertTrue( map.render( "p", 1 ).contains( top ), "the top type is always shown" );
+    }
+
+    @Test
+    public void mentionsSkipCommentsAndLiterals()
+    {
+        Set<String> mentions = RepositoryMap.typeMentions( "import a.Foo;\n// Bar in a comment\n/* Baz */ class X extends Foo {"
+                + " String s = \"Qux\"; char c = 'Q'; String t = \"\"\"\n  Quux \"\n  \"\"\"; List<Item> items; int lower; }" );
+
+        assertEquals( Set.of( "Foo", "X", "String", "List", "Item" ), mentions );
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.search.ParallelTextSearch;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.ParallelTextSearch.Budget;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.ParallelTextSearch.Match;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.ParallelTextSearch.Result;
+
+public class ParallelTextSearchTest
+{
+    private static Map<String, String> workspace( int files )
+    {
+        Map<String, String> contents = new TreeMap<>();
+        for ( int i = 0; i < files; i++ )
+        {
+            StringBuilder sb = new StringBuilder();
+            for ( int line = 0; line < 50; line++ )
+            {
+                sb.append( line % 7 == i % 7 ? "    service.call( " + i + " ); // service\n" : "    int x = " + line + ";\n" );
+            }
+            contents.put( String.format( "/p/src/F%04d.java", i ), sb.toString() );
+        }
+        return contents;
+    }
+
+    private static ParallelTextSearch<String> engine( Map<String, String> contents )
+    {
+        return new ParallelTextSearch<>( path -> path, contents::get );
+    }
+
+    @Test
+    public void findsTheSameLinesAsASequentialScanInFileOrder()
+    {
+        Map<String, String> contents = workspace( 300 );
+        List<String> files = new ArrayList<>( contents.keySet() );
+        Pattern pattern = Pattern.compile( "service" );
+
+        Result result = engine( contents ).search( files, pattern, Budget.UNLIMITED, null, null );
+
+        List<String> expected = new ArrayList<>();
+        for ( String file : files )
+        {
+            String[] lines = contents.get( file ).split( "\n" );
+            for ( int i = 0; i < lines.length; i++ )
+            {
+                if ( pattern.matcher( lines[i] ).find() )
+                {
+                    expected.add( file + ":" + ( i + 1 ) + ": " + lines[i].strip() );
+                }
+            }
+        }
+        assertEquals( expected, result.matches().stream().map( Match::format ).toList() );
+        assertTrue( result.complete() );
+        assertNull( result.stopReason() );
+        assertEquals( 300, result.filesSearched() );
+        assertEquals( 300, result.filesTotal() );
+    }
+
+    @Test
+    public void stopsAtMaxResultsAndSaysHowMuchWasCovered()
+    {
+        Map<String, String> contents = workspace( 2_000 );
+        Result result = engine( contents ).search( new ArrayList<>( contents.keySet() ), Pattern.compile( "service" ), new Budget( 10, 0 ),
+                null, null );
+
+        assertEquals( 10, result.matches().size() );
+        assertFalse( result.complete() );
+        assertTrue( result.stopReason().startsWith( "maxResults" ) );
+        assertTrue( result.filesSearched() < result.filesTotal(), "searched " + result.filesSearched() );
+        assertTrue( result.summary().contains( "of 2000 file(s)" ), result.summary() );
+    }
+
+    @Test
+    public void aCappedResultIsTheFirstMatchesInFileOrder()
+    {
+        Map<String, String> contents = workspace( 2_000 );
+        List<String> files = new ArrayList<>( contents.keySet() );
+        ParallelTextSearch<String> engine = engine( contents );
+        List<Match> all = engine.search( files, Pattern.compile( "service" ), Budget.UNLIMITED, null, null ).matches();
+
+        for ( int i = 0; i < 20; i++ )
+        {
+            Result capped = engine.search( files, Pattern.compile( "service" ), new Budget( 25, 0 ), null, null );
+            assertEquals( all.subList( 0, 25 ), capped.matches() );
+        }
+    }
+
+    @Test
+    public void stopsAtMaxBytes()
+    {
+        Map<String, String> contents = workspace( 500 );
+        Result result = engine( contents ).search( new ArrayList<>( contents.keySet() ), Pattern.compile( "service" ), new Budget( 0, 1_000 ),
+                null, null );
+
+        long bytes = result.matches().stream().mapToLong( match -> match.format().length() + 1 ).sum();
+        assertTrue( bytes <= 1_000, "returned " + bytes + " bytes" );
+        assertEquals( bytes, result.bytes() );
+        assertFalse( result.complete() );
+        assertTrue( result.stopReason().startsWith( "maxBytes" ) );
+    }
+
+    @Test
+    public void streamsEveryReportedLineToTheSink()
+    {
+        Map<String, String> contents = workspace( 200 );
+        ConcurrentLinkedQueue<Match> streamed = new ConcurrentLinkedQueue<>();
+        Result result = engine( contents ).search( new ArrayList<>( contents.keySet() ), Pattern.compile( "service" ), new Budget( 50, 0 ),
+                streamed::add, null );
+
+        assertEquals( 50, streamed.size() );
+        assertEquals( result.matches(), List.copyOf( streamed ) );
+    }
+
+    @Test
+    public void stopsWhenCancelled()
+    {
+        Map<String, String> contents = workspace( 2_000 );
+        AtomicInteger reads = new AtomicInteger();
+        ParallelTextSearch<String> engine = new ParallelTextSearch<>( path -> path, path -> {
+            reads.incrementAndGet();
+            return contents.get( path );
+        } );
+
+        Result result = engine.search( new ArrayList<>( contents.keySet() ), Pattern.compile( "service" ), Budget.UNLIMITED, null,
+                () -> reads.get() >= 100 );
+
+        assertEquals( "cancelled", result.stopReason() );
+        assertTrue( result.filesSearched() < 2_000 );
+    }
+
+    @Test
+    public void reportsALineOnceAndSurvivesEmptyMatches()
+    {
+        Map<String, String> contents = Map.of( "/p/a.txt", "foo foo foo\r\nbar\rfoo\n\nlast" );
+        List<String> files = List.of( "/p/a.txt" );
+
+        Result once = engine( contents ).search( files, Pattern.compile( "foo" ), Budget.UNLIMITED, null, null );
+        assertEquals( List.of( "/p/a.txt:1: foo foo foo", "/p/a.txt:3: foo" ), once.matches().stream().map( Match::format ).toList() );
+
+        Result empty = engine( contents ).search( files, Pattern.compile( "^", Pattern.MULTILINE ), Budget.UNLIMITED, null, null );
+        assertEquals( 5, empty.matches().size() );
+        assertTrue( empty.complete() );
+    }
+
+    @Test
+    public void skipsFilesThatCannotBeRead()
+    {
+        ParallelTextSearch<String> engine = new ParallelTextSearch<>( path -> path, path -> {
+            if ( path.contains( "broken" ) )
+            {
+                throw new IllegalStateException( "unreadable" );
+            }
+            return "needle";
+        } );
+
+        Result result = engine.search( List.of( "/p/a", "/p/broken", "/p/b" ), Pattern.compile( "needle" ), Budget.UNLIMITED, null, null );
+
+        assertEquals( 2, result.matches().size() );
+        assertEquals( 3, result.filesSearched() );
+        assertTrue( result.complete() );
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.search.SymbolIndex;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.SymbolIndex.Document;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.SymbolIndex.Hit;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.SymbolIndex.Kind;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.SymbolIndex.Symbol;
+
+public class SymbolIndexTest
+{
+    private static Document method( String path, String name, String signature, String text )
+    {
+        return new Document( new Symbol( Kind.METHOD, name, signature, path, 1 ), text );
+    }
+
+    private static List<String> names( List<Hit> hits )
+    {
+        return hits.stream().map( hit -> hit.symbol().name() ).toList();
+    }
+
+    @Test
+    public void splitsIdentifiersIntoWords()
+    {
+        assertEquals( List.of( "parse", "http", "header", "parsehttpheader" ), SymbolIndex.terms( "parseHTTPHeaders" ) );
+        assertEquals( List.of( "base", "64", "encode", "base64encode" ), SymbolIndex.terms( "base64Encode" ) );
+        assertEquals( List.of( "entry", "cache" ), SymbolIndex.terms( "the entries of a cache" ) );
+    }
+
+    @Test
+    public void namesOutrankMentions()
+    {
+        SymbolIndex index = new SymbolIndex();
+        index.put( "/p/A.java", List.of( method( "/p/A.java", "a.A#parseHeader", "Header parseHeader(String)", "Parses one header line." ),
+                method( "/p/A.java", "a.A#read", "void read(InputStream)", "Reads the body; headers are parsed elsewhere." ) ) );
+        index.put( "/p/B.java", List.of( method( "/p/B.java", "b.B#close", "void close()", "Closes the stream." ) ) );
+
+        List<Hit> hits = index.search( "parse headers", 10, null, null );
+
+        assertEquals( List.of( "a.A#parseHeader", "a.A#read" ), names( hits ) );
+        assertTrue( hits.get( 0 ).score() > hits.get( 1 ).score() );
+    }
+
+    @Test
+    public void filtersByKindAndPath()
+    {
+        SymbolIndex index = new SymbolIndex();
+        index.put( "/one/src/Cache.java", List.of( new Document( new Symbol( Kind.TYPE, "one.Cache", "class Cache", "/one/src/Cache.java", 3 ), "An LRU cache." ),
+                method( "/one/src/Cache.java", "one.Cache#evict", "void evict()", "Evicts the eldest cache entry." ) ) );
+        index.put( "/two/src/Cache.java", List.of( new Document( new Symbol( Kind.TYPE, "two.Cache", "class Cache", "/two/src/Cache.java", 1 ), "" ) ) );
+
+        assertEquals( List.of( "one.Cache", "two.Cache" ), names( index.search( "cache", 10, Kind.TYPE, null ) ).stream().sorted().toList() );
+        assertEquals( List.of( "two.Cache" ), names( index.search( "cache", 10, null, "/two/" ) ) );
+        assertEquals( List.of( "one.Cache#evict" ), names( index.search( "cache", 10, Kind.METHOD, null ) ) );
+    }
+
+    @Test
+    public void replacedFilesDropTheirSymbols()
+    {
+        SymbolIndex index = new SymbolIndex();
+        for ( int round = 0; round < 3_000; round++ )
+        {
+            index.put( "/p/Churn.java", List.of( method( "/p/Churn.java", "p.Churn#version" + round, "void version" + round + "()", "" ),
+                    method( "/p/Churn.java", "p.Churn#stable", "void stable()", "" ) ) );
+        }
+
+        assertEquals( 2, index.size() );
+        assertEquals( List.of( "p.Churn#version2999" ), names( index.search( "version2999", 10, null, null ) ) );
+        assertFalse( names( index.search( "version17", 10, null, null ) ).contains( "p.Churn#version17" ) );
+        assertEquals( List.of( "p.Churn#stable" ), names( index.search( "stable", 10, null, null ) ) );
+
+        index.removeUnder( "/p/" );
+        assertEquals( 0, index.size() );
+        assertFalse( index.isTruncated() );
+    }
+
+    /**
+     * Indexing throughput and query latency over 200,000 generated symbols, about
+     * the size of a large workspace.
+     */
+    @Test
+    public void benchmarkIndexingAndQueries()
+    {
+        String[] words = { "parse", "render", "cache", "index", "token", "stream", "buffer", "request", "response", "handler", "session",
+                "config", "project", "resource", "marker", "search", "query", "result", "editor", "console" };
+        List<List<Document>> files = new ArrayList<>();
+        for ( int f = 0; f < 20_000; f++ )
+        {
+            String path = "/big/src/p" + ( f % 100 ) + "/Type" + f + ".java";
+            List<Document> documents = new ArrayList<>();
+            for ( int m = 0; m < 10; m++ )
+            {
+                String name = words[( f + m ) % words.length] + capitalize( words[( f * 7 + m * 3 ) % words.length] ) + m;
+                documents.add( method( path, "p.Type" + f + "#" + name, "void " + name + "(String " + words[m] + ")",
+                        "Handles the " + words[( f + 2 * m ) % words.length] + " of a " + words[( 3 * f + m ) % words.length] + "." ) );
+            }
+            files.add( documents );
+        }
+
+        SymbolIndex index = new SymbolIndex();
+        long start = System.nanoTime();
+        for ( int f = 0; f < files.size(); f++ )
+        {
+            index.put( "/big/src/p" + ( f % 100 ) + "/Type" + f + ".java", files.get( f ) );
+        }
+        long indexMillis = Math.max( 1, ( System.nanoTime() - start ) / 1_000_000 );
+
+        String[] queries = { "parse token", "session cache handler", "render editor console", "resource marker", "stream buffer request" };
+        for ( String query : queries )
+        {
+            index.search( query, 20, null, null );
+        }
+        int rounds = 50;
+        start = System.nanoTime();
+        for ( int r = 0; r < rounds; r++ )
+        {
+            for ( String query : queries )
+            {
+                assertEquals( 20, index.search( query, 20, null, null ).size() );
+            }
+        }
+        long queryMicros = ( System.nanoTime() - start ) / 1_000 / ( rounds * queries.length );
+
+        System.out.printf( "symbol index: %d symbols in %d ms (%d symbols/s), query %d us%n", index.size(), indexMillis,
+                index.size() * 1000L / indexMillis, queryMicros );
+        assertEquals( 200_000, index.size() );
+
+        // At this size the answers still come ranked, filtered and up to date.
+        List<Hit> hits = index.search( queries[0], 20, null, "/big/src/p7/" );
+        assertEquals( 20, hits.size() );
+        for ( int i = 0; i < hits.size(); i++ )
+        {
+            assertTrue( hits.get( i ).symbol().path().startsWith( "/big/src/p7/" ), hits.get( i ).symbol().path() );
+            assertTrue( i == 0 || hits.get( i - 1 ).score() >= hits.get( i ).score() );
+        }
+        String first = hits.get( 0 ).symbol().path();
+        index.remove( first );
+        assertEquals( 199_990, index.size() );
+        assertTrue( index.search( queries[0], 20, null, "/big/src/p7/" ).stream().noneMatch( hit -> hit.symbol().path().equals( first ) ) );
+    }
+
+    private static String capitalize( String word )
+    {
+        return Character.toUpperCase( word.charAt( 0 ) ) + word.substring( 1 );
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.search.SymbolIndex;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.SymbolSearchIndex;
+
+/**
+ * Indexes a generated project of {@value #TYPES} classes with a few documented
+ * methods each, plus one hand-written class to search for.
+ */
+public class SymbolSearchIndexPDETest
+{
+    private static final String PROJECT = "SymbolSearchProject";
+
+    private static final int TYPES = 1000;
+
+    private static final NullProgressMonitor monitor = new NullProgressMonitor();
+
+    @BeforeAll
+    public static void createProject() throws Exception
+    {
+        ResourcesPlugin.getWorkspace().run(m -> {
+            IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+            if (project.exists())
+            {
+                project.delete(true, true, monitor);
+            }
+            IProjectDescription description = project.getWorkspace().newProjectDescription(PROJECT);
+            description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+            project.create(description, monitor);
+            project.open(monitor);
+
+            IFolder sourceFolder = project.getFolder("src");
+            sourceFolder.create(IResource.NONE, true, monitor);
+            IJavaProject javaProject = JavaCore.create(project);
+            IClasspathEntry[] classpath = {
+                    JavaCore.newSourceEntry(sourceFolder.getFullPath()),
+                    JavaCore.newContainerEntry(new Path(JavaRuntime.JRE_CONTAINER))
+            };
+            javaProject.setRawClasspath(classpath, project.getFullPath().append("bin"), monitor);
+
+            IFolder folder = sourceFolder.getFolder("gen");
+            folder.create(IResource.NONE, true, monitor);
+            for (int t = 0; t < TYPES; t++)
+            {
+                createFile(folder.getFile("Generated" + t + ".java"), "package gen;\n"
+                        + "/** Generated type number " + t + ". */\n"
+                        + "public class Generated" + t + " {\n"
+                        + "    private int count" + t + ";\n"
+                        + "    /** Adds one to the counter. */\n"
+                        + "    public void increment() { count" + t + "++; }\n"
+                        + "    /** Resets the counter to zero. */\n"
+                        + "    public void reset() { count" + t + " = 0; }\n"
+                        + "}\n");
+            }
+            createFile(folder.getFile("HttpRetryPolicy.java"), "package gen;\n"
+                    + "/** Decides when a failed request is sent again. */\n"
+                    + "public class HttpRetryPolicy {\n"
+                    + "    public long backoffMillis(int attempt) {\n"
+                    + "        // exponential backoff with jitter\n"
+                    + "        if (attempt > 5) throw new IllegalStateException(\"giving up after too many attempts\");\n"
+                    + "        return 100L << attempt;\n"
+                    + "    }\n"
+                    + "}\n");
+        }, monitor);
+    }
+
+    @AfterAll
+    public static void deleteProject() throws Exception
+    {
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+        if (project.exists())
+        {
+            project.delete(true, true, monitor);
+        }
+    }
+
+    @Test
+    public void testFindsSymbolsByNameJavadocCommentsAndLiterals() throws Exception
+    {
+        SymbolSearchIndex index = new SymbolSearchIndex();
+        index.init();
+        try
+        {
+            index.awaitReady(60_000);
+
+            assertEquals("gen.HttpRetryPolicy", first(index, "retry failed request", null));
+            assertEquals("gen.HttpRetryPolicy#backoffMillis", first(index, "exponential backoff", SymbolIndex.Kind.METHOD));
+            assertEquals("gen.HttpRetryPolicy#backoffMillis", first(index, "too many attempts", null));
+            assertTrue(index.search("retry", "type", PROJECT, 5).contains("gen.HttpRetryPolicy  /" + PROJECT + "/src/gen/HttpRetryPolicy.java:3"));
+        }
+        finally
+        {
+            index.dispose();
+        }
+    }
+
+    @Test
+    public void testEditedFilesAreIndexedAgain() throws Exception
+    {
+        SymbolSearchIndex index = new SymbolSearchIndex();
+        index.init();
+        try
+        {
+            index.awaitReady(60_000);
+            IFile file = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT).getFile("src/gen/Thermostat.java");
+            createFile(file, "package gen; public class Thermostat { public void setTemperature(double celsius) {} }");
+            index.awaitReady(10_000);
+            assertEquals("gen.Thermostat#setTemperature", first(index, "temperature", SymbolIndex.Kind.METHOD));
+
+            file.delete(true, monitor);
+            index.awaitReady(10_000);
+            assertTrue(index.getIndex().search("thermostat", 5, null, null).isEmpty());
+        }
+        finally
+        {
+            index.dispose();
+        }
+    }
+
+    /**
+     * Indexing throughput of the whole project, from the Java model.
+     */
+    @Test
+    public void benchmarkIndexingThroughput() throws Exception
+    {
+        SymbolSearchIndex index = new SymbolSearchIndex();
+        long start = System.nanoTime();
+        index.init();
+        try
+        {
+            index.awaitReady(120_000);
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            int symbols = index.getIndex().size();
+            System.out.printf("symbol search index: %d symbols in %d files in %d ms (%d symbols/s)%n", symbols,
+                    index.getIndex().fileCount(), millis, symbols * 1000L / millis);
+            assertTrue(symbols >= TYPES * 4, "indexed " + symbols);
+            assertFalse(index.getIndex().isTruncated());
+        }
+        finally
+        {
+            index.dispose();
+        }
+    }
+
+    private static String first(SymbolSearchIndex index, String query, SymbolIndex.Kind kind)
+    {
+        List<SymbolIndex.Hit> hits = index.getIndex().search(query, 5, kind, "/" + PROJECT + "/");
+        return hits.isEmpty() ? null : hits.get(0).symbol().name();
+    }
+
+    private static void createFile(IFile file, String content) throws CoreException
+    {
+        file.create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, monitor);
+    }
+}
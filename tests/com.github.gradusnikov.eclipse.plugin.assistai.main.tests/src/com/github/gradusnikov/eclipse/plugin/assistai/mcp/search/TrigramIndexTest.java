@@ -0,0 +1,228 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.search.TrigramIndex;
+import com.github.gradusnikov.eclipse.assistai.mcp.search.TrigramQuery;
+
+/**
+ * The index may only ever narrow a search to a superset of the real matches, so
+ * every test here checks that no file containing a match is ruled out.
+ */
+public class TrigramIndexTest
+{
+    @Test
+    public void extractsOnlyTextEveryMatchMustContain()
+    {
+        assertEquals( List.of( "getFoo" ), TrigramQuery.forPattern( Pattern.compile( "getFoo" ) ).literals() );
+        assertEquals( List.of( "public ", " get" ), TrigramQuery.forPattern( Pattern.compile( "public \\w+ get[A-Z]" ) ).literals() );
+        // The s is optional, so it cannot be part of the run.
+        assertEquals( List.of( "test" ), TrigramQuery.forPattern( Pattern.compile( "tests?" ) ).literals() );
+        assertEquals( List.of( "a.b(c)" ), TrigramQuery.forPattern( Pattern.compile( Pattern.quote( "a.b(c)" ) ) ).literals() );
+        assertEquals( List.of( "foo.bar" ), TrigramQuery.forPattern( Pattern.compile( "foo\\.bar" ) ).literals() );
+        assertEquals( List.of( "Exception" ), TrigramQuery.forPattern( Pattern.compile( "(Runtime|IO)Exception" ) ).literals() );
+    }
+
+    @Test
+    public void givesUpOnPatternsItCannotNarrow()
+    {
+        assertTrue( TrigramQuery.forPattern( Pattern.compile( "foo|bar" ) ).matchesAll() );
+        assertTrue( TrigramQuery.forPattern( Pattern.compile( "\\d+\\s*ms" ) ).matchesAll() );
+        assertTrue( TrigramQuery.forPattern( Pattern.compile( "(?x) f o o b a r" ) ).matchesAll() );
+        assertTrue( TrigramQuery.forPattern( Pattern.compile( "foobar", Pattern.COMMENTS ) ).matchesAll() );
+        assertTrue( TrigramQuery.forLiteral( "ab" ).matchesAll() );
+    }
+
+    @Test
+    public void neverRulesOutAFileWithAMatch()
+    {
+        Random random = new Random( 7 );
+        Map<String, String> files = new HashMap<>();
+        TrigramIndex index = new TrigramIndex();
+        for ( int i = 0; i < 2_000; i++ )
+        {
+            String content = randomSource( random, 40 );
+            files.put( "/p/F" + i + ".java", content );
+            index.put( "/p/F" + i + ".java", i, content );
+        }
+        String[] regexes = { "getValue\\d", "public (static )?void", "[Ss]ervice", "catch \\(IO", "return null;", "(?i)HASHMAP",
+                Pattern.quote( "list.size()" ), "x+y" };
+        for ( String regex : regexes )
+        {
+            Pattern pattern = Pattern.compile( regex );
+            List<String> candidates = index.candidates( TrigramQuery.forPattern( pattern ), path -> true );
+            for ( Map.Entry<String, String> file : files.entrySet() )
+            {
+                if ( pattern.matcher( file.getValue() ).find() )
+                {
+                    assertTrue( candidates.contains( file.getKey() ), regex + " lost " + file.getKey() );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void foldsCaseSoCaseInsensitiveSearchesCanUseIt()
+    {
+        TrigramIndex index = new TrigramIndex();
+        index.put( "/p/A.java", 1, "class ConcurrentHashMap {}" );
+        index.put( "/p/B.java", 1, "class TreeSet {}" );
+
+        List<String> candidates = index.candidates( TrigramQuery.forPattern( Pattern.compile( "concurrenthashmap", Pattern.CASE_INSENSITIVE ) ),
+                path -> true );
+        assertEquals( List.of( "/p/A.java" ), candidates );
+    }
+
+    @Test
+    public void unindexedAndExcludedFilesAreAlwaysCandidates()
+    {
+        TrigramIndex index = new TrigramIndex();
+        index.put( "/p/A.java", 1, "nothing to see here" );
+        index.putUnindexed( "/p/huge.log", 1, TrigramIndex.Kind.UNINDEXED );
+        index.putUnindexed( "/p/secret.properties", 1, TrigramIndex.Kind.EXCLUDED );
+
+        List<String> candidates = index.candidates( TrigramQuery.forLiteral( "password" ), path -> true );
+        assertEquals( 2, candidates.size() );
+        assertFalse( candidates.contains( "/p/A.java" ) );
+    }
+
+    @Test
+    public void tracksStampsAndRemovals()
+    {
+        TrigramIndex index = new TrigramIndex();
+        index.put( "/p/src/A.java", 5, "alpha" );
+        index.put( "/q/B.java", 5, "beta" );
+        assertTrue( index.isCurrent( "/p/src/A.java", 5 ) );
+        assertFalse( index.isCurrent( "/p/src/A.java", 6 ) );
+
+        index.removeUnder( "/p" );
+        assertEquals( 1, index.size() );
+        assertTrue( index.isCurrent( "/q/B.java", 5 ) );
+    }
+
+    @Test
+    public void survivesARoundTripThroughDisk() throws Exception
+    {
+        TrigramIndex index = new TrigramIndex();
+        index.put( "/p/A.java", 42, "class Alpha { void run() {} }" );
+        index.putUnindexed( "/p/big.bin", 7, TrigramIndex.Kind.UNINDEXED );
+        Path file = Files.createTempFile( "trigram", ".bin" );
+        try
+        {
+            index.write( file );
+            TrigramIndex read = TrigramIndex.read( file );
+            assertEquals( 2, read.size() );
+            assertTrue( read.isCurrent( "/p/A.java", 42 ) );
+            assertEquals( TrigramIndex.Kind.UNINDEXED, read.get( "/p/big.bin" ).kind() );
+            assertEquals( List.of( "/p/A.java" ),
+                    read.candidates( TrigramQuery.forLiteral( "Alpha" ), path -> path.endsWith( ".java" ) ) );
+        }
+        finally
+        {
+            Files.deleteIfExists( file );
+        }
+    }
+
+    /**
+     * A generated 50,000 file workspace: indexing, size on disk and in memory, and
+     * how much a selective query narrows the search and what that costs. Timings
+     * are only printed.
+     */
+    @Test
+    public void benchmarkOnAFiftyThousandFileWorkspace() throws Exception
+    {
+        Random random = new Random( 42 );
+        TrigramIndex index = new TrigramIndex();
+        int files = 50_000;
+        long sourceChars = 0;
+        long start = System.nanoTime();
+        for ( int i = 0; i < files; i++ )
+        {
+            String content = randomSource( random, 40 ) + "class Generated" + i + " {}\n";
+            sourceChars += content.length();
+            index.put( "/project" + ( i % 20 ) + "/src/pkg" + ( i % 400 ) + "/Generated" + i + ".java", i, content );
+        }
+        long indexMillis = ( System.nanoTime() - start ) / 1_000_000;
+
+        Path file = Files.createTempFile( "trigram", ".bin" );
+        long diskBytes;
+        TrigramIndex loaded;
+        try
+        {
+            index.write( file );
+            diskBytes = Files.size( file );
+            start = System.nanoTime();
+            loaded = TrigramIndex.read( file );
+        }
+        finally
+        {
+            Files.deleteIfExists( file );
+        }
+        long loadMillis = ( System.nanoTime() - start ) / 1_000_000;
+
+        TrigramQuery selective = TrigramQuery.forLiteral( "Generated31337 " );
+        TrigramQuery common = TrigramQuery.forPattern( Pattern.compile( "public \\w+ getValue" ) );
+        int rounds = 20;
+        List<String> selectiveHits = new ArrayList<>();
+        int commonHits = 0;
+        start = System.nanoTime();
+        for ( int r = 0; r < rounds; r++ )
+        {
+            selectiveHits = index.candidates( selective, path -> path.endsWith( ".java" ) );
+            commonHits = index.candidates( common, path -> true ).size();
+        }
+        long queryMicros = ( System.nanoTime() - start ) / 1_000 / ( 2L * rounds );
+
+        System.out.printf( "trigram index: %d files, %d MB source, indexed in %d ms, %d KB in memory, %d KB on disk (loads in %d ms), "
+                + "query %d us, selective query kept %d files, common query kept %d%n", files, sourceChars >> 20, indexMillis,
+                index.signatureBytes() >> 10, diskBytes >> 10, loadMillis, queryMicros, selectiveHits.size(), commonHits );
+
+        assertTrue( selectiveHits.contains( "/project17/src/pkg137/Generated31337.java" ) );
+        // False positives stay rare for a selective literal.
+        assertTrue( selectiveHits.size() < files / 1000, "kept " + selectiveHits.size() );
+        // Signatures are a small fraction of the source they summarise.
+        assertTrue( index.signatureBytes() < sourceChars / 2, "signatures " + index.signatureBytes() + " for " + sourceChars + " chars" );
+        // The index read back from disk narrows the search just the same.
+        assertEquals( Set.copyOf( selectiveHits ), Set.copyOf( loaded.candidates( selective, path -> path.endsWith( ".java" ) ) ) );
+        assertEquals( commonHits, loaded.candidates( common, path -> true ).size() );
+    }
+
+    private static final String[] WORDS = { "public", "private", "static", "void", "int", "String", "return", "null", "new", "if", "else",
+            "for", "while", "getValue", "setValue", "list", "map", "HashMap", "ArrayList", "size()", "catch", "(IOException", "e)", "throw",
+            "Service", "service", "Repository", "x", "y", "+", "=", ";", "{", "}", "final", "class", "this.", "value", "count", "index", "List<String>" };
+
+    private static String randomSource( Random random, int lines )
+    {
+        StringBuilder sb = new StringBuilder();
+        for ( int line = 0; line < lines; line++ )
+        {
+            sb.append( "    " );
+            int words = 3 + random.nextInt( 8 );
+            for ( int w = 0; w < words; w++ )
+            {
+                sb.append( WORDS[random.nextInt( WORDS.length )] );
+                if ( random.nextInt( 4 ) == 0 )
+                {
+                    sb.append( random.nextInt( 10 ) );
+                }
+                sb.append( ' ' );
+            }
+            sb.append( '\n' );
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,199 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.services.AttachmentCache;
+
+/**
+ * Reads the attached source of a class from a JAR built by the test, with the
+ * source in a ZIP next to it; nothing is fetched from the network.
+ */
+public class AttachmentCachePDETest
+{
+    private static final String PROJECT = "AttachmentCacheProject";
+
+    private static final String FIXTURE = "com.github.gradusnikov.eclipse.plugin.assistai.mcp.services.AttachmentFixture";
+
+    private static final String FIXTURE_PATH = FIXTURE.replace('.', '/');
+
+    private final NullProgressMonitor monitor = new NullProgressMonitor();
+
+    private IJavaProject javaProject;
+
+    private IFile jar;
+
+    @BeforeEach
+    public void createProject() throws Exception
+    {
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+        if (project.exists())
+        {
+            project.delete(true, true, monitor);
+        }
+        IProjectDescription description = project.getWorkspace().newProjectDescription(PROJECT);
+        description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+        project.create(description, monitor);
+        project.open(monitor);
+
+        IFolder lib = project.getFolder("lib");
+        lib.create(IResource.NONE, true, monitor);
+        jar = lib.getFile("fixture.jar");
+        jar.create(new ByteArrayInputStream(zip(Map.of(FIXTURE_PATH + ".class", fixtureBytes()))), true, monitor);
+        IFile sources = lib.getFile("fixture-sources.zip");
+        String source = "package com.github.gradusnikov.eclipse.plugin.assistai.mcp.services;\n"
+                + "/** Attached fixture source. */\n"
+                + "class AttachmentFixture\n{\n}\n";
+        sources.create(new ByteArrayInputStream(zip(Map.of(FIXTURE_PATH + ".java", source.getBytes(StandardCharsets.UTF_8)))), true, monitor);
+
+        javaProject = JavaCore.create(project);
+        IClasspathEntry[] classpath = {
+                JavaCore.newLibraryEntry(jar.getFullPath(), sources.getFullPath(), null),
+                JavaCore.newContainerEntry(new Path(JavaRuntime.JRE_CONTAINER))
+        };
+        javaProject.setRawClasspath(classpath, project.getFullPath().append("bin"), monitor);
+    }
+
+    @AfterEach
+    public void deleteProject() throws Exception
+    {
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT);
+        if (project.exists())
+        {
+            project.delete(true, true, monitor);
+        }
+    }
+
+    @Test
+    public void testAttachedSourceIsReadOncePerJarChecksum() throws Exception
+    {
+        IType type = javaProject.findType(FIXTURE);
+        assertTrue(type != null && type.isBinary());
+        int[] loads = { 0 };
+        Function<IJavaElement, String> loader = element -> {
+            loads[0]++;
+            try
+            {
+                return ((IType) element).getClassFile().getSource();
+            }
+            catch (JavaModelException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        AttachmentCache cache = new AttachmentCache();
+        String source = cache.get(type, "source", loader);
+        assertTrue(source.contains("Attached fixture source."), source);
+        assertEquals(source, cache.get(type, "source", loader));
+        assertEquals(1, loads[0]);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // A new session finds the source on disk.
+        AttachmentCache restarted = new AttachmentCache();
+        assertEquals(source, restarted.get(type, "source", loader));
+        assertEquals(1, loads[0]);
+        assertEquals(1, restarted.getDiskHits());
+
+        // A rebuilt JAR has another checksum and is read again.
+        jar.setContents(new ByteArrayInputStream(zip(Map.of(FIXTURE_PATH + ".class", fixtureBytes(), "META-INF/rebuilt.txt", new byte[] { 1 }))),
+                true, false, monitor);
+        restarted.get(javaProject.findType(FIXTURE), "source", loader);
+        assertEquals(2, loads[0]);
+        assertTrue(restarted.formatStats().contains("1 disk hits"), restarted.formatStats());
+    }
+
+    @Test
+    public void testChangedSourceAttachmentIsReadAgain() throws Exception
+    {
+        IType type = javaProject.findType(FIXTURE);
+        int[] loads = { 0 };
+        Function<IJavaElement, String> loader = element -> "source " + ++loads[0];
+
+        AttachmentCache cache = new AttachmentCache();
+        assertEquals("source 1", cache.get(type, "source", loader));
+        assertEquals("source 1", cache.get(type, "source", loader));
+
+        // Same JAR, other source: the old text must not be served.
+        String source = "package com.github.gradusnikov.eclipse.plugin.assistai.mcp.services;\n"
+                + "/** Reattached fixture source. */\n"
+                + "class AttachmentFixture\n{\n}\n";
+        javaProject.getProject().getFile("lib/fixture-sources.zip").setContents(
+                new ByteArrayInputStream(zip(Map.of(FIXTURE_PATH + ".java", source.getBytes(StandardCharsets.UTF_8)))), true, false, monitor);
+        assertEquals("source 2", cache.get(javaProject.findType(FIXTURE), "source", loader));
+    }
+
+    @Test
+    public void testWorkspaceSourceIsNotCached() throws Exception
+    {
+        IFolder src = javaProject.getProject().getFolder("src");
+        src.create(IResource.NONE, true, monitor);
+        IClasspathEntry[] classpath = { JavaCore.newSourceEntry(src.getFullPath()), JavaCore.newContainerEntry(new Path(JavaRuntime.JRE_CONTAINER)) };
+        javaProject.setRawClasspath(classpath, javaProject.getProject().getFullPath().append("bin"), monitor);
+        src.getFile("Local.java").create(new ByteArrayInputStream("public class Local {}".getBytes(StandardCharsets.UTF_8)), true, monitor);
+        IType type = javaProject.findType("Local");
+
+        AttachmentCache cache = new AttachmentCache();
+        cache.get(type, "source", element -> "first");
+        assertEquals("second", cache.get(type, "source", element -> "second"));
+        assertEquals(0, cache.getHits() + cache.getDiskHits() + cache.getMisses());
+    }
+
+    private byte[] fixtureBytes() throws IOException
+    {
+        try (InputStream input = getClass().getResourceAsStream("AttachmentFixture.class"))
+        {
+            assertTrue(input != null);
+            return input.readAllBytes();
+        }
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes))
+        {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet())
+            {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
+
+class AttachmentFixture
+{
+}
@@ -0,0 +1,112 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.services.CoverageModel;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.CoverageModel.ClassCoverage;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.CoverageModel.Counter;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.CoverageModel.MethodCoverage;
+
+public class CoverageModelTest
+{
+    private static final byte N = CoverageModel.NOT_COVERED;
+
+    private static final byte F = CoverageModel.FULLY_COVERED;
+
+    private static final byte P = CoverageModel.PARTLY_COVERED;
+
+    private static final byte E = CoverageModel.EMPTY;
+
+    /** Lines 3-4 {@code add}, fully covered; lines 6-9 {@code divide}, with an untested branch. */
+    private static ClassCoverage calculator()
+    {
+        return new ClassCoverage( "com/example/Calculator", "Calculator.java", 2, new byte[] { F, F, F, E, P, N, F, E },
+                new byte[] { E, E, E, E, P, E, E, E }, new Counter( 6, 5 ), new Counter( 2, 1 ),
+                List.of( new MethodCoverage( "<init>", "()V", 2, 2, new Counter( 1, 1 ), new Counter( 0, 0 ) ),
+                        new MethodCoverage( "add", "(II)I", 3, 4, new Counter( 2, 2 ), new Counter( 0, 0 ) ),
+                        new MethodCoverage( "divide", "(II)I", 6, 8, new Counter( 3, 2 ), new Counter( 2, 1 ) ) ) );
+    }
+
+    private static ClassCoverage covered( String name )
+    {
+        return new ClassCoverage( name, null, 1, new byte[] { F }, new byte[] { E }, new Counter( 1, 1 ), new Counter( 0, 0 ), List.of() );
+    }
+
+    @Test
+    public void reportsOverallAndIncompleteClasses()
+    {
+        CoverageModel model = new CoverageModel( "/tmp/run.exec", 2, List.of( calculator(), covered( "com/example/Util" ) ) );
+
+        String report = model.formatReport();
+
+        assertTrue( report.startsWith( "\n--- Coverage Report ---\nOverall: 85% line coverage (6/7 lines), 50% branch coverage (1/2 branches)\n\n" ), report );
+        assertTrue( report.contains( "\"sourcefile\": \"Calculator.java\",\n    \"package\": \"com.example\"," ), report );
+        assertTrue( report.contains( "\"nocovered\": [7],\n      \"partiallycovered\": [6]\n    },\n    \"branch\": {\n      \"nocovered\": [],\n      \"partiallycovered\": [6]" ), report );
+        assertTrue( !report.contains( "Util" ), report );
+    }
+
+    @Test
+    public void reportsFullCoverage()
+    {
+        CoverageModel model = new CoverageModel( "/tmp/run.exec", 1, List.of( covered( "a/A" ) ) );
+
+        assertTrue( model.formatReport().endsWith( "All classes fully covered.\n" ) );
+    }
+
+    @Test
+    public void describesMethods()
+    {
+        CoverageModel model = new CoverageModel( "/tmp/run.exec", 1, List.of( calculator() ) );
+
+        String divide = model.describe( "com.example.Calculator", "divide" );
+        assertTrue( divide.contains( "- divide(II)I lines 6-8: 2/3 lines (66%), 1/2 branches (50%)\n" ), divide );
+        assertTrue( divide.contains( "    not covered lines: [7]\n    partly covered lines: [6]\n    lines with missed branches: [6]\n" ), divide );
+        assertTrue( !divide.contains( "add(II)I" ), divide );
+
+        String whole = model.describe( "com.example.Calculator", null );
+        assertTrue( whole.contains( "com.example.Calculator (Calculator.java): 5/6 lines (83%), 1/2 branches (50%)\n" ), whole );
+        assertTrue( whole.contains( "- add(II)I lines 3-4: 2/2 lines (100%), 0/0 branches\n" ), whole );
+
+        assertEquals( "No method named missing in the coverage of com.example.Calculator.", model.describe( "com.example.Calculator", "missing" ) );
+        assertTrue( model.describe( "com.example.Other", null ).startsWith( "No coverage recorded for com.example.Other" ) );
+    }
+
+    /**
+     * Answering a method query from a retained model of 2,000 classes. Timings
+     * are only printed.
+     */
+    @Test
+    public void benchmarkQueriesOnLargeModel()
+    {
+        List<ClassCoverage> classes = new ArrayList<>();
+        for ( int i = 0; i < 2_000; i++ )
+        {
+            ClassCoverage template = calculator();
+            classes.add( new ClassCoverage( "com/example/p" + ( i % 50 ) + "/Calculator" + i, "Calculator" + i + ".java", template.firstLine(),
+                    template.lineStatus(), template.branchStatus(), template.lines(), template.branches(), template.methods() ) );
+        }
+        CoverageModel model = new CoverageModel( "/tmp/run.exec", classes.size(), classes );
+
+        long start = System.nanoTime();
+        int rounds = 1_000;
+        for ( int r = 0; r < rounds; r++ )
+        {
+            assertTrue( model.describe( "com.example.p" + ( r % 50 ) + ".Calculator" + r, "divide" ).contains( "divide(II)I" ) );
+        }
+        long micros = ( System.nanoTime() - start ) / 1_000 / rounds;
+        long reportStart = System.nanoTime();
+        String report = model.formatReport();
+        long reportMillis = ( System.nanoTime() - reportStart ) / 1_000_000;
+        System.out.printf( "coverage model: 2000 classes, method query %d us, full report %d ms (%d chars)%n", micros, reportMillis, report.length() );
+        assertTrue( report.contains( "\"sourcefile\": \"Calculator1999.java\"" ), "every class is in the report" );
+        String last = model.describe( "com.example.p49.Calculator1999", null );
+        assertTrue( last.contains( "com.example.p49.Calculator1999 (Calculator1999.java): 5/6 lines (83%)" ), last );
+        assertTrue( model.describe( "com.example.p0.Calculator2000", null ).startsWith( "No coverage recorded for com.example.p0.Calculator2000" ) );
+    }
+}
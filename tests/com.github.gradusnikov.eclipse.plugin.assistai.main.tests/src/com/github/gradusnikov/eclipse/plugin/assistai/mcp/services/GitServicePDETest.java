@@ -244,6 +244,20 @@ public class GitServicePDETest
         assertTrue(status.contains("Hello.java"), "Status should show modified file");
     }
 
+    @Test
+    public void testGetStatus_followsWorkspaceEditsBetweenCalls() throws Exception
+    {
+        // The first call may scan; the later ones are served from EGit's index diff.
+        assertTrue(service.getStatus(TEST_PROJECT_NAME).contains("working tree clean"));
+
+        project.getFile("Notes.txt").create(new java.io.ByteArrayInputStream("notes\n".getBytes(StandardCharsets.UTF_8)), true, monitor);
+        String status = service.getStatus(TEST_PROJECT_NAME);
+        assertTrue(status.contains("Untracked files:") && status.contains("Notes.txt"), status);
+
+        project.getFile("Notes.txt").delete(true, monitor);
+        assertTrue(service.getStatus(TEST_PROJECT_NAME).contains("working tree clean"));
+    }
+
     @Test
     public void testGetLog_showsCommitHistory() throws Exception
     {
@@ -251,6 +265,48 @@ public class GitServicePDETest
         assertTrue(log.contains("Initial commit"), "Log should contain initial commit message");
     }
 
+    @Test
+    public void testGetLog_pagesWithCursor() throws Exception
+    {
+        for (String message : new String[] {"Second commit", "Third commit"})
+        {
+            git.commit().setAllowEmpty(true).setMessage(message)
+                    .setAuthor("AssistAI Tests", "assistai-tests@example.invalid")
+                    .setCommitter("AssistAI Tests", "assistai-tests@example.invalid")
+                    .call();
+        }
+
+        String first = service.getLog(TEST_PROJECT_NAME, 2, null, -1);
+        assertTrue(first.contains("Third commit") && first.contains("Second commit"), first);
+        assertFalse(first.contains("Initial commit"), first);
+        assertTrue(first.contains("cursor="), first);
+
+        String cursor = first.substring(first.indexOf("cursor=") + "cursor=".length(), first.lastIndexOf(')'));
+        String second = service.getLog(TEST_PROJECT_NAME, 2, cursor, -1);
+        assertTrue(second.contains("Initial commit"), second);
+        assertFalse(second.contains("cursor="), second);
+    }
+
+    @Test
+    public void testGetDiff_statAndBudgetPaging() throws Exception
+    {
+        Files.writeString(new File(repoDir, "README.md").toPath(), "# Test Project\nMore\n", StandardCharsets.UTF_8);
+        Files.writeString(new File(repoDir, "src/Hello.java").toPath(),
+                "package src;\npublic class Hello { String value = \"changed source\"; }\n", StandardCharsets.UTF_8);
+        project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+
+        String stat = service.getDiff(TEST_PROJECT_NAME, false, null, false, true, -1, null, GitService.DEFAULT_RENAME_LIMIT);
+        assertTrue(stat.contains("2 file(s) changed"), stat);
+        assertTrue(stat.contains("M README.md  +1 -0"), stat);
+        assertFalse(stat.contains("@@"), stat);
+
+        // A budget of one token holds one (cut) file per page.
+        String first = service.getDiff(TEST_PROJECT_NAME, false, null, false, false, 1, null, GitService.DEFAULT_RENAME_LIMIT);
+        assertTrue(first.contains("README.md") && first.contains("cursor=src/Hello.java"), first);
+        String second = service.getDiff(TEST_PROJECT_NAME, false, null, false, false, -1, "src/Hello.java", GitService.DEFAULT_RENAME_LIMIT);
+        assertTrue(second.contains("changed source") && !second.contains("README.md"), second);
+    }
+
     @Test
     public void testGetDiff_noChanges() throws Exception
     {
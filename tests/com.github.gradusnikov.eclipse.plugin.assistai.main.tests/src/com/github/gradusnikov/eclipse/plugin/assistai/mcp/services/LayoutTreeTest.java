@@ -0,0 +1,126 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.services.LayoutTree;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.LayoutTree.Page;
+
+public class LayoutTreeTest
+{
+    private static LayoutTree sample()
+    {
+        LayoutTree tree = new LayoutTree( "demo" );
+        tree.put( "pom.xml", false, false );
+        tree.put( "src/main/java/App.java", false, false );
+        tree.put( "src/main/resources/app.properties", false, false );
+        tree.put( "target", true, true );
+        tree.put( "target/classes/App.class", false, false );
+        return tree;
+    }
+
+    @Test
+    public void listsFoldersFirstAndKeepsDerivedFoldersShut()
+    {
+        Page page = sample().render( "", -1, Integer.MAX_VALUE, null );
+
+        assertEquals( "- demo/\n"
+                + "  - src/\n"
+                + "    - main/\n"
+                + "      - java/\n"
+                + "        - App.java\n"
+                + "      - resources/\n"
+                + "        - app.properties\n"
+                + "  - target/ (derived, not listed)\n"
+                + "  - pom.xml\n", page.text() );
+        assertNull( page.nextCursor() );
+    }
+
+    @Test
+    public void scopesAndLimitsDepth()
+    {
+        LayoutTree tree = sample();
+
+        assertEquals( "- main/\n  - java/ (1 items)\n  - resources/ (1 items)\n", tree.render( "src/main", 1, Integer.MAX_VALUE, null ).text() );
+        assertNull( tree.render( "src/test", -1, Integer.MAX_VALUE, null ) );
+    }
+
+    @Test
+    public void keepsCountsAcrossEdits()
+    {
+        LayoutTree tree = sample();
+        assertEquals( 8, tree.size() );
+
+        tree.remove( "src/main" );
+        tree.put( "target", true, true );
+        tree.put( "README.md", false, false );
+
+        assertEquals( 4, tree.size() );
+        assertEquals( "- demo/\n  - src/\n  - target/ (derived, not listed)\n  - README.md\n  - pom.xml\n", tree.render( "", -1, Integer.MAX_VALUE, null ).text() );
+    }
+
+    @Test
+    public void summarisesLargeFoldersBelowTheScope()
+    {
+        LayoutTree tree = new LayoutTree( "big" );
+        for ( int i = 0; i < 100; i++ )
+        {
+            tree.put( String.format( "gen/File%03d.%s", i, i % 4 == 0 ? "xml" : "java" ), false, false );
+        }
+
+        String text = tree.render( "", -1, Integer.MAX_VALUE, null ).text();
+        assertTrue( text.contains( "    - File029.java\n    - ... 70 more files (*.java 53, *.xml 17) (list with scopePath=gen)\n" ), text );
+        assertTrue( !text.contains( "File030" ) );
+
+        // Listing the folder itself shows everything.
+        assertTrue( tree.render( "gen", -1, Integer.MAX_VALUE, null ).text().contains( "File099.java" ) );
+    }
+
+    @Test
+    public void pagesCoverTheTreeOnce()
+    {
+        LayoutTree tree = new LayoutTree( "paged" );
+        for ( int d = 0; d < 10; d++ )
+        {
+            for ( int f = 0; f < 10; f++ )
+            {
+                tree.put( "dir" + d + "/File" + f + ".java", false, false );
+            }
+        }
+
+        List<String> files = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do
+        {
+            Page page = tree.render( "", -1, 300, cursor );
+            assertTrue( page.text().length() <= 300 + 200, page.text() );
+            String folder = null;
+            for ( String line : page.text().lines().toList() )
+            {
+                if ( line.endsWith( "/" ) )
+                {
+                    folder = line.strip();
+                }
+                else if ( line.endsWith( ".java" ) )
+                {
+                    files.add( folder + line.strip() );
+                }
+            }
+            cursor = page.nextCursor();
+            pages++;
+        }
+        while ( cursor != null );
+
+        assertEquals( 100, files.size() );
+        assertEquals( 100, files.stream().distinct().count() );
+        assertTrue( pages > 5, "pages " + pages );
+        assertNull( tree.render( "", -1, 300, "dir3/Missing.java" ) );
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.services.LineIndex;
+
+/**
+ * Search and reference results are located through the line index, so it has to
+ * agree with a plain line walk on every kind of line ending - and stay fast when a
+ * search hits the same large file thousands of times.
+ */
+public class LineIndexTest
+{
+    @Test
+    public void mapsOffsetsToLines()
+    {
+        LineIndex index = LineIndex.of( "first\nsecond\n\nfourth" );
+
+        assertEquals( 4, index.lineCount() );
+        assertEquals( 0, index.getLineOfOffset( 0 ) );
+        assertEquals( 0, index.getLineOfOffset( 5 ) );
+        assertEquals( 1, index.getLineOfOffset( 6 ) );
+        assertEquals( 2, index.getLineOfOffset( 13 ) );
+        assertEquals( 3, index.getLineOfOffset( 14 ) );
+        assertEquals( "second", index.getLine( 1 ) );
+        assertEquals( "", index.getLine( 2 ) );
+        assertEquals( "fourth", index.getLine( 3 ) );
+        assertEquals( 14, index.getLineOffset( 3 ) );
+    }
+
+    @Test
+    public void handlesWindowsAndOldMacLineEndings()
+    {
+        LineIndex index = LineIndex.of( "a\r\nb\rc\n" );
+
+        assertEquals( 4, index.lineCount() );
+        assertEquals( "a", index.getLine( 0 ) );
+        assertEquals( "b", index.getLine( 1 ) );
+        assertEquals( "c", index.getLine( 2 ) );
+        assertEquals( "", index.getLine( 3 ) );
+        // The \n of a \r\n still belongs to the first line.
+        assertEquals( 0, index.getLineOfOffset( 2 ) );
+        assertEquals( 1, index.getLineOfOffset( 3 ) );
+    }
+
+    @Test
+    public void clampsOffsetsOutsideTheText()
+    {
+        LineIndex index = LineIndex.of( "a\nb" );
+        assertEquals( 0, index.getLineOfOffset( -5 ) );
+        assertEquals( 1, index.getLineOfOffset( 100 ) );
+        assertEquals( 1, LineIndex.of( "" ).lineCount() );
+        assertEquals( 1, LineIndex.of( null ).lineCount() );
+    }
+
+    @Test
+    public void agreesWithALineWalkOnEveryOffset()
+    {
+        String text = generate( 500 );
+        LineIndex index = LineIndex.of( text );
+        for ( int offset = 0; offset < text.length(); offset++ )
+        {
+            assertEquals( walk( text, offset ), index.getLineOfOffset( offset ), "offset " + offset );
+        }
+    }
+
+    /**
+     * The case that motivated the index: many matches in one large file. Resolving
+     * every match by walking the file from the top is what the search used to do.
+     */
+    @Test
+    public void manyMatchesInALargeFileStayCheap()
+    {
+        String text = generate( 200_000 );
+        List<Integer> matches = new ArrayList<>();
+        for ( int offset = text.indexOf( "match" ); offset >= 0; offset = text.indexOf( "match", offset + 1 ) )
+        {
+            matches.add( offset );
+        }
+        assertTrue( matches.size() >= 2_000 );
+
+        long start = System.nanoTime();
+        LineIndex index = LineIndex.of( text );
+        int[] lines = new int[matches.size()];
+        for ( int i = 0; i < lines.length; i++ )
+        {
+            lines[i] = index.getLineOfOffset( matches.get( i ) );
+        }
+        long indexedMillis = ( System.nanoTime() - start ) / 1_000_000;
+
+        // The old way, on a sample only - all of it would take far too long.
+        int sample = 50;
+        start = System.nanoTime();
+        for ( int i = lines.length - sample; i < lines.length; i++ )
+        {
+            assertEquals( walk( text, matches.get( i ) ), lines[i] );
+        }
+        long walkedMillis = ( System.nanoTime() - start ) / 1_000_000;
+        System.out.printf( "line index: %d matches in %d ms, walking projected at %d ms%n", lines.length, indexedMillis,
+                walkedMillis * lines.length / sample );
+
+        for ( int i = 0; i < lines.length; i++ )
+        {
+            String line = index.getLine( lines[i] );
+            assertTrue( line.contains( "match" ), line );
+            assertEquals( matches.get( i ) - index.getLineOffset( lines[i] ), line.indexOf( "match" ) );
+        }
+    }
+
+    private static String generate( int lines )
+    {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < lines; i++ )
+        {
+            sb.append( "    line " ).append( i );
+            if ( i % 97 == 0 )
+            {
+                sb.append( " match" );
+            }
+            sb.append( i % 11 == 0 ? "\r\n" : i % 13 == 0 ? "\r" : "\n" );
+        }
+        return sb.toString();
+    }
+
+    /** 0-based line of an offset, by counting line ends from the start. */
+    private static int walk( String text, int offset )
+    {
+        int line = 0;
+        for ( int i = 0; i < offset; i++ )
+        {
+            char c = text.charAt( i );
+            if ( c == '\n' || ( c == '\r' && ( i + 1 >= text.length() || text.charAt( i + 1 ) != '\n' ) ) )
+            {
+                line++;
+            }
+        }
+        return line;
+    }
+}
@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.List;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -204,6 +205,30 @@ public class MavenServicePDETest {
         assertTrue(exception.getMessage().contains("does not exist"));
     }
     
+    @Test
+    public void testRunIncrementalMavenBuild_InvalidProject() {
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            service.runIncrementalMavenBuild("NonExistentProject", "install", List.of(), "", true, 0);
+        });
+
+        assertTrue(exception.getMessage().contains("does not exist"), exception.getMessage());
+    }
+
+    @Test
+    public void testRunIncrementalMavenBuild_NoChangedFiles() {
+        try {
+            String result = service.runIncrementalMavenBuild(TEST_PROJECT_NAME, "install", List.of(), "", true, 0);
+
+            assertTrue(result.contains("nothing was built"), result);
+        } catch (RuntimeException e) {
+            if (String.valueOf(e.getMessage()).contains("Could not find Maven configuration")) {
+                assumeTrue(false, "Skipping test as Maven configuration is not available");
+            } else {
+                throw e;
+            }
+        }
+    }
+
     @Test
     public void testRunMavenBuild_ValidProject() {
         try {
@@ -3,6 +3,7 @@ package com.github.gradusnikov.eclipse.plugin.assistai.mcp.services;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -101,6 +102,31 @@ public class ProjectServicePDETest {
         assertTrue(projects.contains("NoProjectFileTest"), "Project should appear in listProjects");
     }
 
+    @Test
+    public void testProjectLayoutFollowsChangesAndPages() throws Exception {
+        Path projectDir = tempDir.resolve("NoProjectFileTest");
+        Files.createDirectories(projectDir.resolve("src"));
+        for (int i = 0; i < 40; i++) {
+            Files.writeString(projectDir.resolve("src/File" + i + ".txt"), "content");
+        }
+        service.openProject(projectDir.toAbsolutePath().toString());
+        IProject project = root.getProject("NoProjectFileTest");
+
+        String layout = service.getProjectLayout("NoProjectFileTest");
+        assertTrue(layout.contains("- File39.txt"), layout);
+        assertFalse(layout.contains("Added.txt"), layout);
+
+        project.getFile("src/Added.txt").create(new ByteArrayInputStream(new byte[0]), true, monitor);
+        project.getFile("src/File0.txt").delete(true, monitor);
+        layout = service.getProjectLayout("NoProjectFileTest");
+        assertTrue(layout.contains("- Added.txt"), layout);
+        assertFalse(layout.contains("- File0.txt"), layout);
+
+        String page = service.getProjectLayout("NoProjectFileTest", "src", -1, 20, null);
+        assertTrue(page.contains("Continue with cursor=src/"), page);
+        assertTrue(service.getProjectLayout("NoProjectFileTest", "src", -1, 20, "src/Missing.txt").startsWith("Error:"));
+    }
+
     @Test
     public void testOpenProjectNonExistentDirectory() {
         String result = service.openProject("/non/existent/path/xyz123");
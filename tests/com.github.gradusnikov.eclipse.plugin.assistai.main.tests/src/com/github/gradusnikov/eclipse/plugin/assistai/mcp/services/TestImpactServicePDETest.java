@@ -0,0 +1,126 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.services.TestImpactService;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.TestImpactService.Selection;
+
+public class TestImpactServicePDETest
+{
+    private static final String TEST_PROJECT = "TestImpactTestProject";
+
+    private final NullProgressMonitor monitor = new NullProgressMonitor();
+    private final TestImpactService service = new TestImpactService();
+    private IJavaProject javaProject;
+    private IFolder packageFolder;
+
+    @BeforeEach
+    public void beforeEach() throws Exception
+    {
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(TEST_PROJECT);
+        if (project.exists())
+        {
+            project.delete(true, true, monitor);
+        }
+
+        IProjectDescription description = project.getWorkspace().newProjectDescription(TEST_PROJECT);
+        description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+        project.create(description, monitor);
+        project.open(monitor);
+
+        IFolder sourceFolder = project.getFolder("src");
+        sourceFolder.create(IResource.NONE, true, monitor);
+        packageFolder = sourceFolder.getFolder("sample");
+        packageFolder.create(IResource.NONE, true, monitor);
+
+        javaProject = JavaCore.create(project);
+        javaProject.setRawClasspath(
+                new org.eclipse.jdt.core.IClasspathEntry[] { JavaCore.newSourceEntry(sourceFolder.getFullPath()) },
+                project.getFullPath().append("bin"), monitor);
+
+        createSource("Money.java", "package sample; public class Money { int cents; }");
+        createSource("Wallet.java", "package sample; public class Wallet { Money balance; }");
+        createSource("Clock.java", "package sample; public class Clock { long now() { return 0; } }");
+        createSource("MoneyTest.java", "package sample; public class MoneyTest { Money money = new Money(); }");
+        createSource("WalletTest.java", "package sample; public class WalletTest { Wallet wallet = new Wallet(); }");
+        createSource("ClockTest.java", "package sample; public class ClockTest { Clock clock = new Clock(); }");
+        project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+    }
+
+    @AfterEach
+    public void afterEach() throws Exception
+    {
+        if (javaProject != null && javaProject.getProject().exists())
+        {
+            javaProject.getProject().delete(true, true, monitor);
+        }
+    }
+
+    @Test
+    public void testSelectsTestsReachingTheChangedType() throws Exception
+    {
+        Selection selection = service.select(javaProject, List.of("/" + TEST_PROJECT + "/src/sample/Money.java"));
+
+        assertEquals(List.of("sample.MoneyTest", "sample.WalletTest"), selection.tests().stream().sorted().toList());
+        assertEquals(List.of("sample.ClockTest"), selection.skipped());
+        assertEquals(3, selection.totalTests());
+        assertTrue(selection.complete());
+    }
+
+    @Test
+    public void testWalkBeyondTheDepthLimitIsIncomplete() throws Exception
+    {
+        createSource("Level1.java", "package sample; public class Level1 { Money money; }");
+        createSource("Level2.java", "package sample; public class Level2 { Level1 level; }");
+        createSource("Level3.java", "package sample; public class Level3 { Level2 level; }");
+        createSource("Level4.java", "package sample; public class Level4 { Level3 level; }");
+        createSource("Level5Test.java", "package sample; public class Level5Test { Level4 level; }");
+
+        Selection selection = service.select(javaProject, List.of("/" + TEST_PROJECT + "/src/sample/Money.java"));
+
+        assertFalse(selection.complete());
+        assertTrue(selection.skipped().contains("sample.Level5Test"));
+    }
+
+    @Test
+    public void testChangedTestSelectsOnlyItself() throws Exception
+    {
+        Selection selection = service.select(javaProject, List.of("/" + TEST_PROJECT + "/src/sample/ClockTest.java"));
+
+        assertEquals(List.of("sample.ClockTest"), selection.tests());
+    }
+
+    @Test
+    public void testNonJavaChangesSelectNothing() throws Exception
+    {
+        Selection selection = service.select(javaProject, List.of("/" + TEST_PROJECT + "/README.md"));
+
+        assertTrue(selection.tests().isEmpty());
+        assertTrue(selection.changedFiles().isEmpty());
+    }
+
+    private void createSource(String fileName, String source) throws Exception
+    {
+        IFile file = packageFolder.getFile(fileName);
+        file.create(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)), true, monitor);
+    }
+}
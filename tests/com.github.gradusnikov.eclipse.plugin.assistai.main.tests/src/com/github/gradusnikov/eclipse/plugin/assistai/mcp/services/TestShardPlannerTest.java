@@ -0,0 +1,87 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.services.TestShardPlanner;
+import com.github.gradusnikov.eclipse.assistai.mcp.services.TestShardPlanner.Shard;
+
+public class TestShardPlannerTest
+{
+    @Test
+    public void balancesByRecordedDuration()
+    {
+        Map<String, Double> seconds = Map.of( "A", 8.0, "B", 5.0, "C", 4.0, "D", 3.0, "E", 1.0 );
+
+        List<Shard> shards = TestShardPlanner.plan( List.of( "A", "B", "C", "D", "E" ), 2, seconds, Set.of() );
+
+        assertEquals( 2, shards.size() );
+        assertEquals( List.of( "A", "D" ), shards.get( 0 ).classes() );
+        assertEquals( List.of( "B", "C", "E" ), shards.get( 1 ).classes() );
+        assertEquals( 11.0, shards.get( 0 ).plannedSeconds() );
+        assertEquals( 10.0, shards.get( 1 ).plannedSeconds() );
+    }
+
+    @Test
+    public void runsFailedClassesFirstInTheirShard()
+    {
+        Map<String, Double> seconds = Map.of( "A", 8.0, "B", 5.0, "C", 1.0 );
+
+        List<Shard> shards = TestShardPlanner.plan( List.of( "A", "B", "C" ), 1, seconds, Set.of( "C" ) );
+
+        assertEquals( List.of( "C", "A", "B" ), shards.get( 0 ).classes() );
+    }
+
+    @Test
+    public void assumesTheAverageForClassesWithoutHistory()
+    {
+        Map<String, Double> seconds = Map.of( "A", 6.0, "B", 2.0 );
+
+        List<Shard> shards = TestShardPlanner.plan( List.of( "A", "B", "New" ), 2, seconds, Set.of() );
+
+        // "New" is planned at 4s, so it joins "B" rather than "A".
+        assertEquals( List.of( "A" ), shards.get( 0 ).classes() );
+        assertEquals( List.of( "New", "B" ), shards.get( 1 ).classes() );
+    }
+
+    @Test
+    public void neverMakesMoreShardsThanClasses()
+    {
+        assertEquals( 2, TestShardPlanner.plan( List.of( "A", "B" ), 8, Map.of(), Set.of() ).size() );
+        assertEquals( 1, TestShardPlanner.plan( List.of( "A" ), 0, Map.of(), Set.of() ).size() );
+    }
+
+    /**
+     * A suite of 400 classes with skewed durations split eight ways: the slowest
+     * shard stays close to an even split.
+     */
+    @Test
+    public void keepsTheSlowestShardNearAnEvenSplit()
+    {
+        List<String> classes = new ArrayList<>();
+        Map<String, Double> seconds = new HashMap<>();
+        double total = 0;
+        for ( int i = 0; i < 400; i++ )
+        {
+            String name = "T" + i;
+            double duration = i % 20 == 0 ? 30.0 : 0.5 + ( i % 7 );
+            classes.add( name );
+            seconds.put( name, duration );
+            total += duration;
+        }
+
+        List<Shard> shards = TestShardPlanner.plan( classes, 8, seconds, Set.of() );
+
+        double slowest = shards.stream().mapToDouble( Shard::plannedSeconds ).max().orElseThrow();
+        assertEquals( 400, shards.stream().mapToInt( s -> s.classes().size() ).sum() );
+        assertTrue( slowest < total / 8 * 1.05, "slowest shard " + slowest + "s of " + total + "s" );
+    }
+}
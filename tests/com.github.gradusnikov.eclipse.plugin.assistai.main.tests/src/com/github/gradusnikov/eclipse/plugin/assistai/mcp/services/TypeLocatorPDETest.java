@@ -0,0 +1,252 @@
+package com.github.gradusnikov.eclipse.plugin.assistai.mcp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.gradusnikov.eclipse.assistai.mcp.services.TypeLocator;
+
+/**
+ * Runs against a workspace of {@value #PROJECTS} small Java projects, the size
+ * where looping over every project for each lookup became noticeable.
+ */
+public class TypeLocatorPDETest
+{
+    private static final int PROJECTS = 80;
+
+    private static final String PREFIX = "TypeLocatorProject";
+
+    private static final NullProgressMonitor monitor = new NullProgressMonitor();
+
+    private TypeLocator locator;
+
+    @BeforeAll
+    public static void createProjects() throws Exception
+    {
+        IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        workspace.run(m -> {
+            for (int i = 0; i < PROJECTS; i++)
+            {
+                createProject(projectName(i), "p" + i, "Type" + i);
+            }
+        }, monitor);
+    }
+
+    @AfterAll
+    public static void deleteProjects() throws Exception
+    {
+        ResourcesPlugin.getWorkspace().run(m -> {
+            for (int i = 0; i < PROJECTS; i++)
+            {
+                IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName(i));
+                if (project.exists())
+                {
+                    project.delete(true, true, monitor);
+                }
+            }
+        }, monitor);
+    }
+
+    @BeforeEach
+    public void beforeEach()
+    {
+        locator = new TypeLocator();
+        locator.init();
+    }
+
+    @AfterEach
+    public void afterEach()
+    {
+        locator.dispose();
+    }
+
+    @Test
+    public void testFindsTypeAndOwningProject()
+    {
+        int last = PROJECTS - 1;
+        TypeLocator.Location location = locator.findSource("p" + last + ".Type" + last);
+
+        assertNotNull(location);
+        assertEquals("p" + last + ".Type" + last, location.type().getFullyQualifiedName());
+        assertEquals(projectName(last), location.project().getElementName());
+        assertNull(locator.find("does.not.exist.Missing"));
+    }
+
+    @Test
+    public void testFindAllListsEachResolutionOnce()
+    {
+        TypeLocator.Location source = locator.findSource("p5.Type5");
+
+        assertEquals(List.of(source.type()), locator.findAll("p5.Type5").toList());
+        assertTrue(locator.findAll("does.not.exist.Missing").toList().isEmpty());
+    }
+
+    @Test
+    public void testProjectListFollowsOpenAndClose() throws Exception
+    {
+        int before = locator.getJavaProjects().size();
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName(3));
+        project.close(monitor);
+        try
+        {
+            assertEquals(before - 1, locator.getJavaProjects().size());
+            assertNull(locator.find("p3.Type3"));
+        }
+        finally
+        {
+            project.open(monitor);
+        }
+        assertEquals(before, locator.getJavaProjects().size());
+        assertNotNull(locator.find("p3.Type3"));
+    }
+
+    @Test
+    public void testAddedAndDeletedTypesAreNoticed() throws Exception
+    {
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName(7));
+        assertNull(locator.find("p7.Added"));
+
+        IFile file = project.getFile("src/p7/Added.java");
+        file.create(new ByteArrayInputStream("package p7; public class Added {}".getBytes(StandardCharsets.UTF_8)), true, monitor);
+        assertNotNull(locator.find("p7.Added"), "a cached miss must not hide a new type");
+
+        file.delete(true, monitor);
+        assertNull(locator.find("p7.Added"), "a cached answer must not outlive its compilation unit");
+    }
+
+    /**
+     * Compares looping over the projects, as the services did, with the locator
+     * for the same lookups: a type in the last project and a name nothing resolves.
+     * The timings are only printed; what is asserted is that the locator gives the
+     * same answers from its cache, and drops them when a classpath changes.
+     */
+    @Test
+    public void benchmarkLookupsAcrossManyProjects() throws Exception
+    {
+        int last = PROJECTS - 1;
+        String[] names = { "p" + last + ".Type" + last, "does.not.exist.Missing" };
+        int rounds = 200;
+
+        // Warm up the Java model so both sides run against open projects.
+        for (String name : names)
+        {
+            loopOverProjects(name);
+            locator.find(name);
+        }
+
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++)
+        {
+            for (String name : names)
+            {
+                loopOverProjects(name);
+            }
+        }
+        long loopMicros = (System.nanoTime() - start) / 1_000 / rounds;
+
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++)
+        {
+            for (String name : names)
+            {
+                locator.find(name);
+            }
+        }
+        long cachedMicros = (System.nanoTime() - start) / 1_000 / rounds;
+
+        System.out.printf("type lookup over %d projects: loop %d us, locator %d us per pair of lookups%n", PROJECTS, loopMicros,
+                cachedMicros);
+
+        TypeLocator.Location location = locator.find(names[0]);
+        assertEquals(loopOverProjects(names[0]), location.type());
+        assertSame(location, locator.find(names[0]), "a repeated lookup must be answered from the cache");
+        assertNull(locator.find(names[1]));
+        assertFalse(locator.getJavaProjects().isEmpty());
+
+        IJavaProject project = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject(projectName(last)));
+        IClasspathEntry[] classpath = project.getRawClasspath();
+        project.setRawClasspath(new IClasspathEntry[] { classpath[1] }, project.getOutputLocation(), monitor);
+        try
+        {
+            assertNull(locator.find(names[0]), "a classpath change must drop the cached answer");
+        }
+        finally
+        {
+            project.setRawClasspath(classpath, project.getOutputLocation(), monitor);
+        }
+        assertNotNull(locator.find(names[0]));
+    }
+
+    private static IType loopOverProjects(String name) throws CoreException
+    {
+        for (IJavaProject project : TypeLocator.listJavaProjects())
+        {
+            IType type = project.findType(name);
+            if (type != null)
+            {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static String projectName(int i)
+    {
+        return PREFIX + i;
+    }
+
+    private static void createProject(String name, String packageName, String typeName) throws CoreException
+    {
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+        if (project.exists())
+        {
+            project.delete(true, true, monitor);
+        }
+        IProjectDescription description = project.getWorkspace().newProjectDescription(name);
+        description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+        project.create(description, monitor);
+        project.open(monitor);
+
+        IFolder sourceFolder = project.getFolder("src");
+        sourceFolder.create(IResource.NONE, true, monitor);
+        IJavaProject javaProject = JavaCore.create(project);
+        IClasspathEntry[] classpath = {
+                JavaCore.newSourceEntry(sourceFolder.getFullPath()),
+                JavaCore.newContainerEntry(new Path(JavaRuntime.JRE_CONTAINER))
+        };
+        javaProject.setRawClasspath(classpath, project.getFullPath().append("bin"), monitor);
+
+        IFolder packageFolder = sourceFolder.getFolder(packageName);
+        packageFolder.create(IResource.NONE, true, monitor);
+        packageFolder.getFile(typeName + ".java").create(new ByteArrayInputStream(
+                ("package " + packageName + "; public class " + typeName + " {}").getBytes(StandardCharsets.UTF_8)), true, monitor);
+    }
+}